@@ -4,42 +4,87 @@ import com.formdev.flatlaf.FlatLaf;
 import com.formdev.flatlaf.fonts.roboto.FlatRobotoFont;
 import com.formdev.flatlaf.themes.FlatMacDarkLaf;
 import com.samvitex.ui.vistas.VentanaLogin;
+import com.samvitex.utilidades.LineaTiempoArranque;
 import com.samvitex.utilidades.PantallaCarga;
+import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.Instant;
 
 @SpringBootApplication(scanBasePackages = "com.samvitex")
 @EnableJpaRepositories(basePackages = "com.samvitex.repositorios")
 @EntityScan(basePackages = "com.samvitex.modelos.entidades") // Corregido para que apunte al paquete correcto
 public class AplicacionPrincipal {
 
+    /**
+     * Propiedad de sistema de la ejecución de entrenamiento del perfil de Maven {@code arranque-rapido}:
+     * la aplicación arranca, carga las clases de la interfaz sin mostrarla y termina, para que la JVM
+     * guarde en el archivo CDS las clases que usa un arranque real.
+     */
+    private static final String ENTRENAMIENTO_CDS = "samvitex.entrenamiento-cds";
+
     public static void main(String[] args) {
         // Inicia el contexto de Spring en modo no-web
+        BufferingApplicationStartup registroArranque = LineaTiempoArranque.crearRegistroContexto();
         ConfigurableApplicationContext context = new SpringApplicationBuilder(AplicacionPrincipal.class)
-                .headless(false).run(args);
+                .headless(false)
+                .applicationStartup(registroArranque)
+                .run(args);
+        LineaTiempoArranque.registrarContexto(registroArranque);
 
         // Lanza la UI en el Event Dispatch Thread (EDT) de Swing
         EventQueue.invokeLater(() -> {
             // Configurar el tema visual global
+            Instant inicioTema = Instant.now();
             FlatRobotoFont.install();
             FlatLaf.registerCustomDefaultsSource("temas");
             FlatMacDarkLaf.setup();
             UIManager.put("defaultFont", new Font(FlatRobotoFont.FAMILY, Font.PLAIN, 13));
+            LineaTiempoArranque.registrar("Tema FlatLaf", inicioTema);
+
+            if (Boolean.getBoolean(ENTRENAMIENTO_CDS)) {
+                terminarEntrenamiento(context);
+                return;
+            }
 
             // Lanza la pantalla de carga, que a su vez obtendrá la VentanaLogin del contexto de Spring
             PantallaCarga pantallaCarga = new PantallaCarga();
             pantallaCarga.mostrarConAnimacion(() -> {
                 // Obtenemos el bean de VentanaLogin. Spring ya ha inyectado sus dependencias.
                 VentanaLogin ventanaLogin = context.getBean(VentanaLogin.class);
+                ventanaLogin.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowOpened(WindowEvent e) {
+                        LineaTiempoArranque.marcar("Ventana de inicio de sesión visible");
+                        LineaTiempoArranque.informar();
+                    }
+                });
                 pantallaCarga.dispose();
                 ventanaLogin.setVisible(true);
             });
+            LineaTiempoArranque.marcar("Primer cuadro (pantalla de carga)");
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Construye las ventanas de arranque sin mostrarlas, si hay pantalla, y cierra la aplicación.
+     * Al salir, la JVM escribe el archivo CDS indicado con {@code -XX:ArchiveClassesAtExit}.
+     */
+    private static void terminarEntrenamiento(ConfigurableApplicationContext context) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            new PantallaCarga().dispose();
+            context.getBean(VentanaLogin.class).dispose();
+        }
+        LineaTiempoArranque.informar();
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -2,6 +2,7 @@ package com.samvitex.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -12,9 +13,11 @@ import jakarta.annotation.PostConstruct;
 /**
  * Configuración central de beans para la aplicación.
  * Define beans para la seguridad y configura el comportamiento del contexto de seguridad.
+ * Habilita además las tareas programadas de mantenimiento (p. ej. las particiones del Kardex).
  */
 @Configuration
 @EnableMethodSecurity
+@EnableScheduling
 public class AppConfig {
 
     /**
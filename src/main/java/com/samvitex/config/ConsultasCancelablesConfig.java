@@ -0,0 +1,56 @@
+package com.samvitex.config;
+
+import com.samvitex.utilidades.jdbc.DataSourceCancelable;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Habilita la cancelación de consultas de las búsquedas de la interfaz.
+ * <p>
+ * Envuelve el {@link DataSource} en un {@link DataSourceCancelable}, que solo actúa dentro de un
+ * {@code AmbitoCancelacion} (las tareas de {@link EjecutorTareasUI#ejecutarUltima}), y le entrega
+ * al ejecutor el tiempo límite de cada tipo de tarea:
+ * {@code samvitex.consultas.tiempo-limite-ms.<tipo>}, o
+ * {@code samvitex.consultas.tiempo-limite-ms.por-defecto} si el tipo no tiene uno propio.
+ */
+@Configuration
+public class ConsultasCancelablesConfig {
+
+    private static final String PREFIJO_TIEMPO_LIMITE = "samvitex.consultas.tiempo-limite-ms.";
+
+    private final Environment environment;
+
+    public ConsultasCancelablesConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Es {@code static} para que Spring lo registre antes de crear el DataSource, sin instanciar
+     * esta configuración.
+     */
+    @Bean
+    public static BeanPostProcessor envolverDataSourceCancelable() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceCancelable)) {
+                    return new DataSourceCancelable(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @PostConstruct
+    public void configurarTiemposLimite() {
+        long porDefecto = environment.getProperty(PREFIJO_TIEMPO_LIMITE + "por-defecto", Long.class, 0L);
+        EjecutorTareasUI.configurarTiemposLimite(
+                tipo -> environment.getProperty(PREFIJO_TIEMPO_LIMITE + tipo, Long.class, porDefecto));
+    }
+}
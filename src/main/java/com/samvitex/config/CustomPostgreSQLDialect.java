@@ -2,12 +2,17 @@ package com.samvitex.config;
 
 import org.hibernate.boot.model.FunctionContributions;
 import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicType;
 import org.hibernate.type.StandardBasicTypes;
 
 /**
  * Dialecto de PostgreSQL personalizado que extiende el dialecto estándar de Hibernate
  * para registrar funciones nativas adicionales como 'unaccent'.
  * <p>
+ * Tanto {@code unaccent} como {@code f_unaccent} se traducen a la función SQL {@code f_unaccent},
+ * el envoltorio IMMUTABLE creado en la migración V5. Es la única forma de que las búsquedas
+ * coincidan con los índices trigram de expresión, que no pueden declararse sobre {@code unaccent()}.
+ * <p>
  * Al extender PostgreSQLDialect, heredamos todo el comportamiento estándar para PostgreSQL
  * y solo añadimos nuestra funcionalidad específica.
  */
@@ -23,11 +28,12 @@ public class CustomPostgreSQLDialect extends PostgreSQLDialect {
     public void initializeFunctionRegistry(FunctionContributions functionContributions) {
         super.initializeFunctionRegistry(functionContributions);
 
+        BasicType<String> tipoString = functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                .getRegisteredType(StandardBasicTypes.STRING.getName());
+
+        functionContributions.getFunctionRegistry()
+                .registerPattern("f_unaccent", "f_unaccent(?1)", tipoString);
         functionContributions.getFunctionRegistry()
-                .registerPattern(
-                        "unaccent",
-                        "unaccent(?1)",
-                        functionContributions.getTypeConfiguration().getBasicTypeRegistry().getRegisteredType(StandardBasicTypes.STRING.getName())
-                );
+                .registerPattern("unaccent", "f_unaccent(?1)", tipoString);
     }
 }
\ No newline at end of file
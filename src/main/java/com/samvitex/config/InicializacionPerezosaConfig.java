@@ -0,0 +1,84 @@
+package com.samvitex.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Difiere hasta su primer uso la creación de los beans de interfaz y de reportes, que no hacen
+ * falta para mostrar la ventana de inicio de sesión.
+ * <p>
+ * Se activa con {@code samvitex.arranque.inicializacion-perezosa=true} (lo hace el perfil de Maven
+ * {@code arranque-rapido}). Los beans afectados son los de las clases que empiezan con alguno de los
+ * prefijos de {@code samvitex.arranque.perezosos}. A diferencia de
+ * {@code spring.main.lazy-initialization}, no toca el resto del contexto, y deja fuera los beans
+ * que necesitan existir desde el arranque: los que tienen tareas {@code @Scheduled}, escuchan
+ * eventos o tienen ciclo de vida propio.
+ */
+@Configuration
+@ConditionalOnProperty(name = "samvitex.arranque.inicializacion-perezosa", havingValue = "true")
+public class InicializacionPerezosaConfig {
+
+    private static final Logger LOGGER = Logger.getLogger(InicializacionPerezosaConfig.class.getName());
+
+    /**
+     * Es {@code static} para que Spring lo ejecute antes de crear cualquier bean, sin instanciar
+     * esta configuración.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor marcarBeansPerezosos(Environment environment) {
+        String[] prefijos = environment.getProperty("samvitex.arranque.perezosos", String[].class, new String[0]);
+        return beanFactory -> {
+            int marcados = 0;
+            for (String nombre : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definicion = beanFactory.getBeanDefinition(nombre);
+                String clase = definicion.getBeanClassName();
+                if (clase == null || !definicion.isSingleton() || definicion.isLazyInit()
+                        || Arrays.stream(prefijos).noneMatch(clase::startsWith)) {
+                    continue;
+                }
+                // Respeta un @Lazy(false) explícito.
+                if (definicion instanceof AbstractBeanDefinition abstracta && Boolean.FALSE.equals(abstracta.getLazyInit())) {
+                    continue;
+                }
+                if (requiereArranque(clase, beanFactory.getBeanClassLoader())) {
+                    continue;
+                }
+                definicion.setLazyInit(true);
+                marcados++;
+            }
+            LOGGER.fine("Beans con inicialización perezosa: " + marcados + ".");
+        };
+    }
+
+    private static boolean requiereArranque(String nombreClase, ClassLoader classLoader) {
+        Class<?> clase = ClassUtils.resolveClassName(nombreClase, classLoader);
+        if (ApplicationListener.class.isAssignableFrom(clase) || Lifecycle.class.isAssignableFrom(clase)) {
+            return true;
+        }
+        for (Method metodo : ReflectionUtils.getUniqueDeclaredMethods(clase)) {
+            if (AnnotatedElementUtils.hasAnnotation(metodo, Scheduled.class)
+                    || AnnotatedElementUtils.hasAnnotation(metodo, Schedules.class)
+                    || AnnotatedElementUtils.hasAnnotation(metodo, EventListener.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,63 @@
+package com.samvitex.config;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationInfoService;
+import org.flywaydb.core.api.MigrationState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decide qué terminales migran el esquema de la base de datos al arrancar.
+ * <p>
+ * Con {@code samvitex.flyway.migrador=true} (el valor por defecto) la terminal aplica las
+ * migraciones pendientes como siempre. En las terminales de caja se configura en {@code false}:
+ * no migran ni validan durante el arranque, y solo comparan el esquema con las migraciones de la
+ * aplicación en segundo plano, dejando una advertencia en el log si no coinciden.
+ */
+@Configuration
+public class MigracionConfig {
+
+    private static final Logger LOGGER = Logger.getLogger(MigracionConfig.class.getName());
+
+    @Bean
+    public FlywayMigrationStrategy estrategiaMigracion(@Value("${samvitex.flyway.migrador:true}") boolean migrador) {
+        return flyway -> {
+            if (migrador) {
+                flyway.migrate();
+                return;
+            }
+            LOGGER.info("Terminal no migradora: se omiten las migraciones de Flyway al arrancar.");
+            Thread hilo = new Thread(() -> verificarEsquema(flyway), "verificacion-esquema");
+            hilo.setDaemon(true);
+            hilo.start();
+        };
+    }
+
+    private static void verificarEsquema(Flyway flyway) {
+        try {
+            MigrationInfoService info = flyway.info();
+            MigrationInfo[] pendientes = info.pending();
+            if (pendientes.length > 0) {
+                LOGGER.warning(String.format("La base de datos tiene %d migraciones pendientes (hasta la versión %s). "
+                                + "Arranque una terminal migradora antes de usar las funciones nuevas.",
+                        pendientes.length, pendientes[pendientes.length - 1].getVersion()));
+            }
+            long futuras = Arrays.stream(info.applied())
+                    .filter(m -> m.getState() == MigrationState.FUTURE_SUCCESS || m.getState() == MigrationState.FUTURE_FAILED)
+                    .count();
+            if (futuras > 0) {
+                LOGGER.warning(String.format("El esquema de la base de datos es más nuevo que esta versión de la aplicación "
+                        + "(%d migraciones desconocidas). Actualice la terminal.", futuras));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "No se pudo verificar la versión del esquema de la base de datos.", e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.samvitex.config;
+
+import com.samvitex.servicios.ServicioResumenStock;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/**
+ * Comando de mantenimiento que reconstruye la tabla {@code producto_stock_resumen}
+ * al iniciar la aplicación.
+ * <p>
+ * Solo se activa cuando se arranca con {@code --samvitex.stock-resumen.reconstruir=true},
+ * por ejemplo después de una corrección manual de stock directamente en la base de datos.
+ */
+@Component
+@ConditionalOnProperty(name = "samvitex.stock-resumen.reconstruir", havingValue = "true")
+public class ReconstruccionResumenStockRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(ReconstruccionResumenStockRunner.class.getName());
+
+    private final ServicioResumenStock servicioResumenStock;
+
+    public ReconstruccionResumenStockRunner(ServicioResumenStock servicioResumenStock) {
+        this.servicioResumenStock = servicioResumenStock;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int filas = servicioResumenStock.reconstruirSinAutorizacion();
+        LOGGER.info("Resumen de stock reconstruido: " + filas + " productos.");
+    }
+}
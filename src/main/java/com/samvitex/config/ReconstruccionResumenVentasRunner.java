@@ -0,0 +1,38 @@
+package com.samvitex.config;
+
+import com.samvitex.servicios.ServicioResumenVentas;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.logging.Logger;
+
+/**
+ * Comando de mantenimiento que reconstruye la tabla {@code ventas_resumen_diario}
+ * al iniciar la aplicación.
+ * <p>
+ * Solo se activa cuando se arranca con {@code --samvitex.ventas-resumen.reconstruir=true},
+ * por ejemplo después de cambiar {@code samvitex.reportes.zona-horaria} o de corregir ventas
+ * directamente en la base de datos.
+ */
+@Component
+@ConditionalOnProperty(name = "samvitex.ventas-resumen.reconstruir", havingValue = "true")
+public class ReconstruccionResumenVentasRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = Logger.getLogger(ReconstruccionResumenVentasRunner.class.getName());
+
+    private final ServicioResumenVentas servicioResumenVentas;
+
+    public ReconstruccionResumenVentasRunner(ServicioResumenVentas servicioResumenVentas) {
+        this.servicioResumenVentas = servicioResumenVentas;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long inicio = System.nanoTime();
+        int filas = servicioResumenVentas.reconstruirSinAutorizacion();
+        LOGGER.info("Resumen diario de ventas reconstruido: " + filas + " filas en "
+                + (System.nanoTime() - inicio) / 1_000_000 + " ms.");
+    }
+}
@@ -0,0 +1,12 @@
+package com.samvitex.eventos;
+
+import com.samvitex.modelos.dto.VariacionResumenStock;
+
+/**
+ * Se publica tras el commit de una compra.
+ *
+ * @param compraId El ID de la compra.
+ * @param variacionStock El cambio en los totales del resumen de stock.
+ */
+public record EventoCompraRegistrada(Long compraId, VariacionResumenStock variacionStock) implements EventoInventario {
+}
@@ -0,0 +1,16 @@
+package com.samvitex.eventos;
+
+import com.samvitex.modelos.dto.VariacionResumenStock;
+
+/**
+ * Evento de dominio de una operación que modificó el stock. Se publica después del commit de
+ * la transacción que la registró (ver {@link com.samvitex.servicios.ServicioEventos}), por lo
+ * que sus datos ya son visibles para cualquier consulta.
+ */
+public interface EventoInventario {
+
+    /**
+     * @return El cambio que la operación produjo en los totales del resumen de stock.
+     */
+    VariacionResumenStock variacionStock();
+}
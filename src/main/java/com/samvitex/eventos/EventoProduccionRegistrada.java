@@ -0,0 +1,16 @@
+package com.samvitex.eventos;
+
+import com.samvitex.modelos.dto.VariacionResumenStock;
+import com.samvitex.modelos.enums.EstadoProduccion;
+
+/**
+ * Se publica tras el commit del inicio (salida de insumos) o la finalización (ingreso de
+ * productos terminados) de una orden de producción.
+ *
+ * @param ordenId El ID de la orden de producción.
+ * @param estado El estado al que pasó la orden.
+ * @param variacionStock El cambio en los totales del resumen de stock.
+ */
+public record EventoProduccionRegistrada(Long ordenId, EstadoProduccion estado,
+                                         VariacionResumenStock variacionStock) implements EventoInventario {
+}
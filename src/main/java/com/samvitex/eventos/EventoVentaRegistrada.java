@@ -0,0 +1,18 @@
+package com.samvitex.eventos;
+
+import com.samvitex.modelos.dto.VariacionResumenStock;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Se publica tras el commit de una venta.
+ *
+ * @param ventaId El ID de la venta.
+ * @param fechaVenta La fecha de registro de la venta.
+ * @param total El total de la venta, impuestos incluidos.
+ * @param variacionStock El cambio en los totales del resumen de stock.
+ */
+public record EventoVentaRegistrada(Long ventaId, Instant fechaVenta, BigDecimal total,
+                                    VariacionResumenStock variacionStock) implements EventoInventario {
+}
@@ -0,0 +1,15 @@
+package com.samvitex.modelos.dto;
+
+import java.util.List;
+
+/**
+ * Un bloque de la grilla de inventario, cargado a partir de un corte conocido.
+ *
+ * @param productos Los productos del bloque, en orden de nombre; menos de los pedidos (o ninguno)
+ *                  si el filtro termina antes.
+ * @param saltados Los productos que se saltaron entre el corte y el inicio del bloque. Es el salto
+ *                 pedido, salvo que el filtro terminara antes: entonces son los que quedaban, y con
+ *                 ellos se conoce el total exacto.
+ */
+public record BloqueProductos(List<ProductoInventarioDTO> productos, int saltados) {
+}
@@ -0,0 +1,12 @@
+package com.samvitex.modelos.dto;
+
+import java.time.Instant;
+
+/**
+ * Posición dentro del Kardex de un producto, en el orden (fecha, id) del reporte.
+ * Una página del Kardex se lee desde su cursor inicial por keyset, sin OFFSET.
+ *
+ * @param fechaMovimiento La fecha del primer movimiento de la página.
+ * @param id El ID de ese movimiento.
+ */
+public record CursorKardex(Instant fechaMovimiento, Long id) {}
@@ -0,0 +1,12 @@
+package com.samvitex.modelos.dto;
+
+/**
+ * Posición por keyset en la grilla de inventario, ordenada por (nombre, id). En lugar de un
+ * desplazamiento (OFFSET), indica el último producto visto; la carga continúa con los
+ * productos posteriores.
+ *
+ * @param nombre El nombre del producto de referencia.
+ * @param id El ID del producto de referencia (desempata productos con el mismo nombre).
+ */
+public record CursorProducto(String nombre, Integer id) {
+}
@@ -0,0 +1,12 @@
+package com.samvitex.modelos.dto;
+
+/**
+ * Curva de participación acumulada de una clasificación ABC y el tamaño de cada clase.
+ *
+ * @param participacionAcumulada Participación en el total (0 a 1) de los productos que están en
+ *                               el primer {@code i}% del ranking, para {@code i} de 0 a 100.
+ * @param productosPorClase El número de productos de las clases A, B y C.
+ * @param participacionPorClase La participación en el total (0 a 1) de las clases A, B y C.
+ */
+public record CurvaParetoDTO(double[] participacionAcumulada, int[] productosPorClase, double[] participacionPorClase) {
+}
@@ -13,7 +13,7 @@ import java.math.BigDecimal;
  *
  * @param totalProductos Cantidad total de productos distintos registrados en el inventario.
  * @param productosConStockBajo Cantidad de productos cuyo stock actual es menor o igual a su stock mínimo definido.
- * @param valorTotalInventario Suma monetaria total del inventario, calculada como (cantidad * precio_costo) de todos los productos.
+ * @param valorTotalInventario Suma monetaria total del inventario, calculada como (cantidad * costo promedio ponderado) de cada producto en cada almacén.
  * @param ventasHoy Suma total de las ventas (monto total) realizadas en el día actual (desde las 00:00 hasta ahora).
  */
 public record DashboardStatsDTO(
@@ -0,0 +1,32 @@
+package com.samvitex.modelos.dto;
+
+import com.samvitex.modelos.enums.ClaseAbc;
+
+import java.math.BigDecimal;
+
+/**
+ * Un producto del reporte de clasificación ABC, con su clase según ingresos y según número de
+ * movimientos de inventario en el período.
+ *
+ * @param productoId El ID del producto.
+ * @param sku El SKU del producto.
+ * @param nombre El nombre del producto.
+ * @param ingresos Los ingresos por ventas del producto en el período.
+ * @param claseIngresos La clase del producto según ingresos.
+ * @param acumuladoIngresos La participación acumulada en los ingresos hasta este producto inclusive (0 a 1).
+ * @param movimientos El número de movimientos de inventario del producto en el período.
+ * @param claseMovimientos La clase del producto según movimientos.
+ * @param acumuladoMovimientos La participación acumulada en los movimientos hasta este producto inclusive (0 a 1).
+ */
+public record FilaAbcDTO(
+        Integer productoId,
+        String sku,
+        String nombre,
+        BigDecimal ingresos,
+        ClaseAbc claseIngresos,
+        double acumuladoIngresos,
+        long movimientos,
+        ClaseAbc claseMovimientos,
+        double acumuladoMovimientos
+) {
+}
@@ -0,0 +1,28 @@
+package com.samvitex.modelos.dto;
+
+import com.samvitex.modelos.enums.TipoMovimiento;
+
+import java.time.Instant;
+
+/**
+ * Proyección ligera de una fila del reporte de Kardex. Se construye directamente en la consulta
+ * JPQL, sin cargar la entidad {@link com.samvitex.modelos.entidades.MovimientoInventario} ni su
+ * usuario, para que recorrer períodos largos no llene el contexto de persistencia.
+ *
+ * @param id El ID del movimiento (desempata el orden cronológico).
+ * @param fechaMovimiento La fecha y hora del movimiento.
+ * @param tipo El tipo de movimiento.
+ * @param usuario El nombre de usuario que lo registró.
+ * @param cantidadMovida Las unidades movidas (negativas para salidas).
+ * @param stockAnterior El stock antes del movimiento.
+ * @param stockNuevo El stock después del movimiento.
+ */
+public record FilaKardexDTO(
+        Long id,
+        Instant fechaMovimiento,
+        TipoMovimiento tipo,
+        String usuario,
+        Integer cantidadMovida,
+        Integer stockAnterior,
+        Integer stockNuevo
+) {}
@@ -0,0 +1,24 @@
+package com.samvitex.modelos.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Las sugerencias de compra de un proveedor para un almacén: el contenido de una compra.
+ *
+ * @param proveedorId El ID del proveedor, o {@code null} para los productos sin proveedor activo.
+ * @param nombreProveedor El nombre del proveedor, o {@code null}.
+ * @param almacenId El ID del almacén que recibiría la compra.
+ * @param nombreAlmacen El nombre del almacén.
+ * @param lineas Los productos a comprar, por nombre.
+ * @param totalEstimado El costo estimado de la compra, a los costos de referencia.
+ */
+public record GrupoSugerenciasDTO(
+        Integer proveedorId,
+        String nombreProveedor,
+        Integer almacenId,
+        String nombreAlmacen,
+        List<SugerenciaCompraDTO> lineas,
+        BigDecimal totalEstimado
+) {
+}
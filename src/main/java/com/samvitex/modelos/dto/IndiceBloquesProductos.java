@@ -0,0 +1,37 @@
+package com.samvitex.modelos.dto;
+
+/**
+ * Dimensiones de la grilla de inventario dividida en bloques de tamaño fijo, con las que la tabla
+ * virtual se muestra antes de cargar los bloques.
+ * <p>
+ * El total suele ser una estimación del planificador: contar exactamente obligaría a recorrer
+ * todos los productos del filtro. La tabla lo corrige al cargar el bloque en que termina el filtro.
+ *
+ * @param totalFilas El número de productos del filtro, exacto o estimado.
+ * @param tamanoBloque El número de productos por bloque.
+ * @param totalExacto {@code true} si {@code totalFilas} es exacto.
+ */
+public record IndiceBloquesProductos(int totalFilas, int tamanoBloque, boolean totalExacto) {
+
+    public static IndiceBloquesProductos vacio(int tamanoBloque) {
+        return new IndiceBloquesProductos(0, tamanoBloque, true);
+    }
+
+    public int totalBloques() {
+        return (totalFilas + tamanoBloque - 1) / tamanoBloque;
+    }
+
+    /**
+     * @return El número de filas del bloque (el último puede estar incompleto).
+     */
+    public int filasBloque(int bloque) {
+        return Math.min(tamanoBloque, totalFilas - bloque * tamanoBloque);
+    }
+
+    /**
+     * @return Las mismas dimensiones con otro total.
+     */
+    public IndiceBloquesProductos conTotal(int totalFilas, boolean totalExacto) {
+        return new IndiceBloquesProductos(totalFilas, tamanoBloque, totalExacto);
+    }
+}
@@ -0,0 +1,24 @@
+package com.samvitex.modelos.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de indexar un reporte de Kardex: el total de filas y el cursor inicial de cada
+ * página. Ocupa una entrada por página en lugar de una por movimiento, lo que permite mostrar
+ * períodos arbitrariamente largos y saltar a cualquier página con una consulta por keyset.
+ *
+ * @param saldoInicial El stock total del producto (todos los almacenes) al inicio del período.
+ * @param totalFilas El número total de movimientos del reporte.
+ * @param tamanoPagina El número de filas por página.
+ * @param iniciosPagina El cursor del primer movimiento de cada página, en orden.
+ */
+public record IndicePaginasKardex(int saldoInicial, int totalFilas, int tamanoPagina, List<CursorKardex> iniciosPagina) {
+
+    public static IndicePaginasKardex vacio(int tamanoPagina) {
+        return new IndicePaginasKardex(0, 0, tamanoPagina, List.of());
+    }
+
+    public int totalPaginas() {
+        return iniciosPagina.size();
+    }
+}
@@ -0,0 +1,11 @@
+package com.samvitex.modelos.dto;
+
+/**
+ * DTO con los campos de un producto que alimentan el índice de búsqueda en memoria.
+ */
+public record ProductoIndexableDTO(
+        Integer id,
+        String nombre,
+        String sku,
+        String categoria
+) {}
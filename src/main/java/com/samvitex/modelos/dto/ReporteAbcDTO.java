@@ -0,0 +1,13 @@
+package com.samvitex.modelos.dto;
+
+import java.util.List;
+
+/**
+ * Resultado del reporte de clasificación ABC de un período.
+ *
+ * @param filas Un producto activo por fila, ordenados de mayor a menor ingreso.
+ * @param curvaIngresos La curva de Pareto de la clasificación por ingresos.
+ * @param curvaMovimientos La curva de Pareto de la clasificación por número de movimientos.
+ */
+public record ReporteAbcDTO(List<FilaAbcDTO> filas, CurvaParetoDTO curvaIngresos, CurvaParetoDTO curvaMovimientos) {
+}
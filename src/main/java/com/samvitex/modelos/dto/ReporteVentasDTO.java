@@ -19,8 +19,8 @@ import java.math.BigDecimal;
  * @param nombreProducto El nombre del producto vendido.
  * @param totalUnidadesVendidas La suma total de unidades vendidas de este producto en el período.
  * @param totalIngresos La suma total de los subtotales de línea para este producto (ingresos brutos).
- * @param gananciaBrutaEstimada Una estimación de la ganancia bruta, calculada como
- *                              (Total Ingresos - (Total Unidades * Costo del Producto)).
+ * @param gananciaBrutaEstimada La ganancia bruta, calculada como (Total Ingresos - Costo de lo
+ *                              vendido), con el costo promedio al que salió cada línea del almacén.
  */
 public record ReporteVentasDTO(
         String nombreProducto,
@@ -0,0 +1,30 @@
+package com.samvitex.modelos.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Un producto que conviene reponer en un almacén: su stock actual llegó al punto de reorden
+ * calculado a partir del pronóstico de demanda.
+ *
+ * @param productoId El ID del producto.
+ * @param sku El SKU del producto.
+ * @param nombreProducto El nombre del producto.
+ * @param stockActual El stock actual del producto en el almacén.
+ * @param puntoReorden El stock a partir del cual conviene reponer.
+ * @param stockObjetivo El stock hasta el que se repone.
+ * @param demandaDiaria Las unidades que se espera vender por día en el almacén.
+ * @param cantidadSugerida Las unidades a comprar: el stock objetivo menos el stock actual.
+ * @param costoUnitario El costo de compra de referencia del producto.
+ */
+public record SugerenciaCompraDTO(
+        Integer productoId,
+        String sku,
+        String nombreProducto,
+        int stockActual,
+        int puntoReorden,
+        int stockObjetivo,
+        BigDecimal demandaDiaria,
+        int cantidadSugerida,
+        BigDecimal costoUnitario
+) {
+}
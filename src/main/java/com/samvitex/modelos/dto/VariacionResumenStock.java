@@ -0,0 +1,20 @@
+package com.samvitex.modelos.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Cambio que una operación produjo en los totales de {@code producto_stock_resumen} que muestra
+ * el Dashboard: el valor del inventario activo y el número de productos con stock bajo.
+ *
+ * @param valorInventario La variación del valor del inventario de los productos activos.
+ * @param productosConStockBajo La variación del número de productos activos con stock bajo.
+ */
+public record VariacionResumenStock(BigDecimal valorInventario, long productosConStockBajo) {
+
+    public static final VariacionResumenStock NINGUNA = new VariacionResumenStock(BigDecimal.ZERO, 0);
+
+    public VariacionResumenStock sumar(VariacionResumenStock otra) {
+        return new VariacionResumenStock(valorInventario.add(otra.valorInventario()),
+                productosConStockBajo + otra.productosConStockBajo());
+    }
+}
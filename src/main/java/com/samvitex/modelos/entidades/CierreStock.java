@@ -0,0 +1,65 @@
+package com.samvitex.modelos.entidades;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Registro de un cierre de período de stock.
+ *
+ * <p>Cada cierre tiene asociadas, en la tabla 'stock_cierre', las cantidades y valores de
+ * todos los pares producto × almacén con stock en el instante {@link #fechaCierre}. Las genera
+ * {@link com.samvitex.servicios.ServicioCierreStock}; no se editan desde la aplicación.</p>
+ *
+ * Mapea a la tabla 'cierres_stock' en la base de datos.
+ */
+@Entity
+@Table(name = "cierres_stock")
+public class CierreStock {
+
+    /**
+     * Instante del cierre. La instantánea refleja todos los movimientos anteriores a él.
+     */
+    @Id
+    @Column(name = "fecha_cierre")
+    private Instant fechaCierre;
+
+    @Column(name = "fecha_generacion", nullable = false)
+    private Instant fechaGeneracion;
+
+    /**
+     * Número de pares producto × almacén guardados en la instantánea.
+     */
+    @Column(nullable = false)
+    private Integer filas;
+
+    /**
+     * Si la instantánea guarda el costo unitario y el valor de cada fila. Solo se valoran los
+     * cierres generados poco después de su fecha.
+     */
+    @Column(nullable = false)
+    private boolean valorado;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public CierreStock() {}
+
+    // --- Getters ---
+
+    public Instant getFechaCierre() {
+        return fechaCierre;
+    }
+
+    public Instant getFechaGeneracion() {
+        return fechaGeneracion;
+    }
+
+    public Integer getFilas() {
+        return filas;
+    }
+
+    public boolean isValorado() {
+        return valorado;
+    }
+}
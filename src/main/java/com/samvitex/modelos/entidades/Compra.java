@@ -39,7 +39,8 @@ public class Compra {
      * Identificador único de la compra, generado automáticamente.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compras_seq")
+    @SequenceGenerator(name = "compras_seq", sequenceName = "compras_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -98,10 +99,10 @@ public class Compra {
     /**
      * Conjunto de movimientos de inventario de entrada generados por esta compra.
      * Esta es la relación clave que garantiza la trazabilidad del stock desde su origen.
-     * La Compra es la propietaria de estos movimientos.
+     * El lado propietario es {@link MovimientoInventario#getCompra()}, de modo que la FK
+     * 'compra_id' se escribe en el mismo INSERT del movimiento.
      */
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
-    @JoinColumn(name = "compra_id") // Esta es la FK en la tabla 'movimientos_inventario'.
+    @OneToMany(mappedBy = "compra", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<MovimientoInventario> movimientosGenerados = new HashSet<>();
 
     /**
@@ -130,6 +131,7 @@ public class Compra {
      */
     public void addMovimiento(MovimientoInventario movimiento) {
         movimientosGenerados.add(movimiento);
+        movimiento.setCompra(this);
     }
 
     // --- Getters y Setters Estándar ---
@@ -23,7 +23,8 @@ public class CompraDetalle {
      * Identificador único de la línea de detalle de la compra.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "compras_detalle_seq")
+    @SequenceGenerator(name = "compras_detalle_seq", sequenceName = "compras_detalle_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -1,6 +1,7 @@
 package com.samvitex.modelos.entidades;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
@@ -23,6 +24,10 @@ public class InventarioPorAlmacen {
     @Column(nullable = false)
     private Integer cantidad;
 
+    // Costo promedio ponderado de las unidades en este almacén. Lo mantiene ServicioStock en cada ingreso.
+    @Column(name = "costo_promedio", nullable = false, precision = 14, scale = 4)
+    private BigDecimal costoPromedio = BigDecimal.ZERO;
+
     // Campos de auditoría
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_modificacion_id")
@@ -67,6 +72,14 @@ public class InventarioPorAlmacen {
         this.cantidad = cantidad;
     }
 
+    public BigDecimal getCostoPromedio() {
+        return costoPromedio;
+    }
+
+    public void setCostoPromedio(BigDecimal costoPromedio) {
+        this.costoPromedio = costoPromedio;
+    }
+
     public Usuario getUsuarioModificacion() {
         return usuarioModificacion;
     }
@@ -2,7 +2,6 @@ package com.samvitex.modelos.entidades;
 
 import com.samvitex.modelos.enums.TipoMovimiento;
 import jakarta.persistence.*;
-import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -18,7 +17,8 @@ import java.time.Instant;
  * ser de "solo inserción" (append-only); los registros no deben modificarse ni eliminarse
  * una vez creados para mantener un historial fidedigno.</p>
  *
- * Mapea a la tabla 'movimientos_inventario' en la base de datos.
+ * Mapea a la tabla 'movimientos_inventario' en la base de datos, particionada por mes sobre
+ * 'fecha_movimiento'; su clave primaria en la base de datos es (id, fecha_movimiento).
  */
 @Entity
 @Table(name = "movimientos_inventario")
@@ -28,7 +28,8 @@ public class MovimientoInventario {
      * Identificador único del movimiento.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_inventario_seq")
+    @SequenceGenerator(name = "movimientos_inventario_seq", sequenceName = "movimientos_inventario_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -87,10 +88,13 @@ public class MovimientoInventario {
     private String notas;
 
     /**
-     * Fecha y hora en que se registró el movimiento.
+     * Fecha y hora en que se registró el movimiento. La asigna la base de datos al insertar la
+     * fila ({@code DEFAULT clock_timestamp()}, V13), con el reloj del servidor y no el de cada
+     * terminal, para que el orden de los movimientos de un mismo producto × almacén sea el de
+     * sus cambios de stock. No se lee de vuelta tras el insert (para no romper los lotes JDBC), por
+     * lo que es {@code null} en un movimiento recién creado hasta que se vuelve a cargar.
      */
-    @CreationTimestamp
-    @Column(name = "fecha_movimiento", nullable = false, updatable = false)
+    @Column(name = "fecha_movimiento", nullable = false, insertable = false, updatable = false)
     private Instant fechaMovimiento;
 
     // Las siguientes dos relaciones son opcionales y establecen el vínculo directo
@@ -113,6 +117,14 @@ public class MovimientoInventario {
     @JoinColumn(name = "compra_id")
     private Compra compra;
 
+    /**
+     * La orden de producción que originó este movimiento. Será {@code null} si el
+     * movimiento no fue causado por una orden de producción.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "orden_produccion_id")
+    private OrdenProduccion ordenProduccion;
+
     /**
      * Constructor por defecto requerido por JPA.
      */
@@ -208,6 +220,14 @@ public class MovimientoInventario {
         this.compra = compra;
     }
 
+    public OrdenProduccion getOrdenProduccion() {
+        return ordenProduccion;
+    }
+
+    public void setOrdenProduccion(OrdenProduccion ordenProduccion) {
+        this.ordenProduccion = ordenProduccion;
+    }
+
     public Almacen getAlmacen() {
         return almacen;
     }
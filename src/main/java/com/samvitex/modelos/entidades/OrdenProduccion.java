@@ -22,7 +22,8 @@ import java.util.Set;
 public class OrdenProduccion {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordenes_produccion_seq")
+    @SequenceGenerator(name = "ordenes_produccion_seq", sequenceName = "ordenes_produccion_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -73,8 +74,7 @@ public class OrdenProduccion {
     @OneToMany(mappedBy = "ordenProduccion", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<OrdenProduccionDetalle> detalles = new ArrayList<>();
 
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
-    @JoinColumn(name = "orden_produccion_id")
+    @OneToMany(mappedBy = "ordenProduccion", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<MovimientoInventario> movimientosGenerados = new HashSet<>();
 
     /**
@@ -99,6 +99,7 @@ public class OrdenProduccion {
      */
     public void addMovimiento(MovimientoInventario movimiento) {
         movimientosGenerados.add(movimiento);
+        movimiento.setOrdenProduccion(this);
     }
 
     // --- Getters y Setters ---
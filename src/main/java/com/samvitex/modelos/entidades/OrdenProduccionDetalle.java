@@ -3,6 +3,8 @@ package com.samvitex.modelos.entidades;
 import com.samvitex.modelos.enums.TipoDetalleProduccion;
 import jakarta.persistence.*;
 
+import java.math.BigDecimal;
+
 /**
  * Representa una línea de detalle dentro de una {@link OrdenProduccion}.
  *
@@ -22,7 +24,8 @@ public class OrdenProduccionDetalle {
      * Identificador único de la línea de detalle.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordenes_produccion_detalle_seq")
+    @SequenceGenerator(name = "ordenes_produccion_detalle_seq", sequenceName = "ordenes_produccion_detalle_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -54,6 +57,14 @@ public class OrdenProduccionDetalle {
     @Column(nullable = false)
     private Integer cantidad;
 
+    /**
+     * El costo de una unidad. Para un insumo, su costo promedio al salir del almacén cuando se
+     * inicia la producción; para un producto final, su parte del costo de los insumos, asignada
+     * al finalizar. Es {@code null} mientras la orden está planificada.
+     */
+    @Column(name = "costo_unitario", precision = 14, scale = 4)
+    private BigDecimal costoUnitario;
+
     /**
      * Constructor por defecto requerido por JPA.
      */
@@ -100,4 +111,12 @@ public class OrdenProduccionDetalle {
     public void setCantidad(Integer cantidad) {
         this.cantidad = cantidad;
     }
+
+    public BigDecimal getCostoUnitario() {
+        return costoUnitario;
+    }
+
+    public void setCostoUnitario(BigDecimal costoUnitario) {
+        this.costoUnitario = costoUnitario;
+    }
 }
\ No newline at end of file
@@ -61,8 +61,10 @@ public class Producto {
     private String descripcion;
 
     /**
-     * El costo de adquisición del producto. Este valor puede ser actualizado por
-     * el último costo de una transacción de compra.
+     * El costo de adquisición de referencia del producto. Este valor puede ser actualizado por
+     * el último costo de una transacción de compra. La valoración del inventario y el costo de lo
+     * vendido usan en cambio el costo promedio ponderado de cada almacén
+     * ({@link InventarioPorAlmacen#getCostoPromedio()}).
      */
     @Column(name = "precio_costo", nullable = false, precision = 10, scale = 2)
     private BigDecimal precioCosto;
@@ -0,0 +1,85 @@
+package com.samvitex.modelos.entidades;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Proyección precalculada del stock de un producto, sumado en todos los almacenes.
+ *
+ * <p>Existe una fila por producto. Sus valores no se editan desde la aplicación:
+ * los recalcula {@link com.samvitex.servicios.ServicioResumenStock} dentro de la misma
+ * transacción que modifica {@link InventarioPorAlmacen}, de modo que los KPIs del
+ * dashboard se obtienen sin recorrer el inventario completo.</p>
+ *
+ * Mapea a la tabla 'producto_stock_resumen' en la base de datos.
+ */
+@Entity
+@Table(name = "producto_stock_resumen")
+public class ProductoStockResumen {
+
+    /**
+     * ID del producto resumido (clave primaria y foránea a 'productos').
+     */
+    @Id
+    @Column(name = "producto_id")
+    private Integer productoId;
+
+    /**
+     * Suma del stock del producto en todos los almacenes.
+     */
+    @Column(name = "stock_total", nullable = false)
+    private Long stockTotal;
+
+    /**
+     * Valor del stock total: suma de cantidad × costo promedio de cada almacén.
+     */
+    @Column(name = "valor_stock", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorStock;
+
+    /**
+     * Indica si el stock total es menor o igual al stock mínimo del producto.
+     */
+    @Column(name = "stock_bajo", nullable = false)
+    private boolean stockBajo;
+
+    /**
+     * Copia del estado 'activo' del producto, para filtrar sin unir con 'productos'.
+     */
+    @Column(nullable = false)
+    private boolean activo;
+
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private Instant fechaActualizacion;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public ProductoStockResumen() {}
+
+    // --- Getters ---
+
+    public Integer getProductoId() {
+        return productoId;
+    }
+
+    public Long getStockTotal() {
+        return stockTotal;
+    }
+
+    public BigDecimal getValorStock() {
+        return valorStock;
+    }
+
+    public boolean isStockBajo() {
+        return stockBajo;
+    }
+
+    public boolean isActivo() {
+        return activo;
+    }
+
+    public Instant getFechaActualizacion() {
+        return fechaActualizacion;
+    }
+}
@@ -0,0 +1,122 @@
+package com.samvitex.modelos.entidades;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Pronóstico de demanda de un producto en un almacén, con el punto de reorden y el stock
+ * objetivo que se derivan de él.
+ *
+ * <p>Sus valores no se editan desde la aplicación: los recalcula por completo
+ * {@link com.samvitex.servicios.ServicioReabastecimiento} a partir del historial de ventas
+ * diarias ({@link VentaResumenDiario}).</p>
+ *
+ * Mapea a la tabla 'pronosticos_demanda' en la base de datos.
+ */
+@Entity
+@Table(name = "pronosticos_demanda")
+@IdClass(PronosticoDemanda.Clave.class)
+public class PronosticoDemanda {
+
+    @Id
+    @Column(name = "producto_id")
+    private Integer productoId;
+
+    @Id
+    @Column(name = "almacen_id")
+    private Integer almacenId;
+
+    /**
+     * Unidades que se espera vender por día.
+     */
+    @Column(name = "demanda_diaria", nullable = false, precision = 12, scale = 4)
+    private BigDecimal demandaDiaria;
+
+    /**
+     * Desviación típica del error del pronóstico diario.
+     */
+    @Column(name = "desviacion_diaria", nullable = false, precision = 12, scale = 4)
+    private BigDecimal desviacionDiaria;
+
+    /**
+     * Stock a partir del cual conviene reponer: la demanda esperada durante el plazo de entrega
+     * más el stock de seguridad.
+     */
+    @Column(name = "punto_reorden", nullable = false)
+    private Integer puntoReorden;
+
+    /**
+     * Stock hasta el que se repone: el punto de reorden más la demanda del período de cobertura.
+     */
+    @Column(name = "stock_objetivo", nullable = false)
+    private Integer stockObjetivo;
+
+    @Column(name = "fecha_calculo", nullable = false)
+    private Instant fechaCalculo;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public PronosticoDemanda() {}
+
+    // --- Getters ---
+
+    public Integer getProductoId() {
+        return productoId;
+    }
+
+    public Integer getAlmacenId() {
+        return almacenId;
+    }
+
+    public BigDecimal getDemandaDiaria() {
+        return demandaDiaria;
+    }
+
+    public BigDecimal getDesviacionDiaria() {
+        return desviacionDiaria;
+    }
+
+    public Integer getPuntoReorden() {
+        return puntoReorden;
+    }
+
+    public Integer getStockObjetivo() {
+        return stockObjetivo;
+    }
+
+    public Instant getFechaCalculo() {
+        return fechaCalculo;
+    }
+
+    /**
+     * Clave compuesta producto × almacén.
+     */
+    public static class Clave implements Serializable {
+        private Integer productoId;
+        private Integer almacenId;
+
+        public Clave() {}
+
+        public Clave(Integer productoId, Integer almacenId) {
+            this.productoId = productoId;
+            this.almacenId = almacenId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave clave)) return false;
+            return Objects.equals(productoId, clave.productoId) && Objects.equals(almacenId, clave.almacenId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(productoId, almacenId);
+        }
+    }
+}
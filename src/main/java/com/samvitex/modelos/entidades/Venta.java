@@ -40,9 +40,12 @@ public class Venta {
     /**
      * Identificador único de la venta, generado automáticamente.
      * Es de tipo {@code Long} para soportar un gran volumen de transacciones.
+     * Se obtiene de una secuencia con asignación en bloques de 50 (optimizador pooled),
+     * lo que permite a Hibernate agrupar en lotes JDBC los INSERT de la venta y sus hijos.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_seq")
+    @SequenceGenerator(name = "ventas_seq", sequenceName = "ventas_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -115,12 +118,12 @@ public class Venta {
 
     /**
      * Conjunto de movimientos de inventario generados por esta venta.
-     * Esta es una relación unidireccional clave para la trazabilidad. La venta
-     * es propietaria de estos movimientos.
+     * Relación bidireccional clave para la trazabilidad: el lado propietario es
+     * {@link MovimientoInventario#getVenta()}, de modo que la FK 'venta_id' se escribe
+     * en el mismo INSERT del movimiento y no con un UPDATE posterior.
      * Se utiliza un {@link Set} para evitar la posibilidad de registrar movimientos duplicados.
      */
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
-    @JoinColumn(name = "venta_id") // Esta es la FK en la tabla 'movimientos_inventario'.
+    @OneToMany(mappedBy = "venta", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private Set<MovimientoInventario> movimientosGenerados = new HashSet<>();
 
 
@@ -150,6 +153,7 @@ public class Venta {
      */
     public void addMovimiento(MovimientoInventario movimiento) {
         movimientosGenerados.add(movimiento);
+        movimiento.setVenta(this);
     }
 
     // --- Getters y Setters Estándar ---
@@ -23,7 +23,8 @@ public class VentaDetalle {
      * Identificador único de la línea de detalle de la venta.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ventas_detalle_seq")
+    @SequenceGenerator(name = "ventas_detalle_seq", sequenceName = "ventas_detalle_id_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -62,6 +63,13 @@ public class VentaDetalle {
     @Column(name = "subtotal_linea", nullable = false, precision = 12, scale = 2)
     private BigDecimal subtotalLinea;
 
+    /**
+     * El costo de una unidad al salir del almacén: el costo promedio ponderado del producto en
+     * el almacén de la venta en ese momento. Es la base del costo de lo vendido en los reportes.
+     */
+    @Column(name = "costo_unitario", nullable = false, precision = 14, scale = 4)
+    private BigDecimal costoUnitario;
+
     /**
      * Constructor por defecto requerido por JPA.
      */
@@ -116,4 +124,12 @@ public class VentaDetalle {
     public void setSubtotalLinea(BigDecimal subtotalLinea) {
         this.subtotalLinea = subtotalLinea;
     }
+
+    public BigDecimal getCostoUnitario() {
+        return costoUnitario;
+    }
+
+    public void setCostoUnitario(BigDecimal costoUnitario) {
+        this.costoUnitario = costoUnitario;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.samvitex.modelos.entidades;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Acumulado de ventas de un producto en un almacén durante un día.
+ *
+ * <p>Sus valores no se editan desde la aplicación: los acumula
+ * {@link com.samvitex.servicios.ServicioResumenVentas} dentro de la misma transacción que
+ * registra cada venta, de modo que el reporte de ventas por producto puede sumar días
+ * completos sin recorrer las líneas de {@link VentaDetalle}.</p>
+ *
+ * Mapea a la tabla 'ventas_resumen_diario' en la base de datos.
+ */
+@Entity
+@Table(name = "ventas_resumen_diario")
+@IdClass(VentaResumenDiario.Clave.class)
+public class VentaResumenDiario {
+
+    /**
+     * Día de las ventas, en la zona horaria configurada para los reportes.
+     */
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+
+    @Id
+    @Column(name = "producto_id")
+    private Integer productoId;
+
+    @Id
+    @Column(name = "almacen_id")
+    private Integer almacenId;
+
+    /**
+     * Suma de las unidades vendidas.
+     */
+    @Column(nullable = false)
+    private Long unidades;
+
+    /**
+     * Suma de los subtotales de línea (ingresos brutos, sin impuestos).
+     */
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+
+    /**
+     * Costo de las unidades vendidas, al costo promedio con el que salió cada línea del almacén.
+     */
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal costo;
+
+    /**
+     * Constructor por defecto requerido por JPA.
+     */
+    public VentaResumenDiario() {}
+
+    // --- Getters ---
+
+    public LocalDate getDia() {
+        return dia;
+    }
+
+    public Integer getProductoId() {
+        return productoId;
+    }
+
+    public Integer getAlmacenId() {
+        return almacenId;
+    }
+
+    public Long getUnidades() {
+        return unidades;
+    }
+
+    public BigDecimal getIngresos() {
+        return ingresos;
+    }
+
+    public BigDecimal getCosto() {
+        return costo;
+    }
+
+    /**
+     * Clave compuesta día × producto × almacén.
+     */
+    public static class Clave implements Serializable {
+        private LocalDate dia;
+        private Integer productoId;
+        private Integer almacenId;
+
+        public Clave() {}
+
+        public Clave(LocalDate dia, Integer productoId, Integer almacenId) {
+            this.dia = dia;
+            this.productoId = productoId;
+            this.almacenId = almacenId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Clave clave)) return false;
+            return Objects.equals(dia, clave.dia) && Objects.equals(productoId, clave.productoId) && Objects.equals(almacenId, clave.almacenId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dia, productoId, almacenId);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.samvitex.modelos.enums;
+
+/**
+ * Clase de un producto en una clasificación ABC (análisis de Pareto).
+ * <p>
+ * Los productos se ordenan de mayor a menor según el criterio (ingresos o número de movimientos)
+ * y se acumula su participación en el total.
+ */
+public enum ClaseAbc {
+
+    /**
+     * Los productos que concentran el primer 80% del total. Suelen ser pocos; van en las
+     * ubicaciones más accesibles y se cuentan con más frecuencia.
+     */
+    A,
+
+    /**
+     * Los productos que llevan la participación acumulada del 80% al 95%.
+     */
+    B,
+
+    /**
+     * El resto, incluidos los productos sin ventas o sin movimientos en el período.
+     */
+    C
+}
@@ -0,0 +1,26 @@
+package com.samvitex.modelos.enums;
+
+/**
+ * Reportes que se generan como trabajos en segundo plano y cuyos resultados se guardan en caché.
+ * El tipo determina qué cambios en los datos invalidan un resultado guardado.
+ */
+public enum TipoReporte {
+
+    /**
+     * Ventas agregadas por producto en un período. Lo invalida cualquier venta registrada
+     * dentro del período.
+     */
+    VENTAS_POR_PRODUCTO,
+
+    /**
+     * Kardex de un producto en un período. Lo invalida cualquier movimiento del producto
+     * anterior al fin del período, porque también cambia el saldo inicial.
+     */
+    KARDEX,
+
+    /**
+     * Clasificación ABC de los productos en un período, por ingresos y por movimientos. La
+     * invalida cualquier venta o movimiento registrado dentro del período.
+     */
+    ABC
+}
@@ -0,0 +1,16 @@
+package com.samvitex.modelos.excepciones;
+
+/**
+ * Excepción personalizada para errores en la generación de reportes, como una cola de
+ * trabajos llena.
+ */
+public class ReporteException extends RuntimeException {
+
+    /**
+     * Construye una nueva ReporteException con el mensaje de detalle especificado.
+     * @param message el mensaje de detalle.
+     */
+    public ReporteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,161 @@
+package com.samvitex.repositorios;
+
+import com.samvitex.modelos.entidades.CierreStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de Spring Data JPA para los cierres de stock ({@link CierreStock}) y sus
+ * instantáneas en la tabla {@code stock_cierre}.
+ *
+ * <p>Las consultas de stock a una fecha parten de una instantánea y solo leen los movimientos
+ * posteriores a ella: para cada par producto × almacén, el stock es el {@code stock_nuevo} del
+ * último movimiento del intervalo o, si no hubo movimientos, la cantidad de la instantánea.
+ * Cuando no existe un cierre anterior se pasa {@link Instant#EPOCH}, que no tiene instantánea,
+ * y se leen todos los movimientos previos.</p>
+ *
+ * <p>El "último movimiento" se ordena por {@code (fecha_movimiento, id)}. La fecha la asigna la
+ * base de datos al insertar (V13), con la fila de inventario bloqueada, así que es consistente
+ * entre terminales; el ID solo desempata movimientos de una misma transacción.</p>
+ */
+@Repository
+public interface CierreStockRepositorio extends JpaRepository<CierreStock, Instant> {
+
+    /**
+     * Proyección del stock de un par producto × almacén en un instante dado.
+     */
+    interface StockAFecha {
+        Integer getProductoId();
+        Integer getAlmacenId();
+        Integer getCantidad();
+    }
+
+    /**
+     * Obtiene el cierre más reciente en o antes de una fecha.
+     */
+    @Query("SELECT MAX(c.fechaCierre) FROM CierreStock c WHERE c.fechaCierre <= :fecha")
+    Optional<Instant> findFechaUltimoCierreHasta(@Param("fecha") Instant fecha);
+
+    /**
+     * Obtiene la fecha del cierre más reciente.
+     */
+    @Query("SELECT MAX(c.fechaCierre) FROM CierreStock c")
+    Optional<Instant> findFechaUltimoCierre();
+
+    /**
+     * Intenta tomar el candado de generación de cierres hasta el fin de la transacción, para que
+     * dos terminales no generen el mismo cierre a la vez.
+     *
+     * @return {@code true} si se obtuvo el candado.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('cierre_stock'))", nativeQuery = true)
+    boolean intentarBloquearGeneracion();
+
+    /**
+     * Escribe la instantánea de un cierre a partir de la del cierre anterior y de los movimientos
+     * entre ambos. Solo guarda los pares con stock distinto de cero.
+     * <p>Si {@code valorar} es {@code true}, cada fila guarda el costo promedio vigente del
+     * producto en el almacén (o su precio de costo si el almacén ya no tiene registro) y el valor
+     * resultante. Como ese costo es el de este momento, solo se valora un cierre que se genera
+     * poco después de su fecha; los demás quedan con costo y valor {@code NULL}.</p>
+     *
+     * @param fechaCierre El instante del nuevo cierre.
+     * @param cierreAnterior El instante del cierre anterior, o {@link Instant#EPOCH} si no hay.
+     * @param valorar Si se guarda el costo y el valor de cada fila.
+     * @return El número de filas escritas.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO stock_cierre (fecha_cierre, producto_id, almacen_id, cantidad, costo_unitario, valor)
+        SELECT :fechaCierre, x.producto_id, x.almacen_id, x.cantidad,
+               CASE WHEN :valorar THEN COALESCE(ipa.costo_promedio, p.precio_costo) END,
+               CASE WHEN :valorar THEN x.cantidad * COALESCE(ipa.costo_promedio, p.precio_costo) END
+        FROM (
+            SELECT COALESCE(u.producto_id, b.producto_id) AS producto_id,
+                   COALESCE(u.almacen_id, b.almacen_id) AS almacen_id,
+                   COALESCE(u.stock_nuevo, b.cantidad) AS cantidad
+            FROM (SELECT producto_id, almacen_id, cantidad FROM stock_cierre WHERE fecha_cierre = :cierreAnterior) b
+            FULL JOIN (
+                SELECT DISTINCT ON (producto_id, almacen_id) producto_id, almacen_id, stock_nuevo
+                FROM movimientos_inventario
+                WHERE fecha_movimiento >= :cierreAnterior AND fecha_movimiento < :fechaCierre
+                ORDER BY producto_id, almacen_id, fecha_movimiento DESC, id DESC
+            ) u ON u.producto_id = b.producto_id AND u.almacen_id = b.almacen_id
+        ) x
+        JOIN productos p ON p.id = x.producto_id
+        LEFT JOIN inventario_por_almacen ipa ON ipa.producto_id = x.producto_id AND ipa.almacen_id = x.almacen_id
+        WHERE x.cantidad <> 0
+    """, nativeQuery = true)
+    int insertarInstantanea(@Param("fechaCierre") Instant fechaCierre, @Param("cierreAnterior") Instant cierreAnterior,
+                            @Param("valorar") boolean valorar);
+
+    /**
+     * Registra la cabecera de un cierre. Debe insertarse antes que su instantánea.
+     *
+     * @param valorado Si la instantánea guarda costos y valores (ver {@link #insertarInstantanea}).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cierres_stock (fecha_cierre, fecha_generacion, filas, valorado) VALUES (:fechaCierre, CURRENT_TIMESTAMP, 0, :valorado)", nativeQuery = true)
+    void insertarCierre(@Param("fechaCierre") Instant fechaCierre, @Param("valorado") boolean valorado);
+
+    @Modifying
+    @Query(value = "UPDATE cierres_stock SET filas = :filas WHERE fecha_cierre = :fechaCierre", nativeQuery = true)
+    void actualizarFilas(@Param("fechaCierre") Instant fechaCierre, @Param("filas") int filas);
+
+    /**
+     * Calcula el stock de un producto en cada almacén en un instante.
+     *
+     * @param productoId El ID del producto.
+     * @param fechaCierre El cierre de partida (o {@link Instant#EPOCH}).
+     * @param fecha El instante consultado (exclusivo).
+     * @return Una fila por almacén con registro de stock o movimientos del producto.
+     */
+    @Query(value = """
+        SELECT COALESCE(u.producto_id, b.producto_id) AS "productoId",
+               COALESCE(u.almacen_id, b.almacen_id) AS "almacenId",
+               COALESCE(u.stock_nuevo, b.cantidad) AS "cantidad"
+        FROM (SELECT producto_id, almacen_id, cantidad FROM stock_cierre
+              WHERE fecha_cierre = :fechaCierre AND producto_id = :productoId) b
+        FULL JOIN (
+            SELECT DISTINCT ON (almacen_id) producto_id, almacen_id, stock_nuevo
+            FROM movimientos_inventario
+            WHERE producto_id = :productoId AND fecha_movimiento >= :fechaCierre AND fecha_movimiento < :fecha
+            ORDER BY almacen_id, fecha_movimiento DESC, id DESC
+        ) u ON u.almacen_id = b.almacen_id
+    """, nativeQuery = true)
+    List<StockAFecha> findStockDeProductoAFecha(@Param("productoId") Integer productoId,
+                                               @Param("fechaCierre") Instant fechaCierre,
+                                               @Param("fecha") Instant fecha);
+
+    /**
+     * Calcula el stock de todos los productos de un almacén en un instante.
+     *
+     * @param almacenId El ID del almacén.
+     * @param fechaCierre El cierre de partida (o {@link Instant#EPOCH}).
+     * @param fecha El instante consultado (exclusivo).
+     * @return Una fila por producto con stock o movimientos en el almacén.
+     */
+    @Query(value = """
+        SELECT COALESCE(u.producto_id, b.producto_id) AS "productoId",
+               COALESCE(u.almacen_id, b.almacen_id) AS "almacenId",
+               COALESCE(u.stock_nuevo, b.cantidad) AS "cantidad"
+        FROM (SELECT producto_id, almacen_id, cantidad FROM stock_cierre
+              WHERE fecha_cierre = :fechaCierre AND almacen_id = :almacenId) b
+        FULL JOIN (
+            SELECT DISTINCT ON (producto_id) producto_id, almacen_id, stock_nuevo
+            FROM movimientos_inventario
+            WHERE almacen_id = :almacenId AND fecha_movimiento >= :fechaCierre AND fecha_movimiento < :fecha
+            ORDER BY producto_id, fecha_movimiento DESC, id DESC
+        ) u ON u.producto_id = b.producto_id
+    """, nativeQuery = true)
+    List<StockAFecha> findStockDeAlmacenAFecha(@Param("almacenId") Integer almacenId,
+                                              @Param("fechaCierre") Instant fechaCierre,
+                                              @Param("fecha") Instant fecha);
+}
@@ -16,13 +16,40 @@ import java.util.List;
 public interface ClienteRepositorio extends JpaRepository<Cliente, Integer> {
 
     /**
-     * Busca clientes cuyo nombre completo contenga el texto proporcionado, sin
-     * distinguir entre mayúsculas y minúsculas.
+     * Un cliente encontrado por la búsqueda universal, con su relevancia.
+     */
+    interface CoincidenciaCliente {
+        Integer getId();
+        String getNombreCompleto();
+        String getDniRuc();
+        /** 0 = DNI/RUC exacto, 1 = el DNI/RUC, el nombre o una palabra del nombre empieza con el texto, 2 = lo contiene. */
+        int getRango();
+    }
+
+    /**
+     * Busca los clientes cuyo nombre o DNI/RUC contenga el texto, los más relevantes primero
+     * (ver {@link CoincidenciaCliente#getRango()}). Es la contraparte de
+     * {@link ProductoRepositorio#buscarCoincidencias} y usa los índices trigram de V5.
      *
-     * @param nombre El texto a buscar dentro del nombre completo de los clientes.
-     * @return Una lista de clientes que coinciden con el criterio de búsqueda.
+     * @param texto El texto a buscar.
+     * @param limite El número máximo de clientes.
      */
-    List<Cliente> findByNombreCompletoContainingIgnoreCase(String nombre);
+    @Query(value = """
+        SELECT c.id AS "id", c.nombre_completo AS "nombreCompleto", c.dni_ruc AS "dniRuc",
+               CASE
+                   WHEN f_unaccent(lower(c.dni_ruc)) = f_unaccent(lower(:texto)) THEN 0
+                   WHEN f_unaccent(lower(c.dni_ruc)) LIKE CONCAT(f_unaccent(lower(:texto)), '%')
+                     OR f_unaccent(lower(c.nombre_completo)) LIKE CONCAT(f_unaccent(lower(:texto)), '%')
+                     OR f_unaccent(lower(c.nombre_completo)) LIKE CONCAT('% ', f_unaccent(lower(:texto)), '%') THEN 1
+                   ELSE 2
+               END AS "rango"
+        FROM clientes c
+        WHERE f_unaccent(lower(c.nombre_completo)) LIKE CONCAT('%', f_unaccent(lower(:texto)), '%')
+           OR f_unaccent(lower(c.dni_ruc)) LIKE CONCAT('%', f_unaccent(lower(:texto)), '%')
+        ORDER BY 4, length(c.nombre_completo), c.nombre_completo, c.id
+        LIMIT :limite
+    """, nativeQuery = true)
+    List<CoincidenciaCliente> buscarCoincidencias(@Param("texto") String texto, @Param("limite") int limite);
 
     /**
      * Busca todos los clientes que se encuentran activos en el sistema.
@@ -37,20 +64,25 @@ public interface ClienteRepositorio extends JpaRepository<Cliente, Integer> {
      * Busca clientes por un término en múltiples campos: ID, Nombre, DNI/RUC, Email, Teléfono.
      * También permite buscar por estado ("activo" o "inactivo").
      * La búsqueda es insensible a mayúsculas/minúsculas y acentos.
+     * <p>
+     * Cada rama del OR debe poder resolverse con un índice (trigram en V5, clave primaria para
+     * el ID); una sola rama sin índice obliga a recorrer la tabla completa. Por eso el ID se
+     * compara de forma exacta y no como subcadena.
      *
      * @param termino El texto a buscar.
+     * @param idExacto El término interpretado como ID de cliente, o {@code null} si no es numérico.
      * @return Una lista de clientes que coinciden con el criterio.
      */
     @Query("""
         SELECT c FROM Cliente c
-        WHERE CAST(c.id AS string) LIKE CONCAT('%', :termino, '%')
-        OR unaccent(LOWER(c.nombreCompleto)) LIKE unaccent(LOWER(CONCAT('%', :termino, '%')))
-        OR unaccent(LOWER(c.dniRuc)) LIKE unaccent(LOWER(CONCAT('%', :termino, '%')))
-        OR unaccent(LOWER(c.email)) LIKE unaccent(LOWER(CONCAT('%', :termino, '%')))
-        OR unaccent(LOWER(c.telefono)) LIKE unaccent(LOWER(CONCAT('%', :termino, '%')))
+        WHERE c.id = :idExacto
+        OR f_unaccent(LOWER(c.nombreCompleto)) LIKE CONCAT('%', f_unaccent(LOWER(:termino)), '%')
+        OR f_unaccent(LOWER(c.dniRuc)) LIKE CONCAT('%', f_unaccent(LOWER(:termino)), '%')
+        OR f_unaccent(LOWER(c.email)) LIKE CONCAT('%', f_unaccent(LOWER(:termino)), '%')
+        OR f_unaccent(LOWER(c.telefono)) LIKE CONCAT('%', f_unaccent(LOWER(:termino)), '%')
         OR (:termino ILIKE 'activo' AND c.activo = true)
         OR (:termino ILIKE 'inactivo' AND c.activo = false)
         ORDER BY c.nombreCompleto ASC
     """)
-    List<Cliente> buscarPorTermino(@Param("termino") String termino);
+    List<Cliente> buscarPorTermino(@Param("termino") String termino, @Param("idExacto") Integer idExacto);
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,15 @@ public interface InventarioPorAlmacenRepositorio extends JpaRepository<Inventari
      */
     Optional<InventarioPorAlmacen> findByProductoIdAndAlmacenId(Integer productoId, Integer almacenId);
 
+    /**
+     * Lee de la base de datos la cantidad actual de un producto en un almacén. A diferencia de
+     * {@link #findByProductoIdAndAlmacenId}, no devuelve una entidad que el contexto de persistencia
+     * ya tenga cargada, así que refleja los descuentos atómicos de esta transacción y de otras
+     * terminales.
+     */
+    @Query("SELECT i.cantidad FROM InventarioPorAlmacen i WHERE i.producto.id = :productoId AND i.almacen.id = :almacenId")
+    Optional<Integer> findCantidadActual(@Param("productoId") Integer productoId, @Param("almacenId") Integer almacenId);
+
     /**
      * Calcula la suma total del stock de un producto en todos los almacenes.
      * Útil para vistas generales de inventario.
@@ -28,6 +39,62 @@ public interface InventarioPorAlmacenRepositorio extends JpaRepository<Inventari
     @Query("SELECT ipa FROM InventarioPorAlmacen ipa JOIN FETCH ipa.almacen WHERE ipa.producto.id = :productoId ORDER BY ipa.almacen.nombre")
     List<InventarioPorAlmacen> findByProductoIdWithAlmacen(@Param("productoId") Integer productoId);
 
+    /**
+     * Carga en una sola consulta el desglose de stock por almacén de un conjunto de productos.
+     * Pensado para enriquecer una página completa de la grilla de inventario sin emitir
+     * una consulta por cada producto (problema N+1).
+     *
+     * @param productoIds Los IDs de los productos de la página.
+     * @return Los registros de inventario de esos productos, con su almacén ya inicializado,
+     *         ordenados por producto y nombre de almacén.
+     */
+    @Query("SELECT ipa FROM InventarioPorAlmacen ipa JOIN FETCH ipa.almacen WHERE ipa.producto.id IN :productoIds ORDER BY ipa.producto.id, ipa.almacen.nombre")
+    List<InventarioPorAlmacen> findByProductoIdInWithAlmacen(@Param("productoIds") Collection<Integer> productoIds);
+
+    /**
+     * Carga en una sola consulta los registros de inventario de varios productos en un almacén.
+     * Usado por las operaciones con varias líneas (ventas, compras, producción) para validar
+     * el stock y obtener los productos sin una consulta por línea.
+     *
+     * @param almacenId El ID del almacén.
+     * @param productoIds Los IDs de los productos de la operación.
+     * @return Los registros existentes, con su producto ya inicializado.
+     */
+    @Query("SELECT ipa FROM InventarioPorAlmacen ipa JOIN FETCH ipa.producto WHERE ipa.almacen.id = :almacenId AND ipa.producto.id IN :productoIds")
+    List<InventarioPorAlmacen> findByAlmacenIdAndProductoIdIn(@Param("almacenId") Integer almacenId, @Param("productoIds") Collection<Integer> productoIds);
+
+    /**
+     * De los productos indicados, devuelve los IDs de los que están activos y tienen stock en el
+     * almacén. Solo lee IDs, sin cargar entidades; usado por el buscador del POS para filtrar
+     * por lotes los candidatos del índice en memoria.
+     *
+     * @param almacenId El ID del almacén.
+     * @param productoIds Los IDs candidatos (un lote acotado, muy por debajo del límite de parámetros de PostgreSQL).
+     * @return Los IDs con stock, sin un orden determinado.
+     */
+    @Query("SELECT ipa.producto.id FROM InventarioPorAlmacen ipa WHERE ipa.almacen.id = :almacenId AND ipa.producto.id IN :productoIds AND ipa.cantidad > 0 AND ipa.producto.activo = true")
+    List<Integer> findIdsConStockEnAlmacen(@Param("almacenId") Integer almacenId, @Param("productoIds") Collection<Integer> productoIds);
+
+    /**
+     * Carga todos los productos activos con stock disponible en un almacén, con el producto ya
+     * inicializado. Alimenta en bloque la caché de escaneo por SKU del punto de venta.
+     *
+     * @param almacenId El ID del almacén.
+     * @return Los registros de inventario con cantidad mayor a cero de productos activos.
+     */
+    @Query("SELECT ipa FROM InventarioPorAlmacen ipa JOIN FETCH ipa.producto p WHERE ipa.almacen.id = :almacenId AND ipa.cantidad > 0 AND p.activo = true")
+    List<InventarioPorAlmacen> findVendiblesPorAlmacen(@Param("almacenId") Integer almacenId);
+
+    /**
+     * Busca el registro de inventario de un producto activo, por SKU exacto, con stock disponible en un almacén.
+     *
+     * @param almacenId El ID del almacén.
+     * @param sku El SKU exacto del producto.
+     * @return El registro de inventario con su producto inicializado, si existe y tiene stock.
+     */
+    @Query("SELECT ipa FROM InventarioPorAlmacen ipa JOIN FETCH ipa.producto p WHERE ipa.almacen.id = :almacenId AND p.sku = :sku AND ipa.cantidad > 0 AND p.activo = true")
+    Optional<InventarioPorAlmacen> findVendiblePorAlmacenYSku(@Param("almacenId") Integer almacenId, @Param("sku") String sku);
+
 
     /**
      * Verifica si existen registros de inventario para un almacén específico
@@ -39,4 +106,68 @@ public interface InventarioPorAlmacenRepositorio extends JpaRepository<Inventari
      */
     boolean existsByAlmacenIdAndCantidadGreaterThan(Integer almacenId, int cantidad);
 
+    // --- Mutaciones atómicas de stock (usadas por ServicioStock) ---
+
+    /**
+     * Proyección con el stock antes y después de una mutación atómica, y el costo promedio
+     * ponderado del registro tras ella.
+     */
+    interface ResultadoCambioStock {
+        Integer getStockAnterior();
+        Integer getStockNuevo();
+        BigDecimal getCostoPromedio();
+    }
+
+    /**
+     * Descuenta stock de forma atómica: la validación de disponibilidad y la escritura
+     * ocurren en la misma sentencia, bajo el bloqueo de fila de PostgreSQL, por lo que dos
+     * terminales no pueden pisarse ni dejar el stock en negativo. Las salidas no cambian el costo
+     * promedio: las unidades salen al costo vigente, que se devuelve para registrar su costo.
+     *
+     * @return El stock anterior y nuevo y el costo promedio, o vacío si no existe el registro o el stock es insuficiente.
+     */
+    @Query(value = """
+        UPDATE inventario_por_almacen
+        SET cantidad = cantidad - :cantidad,
+            fecha_modificacion = CURRENT_TIMESTAMP,
+            usuario_modificacion_id = :usuarioId
+        WHERE producto_id = :productoId AND almacen_id = :almacenId AND cantidad >= :cantidad
+        RETURNING cantidad + :cantidad AS "stockAnterior", cantidad AS "stockNuevo", costo_promedio AS "costoPromedio"
+    """, nativeQuery = true)
+    Optional<ResultadoCambioStock> descontarStock(@Param("productoId") Integer productoId,
+                                                  @Param("almacenId") Integer almacenId,
+                                                  @Param("cantidad") int cantidad,
+                                                  @Param("usuarioId") Integer usuarioId);
+
+    /**
+     * Incrementa stock de forma atómica, creando el registro del producto en el almacén
+     * si todavía no existe.
+     * <p>En la misma sentencia actualiza el costo promedio ponderado del registro con el costo
+     * de las unidades que entran, sin recorrer el historial:
+     * {@code (cantidad * costo_promedio + ingreso * costo) / (cantidad + ingreso)}.</p>
+     *
+     * @param costoUnitario El costo de cada unidad que entra; no puede ser {@code null}
+     *                      ({@code ServicioStock} usa el precio de costo de referencia si no se conoce).
+     * @return El stock anterior y nuevo y el costo promedio tras el ingreso.
+     */
+    @Query(value = """
+        INSERT INTO inventario_por_almacen (producto_id, almacen_id, cantidad, costo_promedio, fecha_modificacion, usuario_modificacion_id)
+        VALUES (:productoId, :almacenId, :cantidad,
+                CAST(:costoUnitario AS NUMERIC),
+                CURRENT_TIMESTAMP, :usuarioId)
+        ON CONFLICT (producto_id, almacen_id) DO UPDATE SET
+            cantidad = inventario_por_almacen.cantidad + EXCLUDED.cantidad,
+            costo_promedio = (inventario_por_almacen.cantidad * inventario_por_almacen.costo_promedio
+                              + EXCLUDED.cantidad * EXCLUDED.costo_promedio)
+                             / (inventario_por_almacen.cantidad + EXCLUDED.cantidad),
+            fecha_modificacion = EXCLUDED.fecha_modificacion,
+            usuario_modificacion_id = EXCLUDED.usuario_modificacion_id
+        RETURNING cantidad - :cantidad AS "stockAnterior", cantidad AS "stockNuevo", costo_promedio AS "costoPromedio"
+    """, nativeQuery = true)
+    ResultadoCambioStock ingresarStock(@Param("productoId") Integer productoId,
+                                       @Param("almacenId") Integer almacenId,
+                                       @Param("cantidad") int cantidad,
+                                       @Param("costoUnitario") BigDecimal costoUnitario,
+                                       @Param("usuarioId") Integer usuarioId);
+
 }
\ No newline at end of file
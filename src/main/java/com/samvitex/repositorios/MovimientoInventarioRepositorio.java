@@ -1,14 +1,21 @@
 package com.samvitex.repositorios;
 
+import com.samvitex.modelos.dto.CursorKardex;
+import com.samvitex.modelos.dto.FilaKardexDTO;
 import com.samvitex.modelos.entidades.MovimientoInventario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio de Spring Data JPA para la entidad {@link MovimientoInventario}.
@@ -16,42 +23,100 @@ import java.util.Optional;
  * <p>Este repositorio es fundamental para la auditoría y trazabilidad del inventario.
  * Proporciona métodos para consultar el historial de movimientos de stock (Kardex)
  * de los productos.</p>
+ *
+ * <p>La tabla está particionada por mes sobre {@code fecha_movimiento} (ver V9). Todas las
+ * consultas del Kardex acotan esa columna con parámetros, lo que permite a PostgreSQL podar
+ * las particiones fuera del período, al planificar o al ejecutar.</p>
  */
 @Repository
 public interface MovimientoInventarioRepositorio extends JpaRepository<MovimientoInventario, Long> {
 
+    /** Filas que el driver trae por viaje al recorrer el Kardex con un cursor. */
+    int TAMANO_FETCH_KARDEX = 1000;
+
     /**
-     * Busca todos los movimientos de un producto específico dentro de un rango de fechas,
-     * ordenados cronológicamente desde el más antiguo al más reciente.
-     * <p>Esta consulta es la base para construir el reporte de Kardex de un producto.
-     * Utiliza 'JOIN FETCH' para cargar las entidades relacionadas (Usuario) de forma
-     * proactiva y evitar problemas de rendimiento y carga perezosa.</p>
+     * Recorre con un cursor del servidor las claves (fecha, id) de los movimientos de un producto
+     * en un período, en orden cronológico. Solo lee dos columnas por fila y, con el tamaño de fetch
+     * indicado, el driver trae las filas por bloques en lugar de materializar todo el resultado.
+     * Se usa para indexar las páginas del Kardex.
+     * <p>Debe consumirse dentro de una transacción y cerrarse al terminar.</p>
      *
-     * @param productoId El ID del producto para el cual se busca el historial.
-     * @param fechaInicio El inicio del período de búsqueda (inclusivo).
-     * @param fechaFin El fin del período de búsqueda (inclusivo).
-     * @return Una lista ordenada de {@link MovimientoInventario} que representa el Kardex del producto en ese período.
+     * @param productoId El ID del producto.
+     * @param fechaInicio El inicio del período (inclusivo).
+     * @param fechaFin El fin del período (inclusivo).
+     * @return Un stream de cursores, uno por movimiento.
      */
-    @Query("SELECT m FROM MovimientoInventario m JOIN FETCH m.usuario WHERE m.producto.id = :productoId AND m.fechaMovimiento BETWEEN :fechaInicio AND :fechaFin ORDER BY m.fechaMovimiento ASC, m.id ASC")
-    List<MovimientoInventario> findKardexPorProductoYPeriodo(
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_FETCH_KARDEX),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.samvitex.modelos.dto.CursorKardex(m.fechaMovimiento, m.id) FROM MovimientoInventario m " +
+           "WHERE m.producto.id = :productoId AND m.fechaMovimiento BETWEEN :fechaInicio AND :fechaFin " +
+           "ORDER BY m.fechaMovimiento ASC, m.id ASC")
+    Stream<CursorKardex> streamCursoresKardex(
             @Param("productoId") Integer productoId,
             @Param("fechaInicio") Instant fechaInicio,
             @Param("fechaFin") Instant fechaFin
     );
 
     /**
-     * Obtiene el último movimiento registrado para un producto específico antes de una fecha y hora determinadas.
-     * <p>Esta consulta es crucial para calcular el "saldo anterior" al generar un reporte de Kardex.
-     * Permite conocer cuál era el stock final del producto justo antes de que comenzara el período del reporte.</p>
+     * Recorre con un cursor del servidor el Kardex completo de un producto en un período, como
+     * proyecciones ligeras. Pensado para procesos que necesitan todas las filas (exportaciones)
+     * sin retenerlas en memoria.
+     * <p>Debe consumirse dentro de una transacción y cerrarse al terminar.</p>
      *
      * @param productoId El ID del producto.
-     * @param fechaInicio La fecha y hora que actúa como límite superior (exclusivo) para la búsqueda.
-     * @return Un {@link Optional} que contiene el último {@link MovimientoInventario} si se encuentra, o estará vacío
-     *         si no existen movimientos para ese producto antes de la fecha especificada.
+     * @param fechaInicio El inicio del período (inclusivo).
+     * @param fechaFin El fin del período (inclusivo).
+     * @return Un stream de filas en orden cronológico.
      */
-    @Query("SELECT m FROM MovimientoInventario m WHERE m.producto.id = :productoId AND m.fechaMovimiento < :fechaInicio ORDER BY m.fechaMovimiento DESC, m.id DESC LIMIT 1")
-    Optional<MovimientoInventario> findUltimoMovimientoAntesDeFecha(
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TAMANO_FETCH_KARDEX),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.samvitex.modelos.dto.FilaKardexDTO(m.id, m.fechaMovimiento, m.tipo, u.nombreUsuario, m.cantidadMovida, m.stockAnterior, m.stockNuevo) " +
+           "FROM MovimientoInventario m JOIN m.usuario u " +
+           "WHERE m.producto.id = :productoId AND m.fechaMovimiento BETWEEN :fechaInicio AND :fechaFin " +
+           "ORDER BY m.fechaMovimiento ASC, m.id ASC")
+    Stream<FilaKardexDTO> streamKardexPorProductoYPeriodo(
             @Param("productoId") Integer productoId,
-            @Param("fechaInicio") Instant fechaInicio
+            @Param("fechaInicio") Instant fechaInicio,
+            @Param("fechaFin") Instant fechaFin
     );
-}
\ No newline at end of file
+
+    /**
+     * Carga una página del Kardex de un producto a partir de un movimiento dado (inclusive),
+     * buscando por keyset sobre (fecha, id) en lugar de saltar filas con OFFSET.
+     *
+     * @param productoId El ID del producto.
+     * @param fechaInicio El inicio del período (inclusivo).
+     * @param fechaFin El fin del período (inclusivo).
+     * @param desdeFecha La fecha del primer movimiento de la página.
+     * @param desdeId El ID del primer movimiento de la página.
+     * @param limite El número máximo de filas.
+     * @return Las filas de la página en orden cronológico.
+     */
+    @Query("SELECT new com.samvitex.modelos.dto.FilaKardexDTO(m.id, m.fechaMovimiento, m.tipo, u.nombreUsuario, m.cantidadMovida, m.stockAnterior, m.stockNuevo) " +
+           "FROM MovimientoInventario m JOIN m.usuario u " +
+           "WHERE m.producto.id = :productoId AND m.fechaMovimiento BETWEEN :fechaInicio AND :fechaFin " +
+           "AND (m.fechaMovimiento > :desdeFecha OR (m.fechaMovimiento = :desdeFecha AND m.id >= :desdeId)) " +
+           "ORDER BY m.fechaMovimiento ASC, m.id ASC")
+    List<FilaKardexDTO> findPaginaKardex(
+            @Param("productoId") Integer productoId,
+            @Param("fechaInicio") Instant fechaInicio,
+            @Param("fechaFin") Instant fechaFin,
+            @Param("desdeFecha") Instant desdeFecha,
+            @Param("desdeId") Long desdeId,
+            Limit limite
+    );
+
+    /**
+     * Obtiene la fecha del primer movimiento registrado (el de menor ID). Recorre el índice de la
+     * clave primaria de cada partición en lugar de buscar el mínimo de la fecha en toda la tabla.
+     * <p>Marca el punto de partida de los cierres de stock.</p>
+     *
+     * @return La fecha del primer movimiento, o vacío si no hay movimientos.
+     */
+    @Query("SELECT m.fechaMovimiento FROM MovimientoInventario m ORDER BY m.id ASC LIMIT 1")
+    Optional<Instant> findFechaPrimerMovimiento();
+}
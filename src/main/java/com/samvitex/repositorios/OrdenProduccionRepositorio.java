@@ -1,11 +1,15 @@
 package com.samvitex.repositorios;
 
 import com.samvitex.modelos.entidades.OrdenProduccion;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio de Spring Data JPA para la entidad {@link OrdenProduccion}.
@@ -28,4 +32,16 @@ public interface OrdenProduccionRepositorio extends JpaRepository<OrdenProduccio
      */
     @Query("SELECT op FROM OrdenProduccion op JOIN FETCH op.taller JOIN FETCH op.usuarioResponsable JOIN FETCH op.almacenInsumos JOIN FETCH op.almacenDestino ORDER BY op.fechaCreacion DESC")
     List<OrdenProduccion> findAllWithDetails();
+
+    /**
+     * Obtiene una orden bloqueando su fila ({@code SELECT ... FOR UPDATE}) hasta el fin de la
+     * transacción. Usado al cambiar de estado la orden: una segunda terminal que intente la misma
+     * transición espera y, al continuar, ya ve el estado nuevo.
+     *
+     * @param id El ID de la orden.
+     * @return La orden, si existe.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT op FROM OrdenProduccion op WHERE op.id = :id")
+    Optional<OrdenProduccion> findByIdParaActualizar(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,18 +1,25 @@
 package com.samvitex.repositorios;
 
+import com.samvitex.modelos.dto.ProductoIndexableDTO;
 import com.samvitex.modelos.entidades.Producto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio de Spring Data JPA para la entidad {@link Producto}.
@@ -40,14 +47,14 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Integer>, J
 
     /**
      * Calcula el valor monetario total del inventario.
-     * Multiplica el stock total de cada producto (suma de todos los almacenes) por su precio de costo
-     * y luego suma todos estos valores.
+     * Multiplica el stock de cada producto en cada almacén por su costo promedio ponderado en ese
+     * almacén y luego suma todos estos valores.
      *
      * @return un {@link BigDecimal} con el valor total del inventario.
      */
     @Query("""
-        SELECT COALESCE(SUM(p.precioCosto * (SELECT SUM(ipa.cantidad) FROM InventarioPorAlmacen ipa WHERE ipa.producto = p)), 0)
-        FROM Producto p
+        SELECT COALESCE(SUM(ipa.cantidad * ipa.costoPromedio), 0)
+        FROM InventarioPorAlmacen ipa JOIN ipa.producto p
         WHERE p.activo = true
     """)
     BigDecimal findValorTotalInventario();
@@ -65,18 +72,44 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Integer>, J
     // --- Consultas Genéricas de Búsqueda (sin paginación) ---
 
     /**
-     * Busca productos cuyo nombre o SKU contenga el texto de búsqueda, sin paginación.
+     * Un producto encontrado por la búsqueda universal, con su relevancia.
+     */
+    interface CoincidenciaProducto {
+        Integer getId();
+        String getNombre();
+        String getSku();
+        /** 0 = SKU exacto, 1 = el SKU, el nombre o una palabra del nombre empieza con el texto, 2 = lo contiene. */
+        int getRango();
+    }
+
+    /**
+     * Busca los productos cuyo nombre o SKU contenga el texto, los más relevantes primero
+     * (ver {@link CoincidenciaProducto#getRango()}) y a igual relevancia los de nombre más corto.
      * La búsqueda es insensible a mayúsculas/minúsculas y acentos.
+     * <p>
+     * El filtro usa las expresiones {@code f_unaccent(LOWER(...))} de los índices trigram de V5;
+     * el rango solo se calcula sobre las filas que devuelven los índices, y el límite evita
+     * traer más de las que se van a mostrar.
      *
-     * @param textoBusqueda el texto a buscar.
-     * @return una lista de productos que coinciden.
+     * @param texto El texto a buscar.
+     * @param limite El número máximo de productos.
      */
-    @Query("""
-        SELECT p FROM Producto p WHERE
-        unaccent(LOWER(p.nombre)) LIKE unaccent(LOWER(CONCAT('%', :textoBusqueda, '%'))) OR
-        unaccent(LOWER(p.sku)) LIKE unaccent(LOWER(CONCAT('%', :textoBusqueda, '%')))
-    """)
-    List<Producto> findByNombreContainingIgnoreCaseOrSkuContainingIgnoreCase(@Param("textoBusqueda") String textoBusqueda);
+    @Query(value = """
+        SELECT p.id AS "id", p.nombre AS "nombre", p.sku AS "sku",
+               CASE
+                   WHEN f_unaccent(lower(p.sku)) = f_unaccent(lower(:texto)) THEN 0
+                   WHEN f_unaccent(lower(p.sku)) LIKE CONCAT(f_unaccent(lower(:texto)), '%')
+                     OR f_unaccent(lower(p.nombre)) LIKE CONCAT(f_unaccent(lower(:texto)), '%')
+                     OR f_unaccent(lower(p.nombre)) LIKE CONCAT('% ', f_unaccent(lower(:texto)), '%') THEN 1
+                   ELSE 2
+               END AS "rango"
+        FROM productos p
+        WHERE f_unaccent(lower(p.nombre)) LIKE CONCAT('%', f_unaccent(lower(:texto)), '%')
+           OR f_unaccent(lower(p.sku)) LIKE CONCAT('%', f_unaccent(lower(:texto)), '%')
+        ORDER BY 4, length(p.nombre), p.nombre, p.id
+        LIMIT :limite
+    """, nativeQuery = true)
+    List<CoincidenciaProducto> buscarCoincidencias(@Param("texto") String texto, @Param("limite") int limite);
 
 
     // --- Consultas Específicas para el Módulo de Ventas (Multi-Almacén) ---
@@ -94,29 +127,11 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Integer>, J
         WHERE p.activo = true
         AND ipa.almacen.id = :almacenId
         AND ipa.cantidad > 0
-        AND (unaccent(LOWER(p.nombre)) LIKE unaccent(LOWER(CONCAT('%', :textoBusqueda, '%')))
-             OR unaccent(LOWER(p.sku)) LIKE unaccent(LOWER(CONCAT('%', :textoBusqueda, '%'))))
+        AND (f_unaccent(LOWER(p.nombre)) LIKE CONCAT('%', f_unaccent(LOWER(:textoBusqueda)), '%')
+             OR f_unaccent(LOWER(p.sku)) LIKE CONCAT('%', f_unaccent(LOWER(:textoBusqueda)), '%'))
     """)
     List<Producto> findActivosConStockPorAlmacenYNombreOSku(@Param("almacenId") Integer almacenId, @Param("textoBusqueda") String textoBusqueda);
 
-    /**
-     * Busca un único producto por su SKU que esté activo y tenga stock disponible (> 0) en un almacén específico.
-     * Optimizado para la funcionalidad de "escanear código de barras".
-     *
-     * @param almacenId El ID del almacén donde buscar.
-     * @param sku El SKU exacto del producto.
-     * @return un {@link Optional} que contiene el producto si se encuentra.
-     */
-    @Query("""
-        SELECT p FROM Producto p JOIN InventarioPorAlmacen ipa ON p.id = ipa.producto.id
-        WHERE p.activo = true
-        AND ipa.almacen.id = :almacenId
-        AND ipa.cantidad > 0
-        AND p.sku = :sku
-    """)
-    Optional<Producto> findActivoConStockPorAlmacenYSku(@Param("almacenId") Integer almacenId, @Param("sku") String sku);
-
-
     // --- Consultas Paginadas para el Módulo de Inventario ---
 
     /**
@@ -157,13 +172,13 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Integer>, J
      */
     @Query(value = """
         SELECT p FROM Producto p LEFT JOIN FETCH p.categoria LEFT JOIN FETCH p.proveedor WHERE
-        unaccent(LOWER(p.nombre)) LIKE unaccent(LOWER(CONCAT('%', :texto, '%'))) OR
-        unaccent(LOWER(p.sku)) LIKE unaccent(LOWER(CONCAT('%', :texto, '%')))
+        f_unaccent(LOWER(p.nombre)) LIKE CONCAT('%', f_unaccent(LOWER(:texto)), '%') OR
+        f_unaccent(LOWER(p.sku)) LIKE CONCAT('%', f_unaccent(LOWER(:texto)), '%')
     """,
             countQuery = """
         SELECT count(p) FROM Producto p WHERE
-        unaccent(LOWER(p.nombre)) LIKE unaccent(LOWER(CONCAT('%', :texto, '%'))) OR
-        unaccent(LOWER(p.sku)) LIKE unaccent(LOWER(CONCAT('%', :texto, '%')))
+        f_unaccent(LOWER(p.nombre)) LIKE CONCAT('%', f_unaccent(LOWER(:texto)), '%') OR
+        f_unaccent(LOWER(p.sku)) LIKE CONCAT('%', f_unaccent(LOWER(:texto)), '%')
     """)
     Page<Producto> findByNombreOrSkuWithDetails(@Param("texto") String texto, Pageable pageable);
 
@@ -178,4 +193,113 @@ public interface ProductoRepositorio extends JpaRepository<Producto, Integer>, J
      */
     @Query("SELECT p FROM Producto p LEFT JOIN FETCH p.categoria LEFT JOIN FETCH p.proveedor WHERE p.id = :id")
     Optional<Producto> findByIdWithDetails(@Param("id") Integer id);
-}
\ No newline at end of file
+
+    /**
+     * Obtiene los campos de búsqueda de todos los productos activos, sin cargar las entidades.
+     * Alimenta el índice de búsqueda en memoria de {@code ServicioIndiceProductos}.
+     *
+     * @return Una lista de DTOs con ID, nombre, SKU y nombre de categoría.
+     */
+    @Query("SELECT new com.samvitex.modelos.dto.ProductoIndexableDTO(p.id, p.nombre, p.sku, c.nombre) FROM Producto p LEFT JOIN p.categoria c WHERE p.activo = true")
+    List<ProductoIndexableDTO> findIndexablesActivos();
+
+    /**
+     * Estima cuántos productos activos muestra la grilla de inventario para un texto de búsqueda,
+     * a partir del plan de la consulta ({@code EXPLAIN}, ver V15), sin recorrer la tabla.
+     * Es aproximado: sirve para dimensionar la tabla virtual, no para cálculos.
+     *
+     * @param texto El texto de búsqueda; vacío para todo el catálogo activo.
+     * @return El número estimado de filas.
+     */
+    @Query(value = "SELECT estimar_productos_inventario(:texto)", nativeQuery = true)
+    long estimarProductosInventario(@Param("texto") String texto);
+
+    /**
+     * Obtiene los productos activos creados o modificados desde un instante, para actualizar el
+     * índice de búsqueda en memoria sin reconstruirlo.
+     */
+    @Query("SELECT new com.samvitex.modelos.dto.ProductoIndexableDTO(p.id, p.nombre, p.sku, c.nombre) FROM Producto p LEFT JOIN p.categoria c WHERE p.activo = true AND p.fechaModificacion >= :desde")
+    List<ProductoIndexableDTO> findIndexablesActivosModificadosDesde(@Param("desde") Instant desde);
+
+    /**
+     * Obtiene los IDs de los productos desactivados desde un instante.
+     */
+    @Query("SELECT p.id FROM Producto p WHERE p.activo = false AND p.fechaModificacion >= :desde")
+    List<Integer> findIdsInactivosModificadosDesde(@Param("desde") Instant desde);
+
+    /**
+     * Obtiene la fecha de la última modificación de un producto (la asigna un trigger, V14).
+     */
+    @Query("SELECT MAX(p.fechaModificacion) FROM Producto p")
+    Optional<Instant> findUltimaModificacion();
+
+    // --- Clasificación ABC ---
+
+    /**
+     * Ingresos y número de movimientos de inventario de un producto activo en un período.
+     */
+    interface TotalesAbcProducto {
+        Integer getProductoId();
+        String getSku();
+        String getNombre();
+        BigDecimal getIngresos();
+        long getMovimientos();
+    }
+
+    /**
+     * Recorre con un cursor del servidor todos los productos activos con sus ingresos y su número
+     * de movimientos en un período, para la clasificación ABC. La agregación la hace PostgreSQL
+     * (que puede repartirla entre varios procesos), de modo que llega una sola fila por producto
+     * aunque el período tenga millones de líneas:
+     * <ul>
+     *     <li>Los ingresos de los días completos se leen de {@code ventas_resumen_diario} y solo
+     *         los de los días parciales de los bordes se leen de {@code ventas_detalle}, igual que en
+     *         {@link com.samvitex.repositorios.VentaResumenDiarioRepositorio#CONSULTA_REPORTE_VENTAS}.</li>
+     *     <li>Los movimientos se cuentan solo en las particiones mensuales del período.</li>
+     * </ul>
+     * Los productos sin ventas ni movimientos se incluyen con cero.
+     * <p>Debe consumirse dentro de una transacción y cerrarse al terminar.</p>
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+        SELECT p.id AS "productoId",
+               p.sku AS "sku",
+               p.nombre AS "nombre",
+               COALESCE(v.ingresos, 0) AS "ingresos",
+               COALESCE(m.movimientos, 0) AS "movimientos"
+        FROM productos p
+        LEFT JOIN (
+            SELECT x.producto_id, SUM(x.ingresos) AS ingresos
+            FROM (
+                SELECT r.producto_id, r.ingresos
+                FROM ventas_resumen_diario r
+                WHERE r.dia BETWEEN :diaDesde AND :diaHasta
+                UNION ALL
+                SELECT vd.producto_id, vd.subtotal_linea
+                FROM ventas_detalle vd
+                JOIN ventas v ON v.id = vd.venta_id
+                WHERE (v.fecha_venta >= :inicio AND v.fecha_venta < :inicioDias)
+                   OR (v.fecha_venta >= :finDias AND v.fecha_venta <= :fin)
+            ) x
+            GROUP BY x.producto_id
+        ) v ON v.producto_id = p.id
+        LEFT JOIN (
+            SELECT mi.producto_id, COUNT(*) AS movimientos
+            FROM movimientos_inventario mi
+            WHERE mi.fecha_movimiento BETWEEN :inicio AND :fin
+            GROUP BY mi.producto_id
+        ) m ON m.producto_id = p.id
+        WHERE p.activo = true
+    """, nativeQuery = true)
+    Stream<TotalesAbcProducto> streamTotalesAbcPorProducto(
+            @Param("diaDesde") LocalDate diaDesde,
+            @Param("diaHasta") LocalDate diaHasta,
+            @Param("inicio") Instant inicio,
+            @Param("inicioDias") Instant inicioDias,
+            @Param("finDias") Instant finDias,
+            @Param("fin") Instant fin
+    );
+}
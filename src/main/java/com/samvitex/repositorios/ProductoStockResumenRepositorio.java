@@ -0,0 +1,121 @@
+package com.samvitex.repositorios;
+
+import com.samvitex.modelos.entidades.ProductoStockResumen;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Repositorio de Spring Data JPA para la proyección {@link ProductoStockResumen}.
+ *
+ * <p>Las escrituras se hacen con SQL nativo ({@code INSERT ... ON CONFLICT}) que recalcula
+ * cada fila a partir de {@code inventario_por_almacen}, de forma que el resumen nunca
+ * depende del estado en memoria de las entidades. El valor del stock se toma del costo
+ * promedio ponderado que mantiene cada registro de inventario.</p>
+ */
+@Repository
+public interface ProductoStockResumenRepositorio extends JpaRepository<ProductoStockResumen, Integer> {
+
+    /**
+     * Totales del Dashboard sobre un conjunto de filas del resumen.
+     */
+    interface TotalesResumen {
+        BigDecimal getValorInventario();
+        long getProductosConStockBajo();
+    }
+
+    /**
+     * Calcula el valor del inventario activo y el número de productos activos con stock bajo
+     * de los productos indicados. Antes y después de {@link #recalcularPorProductos} permite
+     * conocer cuánto cambió una operación los totales del Dashboard sin recorrer toda la tabla.
+     *
+     * @param productoIds Los IDs de los productos.
+     * @return Los totales de esas filas.
+     */
+    @Query(value = """
+        SELECT COALESCE(SUM(valor_stock) FILTER (WHERE activo), 0) AS "valorInventario",
+               COUNT(*) FILTER (WHERE activo AND stock_bajo) AS "productosConStockBajo"
+        FROM producto_stock_resumen
+        WHERE producto_id IN (:productoIds)
+    """, nativeQuery = true)
+    TotalesResumen findTotalesPorProductos(@Param("productoIds") Collection<Integer> productoIds);
+
+    /**
+     * Recalcula (o crea) las filas de resumen de los productos indicados.
+     * Fuerza un flush previo para que los cambios pendientes sobre
+     * {@code InventarioPorAlmacen} de la transacción actual sean visibles.
+     * Las filas se escriben en orden de ID de producto, el mismo orden en que {@link
+     * com.samvitex.servicios.ServicioStock} bloquea el inventario, para que dos operaciones
+     * concurrentes sobre productos en común no se bloqueen mutuamente.
+     *
+     * @param productoIds Los IDs de los productos cuyo stock cambió.
+     * @return El número de filas insertadas o actualizadas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO producto_stock_resumen (producto_id, stock_total, valor_stock, stock_bajo, activo, fecha_actualizacion)
+        SELECT p.id,
+               COALESCE(SUM(ipa.cantidad), 0),
+               COALESCE(SUM(ipa.cantidad * ipa.costo_promedio), 0),
+               COUNT(ipa.id) > 0 AND SUM(ipa.cantidad) <= p.stock_minimo,
+               p.activo,
+               CURRENT_TIMESTAMP
+        FROM productos p
+        LEFT JOIN inventario_por_almacen ipa ON ipa.producto_id = p.id
+        WHERE p.id IN (:productoIds)
+        GROUP BY p.id
+        ORDER BY p.id
+        ON CONFLICT (producto_id) DO UPDATE SET
+            stock_total = EXCLUDED.stock_total,
+            valor_stock = EXCLUDED.valor_stock,
+            stock_bajo = EXCLUDED.stock_bajo,
+            activo = EXCLUDED.activo,
+            fecha_actualizacion = EXCLUDED.fecha_actualizacion
+    """, nativeQuery = true)
+    int recalcularPorProductos(@Param("productoIds") Collection<Integer> productoIds);
+
+    /**
+     * Elimina todas las filas del resumen. Se usa antes de una reconstrucción completa.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM producto_stock_resumen", nativeQuery = true)
+    void eliminarTodo();
+
+    /**
+     * Recalcula el resumen de todos los productos a partir de {@code inventario_por_almacen}.
+     *
+     * @return El número de filas insertadas.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO producto_stock_resumen (producto_id, stock_total, valor_stock, stock_bajo, activo, fecha_actualizacion)
+        SELECT p.id,
+               COALESCE(SUM(ipa.cantidad), 0),
+               COALESCE(SUM(ipa.cantidad * ipa.costo_promedio), 0),
+               COUNT(ipa.id) > 0 AND SUM(ipa.cantidad) <= p.stock_minimo,
+               p.activo,
+               CURRENT_TIMESTAMP
+        FROM productos p
+        LEFT JOIN inventario_por_almacen ipa ON ipa.producto_id = p.id
+        GROUP BY p.id
+    """, nativeQuery = true)
+    int insertarDesdeInventario();
+
+    /**
+     * Cuenta los productos activos marcados con stock bajo.
+     * Utiliza el índice parcial {@code idx_stock_resumen_bajo}.
+     */
+    @Query("SELECT COUNT(r) FROM ProductoStockResumen r WHERE r.stockBajo = true AND r.activo = true")
+    long countStockBajo();
+
+    /**
+     * Suma el valor del stock de los productos activos.
+     */
+    @Query("SELECT COALESCE(SUM(r.valorStock), 0) FROM ProductoStockResumen r WHERE r.activo = true")
+    BigDecimal sumValorStockActivo();
+}
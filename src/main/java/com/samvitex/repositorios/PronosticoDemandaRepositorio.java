@@ -0,0 +1,94 @@
+package com.samvitex.repositorios;
+
+import com.samvitex.modelos.entidades.PronosticoDemanda;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de Spring Data JPA para los pronósticos de demanda {@link PronosticoDemanda}.
+ *
+ * <p>La tabla se escribe en bloque desde {@link com.samvitex.servicios.ServicioReabastecimiento};
+ * aquí están las consultas de lectura, con las que se obtienen las sugerencias de compra
+ * comparando cada pronóstico con el stock actual.</p>
+ */
+@Repository
+public interface PronosticoDemandaRepositorio extends JpaRepository<PronosticoDemanda, PronosticoDemanda.Clave> {
+
+    /**
+     * Proyección de una sugerencia de compra: un producto en un almacén cuyo stock actual
+     * llegó al punto de reorden.
+     */
+    interface FilaSugerencia {
+        Integer getProductoId();
+        String getSku();
+        String getNombreProducto();
+        Integer getAlmacenId();
+        String getNombreAlmacen();
+        Integer getProveedorId();
+        String getNombreProveedor();
+        int getStockActual();
+        int getPuntoReorden();
+        int getStockObjetivo();
+        BigDecimal getDemandaDiaria();
+        BigDecimal getCostoUnitario();
+    }
+
+    /**
+     * Obtiene la fecha del último cálculo de pronósticos.
+     */
+    @Query("SELECT MAX(p.fechaCalculo) FROM PronosticoDemanda p")
+    Optional<Instant> findFechaUltimoCalculo();
+
+    /**
+     * Intenta tomar el candado de cálculo de pronósticos hasta el fin de la transacción, para que
+     * dos terminales no reemplacen la tabla a la vez.
+     *
+     * @return {@code true} si se obtuvo el candado.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('pronosticos_demanda'))", nativeQuery = true)
+    boolean intentarBloquearCalculo();
+
+    /**
+     * Elimina todos los pronósticos. Se usa antes de escribir un cálculo nuevo.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM pronosticos_demanda", nativeQuery = true)
+    void eliminarTodo();
+
+    /**
+     * Obtiene los productos activos cuyo stock actual en un almacén activo está en su punto de
+     * reorden o por debajo. El stock se lee en el momento de la consulta, no en el del cálculo.
+     *
+     * @return Las sugerencias ordenadas por proveedor (los productos sin proveedor al final),
+     *         almacén y nombre de producto.
+     */
+    @Query(value = """
+        SELECT f.producto_id AS "productoId",
+               p.sku AS "sku",
+               p.nombre AS "nombreProducto",
+               f.almacen_id AS "almacenId",
+               a.nombre AS "nombreAlmacen",
+               pr.id AS "proveedorId",
+               pr.nombre AS "nombreProveedor",
+               COALESCE(ipa.cantidad, 0) AS "stockActual",
+               f.punto_reorden AS "puntoReorden",
+               f.stock_objetivo AS "stockObjetivo",
+               f.demanda_diaria AS "demandaDiaria",
+               p.precio_costo AS "costoUnitario"
+        FROM pronosticos_demanda f
+        JOIN productos p ON p.id = f.producto_id AND p.activo
+        JOIN almacenes a ON a.id = f.almacen_id AND a.activo
+        LEFT JOIN proveedores pr ON pr.id = p.proveedor_id AND pr.activo
+        LEFT JOIN inventario_por_almacen ipa ON ipa.producto_id = f.producto_id AND ipa.almacen_id = f.almacen_id
+        WHERE COALESCE(ipa.cantidad, 0) <= f.punto_reorden
+        ORDER BY pr.nombre NULLS LAST, a.nombre, p.nombre
+    """, nativeQuery = true)
+    List<FilaSugerencia> findSugerencias();
+}
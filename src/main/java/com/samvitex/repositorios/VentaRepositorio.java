@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio de Spring Data JPA para la entidad {@link Venta}.
@@ -28,7 +29,8 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
      *     <li>Une los detalles de venta ({@code VentaDetalle}) con los productos ({@code Producto}).</li>
      *     <li>Filtra las transacciones para incluir solo aquellas dentro del período de tiempo dado.</li>
      *     <li>Agrupa los resultados por el nombre del producto.</li>
-     *     <li>Calcula la suma de cantidades vendidas, el total de ingresos y una estimación de la ganancia bruta.</li>
+     *     <li>Calcula la suma de cantidades vendidas, el total de ingresos y la ganancia bruta, con el
+     *         costo unitario registrado en cada línea al salir del almacén.</li>
      *     <li>Proyecta estos resultados directamente en un {@link ReporteVentasDTO} para eficiencia.</li>
      *     <li>Ordena los resultados de mayor a menor ingreso.</li>
      * </ol>
@@ -42,7 +44,7 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
             p.nombre,
             SUM(vd.cantidad),
             SUM(vd.subtotalLinea),
-            SUM(vd.subtotalLinea - (p.precioCosto * vd.cantidad))
+            SUM(vd.subtotalLinea - (vd.costoUnitario * vd.cantidad))
         )
         FROM VentaDetalle vd JOIN vd.producto p
         WHERE vd.venta.fechaVenta BETWEEN :fechaInicio AND :fechaFin
@@ -84,4 +86,13 @@ public interface VentaRepositorio extends JpaRepository<Venta, Long> {
             @Param("fechaInicio") Instant fechaInicio,
             @Param("fechaFin") Instant fechaFin
     );
-}
\ No newline at end of file
+
+    /**
+     * Obtiene la fecha de la venta más antigua registrada.
+     * Marca el punto de partida de la reconstrucción del resumen diario de ventas.
+     *
+     * @return La fecha de la primera venta, o vacío si no hay ventas.
+     */
+    @Query("SELECT MIN(v.fechaVenta) FROM Venta v")
+    Optional<Instant> findFechaPrimeraVenta();
+}
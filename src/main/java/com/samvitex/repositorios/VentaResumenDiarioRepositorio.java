@@ -0,0 +1,224 @@
+package com.samvitex.repositorios;
+
+import com.samvitex.modelos.entidades.VentaResumenDiario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio de Spring Data JPA para el resumen {@link VentaResumenDiario}.
+ *
+ * <p>Como en {@link ProductoStockResumenRepositorio}, las escrituras se hacen con SQL nativo
+ * que deriva cada fila de {@code ventas_detalle}, sin depender del estado en memoria de las
+ * entidades. El día de cada venta se calcula en la zona horaria recibida como parámetro.</p>
+ */
+@Repository
+public interface VentaResumenDiarioRepositorio extends JpaRepository<VentaResumenDiario, VentaResumenDiario.Clave> {
+
+    /**
+     * Proyección de una fila del reporte de ventas por producto.
+     */
+    interface FilaReporteVentas {
+        String getNombreProducto();
+        Long getUnidades();
+        BigDecimal getIngresos();
+        BigDecimal getGanancia();
+    }
+
+    /**
+     * Reporte de ventas por producto: días completos desde el resumen más las líneas de los
+     * bordes del rango (ver {@link #findReporteVentasPorDiasYBordes}).
+     */
+    String CONSULTA_REPORTE_VENTAS = """
+            SELECT p.nombre AS "nombreProducto",
+                   SUM(x.unidades) AS "unidades",
+                   SUM(x.ingresos) AS "ingresos",
+                   SUM(x.ingresos) - SUM(x.costo) AS "ganancia"
+            FROM (
+                SELECT r.producto_id, r.unidades, r.ingresos, r.costo
+                FROM ventas_resumen_diario r
+                WHERE r.dia BETWEEN :diaDesde AND :diaHasta
+                UNION ALL
+                SELECT vd.producto_id, vd.cantidad, vd.subtotal_linea, vd.costo_unitario * vd.cantidad
+                FROM ventas_detalle vd
+                JOIN ventas v ON v.id = vd.venta_id
+                WHERE (v.fecha_venta >= :inicio AND v.fecha_venta < :inicioDias)
+                   OR (v.fecha_venta >= :finDias AND v.fecha_venta <= :fin)
+            ) x
+            JOIN productos p ON p.id = x.producto_id
+            GROUP BY p.id, p.nombre
+            ORDER BY SUM(x.ingresos) DESC
+        """;
+
+    /**
+     * Proyección de las ventas de un producto en un almacén durante un día, con el día expresado
+     * como número de días desde el inicio del historial consultado.
+     */
+    interface VentaDiaria {
+        Integer getProductoId();
+        Integer getAlmacenId();
+        int getIndiceDia();
+        long getUnidades();
+    }
+
+    /**
+     * Suma al resumen las líneas de una venta recién registrada.
+     * Fuerza un flush previo para que la venta y sus detalles de la transacción actual sean visibles.
+     *
+     * @param ventaId El ID de la venta.
+     * @param zonaHoraria La zona horaria que define el día de la venta.
+     * @return El número de filas insertadas o actualizadas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        INSERT INTO ventas_resumen_diario (dia, producto_id, almacen_id, unidades, ingresos, costo)
+        SELECT CAST(v.fecha_venta AT TIME ZONE :zonaHoraria AS DATE),
+               vd.producto_id,
+               v.almacen_origen_id,
+               SUM(vd.cantidad),
+               SUM(vd.subtotal_linea),
+               SUM(vd.costo_unitario * vd.cantidad)
+        FROM ventas_detalle vd
+        JOIN ventas v ON v.id = vd.venta_id
+        WHERE v.id = :ventaId
+        GROUP BY 1, 2, 3
+        ORDER BY 2
+        ON CONFLICT (dia, producto_id, almacen_id) DO UPDATE SET
+            unidades = ventas_resumen_diario.unidades + EXCLUDED.unidades,
+            ingresos = ventas_resumen_diario.ingresos + EXCLUDED.ingresos,
+            costo = ventas_resumen_diario.costo + EXCLUDED.costo
+    """, nativeQuery = true)
+    int acumularVenta(@Param("ventaId") Long ventaId, @Param("zonaHoraria") String zonaHoraria);
+
+    /**
+     * Bloquea el resumen frente a nuevas ventas hasta el fin de la transacción. Las ventas que
+     * intenten acumular esperan, y las que ya acumularon están confirmadas y visibles, de modo
+     * que un tramo reconstruido no pierde ni duplica ventas concurrentes.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE ventas_resumen_diario IN SHARE ROW EXCLUSIVE MODE", nativeQuery = true)
+    void bloquearParaReconstruccion();
+
+    /**
+     * Elimina las filas del resumen en un rango de días.
+     *
+     * @param diaDesde El primer día (inclusivo).
+     * @param diaHasta El último día (exclusivo).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM ventas_resumen_diario WHERE dia >= :diaDesde AND dia < :diaHasta", nativeQuery = true)
+    int eliminarDias(@Param("diaDesde") LocalDate diaDesde, @Param("diaHasta") LocalDate diaHasta);
+
+    /**
+     * Elimina las filas del resumen anteriores a un día.
+     *
+     * @param dia El primer día que se conserva.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM ventas_resumen_diario WHERE dia < :dia", nativeQuery = true)
+    int eliminarDiasAnterioresA(@Param("dia") LocalDate dia);
+
+    /**
+     * Recalcula el resumen de las ventas registradas en un intervalo.
+     *
+     * @param desde El inicio del intervalo (inclusivo).
+     * @param hasta El fin del intervalo (exclusivo).
+     * @param zonaHoraria La zona horaria que define el día de cada venta.
+     * @return El número de filas insertadas.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO ventas_resumen_diario (dia, producto_id, almacen_id, unidades, ingresos, costo)
+        SELECT CAST(v.fecha_venta AT TIME ZONE :zonaHoraria AS DATE),
+               vd.producto_id,
+               v.almacen_origen_id,
+               SUM(vd.cantidad),
+               SUM(vd.subtotal_linea),
+               SUM(vd.costo_unitario * vd.cantidad)
+        FROM ventas_detalle vd
+        JOIN ventas v ON v.id = vd.venta_id
+        WHERE v.fecha_venta >= :desde AND v.fecha_venta < :hasta
+        GROUP BY 1, 2, 3
+    """, nativeQuery = true)
+    int insertarDesdeVentas(@Param("desde") Instant desde, @Param("hasta") Instant hasta, @Param("zonaHoraria") String zonaHoraria);
+
+    /**
+     * Genera el reporte de ventas por producto combinando los días completos del resumen con las
+     * líneas de venta de los días parciales en los bordes del rango.
+     * <p>Las líneas sueltas se valoran con el costo unitario registrado en cada una, como en
+     * {@link VentaRepositorio#findReporteVentasPorPeriodo}.</p>
+     *
+     * @param diaDesde El primer día completo.
+     * @param diaHasta El último día completo.
+     * @param inicio El inicio del rango (inclusivo).
+     * @param inicioDias El inicio del primer día completo: fin (exclusivo) del borde inicial.
+     * @param finDias El fin del último día completo: inicio (inclusivo) del borde final.
+     * @param fin El fin del rango (inclusivo).
+     * @return Las filas del reporte, de mayor a menor ingreso.
+     */
+    @Query(value = CONSULTA_REPORTE_VENTAS, nativeQuery = true)
+    List<FilaReporteVentas> findReporteVentasPorDiasYBordes(
+            @Param("diaDesde") LocalDate diaDesde,
+            @Param("diaHasta") LocalDate diaHasta,
+            @Param("inicio") Instant inicio,
+            @Param("inicioDias") Instant inicioDias,
+            @Param("finDias") Instant finDias,
+            @Param("fin") Instant fin
+    );
+
+    /**
+     * Variante de {@link #findReporteVentasPorDiasYBordes} que recorre el resultado con un cursor
+     * del servidor, para exportarlo sin cargarlo completo en memoria.
+     * <p>Debe consumirse dentro de una transacción y cerrarse al terminar.</p>
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = CONSULTA_REPORTE_VENTAS, nativeQuery = true)
+    Stream<FilaReporteVentas> streamReporteVentasPorDiasYBordes(
+            @Param("diaDesde") LocalDate diaDesde,
+            @Param("diaHasta") LocalDate diaHasta,
+            @Param("inicio") Instant inicio,
+            @Param("inicioDias") Instant inicioDias,
+            @Param("finDias") Instant finDias,
+            @Param("fin") Instant fin
+    );
+
+    /**
+     * Recorre las ventas diarias de los productos activos en un rango de días, agrupadas en series
+     * producto × almacén. Es la entrada del pronóstico de demanda de
+     * {@link com.samvitex.servicios.ServicioReabastecimiento}.
+     * <p>Debe consumirse dentro de una transacción y cerrarse al terminar.</p>
+     *
+     * @param diaDesde El primer día (inclusivo); su índice es 0.
+     * @param diaHasta El último día (exclusivo).
+     * @return Las ventas ordenadas por producto, almacén y día. Los días sin ventas no aparecen.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+        SELECT r.producto_id AS "productoId",
+               r.almacen_id AS "almacenId",
+               r.dia - CAST(:diaDesde AS DATE) AS "indiceDia",
+               r.unidades AS "unidades"
+        FROM ventas_resumen_diario r
+        JOIN productos p ON p.id = r.producto_id
+        WHERE r.dia >= :diaDesde AND r.dia < :diaHasta AND p.activo
+        ORDER BY r.producto_id, r.almacen_id, r.dia
+    """, nativeQuery = true)
+    Stream<VentaDiaria> streamVentasDiarias(@Param("diaDesde") LocalDate diaDesde, @Param("diaHasta") LocalDate diaHasta);
+}
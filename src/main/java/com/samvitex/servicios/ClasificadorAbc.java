@@ -0,0 +1,120 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.CurvaParetoDTO;
+import com.samvitex.modelos.enums.ClaseAbc;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Clasificación ABC (Pareto) de un conjunto de valores no negativos, uno por producto.
+ * <p>
+ * Trabaja sobre arreglos primitivos indexados por la posición del producto en el reporte, sin
+ * objetos por producto. El ordenamiento ({@link Arrays#parallelSort(long[])}) y la suma
+ * acumulada ({@link Arrays#parallelPrefix(long[], java.util.function.LongBinaryOperator)}) se
+ * reparten entre los núcleos con el pool fork/join común.
+ */
+final class ClasificadorAbc {
+
+    static final double UMBRAL_A = 0.80;
+    static final double UMBRAL_B = 0.95;
+    private static final int PUNTOS_CURVA = 101;
+
+    /**
+     * Resultado de clasificar un criterio.
+     *
+     * @param orden Las posiciones de los productos, de mayor a menor valor.
+     * @param clases La clase de cada producto, por posición.
+     * @param acumulado La participación acumulada de cada producto, por posición.
+     * @param curva La curva de Pareto y el tamaño de cada clase.
+     */
+    record Clasificacion(int[] orden, ClaseAbc[] clases, double[] acumulado, CurvaParetoDTO curva) {}
+
+    private ClasificadorAbc() {
+    }
+
+    /**
+     * Clasifica los primeros {@code n} valores.
+     *
+     * @param valores El valor de cada producto (no negativo), por posición.
+     * @param n El número de productos.
+     */
+    static Clasificacion clasificar(long[] valores, int n) {
+        int[] orden = ordenDescendente(valores, n);
+
+        long[] acumulados = new long[n];
+        for (int k = 0; k < n; k++) {
+            acumulados[k] = valores[orden[k]];
+        }
+        Arrays.parallelPrefix(acumulados, Long::sum);
+        long total = n == 0 ? 0 : acumulados[n - 1];
+
+        ClaseAbc[] clases = new ClaseAbc[n];
+        double[] acumulado = new double[n];
+        int[] productosPorClase = new int[3];
+        long[] totalPorClase = new long[3];
+        long previo = 0;
+        for (int k = 0; k < n; k++) {
+            int posicion = orden[k];
+            // Un producto pertenece a la clase en la que empieza su aporte al total.
+            double participacionPrevia = total == 0 ? 1 : (double) previo / total;
+            ClaseAbc clase = valores[posicion] == 0 ? ClaseAbc.C
+                    : participacionPrevia < UMBRAL_A ? ClaseAbc.A
+                    : participacionPrevia < UMBRAL_B ? ClaseAbc.B
+                    : ClaseAbc.C;
+            clases[posicion] = clase;
+            acumulado[posicion] = total == 0 ? 0 : (double) acumulados[k] / total;
+            productosPorClase[clase.ordinal()]++;
+            totalPorClase[clase.ordinal()] += valores[posicion];
+            previo = acumulados[k];
+        }
+
+        double[] curva = new double[PUNTOS_CURVA];
+        for (int i = 1; i < PUNTOS_CURVA; i++) {
+            int productos = (int) Math.ceil((double) n * i / (PUNTOS_CURVA - 1));
+            curva[i] = total == 0 || productos == 0 ? 0 : (double) acumulados[productos - 1] / total;
+        }
+        double[] participacionPorClase = new double[3];
+        for (int c = 0; c < 3; c++) {
+            participacionPorClase[c] = total == 0 ? 0 : (double) totalPorClase[c] / total;
+        }
+        return new Clasificacion(orden, clases, acumulado, new CurvaParetoDTO(curva, productosPorClase, participacionPorClase));
+    }
+
+    /**
+     * Ordena las posiciones de mayor a menor valor (a igual valor, por posición).
+     * <p>
+     * Cada par (valor, posición) se empaqueta en un {@code long} con la posición en los bits bajos,
+     * de modo que basta ordenar un arreglo primitivo. Si algún valor no cabe en los bits
+     * restantes, se ordena con un comparador.
+     */
+    private static int[] ordenDescendente(long[] valores, int n) {
+        int bitsPosicion = Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+        long maximo = 0;
+        for (int i = 0; i < n; i++) {
+            maximo = Math.max(maximo, valores[i]);
+        }
+        int[] orden = new int[n];
+        if (maximo < (1L << (63 - bitsPosicion))) {
+            long mascara = (1L << bitsPosicion) - 1;
+            long[] claves = new long[n];
+            for (int i = 0; i < n; i++) {
+                // Se invierte la posición para que, al recorrer al revés, los empates queden en orden ascendente.
+                claves[i] = (valores[i] << bitsPosicion) | (mascara - i);
+            }
+            Arrays.parallelSort(claves);
+            for (int k = 0; k < n; k++) {
+                orden[k] = (int) (mascara - (claves[n - 1 - k] & mascara));
+            }
+            return orden;
+        }
+        Integer[] posiciones = new Integer[n];
+        Arrays.setAll(posiciones, i -> i);
+        Arrays.parallelSort(posiciones, Comparator.<Integer>comparingLong(i -> valores[i]).reversed()
+                .thenComparingInt(i -> i));
+        for (int k = 0; k < n; k++) {
+            orden[k] = posiciones[k];
+        }
+        return orden;
+    }
+}
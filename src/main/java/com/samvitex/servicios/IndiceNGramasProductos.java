@@ -0,0 +1,429 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.ProductoIndexableDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de n-gramas sobre nombre, SKU y categoría de los productos.
+ * <p>
+ * Cada producto ocupa un "slot" con sus textos ya normalizados (minúsculas y sin acentos).
+ * Por cada trigrama de esos textos, y por los prefijos de 1 y 2 letras de cada palabra,
+ * se guarda una lista de slots en un arreglo {@code int[]} ordenado. Una búsqueda intersecta
+ * las listas de los gramas del término y verifica los candidatos contra el texto.
+ * <p>
+ * Las listas solo crecen por el final: modificar un producto marca su slot anterior como
+ * muerto y le asigna uno nuevo. Cuando los slots muertos superan un cuarto del total, el
+ * índice se compacta reconstruyéndose desde los textos que ya tiene en memoria.
+ * <p>
+ * Esta clase no es segura para hilos; {@link ServicioIndiceProductos} sincroniza el acceso.
+ */
+final class IndiceNGramasProductos {
+
+    /** Marca de inicio de palabra para los gramas de prefijo. */
+    private static final char INICIO = '\u0002';
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private static final int PUNTAJE_SKU_EXACTO = 100;
+    private static final int PUNTAJE_SKU_PREFIJO = 60;
+    private static final int PUNTAJE_PALABRA_PREFIJO = 40;
+    private static final int PUNTAJE_NOMBRE_CONTIENE = 20;
+    private static final int PUNTAJE_OTRO = 10;
+
+    // --- Datos por slot ---
+    private int[] productoIds = new int[1024];
+    private String[] nombres = new String[1024];
+    private String[] skus = new String[1024];
+    private String[] categorias = new String[1024];
+    private final BitSet vivos = new BitSet();
+    private int totalSlots;
+    private int slotsMuertos;
+
+    /** Slot vigente de cada producto, indexado por ID de producto (-1 si no está indexado). */
+    private int[] slotPorProducto = new int[1024];
+
+    private final TablaGramas gramas = new TablaGramas();
+
+    IndiceNGramasProductos() {
+        Arrays.fill(slotPorProducto, -1);
+    }
+
+    /**
+     * Normaliza un texto para indexarlo o buscarlo: minúsculas, sin acentos y con espacios simples.
+     */
+    static String plegar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return "";
+        }
+        String sinAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return ESPACIOS.matcher(sinAcentos.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    int tamano() {
+        return totalSlots - slotsMuertos;
+    }
+
+    /**
+     * Inserta o reemplaza un producto en el índice.
+     */
+    void agregar(ProductoIndexableDTO producto) {
+        eliminar(producto.id());
+        int slot = totalSlots++;
+        asegurarCapacidadSlots(slot + 1);
+        productoIds[slot] = producto.id();
+        nombres[slot] = plegar(producto.nombre());
+        skus[slot] = plegar(producto.sku());
+        categorias[slot] = plegar(producto.categoria());
+        vivos.set(slot);
+        asegurarCapacidadProductos(producto.id());
+        slotPorProducto[producto.id()] = slot;
+
+        indexarTexto(slot, nombres[slot]);
+        indexarTexto(slot, skus[slot]);
+        indexarTexto(slot, categorias[slot]);
+    }
+
+    /**
+     * Quita un producto del índice. No hace nada si el producto no estaba indexado.
+     */
+    void eliminar(Integer productoId) {
+        if (productoId == null || productoId >= slotPorProducto.length || slotPorProducto[productoId] < 0) {
+            return;
+        }
+        vivos.clear(slotPorProducto[productoId]);
+        slotPorProducto[productoId] = -1;
+        slotsMuertos++;
+        if (slotsMuertos > 1024 && slotsMuertos * 4 > totalSlots) {
+            compactar();
+        }
+    }
+
+    /**
+     * Busca los productos cuyo nombre, SKU o categoría contengan todas las palabras del texto.
+     * Las palabras de una o dos letras solo coinciden con el inicio de una palabra.
+     *
+     * @param texto El texto tal como lo escribió el usuario.
+     * @param limite Número máximo de resultados.
+     * @return Los IDs de producto ordenados por relevancia.
+     */
+    List<Integer> buscar(String texto, int limite) {
+        String[] terminos = Arrays.stream(plegar(texto).split(" "))
+                .filter(t -> !t.isEmpty())
+                .toArray(String[]::new);
+        if (terminos.length == 0) {
+            return List.of();
+        }
+
+        // Se intersecta empezando por la grama más selectiva para que los candidatos se reduzcan pronto.
+        long[] claves = Arrays.stream(terminos)
+                .flatMapToLong(t -> Arrays.stream(gramasDeConsulta(t)))
+                .distinct()
+                .boxed()
+                .sorted((a, b) -> Integer.compare(gramas.tamano(a), gramas.tamano(b)))
+                .mapToLong(Long::longValue)
+                .toArray();
+        int[] candidatos = gramas.copiaDeLista(claves[0]);
+        for (int i = 1; i < claves.length && candidatos.length > 0; i++) {
+            candidatos = gramas.intersectar(candidatos, claves[i]);
+        }
+
+        // Cada resultado se codifica como puntaje | desempate | slot para ordenarlo como un long.
+        long[] resultados = new long[Math.min(candidatos.length, 4096)];
+        int encontrados = 0;
+        for (int slot : candidatos) {
+            if (!vivos.get(slot)) {
+                continue;
+            }
+            int puntaje = puntuar(slot, terminos);
+            if (puntaje <= 0) {
+                continue;
+            }
+            if (encontrados == resultados.length) {
+                resultados = Arrays.copyOf(resultados, resultados.length * 2);
+            }
+            // Desempate: a igual puntaje, los nombres más cortos son coincidencias más precisas.
+            int desempate = Math.max(0, 0xFFFF - nombres[slot].length());
+            resultados[encontrados++] = ((long) puntaje << 48) | ((long) desempate << 32) | slot;
+        }
+
+        Arrays.sort(resultados, 0, encontrados);
+        List<Integer> ids = new ArrayList<>(Math.min(encontrados, limite));
+        for (int i = encontrados - 1; i >= 0 && ids.size() < limite; i--) {
+            ids.add(productoIds[(int) (resultados[i] & 0xFFFFFFFFL)]);
+        }
+        return ids;
+    }
+
+    /**
+     * Reemplaza todo el contenido del índice.
+     */
+    void reconstruir(Collection<ProductoIndexableDTO> productos) {
+        limpiar();
+        for (ProductoIndexableDTO producto : productos) {
+            agregar(producto);
+        }
+    }
+
+    // --- Internos ---
+
+    /**
+     * Verifica un candidato (los gramas solo garantizan una coincidencia probable) y calcula
+     * su relevancia. Devuelve 0 si alguna palabra no coincide realmente.
+     */
+    private int puntuar(int slot, String[] terminos) {
+        String nombre = nombres[slot];
+        String sku = skus[slot];
+        String categoria = categorias[slot];
+        int total = 0;
+        for (String termino : terminos) {
+            int puntaje;
+            if (sku.equals(termino)) {
+                puntaje = PUNTAJE_SKU_EXACTO;
+            } else if (sku.startsWith(termino)) {
+                puntaje = PUNTAJE_SKU_PREFIJO;
+            } else if (empiezaPalabra(nombre, termino)) {
+                puntaje = PUNTAJE_PALABRA_PREFIJO;
+            } else if (termino.length() < 3) {
+                puntaje = (empiezaPalabra(sku, termino) || empiezaPalabra(categoria, termino)) ? PUNTAJE_OTRO : 0;
+            } else if (nombre.contains(termino)) {
+                puntaje = PUNTAJE_NOMBRE_CONTIENE;
+            } else {
+                puntaje = (sku.contains(termino) || categoria.contains(termino)) ? PUNTAJE_OTRO : 0;
+            }
+            if (puntaje == 0) {
+                return 0;
+            }
+            total += puntaje;
+        }
+        return total;
+    }
+
+    private static boolean empiezaPalabra(String texto, String termino) {
+        int desde = 0;
+        while (desde >= 0) {
+            if (texto.startsWith(termino, desde)) {
+                return true;
+            }
+            desde = texto.indexOf(' ', desde);
+            if (desde >= 0) {
+                desde++;
+            }
+        }
+        return false;
+    }
+
+    private void indexarTexto(int slot, String texto) {
+        for (int i = 0; i + 2 < texto.length(); i++) {
+            agregarGrama(slot, clave(texto.charAt(i), texto.charAt(i + 1), texto.charAt(i + 2)));
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            if (i == 0 || texto.charAt(i - 1) == ' ') {
+                char c = texto.charAt(i);
+                if (c == ' ') {
+                    continue;
+                }
+                agregarGrama(slot, clave(INICIO, INICIO, c));
+                if (i + 1 < texto.length() && texto.charAt(i + 1) != ' ') {
+                    agregarGrama(slot, clave(INICIO, c, texto.charAt(i + 1)));
+                }
+            }
+        }
+    }
+
+    private void agregarGrama(int slot, long clave) {
+        gramas.agregar(clave, slot);
+    }
+
+    private static long[] gramasDeConsulta(String termino) {
+        if (termino.length() == 1) {
+            return new long[]{clave(INICIO, INICIO, termino.charAt(0))};
+        }
+        if (termino.length() == 2) {
+            return new long[]{clave(INICIO, termino.charAt(0), termino.charAt(1))};
+        }
+        long[] claves = new long[termino.length() - 2];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = clave(termino.charAt(i), termino.charAt(i + 1), termino.charAt(i + 2));
+        }
+        return claves;
+    }
+
+    private static long clave(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private void compactar() {
+        List<ProductoIndexableDTO> activos = new ArrayList<>(tamano());
+        for (int slot = vivos.nextSetBit(0); slot >= 0; slot = vivos.nextSetBit(slot + 1)) {
+            // Los textos ya están plegados; volver a plegarlos no los altera.
+            activos.add(new ProductoIndexableDTO(productoIds[slot], nombres[slot], skus[slot], categorias[slot]));
+        }
+        reconstruir(activos);
+    }
+
+    private void limpiar() {
+        Arrays.fill(nombres, 0, totalSlots, null);
+        Arrays.fill(skus, 0, totalSlots, null);
+        Arrays.fill(categorias, 0, totalSlots, null);
+        Arrays.fill(slotPorProducto, -1);
+        vivos.clear();
+        totalSlots = 0;
+        slotsMuertos = 0;
+        gramas.limpiar();
+    }
+
+    private void asegurarCapacidadSlots(int capacidad) {
+        if (capacidad > productoIds.length) {
+            int nueva = Math.max(capacidad, productoIds.length * 2);
+            productoIds = Arrays.copyOf(productoIds, nueva);
+            nombres = Arrays.copyOf(nombres, nueva);
+            skus = Arrays.copyOf(skus, nueva);
+            categorias = Arrays.copyOf(categorias, nueva);
+        }
+    }
+
+    private void asegurarCapacidadProductos(int productoId) {
+        if (productoId >= slotPorProducto.length) {
+            int anterior = slotPorProducto.length;
+            slotPorProducto = Arrays.copyOf(slotPorProducto, Math.max(productoId + 1, anterior * 2));
+            Arrays.fill(slotPorProducto, anterior, slotPorProducto.length, -1);
+        }
+    }
+
+    /**
+     * Tabla hash de direccionamiento abierto de clave de grama ({@code long}) a su lista de slots.
+     * Evita el boxing y los objetos por entrada de un {@code HashMap<Long, List<Integer>>}.
+     */
+    private static final class TablaGramas {
+
+        private static final int[] VACIA = new int[0];
+
+        private long[] claves = new long[1 << 14];
+        private int[] indices = new int[1 << 14];
+        private int[][] listas = new int[1 << 13][];
+        private int[] tamanos = new int[1 << 13];
+        private int cantidad;
+
+        void agregar(long clave, int slot) {
+            int indice = buscarOCrear(clave);
+            int[] lista = listas[indice];
+            int tamano = tamanos[indice];
+            if (tamano > 0 && lista[tamano - 1] == slot) {
+                return; // La grama se repite dentro del mismo producto.
+            }
+            if (tamano == lista.length) {
+                lista = Arrays.copyOf(lista, tamano * 2);
+                listas[indice] = lista;
+            }
+            lista[tamano] = slot;
+            tamanos[indice] = tamano + 1;
+        }
+
+        int tamano(long clave) {
+            int indice = buscar(clave);
+            return indice < 0 ? 0 : tamanos[indice];
+        }
+
+        int[] copiaDeLista(long clave) {
+            int indice = buscar(clave);
+            return indice < 0 ? VACIA : Arrays.copyOf(listas[indice], tamanos[indice]);
+        }
+
+        /**
+         * Intersecta una lista ordenada de slots con la lista de una grama, sin copiar esta última.
+         */
+        int[] intersectar(int[] candidatos, long clave) {
+            int indice = buscar(clave);
+            if (indice < 0) {
+                return VACIA;
+            }
+            int[] lista = listas[indice];
+            int tamano = tamanos[indice];
+            int[] resultado = new int[Math.min(candidatos.length, tamano)];
+            int i = 0, j = 0, n = 0;
+            while (i < candidatos.length && j < tamano) {
+                if (candidatos[i] < lista[j]) {
+                    i++;
+                } else if (candidatos[i] > lista[j]) {
+                    j++;
+                } else {
+                    resultado[n++] = candidatos[i];
+                    i++;
+                    j++;
+                }
+            }
+            return n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+        }
+
+        void limpiar() {
+            Arrays.fill(claves, 0L);
+            Arrays.fill(listas, 0, cantidad, null);
+            Arrays.fill(tamanos, 0, cantidad, 0);
+            cantidad = 0;
+        }
+
+        private int buscar(long clave) {
+            int mascara = claves.length - 1;
+            for (int pos = mezclar(clave) & mascara; claves[pos] != 0; pos = (pos + 1) & mascara) {
+                if (claves[pos] == clave) {
+                    return indices[pos];
+                }
+            }
+            return -1;
+        }
+
+        private int buscarOCrear(long clave) {
+            int mascara = claves.length - 1;
+            int pos = mezclar(clave) & mascara;
+            while (claves[pos] != 0) {
+                if (claves[pos] == clave) {
+                    return indices[pos];
+                }
+                pos = (pos + 1) & mascara;
+            }
+            if (cantidad == listas.length) {
+                listas = Arrays.copyOf(listas, cantidad * 2);
+                tamanos = Arrays.copyOf(tamanos, cantidad * 2);
+            }
+            int indice = cantidad++;
+            listas[indice] = new int[4];
+            claves[pos] = clave;
+            indices[pos] = indice;
+            if (cantidad * 2 > claves.length) {
+                redimensionar();
+            }
+            return indice;
+        }
+
+        private void redimensionar() {
+            long[] clavesAnteriores = claves;
+            int[] indicesAnteriores = indices;
+            claves = new long[clavesAnteriores.length * 2];
+            indices = new int[clavesAnteriores.length * 2];
+            int mascara = claves.length - 1;
+            for (int i = 0; i < clavesAnteriores.length; i++) {
+                if (clavesAnteriores[i] != 0) {
+                    int pos = mezclar(clavesAnteriores[i]) & mascara;
+                    while (claves[pos] != 0) {
+                        pos = (pos + 1) & mascara;
+                    }
+                    claves[pos] = clavesAnteriores[i];
+                    indices[pos] = indicesAnteriores[i];
+                }
+            }
+        }
+
+        private static int mezclar(long clave) {
+            long h = clave * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.samvitex.servicios;
+
+/**
+ * Pronóstico de la demanda diaria de una serie de ventas por suavizamiento exponencial simple.
+ * <p>
+ * La serie llega en forma dispersa (solo los días con ventas, en orden) y se recorre día a día
+ * desde la primera venta, contando como cero los días sin ventas. El nivel inicial es el promedio
+ * de los primeros días; a partir de ahí cada día corrige el nivel en una fracción {@code alfa} del
+ * error. La desviación es la raíz del error cuadrático medio de los pronósticos de un día, que es
+ * la que determina el stock de seguridad.
+ */
+final class PronosticadorDemanda {
+
+    /** Días con los que se promedia el nivel inicial. */
+    private static final int DIAS_INICIALES = 7;
+
+    /**
+     * Demanda diaria pronosticada y desviación típica de su error.
+     */
+    record Pronostico(double demanda, double desviacion) {}
+
+    private PronosticadorDemanda() {
+    }
+
+    /**
+     * Pronostica la demanda de una serie.
+     *
+     * @param dias Los índices de los días con ventas, en orden ascendente.
+     * @param unidades Las unidades vendidas en cada uno de esos días.
+     * @param desde La posición del primer día de la serie en los arreglos.
+     * @param hasta La posición siguiente al último día de la serie.
+     * @param totalDias El número de días del historial; el último índice posible es {@code totalDias - 1}.
+     * @param alfa El factor de suavizamiento, entre 0 y 1.
+     */
+    static Pronostico pronosticar(int[] dias, long[] unidades, int desde, int hasta, int totalDias, double alfa) {
+        int primerDia = dias[desde];
+        int diasIniciales = Math.min(DIAS_INICIALES, totalDias - primerDia);
+
+        double suma = 0;
+        for (int k = desde; k < hasta && dias[k] < primerDia + diasIniciales; k++) {
+            suma += unidades[k];
+        }
+        double nivel = suma / diasIniciales;
+
+        double sumaErrores = 0;
+        int errores = 0;
+        int k = desde;
+        for (int dia = primerDia; dia < totalDias; dia++) {
+            long vendidas = 0;
+            if (k < hasta && dias[k] == dia) {
+                vendidas = unidades[k++];
+            }
+            double error = vendidas - nivel;
+            if (dia >= primerDia + diasIniciales) {
+                sumaErrores += error * error;
+                errores++;
+            }
+            nivel += alfa * error;
+        }
+        // Con muy poco historial no hay errores que medir: se supone una demanda de Poisson.
+        double desviacion = errores > 0 ? Math.sqrt(sumaErrores / errores) : Math.sqrt(nivel);
+        return new Pronostico(nivel, desviacion);
+    }
+}
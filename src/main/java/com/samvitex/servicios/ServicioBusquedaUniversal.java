@@ -3,56 +3,271 @@ package com.samvitex.servicios;
 import com.samvitex.modelos.dto.SearchResultDTO;
 import com.samvitex.repositorios.ClienteRepositorio;
 import com.samvitex.repositorios.ProductoRepositorio;
+import com.samvitex.utilidades.jdbc.AmbitoCancelacion;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.regex.Pattern;
 
 /**
  * Servicio de negocio para realizar búsquedas globales a través de múltiples entidades.
  * <p>
- * Este servicio centraliza la lógica para buscar en diferentes repositorios (Productos, Clientes, etc.)
- * y consolidar los resultados en una lista unificada de {@link SearchResultDTO}. Es utilizado
- * por la barra de búsqueda universal en la ventana principal de la aplicación.
+ * Cada tipo de entidad es una {@link Fuente} que busca en su repositorio con el límite y el orden
+ * de relevancia aplicados en SQL. Las fuentes se consultan en paralelo y sus resultados se
+ * mezclan por relevancia: coincidencia exacta del código (SKU, DNI/RUC), luego las que empiezan
+ * con el texto y por último las que solo lo contienen. Para agregar un tipo de entidad basta con
+ * registrar una fuente más en el constructor.
+ * <p>
+ * Los resultados de cada fuente se guardan unos segundos por texto buscado. Si una fuente devolvió
+ * menos coincidencias que el límite para un texto, su lista está completa y sirve para cualquier
+ * texto que empiece con él: al seguir escribiendo se filtra en memoria sin volver a la base de datos.
  */
 @Service
 public class ServicioBusquedaUniversal {
 
-    private final ProductoRepositorio productoRepositorio;
-    private final ClienteRepositorio clienteRepositorio;
+    private static final int MAX_ENTRADAS_CACHE = 200;
+    private static final long VIGENCIA_CACHE_MS = 30_000;
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Una entidad encontrada. {@code nombre} y {@code codigo} van normalizados aparte para poder
+     * volver a filtrarla y clasificarla en memoria.
+     */
+    private record Coincidencia(Integer id, String tipo, String nombre, String codigo, String textoSecundario, int rango,
+                                String nombreNormalizado, String codigoNormalizado) {
+
+        Coincidencia(Integer id, String tipo, String nombre, String codigo, String textoSecundario, int rango) {
+            this(id, tipo, nombre, codigo, textoSecundario, rango, normalizar(nombre), normalizar(codigo));
+        }
+
+        boolean contiene(String termino) {
+            return nombreNormalizado.contains(termino) || codigoNormalizado.contains(termino);
+        }
+
+        /**
+         * El mismo rango que calculan las consultas de los repositorios.
+         */
+        Coincidencia conRangoPara(String termino) {
+            int nuevoRango;
+            if (codigoNormalizado.equals(termino)) {
+                nuevoRango = 0;
+            } else if (codigoNormalizado.startsWith(termino) || nombreNormalizado.startsWith(termino)
+                    || nombreNormalizado.contains(" " + termino)) {
+                nuevoRango = 1;
+            } else {
+                nuevoRango = 2;
+            }
+            return new Coincidencia(id, tipo, nombre, codigo, textoSecundario, nuevoRango, nombreNormalizado, codigoNormalizado);
+        }
+
+        SearchResultDTO aResultado() {
+            return new SearchResultDTO(id, tipo, nombre, textoSecundario);
+        }
+    }
+
+    private static final Comparator<Coincidencia> POR_RELEVANCIA = Comparator
+            .comparingInt(Coincidencia::rango)
+            .thenComparingInt(c -> c.nombre().length())
+            .thenComparing(Coincidencia::nombre)
+            .thenComparing(Coincidencia::id);
+
+    /**
+     * Un tipo de entidad en el que se busca.
+     *
+     * @param tipo El tipo de los resultados ({@link SearchResultDTO#tipo()}).
+     * @param buscar Recibe el texto y el límite, y devuelve las coincidencias ordenadas por relevancia.
+     */
+    private record Fuente(String tipo, BiFunction<String, Integer, List<Coincidencia>> buscar) {
+    }
+
+    /**
+     * Las coincidencias de una fuente para un texto.
+     *
+     * @param completa {@code true} si son todas las que hay (la fuente devolvió menos que el límite).
+     */
+    private record ResultadoFuente(List<Coincidencia> coincidencias, int limite, boolean completa, long obtenidoEn) {
+    }
+
+    private record ClaveCache(String tipo, String termino) {
+    }
+
+    private final List<Fuente> fuentes;
+    private final ExecutorService ejecutor;
+    private final Map<ClaveCache, ResultadoFuente> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClaveCache, ResultadoFuente> eldest) {
+            return size() > MAX_ENTRADAS_CACHE;
+        }
+    };
 
     public ServicioBusquedaUniversal(ProductoRepositorio productoRepositorio, ClienteRepositorio clienteRepositorio) {
-        this.productoRepositorio = productoRepositorio;
-        this.clienteRepositorio = clienteRepositorio;
+        this.fuentes = List.of(
+                new Fuente("PRODUCTO", (texto, limite) -> productoRepositorio.buscarCoincidencias(texto, limite).stream()
+                        .map(p -> new Coincidencia(p.getId(), "PRODUCTO", p.getNombre(), p.getSku(), "SKU: " + p.getSku(), p.getRango()))
+                        .toList()),
+                new Fuente("CLIENTE", (texto, limite) -> clienteRepositorio.buscarCoincidencias(texto, limite).stream()
+                        .map(c -> new Coincidencia(c.getId(), "CLIENTE", c.getNombreCompleto(), c.getDniRuc(), "DNI/RUC: " + c.getDniRuc(), c.getRango()))
+                        .toList()));
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(fuentes.size(), tarea -> {
+            Thread hilo = new Thread(tarea, "busqueda-universal-" + numeroHilo.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
     }
 
     /**
-     * Busca productos y clientes que coincidan con el término de búsqueda y los devuelve como una lista unificada.
-     * La búsqueda es insensible a mayúsculas/minúsculas y acentos.
+     * Busca productos y clientes que coincidan con el término de búsqueda y los devuelve como una
+     * lista unificada, ordenada por relevancia. La búsqueda es insensible a mayúsculas/minúsculas y acentos.
+     * <p>
+     * Si se invoca dentro de un {@link AmbitoCancelacion}, las consultas paralelas quedan en el
+     * mismo ámbito: cancelarlo las cancela todas.
      *
      * @param termino El texto a buscar.
      * @param limite El número máximo de resultados a devolver.
      * @return Una lista de {@link SearchResultDTO}.
      */
-    @Transactional(readOnly = true)
-    public List<SearchResultDTO> buscar(String termino, int limite) {
+    public List<SearchResultDTO> buscar(String termino, int limite) throws InterruptedException {
         if (termino == null || termino.isBlank()) {
             return List.of();
         }
+        String texto = termino.trim();
+        String normalizado = normalizar(texto);
 
-        var resultadosProductos = productoRepositorio
-                .findByNombreContainingIgnoreCaseOrSkuContainingIgnoreCase(termino)
-                .stream()
-                .map(p -> new SearchResultDTO(p.getId(), "PRODUCTO", p.getNombre(), "SKU: " + p.getSku()));
+        List<Coincidencia> coincidencias = new ArrayList<>();
+        List<Fuente> pendientes = new ArrayList<>();
+        for (Fuente fuente : fuentes) {
+            ResultadoFuente enCache = buscarEnCache(fuente.tipo(), normalizado, limite);
+            if (enCache != null) {
+                coincidencias.addAll(enCache.coincidencias());
+            } else {
+                pendientes.add(fuente);
+            }
+        }
 
-        var resultadosClientes = clienteRepositorio
-                .findByNombreCompletoContainingIgnoreCase(termino)
-                .stream()
-                .map(c -> new SearchResultDTO(c.getId(), "CLIENTE", c.getNombreCompleto(), "DNI/RUC: " + c.getDniRuc()));
+        for (ResultadoFuente resultado : consultar(pendientes, texto, normalizado, limite)) {
+            coincidencias.addAll(resultado.coincidencias());
+        }
 
-        return Stream.concat(resultadosProductos, resultadosClientes)
+        return coincidencias.stream()
+                .sorted(POR_RELEVANCIA)
                 .limit(limite)
+                .map(Coincidencia::aResultado)
                 .toList();
     }
-}
\ No newline at end of file
+
+    /**
+     * Consulta las fuentes en paralelo; con una sola, lo hace en el hilo actual.
+     */
+    private List<ResultadoFuente> consultar(List<Fuente> pendientes, String texto, String normalizado, int limite)
+            throws InterruptedException {
+        if (pendientes.isEmpty()) {
+            return List.of();
+        }
+        if (pendientes.size() == 1) {
+            return List.of(consultarFuente(pendientes.get(0), texto, normalizado, limite));
+        }
+
+        AmbitoCancelacion ambito = AmbitoCancelacion.actual();
+        List<Future<ResultadoFuente>> futuros = new ArrayList<>();
+        for (Fuente fuente : pendientes) {
+            futuros.add(ejecutor.submit(() -> {
+                if (ambito != null) {
+                    ambito.activar();
+                }
+                try {
+                    return consultarFuente(fuente, texto, normalizado, limite);
+                } finally {
+                    if (ambito != null) {
+                        ambito.desactivar();
+                    }
+                }
+            }));
+        }
+
+        List<ResultadoFuente> resultados = new ArrayList<>();
+        try {
+            for (Future<ResultadoFuente> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+        } catch (ExecutionException e) {
+            futuros.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            futuros.forEach(f -> f.cancel(true));
+            throw e;
+        }
+        return resultados;
+    }
+
+    private ResultadoFuente consultarFuente(Fuente fuente, String texto, String normalizado, int limite) {
+        List<Coincidencia> coincidencias = fuente.buscar().apply(texto, limite);
+        ResultadoFuente resultado = new ResultadoFuente(coincidencias, limite, coincidencias.size() < limite, System.currentTimeMillis());
+        synchronized (cache) {
+            cache.put(new ClaveCache(fuente.tipo(), normalizado), resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca el resultado de una fuente en la caché: el del mismo texto, o uno completo de un texto
+     * más corto con el que este empieza, filtrado y reclasificado para este texto.
+     *
+     * @return El resultado, o {@code null} si hay que consultar la base de datos.
+     */
+    private ResultadoFuente buscarEnCache(String tipo, String normalizado, int limite) {
+        long vigenteDesde = System.currentTimeMillis() - VIGENCIA_CACHE_MS;
+        synchronized (cache) {
+            ResultadoFuente exacto = cache.get(new ClaveCache(tipo, normalizado));
+            if (exacto != null && exacto.obtenidoEn() >= vigenteDesde && (exacto.completa() || exacto.limite() >= limite)) {
+                return exacto;
+            }
+            for (int largo = normalizado.length() - 1; largo > 0; largo--) {
+                ResultadoFuente previo = cache.get(new ClaveCache(tipo, normalizado.substring(0, largo)));
+                if (previo != null && previo.completa() && previo.obtenidoEn() >= vigenteDesde) {
+                    List<Coincidencia> filtradas = previo.coincidencias().stream()
+                            .filter(c -> c.contiene(normalizado))
+                            .map(c -> c.conRangoPara(normalizado))
+                            .sorted(POR_RELEVANCIA)
+                            .toList();
+                    ResultadoFuente derivado = new ResultadoFuente(filtradas, previo.limite(), true, previo.obtenidoEn());
+                    cache.put(new ClaveCache(tipo, normalizado), derivado);
+                    return derivado;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Minúsculas y sin acentos, el equivalente en memoria de {@code f_unaccent(lower(...))}.
+     */
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("");
+    }
+}
@@ -0,0 +1,302 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.entidades.InventarioPorAlmacen;
+import com.samvitex.modelos.entidades.Producto;
+import com.samvitex.repositorios.InventarioPorAlmacenRepositorio;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caché por almacén de SKU → (producto, stock disponible) para el escaneo de códigos de barras
+ * en el punto de venta.
+ * <p>
+ * La primera lectura de un almacén carga en bloque todos sus productos vendibles. Después:
+ * <ul>
+ *     <li>Los movimientos de stock registrados por esta terminal ({@link ServicioStock}) actualizan
+ *         el stock de las entradas afectadas tras el commit.</li>
+ *     <li>Los cambios en el catálogo ({@link ServicioInventario}) invalidan la caché completa.</li>
+ *     <li>Los movimientos de otras terminales no se ven aquí; para acotar ese desfase, cada almacén
+ *         se recarga tras {@link #VIGENCIA_MS}. La recarga corre en segundo plano: mientras tanto el
+ *         escaneo sigue respondiendo con la caché anterior, y los movimientos de esta terminal que
+ *         lleguen durante la carga se vuelven a aplicar sobre la nueva. Un stock sobrestimado no es
+ *         peligroso: la venta se valida de forma atómica en la base de datos al confirmarse.</li>
+ * </ul>
+ * Un SKU ausente de la caché se consulta a la base de datos y, si existe, se incorpora.
+ * <p>
+ * También registra la tasa de aciertos y la latencia desde el escaneo hasta que el producto
+ * aparece en el carrito, que se informa periódicamente en el log.
+ */
+@Service
+public class ServicioCacheEscaneo {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioCacheEscaneo.class.getName());
+
+    private static final long VIGENCIA_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final int MUESTRAS_LATENCIA = 2048;
+    private static final int INFORMAR_CADA = 500;
+
+    /**
+     * Producto vendible y su stock disponible en el almacén en el momento de cachearlo.
+     */
+    public record EntradaEscaneo(Producto producto, int stockDisponible) {}
+
+    /**
+     * Métricas del escaneo: aciertos y fallos de la caché y percentil 99 de la latencia escaneo → carrito
+     * sobre las últimas muestras.
+     */
+    public record EstadisticasEscaneo(long aciertos, long fallos, double tasaAciertos, double p99Ms, int muestras) {}
+
+    private static final class CacheAlmacen {
+        final Map<String, EntradaEscaneo> porSku = new ConcurrentHashMap<>();
+        final long cargadoEn = System.currentTimeMillis();
+        final AtomicBoolean recargando = new AtomicBoolean();
+        /** Cambios de stock locales recibidos mientras se recarga; vacío indica que el SKU salió de la caché. */
+        Map<String, Optional<EntradaEscaneo>> cambiosDuranteRecarga;
+
+        boolean vigente() {
+            return System.currentTimeMillis() - cargadoEn < VIGENCIA_MS;
+        }
+    }
+
+    private final InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
+    private final Map<Integer, CacheAlmacen> caches = new ConcurrentHashMap<>();
+    private final Map<Integer, Object> candadosCarga = new ConcurrentHashMap<>();
+    /** Se incrementa al invalidar el catálogo para que una recarga en curso no reinstale datos viejos. */
+    private final AtomicLong generacion = new AtomicLong();
+    private final ExecutorService ejecutorRecargas;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final long[] latenciasNanos = new long[MUESTRAS_LATENCIA];
+    private long totalLatencias;
+
+    public ServicioCacheEscaneo(InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio) {
+        this.inventarioPorAlmacenRepositorio = inventarioPorAlmacenRepositorio;
+        this.ejecutorRecargas = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "recarga-cache-escaneo");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutorRecargas.shutdownNow();
+    }
+
+    /**
+     * Busca un producto vendible por SKU exacto en un almacén.
+     * No abre transacción: un acierto se resuelve sin tocar la base de datos.
+     *
+     * @param almacenId El ID del almacén.
+     * @param sku El SKU escaneado.
+     * @return El producto y su stock si está activo y tiene stock en el almacén.
+     */
+    public Optional<EntradaEscaneo> buscar(Integer almacenId, String sku) {
+        if (almacenId == null || sku == null || sku.isBlank()) {
+            return Optional.empty();
+        }
+        String clave = sku.trim();
+        CacheAlmacen cache = obtenerCache(almacenId);
+        EntradaEscaneo entrada = cache.porSku.get(clave);
+        if (entrada != null) {
+            aciertos.increment();
+            return Optional.of(entrada);
+        }
+
+        fallos.increment();
+        Optional<EntradaEscaneo> desdeBase = inventarioPorAlmacenRepositorio.findVendiblePorAlmacenYSku(almacenId, clave)
+                .map(inv -> new EntradaEscaneo(inv.getProducto(), inv.getCantidad()));
+        desdeBase.ifPresent(e -> cache.porSku.put(clave, e));
+        return desdeBase;
+    }
+
+    /**
+     * Registra la latencia de un escaneo, medida desde la lectura del código hasta que el
+     * producto se agregó al carrito.
+     */
+    public void registrarLatenciaEscaneo(long nanos) {
+        long total;
+        synchronized (latenciasNanos) {
+            latenciasNanos[(int) (totalLatencias % MUESTRAS_LATENCIA)] = nanos;
+            total = ++totalLatencias;
+        }
+        if (total % INFORMAR_CADA == 0) {
+            EstadisticasEscaneo e = obtenerEstadisticas();
+            LOGGER.info(String.format("Escaneo SKU: tasa de aciertos %.1f%% (%d/%d), p99 escaneo→carrito %.1f ms sobre %d muestras.",
+                    e.tasaAciertos() * 100, e.aciertos(), e.aciertos() + e.fallos(), e.p99Ms(), e.muestras()));
+        }
+    }
+
+    public EstadisticasEscaneo obtenerEstadisticas() {
+        long[] muestras;
+        synchronized (latenciasNanos) {
+            muestras = Arrays.copyOf(latenciasNanos, (int) Math.min(totalLatencias, MUESTRAS_LATENCIA));
+        }
+        double p99Ms = 0;
+        if (muestras.length > 0) {
+            Arrays.sort(muestras);
+            int indice = (int) Math.ceil(muestras.length * 0.99) - 1;
+            p99Ms = muestras[Math.max(indice, 0)] / 1_000_000.0;
+        }
+        long a = aciertos.sum();
+        long f = fallos.sum();
+        double tasa = (a + f) == 0 ? 0 : (double) a / (a + f);
+        return new EstadisticasEscaneo(a, f, tasa, p99Ms, muestras.length);
+    }
+
+    /**
+     * Refleja, después del commit, el stock resultante de movimientos registrados en un almacén.
+     * Debe llamarse dentro de la transacción que mueve el stock.
+     */
+    void actualizarStockTrasCommit(Integer almacenId, List<ServicioStock.CambioStock> cambios) {
+        trasCommit(() -> {
+            synchronized (candado(almacenId)) {
+                CacheAlmacen cache = caches.get(almacenId);
+                if (cache == null) {
+                    return;
+                }
+                for (ServicioStock.CambioStock cambio : cambios) {
+                    Producto producto = cambio.producto();
+                    Optional<EntradaEscaneo> entrada = cambio.stockNuevo() > 0 && producto.isActivo()
+                            ? Optional.of(new EntradaEscaneo(producto, cambio.stockNuevo()))
+                            : Optional.empty();
+                    aplicar(cache.porSku, producto.getSku(), entrada);
+                    if (cache.cambiosDuranteRecarga != null) {
+                        cache.cambiosDuranteRecarga.put(producto.getSku(), entrada);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Descarta la caché de todos los almacenes después del commit. Usado cuando cambia el
+     * catálogo (precio, SKU o estado de un producto).
+     */
+    void invalidarTodoTrasCommit() {
+        trasCommit(() -> {
+            generacion.incrementAndGet();
+            caches.clear();
+        });
+    }
+
+    /**
+     * Devuelve la caché del almacén. Solo la primera lectura (o la siguiente a una invalidación
+     * del catálogo) carga en el hilo que llama; una caché vencida se sigue sirviendo mientras
+     * se recarga en segundo plano.
+     */
+    private CacheAlmacen obtenerCache(Integer almacenId) {
+        CacheAlmacen cache = caches.get(almacenId);
+        if (cache != null) {
+            if (!cache.vigente()) {
+                programarRecarga(almacenId, cache);
+            }
+            return cache;
+        }
+        synchronized (candado(almacenId)) {
+            cache = caches.get(almacenId);
+            if (cache == null) {
+                long generacionInicial = generacion.get();
+                cache = cargar(almacenId);
+                if (generacion.get() == generacionInicial) {
+                    caches.put(almacenId, cache);
+                }
+            }
+            return cache;
+        }
+    }
+
+    private void programarRecarga(Integer almacenId, CacheAlmacen vencida) {
+        if (!vencida.recargando.compareAndSet(false, true)) {
+            return;
+        }
+        long generacionInicial;
+        synchronized (candado(almacenId)) {
+            vencida.cambiosDuranteRecarga = new ConcurrentHashMap<>();
+            generacionInicial = generacion.get();
+        }
+        try {
+            ejecutorRecargas.execute(() -> recargar(almacenId, vencida, generacionInicial));
+        } catch (RejectedExecutionException e) {
+            terminarRecarga(almacenId, vencida);
+        }
+    }
+
+    private void recargar(Integer almacenId, CacheAlmacen vencida, long generacionInicial) {
+        CacheAlmacen nueva;
+        try {
+            nueva = cargar(almacenId);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "No se pudo recargar la caché de escaneo del almacén " + almacenId
+                    + "; se seguirá usando la anterior.", e);
+            terminarRecarga(almacenId, vencida);
+            return;
+        }
+        synchronized (candado(almacenId)) {
+            vencida.cambiosDuranteRecarga.forEach((sku, entrada) -> aplicar(nueva.porSku, sku, entrada));
+            vencida.cambiosDuranteRecarga = null;
+            if (generacion.get() == generacionInicial) {
+                caches.replace(almacenId, vencida, nueva);
+            }
+        }
+    }
+
+    /** Deja la caché vencida lista para que el siguiente escaneo vuelva a intentar la recarga. */
+    private void terminarRecarga(Integer almacenId, CacheAlmacen vencida) {
+        synchronized (candado(almacenId)) {
+            vencida.cambiosDuranteRecarga = null;
+        }
+        vencida.recargando.set(false);
+    }
+
+    private static void aplicar(Map<String, EntradaEscaneo> porSku, String sku, Optional<EntradaEscaneo> entrada) {
+        if (entrada.isPresent()) {
+            porSku.put(sku, entrada.get());
+        } else {
+            porSku.remove(sku);
+        }
+    }
+
+    private Object candado(Integer almacenId) {
+        return candadosCarga.computeIfAbsent(almacenId, id -> new Object());
+    }
+
+    private CacheAlmacen cargar(Integer almacenId) {
+        CacheAlmacen cache = new CacheAlmacen();
+        for (InventarioPorAlmacen inv : inventarioPorAlmacenRepositorio.findVendiblesPorAlmacen(almacenId)) {
+            cache.porSku.put(inv.getProducto().getSku(), new EntradaEscaneo(inv.getProducto(), inv.getCantidad()));
+        }
+        return cache;
+    }
+
+    private void trasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.enums.TipoReporte;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Caché de resultados de reportes, indexada por tipo de reporte y parámetros.
+ * <p>
+ * Un resultado deja de ser válido cuando esta terminal registra datos que caen dentro de su
+ * período:
+ * <ul>
+ *     <li>{@link ServicioVentas} avisa tras el commit de cada venta, lo que invalida los reportes
+ *         de ventas y la clasificación ABC cuyo período la contiene.</li>
+ *     <li>{@link ServicioStock} avisa tras el commit de cada movimiento de stock, lo que invalida
+ *         el Kardex de los productos afectados y la clasificación ABC cuyo período lo contiene.</li>
+ * </ul>
+ * Las ventas y movimientos de otras terminales no se ven aquí; para acotar ese desfase cada
+ * resultado caduca tras {@link #VIGENCIA_MS}.
+ * <p>
+ * La invalidación compara el período con el reloj de esta terminal en el momento del commit, que
+ * no coincide con la fecha guardada: la de una venta la toma el reloj de la terminal al insertarla
+ * ({@code @CreationTimestamp}) y la de un movimiento, el reloj del servidor de base de datos al
+ * insertar la fila ({@code clock_timestamp()}, ver {@link com.samvitex.modelos.entidades.MovimientoInventario}).
+ * Ambas son anteriores al commit y la segunda además depende de otro reloj, que puede estar
+ * desfasado respecto al de la terminal. Por eso la comparación admite un margen de {@link #MARGEN_RELOJ}.
+ * <p>
+ * Un reporte que se estaba generando cuando llegó una invalidación puede haber leído los datos
+ * anteriores al cambio. Por eso cada invalidación recibe un número de generación, y
+ * {@link #guardar} rechaza un resultado si alguna invalidación posterior al inicio de su
+ * generación lo afecta.
+ */
+@Service
+public class ServicioCacheReportes {
+
+    private static final long VIGENCIA_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final int MAX_RESULTADOS = 32;
+    private static final int MAX_INVALIDACIONES_RECIENTES = 256;
+    private static final Duration MARGEN_RELOJ = Duration.ofMinutes(5);
+
+    /**
+     * Identifica un reporte por su tipo y sus parámetros.
+     *
+     * @param tipo El tipo de reporte.
+     * @param productoId El producto del reporte, o {@code null} si no aplica.
+     * @param inicio El inicio del período.
+     * @param fin El fin del período.
+     */
+    public record ClaveReporte(TipoReporte tipo, Integer productoId, Instant inicio, Instant fin) {}
+
+    private record Entrada(Object resultado, long guardadoEn) {
+        boolean vigente() {
+            return System.currentTimeMillis() - guardadoEn < VIGENCIA_MS;
+        }
+    }
+
+    private record Invalidacion(long generacion, Predicate<ClaveReporte> afecta) {}
+
+    /** Resultados en orden de acceso; el menos usado se descarta al superar el límite. */
+    private final Map<ClaveReporte, Entrada> resultados = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClaveReporte, Entrada> eldest) {
+            return size() > MAX_RESULTADOS;
+        }
+    };
+    private final Deque<Invalidacion> invalidacionesRecientes = new ArrayDeque<>();
+    private long generacion;
+
+    /**
+     * @return El resultado guardado para la clave, o {@code null} si no hay uno vigente.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T obtener(ClaveReporte clave) {
+        Entrada entrada = resultados.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (!entrada.vigente()) {
+            resultados.remove(clave);
+            return null;
+        }
+        return (T) entrada.resultado();
+    }
+
+    /**
+     * @return La generación actual. Un trabajo la registra antes de leer los datos de su reporte.
+     */
+    public synchronized long generacion() {
+        return generacion;
+    }
+
+    /**
+     * Guarda el resultado de un reporte, salvo que los datos hayan cambiado mientras se generaba.
+     *
+     * @param clave La clave del reporte.
+     * @param resultado El resultado generado.
+     * @param generacionInicial La {@link #generacion()} registrada antes de generarlo.
+     */
+    public synchronized void guardar(ClaveReporte clave, Object resultado, long generacionInicial) {
+        if (!invalidadaDesde(clave, generacionInicial)) {
+            resultados.put(clave, new Entrada(resultado, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * @return {@code true} si alguna invalidación posterior a {@code generacionInicial} afecta a la
+     *         clave, o si ya no se conservan todas las invalidaciones desde entonces.
+     */
+    public synchronized boolean invalidadaDesde(ClaveReporte clave, long generacionInicial) {
+        if (generacion == generacionInicial) {
+            return false;
+        }
+        Invalidacion masAntigua = invalidacionesRecientes.peekFirst();
+        if (masAntigua == null || masAntigua.generacion() > generacionInicial + 1) {
+            return true;
+        }
+        for (Invalidacion invalidacion : invalidacionesRecientes) {
+            if (invalidacion.generacion() > generacionInicial && invalidacion.afecta().test(clave)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Invalida, tras el commit de la transacción actual, los reportes de ventas y la
+     * clasificación ABC cuyo período contiene el momento actual.
+     */
+    public void invalidarVentasTrasCommit() {
+        trasCommit(() -> {
+            Instant ahora = Instant.now();
+            invalidar(clave -> (clave.tipo() == TipoReporte.VENTAS_POR_PRODUCTO || clave.tipo() == TipoReporte.ABC)
+                    && contieneConMargen(clave, ahora));
+        });
+    }
+
+    /**
+     * Invalida, tras el commit de la transacción actual, el Kardex de los productos indicados
+     * y la clasificación ABC que contiene el momento actual.
+     *
+     * @param productoIds Los productos con movimientos nuevos.
+     */
+    public void invalidarMovimientosTrasCommit(Set<Integer> productoIds) {
+        Set<Integer> ids = Set.copyOf(productoIds);
+        trasCommit(() -> {
+            Instant ahora = Instant.now();
+            invalidar(clave -> switch (clave.tipo()) {
+                case KARDEX -> ids.contains(clave.productoId()) && clave.fin().isAfter(ahora.minus(MARGEN_RELOJ));
+                case ABC -> contieneConMargen(clave, ahora);
+                default -> false;
+            });
+        });
+    }
+
+    /**
+     * Descarta todos los resultados guardados.
+     */
+    public void invalidarTodo() {
+        invalidar(clave -> true);
+    }
+
+    private static boolean contieneConMargen(ClaveReporte clave, Instant momento) {
+        return !clave.inicio().isAfter(momento.plus(MARGEN_RELOJ)) && clave.fin().isAfter(momento.minus(MARGEN_RELOJ));
+    }
+
+    private synchronized void invalidar(Predicate<ClaveReporte> afecta) {
+        generacion++;
+        invalidacionesRecientes.addLast(new Invalidacion(generacion, afecta));
+        if (invalidacionesRecientes.size() > MAX_INVALIDACIONES_RECIENTES) {
+            invalidacionesRecientes.removeFirst();
+        }
+        resultados.keySet().removeIf(afecta);
+    }
+
+    private void trasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
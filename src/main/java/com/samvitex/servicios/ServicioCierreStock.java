@@ -0,0 +1,199 @@
+package com.samvitex.servicios;
+
+import com.samvitex.repositorios.CierreStockRepositorio;
+import com.samvitex.repositorios.MovimientoInventarioRepositorio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servicio de cierres de período de stock y de consultas de stock histórico.
+ * <p>
+ * Al inicio de cada mes (en la zona horaria de los reportes) se escribe una instantánea del stock
+ * de cada producto × almacén, derivada de la instantánea anterior y de los movimientos del mes.
+ * El stock a cualquier fecha se calcula partiendo del cierre más cercano anterior y leyendo solo
+ * los movimientos posteriores a él, por lo que su costo no depende de la antigüedad del historial.
+ * <p>
+ * La instantánea guarda también el costo unitario y el valor de cada fila, pero solo si el cierre
+ * se genera poco después de su fecha (ver {@link #MARGEN_VALORACION}): el único costo disponible es
+ * el vigente al generarlo.
+ * <p>
+ * Los cierres pendientes se generan al arrancar (en segundo plano) y cada madrugada.
+ */
+@Service
+public class ServicioCierreStock {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioCierreStock.class.getName());
+
+    /**
+     * Tiempo que se espera tras el fin de un período antes de cerrarlo, para que las transacciones
+     * que registraron movimientos justo antes del cierre ya estén confirmadas.
+     */
+    private static final Duration MARGEN_CIERRE = Duration.ofHours(1);
+
+    /**
+     * Tiempo tras la fecha de un cierre durante el cual el costo promedio vigente todavía sirve
+     * para valorarlo. Los cierres generados más tarde (por ejemplo, al recuperar meses pendientes)
+     * guardan solo cantidades.
+     */
+    private static final Duration MARGEN_VALORACION = Duration.ofDays(2);
+
+    private final CierreStockRepositorio cierreStockRepositorio;
+    private final MovimientoInventarioRepositorio movimientoInventarioRepositorio;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zonaHoraria;
+
+    public ServicioCierreStock(CierreStockRepositorio cierreStockRepositorio,
+                               MovimientoInventarioRepositorio movimientoInventarioRepositorio,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${samvitex.reportes.zona-horaria}") String zonaHoraria) {
+        this.cierreStockRepositorio = cierreStockRepositorio;
+        this.movimientoInventarioRepositorio = movimientoInventarioRepositorio;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zonaHoraria = ZoneId.of(zonaHoraria);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cerrarAlIniciar() {
+        Thread hilo = new Thread(this::cerrarPeriodosPendientesSinAutorizacion, "cierre-stock");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Genera todos los cierres mensuales pendientes, del más antiguo al más reciente.
+     *
+     * @return El número de cierres generados.
+     */
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public int cerrarPeriodosPendientes() {
+        return cerrarPeriodosPendientesSinAutorizacion();
+    }
+
+    /**
+     * Variante de {@link #cerrarPeriodosPendientes()} para tareas de sistema que se ejecutan
+     * sin un usuario autenticado. Cada cierre se confirma en su propia transacción.
+     */
+    @Scheduled(cron = "0 45 3 * * *")
+    public int cerrarPeriodosPendientesSinAutorizacion() {
+        try {
+            Optional<Instant> ultimoCierre = cierreStockRepositorio.findFechaUltimoCierre();
+            Instant siguiente;
+            if (ultimoCierre.isPresent()) {
+                siguiente = inicioDelMesSiguiente(ultimoCierre.get());
+            } else {
+                Optional<Instant> primerMovimiento = movimientoInventarioRepositorio.findFechaPrimerMovimiento();
+                if (primerMovimiento.isEmpty()) {
+                    return 0;
+                }
+                siguiente = inicioDelMesSiguiente(primerMovimiento.get());
+            }
+
+            Instant limite = Instant.now().minus(MARGEN_CIERRE);
+            Instant anterior = ultimoCierre.orElse(Instant.EPOCH);
+            int generados = 0;
+            while (!siguiente.isAfter(limite)) {
+                if (!generarCierre(siguiente, anterior)) {
+                    break; // Otra terminal está generando cierres.
+                }
+                generados++;
+                anterior = siguiente;
+                siguiente = inicioDelMesSiguiente(siguiente);
+            }
+            return generados;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "No se pudieron generar los cierres de stock pendientes.", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Calcula el stock de un producto en cada almacén en un instante.
+     *
+     * @param productoId El ID del producto.
+     * @param fecha El instante consultado; se consideran los movimientos anteriores a él.
+     * @return El stock por ID de almacén (sin los almacenes en cero).
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Integer> obtenerStockDeProductoAFecha(Integer productoId, Instant fecha) {
+        Instant cierre = cierreStockRepositorio.findFechaUltimoCierreHasta(fecha).orElse(Instant.EPOCH);
+        return aMapa(cierreStockRepositorio.findStockDeProductoAFecha(productoId, cierre, fecha), true);
+    }
+
+    /**
+     * Calcula el stock total de un producto, sumando todos los almacenes, en un instante.
+     * Es el saldo inicial del Kardex de un período que empieza en {@code fecha}.
+     */
+    @Transactional(readOnly = true)
+    public int obtenerStockTotalDeProductoAFecha(Integer productoId, Instant fecha) {
+        return obtenerStockDeProductoAFecha(productoId, fecha).values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Calcula el stock de todos los productos de un almacén en un instante.
+     *
+     * @param almacenId El ID del almacén.
+     * @param fecha El instante consultado; se consideran los movimientos anteriores a él.
+     * @return El stock por ID de producto (sin los productos en cero).
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
+    public Map<Integer, Integer> obtenerStockDeAlmacenAFecha(Integer almacenId, Instant fecha) {
+        Instant cierre = cierreStockRepositorio.findFechaUltimoCierreHasta(fecha).orElse(Instant.EPOCH);
+        return aMapa(cierreStockRepositorio.findStockDeAlmacenAFecha(almacenId, cierre, fecha), false);
+    }
+
+    private boolean generarCierre(Instant fechaCierre, Instant cierreAnterior) {
+        long inicio = System.nanoTime();
+        boolean valorar = Instant.now().isBefore(fechaCierre.plus(MARGEN_VALORACION));
+        Integer filas = transactionTemplate.execute(status -> {
+            if (!cierreStockRepositorio.intentarBloquearGeneracion()
+                    || cierreStockRepositorio.existsById(fechaCierre)) {
+                return null;
+            }
+            cierreStockRepositorio.insertarCierre(fechaCierre, valorar);
+            int insertadas = cierreStockRepositorio.insertarInstantanea(fechaCierre, cierreAnterior, valorar);
+            cierreStockRepositorio.actualizarFilas(fechaCierre, insertadas);
+            return insertadas;
+        });
+        if (filas == null) {
+            return false;
+        }
+        LOGGER.info(String.format("Cierre de stock al %s generado: %d filas%s en %d ms.",
+                fechaCierre.atZone(zonaHoraria).toLocalDate(), filas, valorar ? "" : " (sin valorar)",
+                (System.nanoTime() - inicio) / 1_000_000));
+        return true;
+    }
+
+    private Instant inicioDelMesSiguiente(Instant fecha) {
+        LocalDate mes = fecha.atZone(zonaHoraria).toLocalDate().withDayOfMonth(1);
+        return mes.plusMonths(1).atStartOfDay(zonaHoraria).toInstant();
+    }
+
+    private static Map<Integer, Integer> aMapa(List<CierreStockRepositorio.StockAFecha> filas, boolean porAlmacen) {
+        Map<Integer, Integer> stock = new HashMap<>();
+        for (CierreStockRepositorio.StockAFecha fila : filas) {
+            if (fila.getCantidad() != null && fila.getCantidad() != 0) {
+                stock.put(porAlmacen ? fila.getAlmacenId() : fila.getProductoId(), fila.getCantidad());
+            }
+        }
+        return stock;
+    }
+}
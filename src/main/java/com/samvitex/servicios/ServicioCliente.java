@@ -65,7 +65,11 @@ public class ServicioCliente {
     @Transactional(readOnly = true)
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VENDEDOR')") // Aseguramos que solo roles autorizados puedan buscar
     public List<Cliente> buscarClientes(String termino) {
-        return clienteRepositorio.buscarPorTermino(termino);
+        Integer idExacto = null;
+        if (termino != null && termino.trim().matches("\\d{1,9}")) {
+            idExacto = Integer.valueOf(termino.trim());
+        }
+        return clienteRepositorio.buscarPorTermino(termino, idExacto);
     }
 
     /**
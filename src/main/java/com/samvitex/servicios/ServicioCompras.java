@@ -1,22 +1,21 @@
 package com.samvitex.servicios;
 
+import com.samvitex.eventos.EventoCompraRegistrada;
 import com.samvitex.modelos.dto.CompraItemDTO;
+import com.samvitex.modelos.dto.VariacionResumenStock;
 import com.samvitex.modelos.entidades.*;
 import com.samvitex.modelos.enums.EstadoTransaccion;
 import com.samvitex.modelos.enums.TipoMovimiento;
 import com.samvitex.modelos.excepciones.InventarioException;
 import com.samvitex.repositorios.CompraRepositorio;
-import com.samvitex.repositorios.InventarioPorAlmacenRepositorio;
-import com.samvitex.repositorios.ProductoRepositorio;
 import com.samvitex.repositorios.UsuarioRepositorio;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de negocio para gestionar las operaciones de Compra de mercancía.
@@ -28,19 +27,21 @@ import java.util.List;
 public class ServicioCompras {
 
     private final CompraRepositorio compraRepositorio;
-    private final ProductoRepositorio productoRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
-    private final InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
-
+    private final ServicioStock servicioStock;
+    private final ServicioResumenStock servicioResumenStock;
+    private final ServicioEventos servicioEventos;
 
     public ServicioCompras(CompraRepositorio compraRepositorio,
-                           ProductoRepositorio productoRepositorio,
                            UsuarioRepositorio usuarioRepositorio,
-                           InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio) {
+                           ServicioStock servicioStock,
+                           ServicioResumenStock servicioResumenStock,
+                           ServicioEventos servicioEventos) {
         this.compraRepositorio = compraRepositorio;
-        this.productoRepositorio = productoRepositorio;
         this.usuarioRepositorio = usuarioRepositorio;
-        this.inventarioPorAlmacenRepositorio = inventarioPorAlmacenRepositorio;
+        this.servicioStock = servicioStock;
+        this.servicioResumenStock = servicioResumenStock;
+        this.servicioEventos = servicioEventos;
     }
 
     /**
@@ -51,16 +52,20 @@ public class ServicioCompras {
      * <ol>
      *     <li>Obtiene la entidad del usuario que registra la compra desde el contexto de seguridad.</li>
      *     <li>Crea una nueva entidad {@link Compra} en memoria.</li>
+     *     <li>Ingresa el stock de todas las líneas mediante {@link ServicioStock}, de forma atómica
+     *         y en orden de producto, creando los registros de inventario que falten.</li>
      *     <li>Para cada ítem en la orden de compra:
      *         <ul>
-     *             <li>Incrementa la cantidad de stock del producto.</li>
-     *             <li>Opcionalmente, actualiza el precio de costo del producto con el de esta compra.</li>
+     *             <li>Actualiza el precio de costo de referencia del producto con el de esta compra. La
+ *                 valoración del inventario no lo usa: cada ingreso actualiza el costo promedio
+ *                 ponderado del producto en el almacén destino (ver {@link ServicioStock}).</li>
      *             <li>Crea un registro de detalle de compra ({@link CompraDetalle}).</li>
      *             <li>Crea un registro de auditoría ({@link MovimientoInventario}) y lo asocia a la compra.</li>
      *         </ul>
      *     </li>
      *     <li>Calcula el total de la compra y la persiste. Gracias a la cascada de JPA, todos los
      *         detalles y movimientos asociados se guardan en la misma transacción.</li>
+     *     <li>Actualiza el resumen de stock (cantidad y valor) de los productos comprados.</li>
      * </ol>
      *
      * @param proveedor El proveedor al que se le realiza la compra.
@@ -70,9 +75,12 @@ public class ServicioCompras {
      * @return La entidad {@link Compra} guardada y persistida.
      * @throws InventarioException si un producto de la compra no se encuentra en la base de datos.
      */
-    @Transactional
     @PreAuthorize("hasAnyRole('ALMACENISTA', 'ADMINISTRADOR')")
     public Compra crearCompra(Proveedor proveedor, Almacen almacenDestino, String nombreUsuarioRegistra, List<CompraItemDTO> items, String referenciaFactura) {
+        return servicioStock.ejecutarConReintento(() -> registrarCompra(proveedor, almacenDestino, nombreUsuarioRegistra, items, referenciaFactura));
+    }
+
+    private Compra registrarCompra(Proveedor proveedor, Almacen almacenDestino, String nombreUsuarioRegistra, List<CompraItemDTO> items, String referenciaFactura) {
 
         Usuario usuario = usuarioRepositorio.findByNombreUsuario(nombreUsuarioRegistra)
                 .orElseThrow(() -> new RuntimeException("El usuario '" + nombreUsuarioRegistra + "' no fue encontrado."));
@@ -86,29 +94,16 @@ public class ServicioCompras {
 
         BigDecimal totalCompra = BigDecimal.ZERO;
 
-        for (CompraItemDTO item : items) {
-            Producto producto = productoRepositorio.findById(item.productoId())
-                    .orElseThrow(() -> new InventarioException("El producto con ID " + item.productoId() + " no fue encontrado."));
-
-            InventarioPorAlmacen inventario = inventarioPorAlmacenRepositorio
-                    .findByProductoIdAndAlmacenId(producto.getId(), almacenDestino.getId())
-                    .orElseGet(() -> {
-                        // Si no existe, crea un nuevo registro de inventario para este producto/almacén
-                        InventarioPorAlmacen nuevoInventario = new InventarioPorAlmacen();
-                        nuevoInventario.setProducto(producto);
-                        nuevoInventario.setAlmacen(almacenDestino);
-                        nuevoInventario.setCantidad(0);
-                        return nuevoInventario;
-                    });
-
-            int stockAnterior = inventario.getCantidad();
-            int stockNuevo = stockAnterior + item.cantidad();
-            inventario.setCantidad(stockNuevo);
-            inventario.setFechaModificacion(Instant.now());
-            inventario.setUsuarioModificacion(usuario);
-            inventarioPorAlmacenRepositorio.save(inventario);
-
-            producto.setPrecioCosto(item.costoUnitario()); // Actualizar costo en el producto maestro
+        List<ServicioStock.CambioStock> cambios = servicioStock.ingresar(almacenDestino, usuario, items.stream()
+                .map(item -> new ServicioStock.LineaStock(item.productoId(), item.cantidad(), item.costoUnitario()))
+                .toList());
+
+        for (int i = 0; i < items.size(); i++) {
+            CompraItemDTO item = items.get(i);
+            ServicioStock.CambioStock cambio = cambios.get(i);
+            Producto producto = cambio.producto();
+
+            producto.setPrecioCosto(item.costoUnitario()); // Último costo de compra, como referencia
 
             CompraDetalle detalle = new CompraDetalle();
             detalle.setProducto(producto);
@@ -126,12 +121,16 @@ public class ServicioCompras {
             movimiento.setUsuario(usuario);
             movimiento.setTipo(TipoMovimiento.ENTRADA_COMPRA);
             movimiento.setCantidadMovida(item.cantidad());
-            movimiento.setStockAnterior(stockAnterior);
-            movimiento.setStockNuevo(stockNuevo);
+            movimiento.setStockAnterior(cambio.stockAnterior());
+            movimiento.setStockNuevo(cambio.stockNuevo());
             compra.addMovimiento(movimiento);
         }
 
         compra.setTotal(totalCompra);
-        return compraRepositorio.save(compra);
+        Compra compraGuardada = compraRepositorio.save(compra);
+        VariacionResumenStock variacion = servicioResumenStock.actualizarProductos(
+                items.stream().map(CompraItemDTO::productoId).collect(Collectors.toSet()));
+        servicioEventos.publicarTrasCommit(new EventoCompraRegistrada(compraGuardada.getId(), variacion));
+        return compraGuardada;
     }
 }
\ No newline at end of file
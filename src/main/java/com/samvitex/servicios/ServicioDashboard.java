@@ -1,16 +1,38 @@
 package com.samvitex.servicios;
 
+import com.samvitex.eventos.EventoInventario;
+import com.samvitex.eventos.EventoVentaRegistrada;
 import com.samvitex.modelos.dto.DashboardStatsDTO;
+import com.samvitex.modelos.dto.VariacionResumenStock;
 import com.samvitex.repositorios.ProductoRepositorio;
+import com.samvitex.repositorios.ProductoStockResumenRepositorio;
 import com.samvitex.repositorios.VentaRepositorio;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Servicio de negocio para obtener las estadísticas clave (KPIs) del Dashboard.
@@ -19,44 +41,236 @@ import java.time.ZoneId;
  * y consolidar la información más relevante sobre el estado actual del negocio en un
  * único DTO ({@link DashboardStatsDTO}). Las operaciones son de solo lectura y están
  * optimizadas para un rendimiento rápido.</p>
+ *
+ * <p>Además de la consulta completa, mantiene las últimas estadísticas conocidas y las ajusta
+ * con los eventos de dominio ({@link EventoInventario}) que publican ventas, compras y
+ * producción tras su commit: las ventas de hoy suman el total de cada venta y los KPIs de stock
+ * suman la variación del resumen de stock que trae el evento. Los suscriptores reciben las
+ * estadísticas ajustadas sin ninguna consulta.</p>
+ *
+ * <p>Las operaciones de otras terminales llegan por {@code LISTEN} en el canal
+ * {@link ServicioEventos#CANAL_NOTIFICACIONES}, sobre una conexión propia fuera del pool, y se
+ * aplican igual que las locales. Los cambios de catálogo no generan eventos, y las notificaciones
+ * enviadas mientras la conexión estaba caída se pierden, por lo que la vista vuelve a ejecutar la
+ * consulta completa cada cierto tiempo para conciliar.</p>
+ *
+ * <p>"Hoy" es el día en la zona horaria de los reportes ({@code samvitex.reportes.zona-horaria}),
+ * la misma del resumen diario de ventas, de modo que las ventas de hoy coinciden con el reporte
+ * de ventas del día aunque el sistema operativo de la terminal use otra zona.</p>
  */
 @Service
 public class ServicioDashboard {
 
+    private static final Logger LOGGER = Logger.getLogger(ServicioDashboard.class.getName());
+    /** Tiempo máximo de cada espera de notificaciones, para poder detener el hilo. */
+    private static final int ESPERA_NOTIFICACIONES_MS = 5_000;
+    private static final long REINTENTO_CONEXION_MS = 30_000;
+    /** Eventos recientes que se conservan para volver a aplicarlos sobre una consulta completa. */
+    private static final int MAX_EVENTOS_RECIENTES = 256;
+
+    /** Un evento aplicado y su número de orden. */
+    private record EventoAplicado(long numero, EventoInventario evento) {}
+
     private final ProductoRepositorio productoRepositorio;
     private final VentaRepositorio ventaRepositorio;
+    private final ProductoStockResumenRepositorio resumenRepositorio;
+    private final DataSourceProperties dataSourceProperties;
+    private final ZoneId zonaHoraria;
+
+    private final List<Consumer<DashboardStatsDTO>> suscriptores = new CopyOnWriteArrayList<>();
+    /** Últimas estadísticas conocidas; {@code null} hasta la primera consulta completa. */
+    private DashboardStatsDTO actuales;
+    /** Día al que corresponden las ventas de hoy de {@link #actuales}. */
+    private LocalDate diaActuales;
+    private long eventosAplicados;
+    private final Deque<EventoAplicado> eventosRecientes = new ArrayDeque<>();
 
-    public ServicioDashboard(ProductoRepositorio productoRepositorio, VentaRepositorio ventaRepositorio) {
+    private Thread hiloNotificaciones;
+    private volatile boolean escuchando;
+    private volatile Connection conexionNotificaciones;
+
+    public ServicioDashboard(ProductoRepositorio productoRepositorio, VentaRepositorio ventaRepositorio,
+                             ProductoStockResumenRepositorio resumenRepositorio,
+                             DataSourceProperties dataSourceProperties,
+                             @Value("${samvitex.reportes.zona-horaria}") String zonaHoraria) {
         this.productoRepositorio = productoRepositorio;
         this.ventaRepositorio = ventaRepositorio;
+        this.resumenRepositorio = resumenRepositorio;
+        this.dataSourceProperties = dataSourceProperties;
+        this.zonaHoraria = ZoneId.of(zonaHoraria);
+    }
+
+    @PostConstruct
+    void iniciarEscucha() {
+        escuchando = true;
+        hiloNotificaciones = new Thread(this::escucharNotificaciones, "notificaciones-dashboard");
+        hiloNotificaciones.setDaemon(true);
+        hiloNotificaciones.start();
+    }
+
+    @PreDestroy
+    void detenerEscucha() {
+        escuchando = false;
+        hiloNotificaciones.interrupt();
+        Connection conexion = conexionNotificaciones;
+        if (conexion != null) {
+            try {
+                conexion.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Error al cerrar la conexión de notificaciones.", e);
+            }
+        }
+    }
+
+    /**
+     * Recibe los eventos de las demás terminales. Si la conexión se pierde, vuelve a conectarse
+     * tras {@link #REINTENTO_CONEXION_MS}.
+     */
+    private void escucharNotificaciones() {
+        while (escuchando) {
+            try (Connection conexion = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                conexionNotificaciones = conexion;
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.execute("LISTEN " + ServicioEventos.CANAL_NOTIFICACIONES);
+                }
+                PGConnection pg = conexion.unwrap(PGConnection.class);
+                while (escuchando) {
+                    PGNotification[] notificaciones = pg.getNotifications(ESPERA_NOTIFICACIONES_MS);
+                    if (notificaciones == null) {
+                        continue;
+                    }
+                    for (PGNotification notificacion : notificaciones) {
+                        ServicioEventos.leerNotificacion(notificacion.getParameter()).ifPresent(this::alRegistrarOperacion);
+                    }
+                }
+            } catch (SQLException e) {
+                if (!escuchando) {
+                    return;
+                }
+                LOGGER.log(Level.WARNING, "Se perdió la conexión de notificaciones del Dashboard; se reintentará.", e);
+                try {
+                    Thread.sleep(REINTENTO_CONEXION_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            } finally {
+                conexionNotificaciones = null;
+            }
+        }
     }
 
     /**
      * Recopila todas las estadísticas necesarias para el dashboard en una sola operación transaccional.
+     * Los KPIs de stock se leen de la proyección {@code producto_stock_resumen}, que ya contiene
+     * el stock total, su valor y la bandera de stock bajo por producto.
      * Esta operación es de solo lectura y está protegida para que solo los roles autorizados
      * puedan acceder a esta información consolidada del negocio.
+     * <p>El resultado reemplaza a las estadísticas mantenidas por eventos. Los eventos que llegaron
+     * durante la consulta se vuelven a aplicar sobre él: la consulta puede haberlos incluido ya o
+     * no, pero el posible error se limita a esos pocos eventos y se corrige en la siguiente
+     * conciliación, en lugar de descartar la consulta y arrastrar la deriva.</p>
      *
      * @return un {@link DashboardStatsDTO} con todas las estadísticas calculadas.
      */
     @Transactional(readOnly = true)
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VENDEDOR', 'ALMACENISTA')")
     public DashboardStatsDTO getDashboardStats() {
+        long eventosAntes;
+        synchronized (this) {
+            eventosAntes = eventosAplicados;
+        }
+        LocalDate hoy = LocalDate.now(zonaHoraria);
+
         // Ejecuta las 4 consultas de agregación necesarias para los KPIs.
         long totalProductos = productoRepositorio.count();
-        long productosConStockBajo = productoRepositorio.countByStockBajo();
-        BigDecimal valorTotalInventario = productoRepositorio.findValorTotalInventario();
+        long productosConStockBajo = resumenRepositorio.countStockBajo();
+        BigDecimal valorTotalInventario = resumenRepositorio.sumValorStockActivo();
         BigDecimal ventasHoy = ventaRepositorio.findTotalVentasEnPeriodo(getInicioDelDia(), Instant.now());
+        DashboardStatsDTO consultadas = new DashboardStatsDTO(totalProductos, productosConStockBajo, valorTotalInventario, ventasHoy);
+
+        synchronized (this) {
+            actuales = consultadas;
+            diaActuales = hoy;
+            for (EventoAplicado aplicado : eventosRecientes) {
+                if (aplicado.numero() > eventosAntes) {
+                    ajustar(aplicado.evento());
+                }
+            }
+            return actuales;
+        }
+    }
+
+    /**
+     * Registra un suscriptor que recibe las estadísticas cada vez que un evento las modifica.
+     * Se invoca en el hilo que confirmó la operación, no en el de Swing.
+     *
+     * @param suscriptor El receptor de las estadísticas ajustadas.
+     * @return Una acción que cancela la suscripción.
+     */
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'VENDEDOR', 'ALMACENISTA')")
+    public Runnable suscribir(Consumer<DashboardStatsDTO> suscriptor) {
+        suscriptores.add(suscriptor);
+        return () -> suscriptores.remove(suscriptor);
+    }
+
+    /**
+     * Ajusta las estadísticas con una operación recién confirmada, en esta u otra terminal, y las
+     * entrega a los suscriptores.
+     */
+    @EventListener
+    public void alRegistrarOperacion(EventoInventario evento) {
+        DashboardStatsDTO ajustadas;
+        synchronized (this) {
+            eventosRecientes.addLast(new EventoAplicado(++eventosAplicados, evento));
+            if (eventosRecientes.size() > MAX_EVENTOS_RECIENTES) {
+                eventosRecientes.removeFirst();
+            }
+            if (actuales == null) {
+                return; // Aún no hay una base que ajustar; la primera consulta completa lo aplicará.
+            }
+            ajustar(evento);
+            ajustadas = actuales;
+        }
+        for (Consumer<DashboardStatsDTO> suscriptor : suscriptores) {
+            try {
+                suscriptor.accept(ajustadas);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Error al notificar las estadísticas del Dashboard.", e);
+            }
+        }
+    }
+
+    /**
+     * Suma a {@link #actuales} el efecto de un evento. Una venta sin fecha no se cuenta en las
+     * ventas de hoy; la siguiente consulta completa la incluye si corresponde.
+     */
+    private void ajustar(EventoInventario evento) {
+        LocalDate hoy = LocalDate.now(zonaHoraria);
+        BigDecimal ventasHoy = hoy.equals(diaActuales) ? actuales.ventasHoy() : BigDecimal.ZERO;
+        if (evento instanceof EventoVentaRegistrada venta && venta.total() != null && esDeHoy(venta.fechaVenta(), hoy)) {
+            ventasHoy = ventasHoy.add(venta.total());
+        }
+        VariacionResumenStock variacion = evento.variacionStock();
+        actuales = new DashboardStatsDTO(
+                actuales.totalProductos(),
+                actuales.productosConStockBajo() + variacion.productosConStockBajo(),
+                actuales.valorTotalInventario().add(variacion.valorInventario()),
+                ventasHoy);
+        diaActuales = hoy;
+    }
 
-        return new DashboardStatsDTO(totalProductos, productosConStockBajo, valorTotalInventario, ventasHoy);
+    private boolean esDeHoy(Instant fecha, LocalDate hoy) {
+        return fecha != null && fecha.atZone(zonaHoraria).toLocalDate().equals(hoy);
     }
 
     /**
      * Metodo de utilidad privado para obtener el {@link Instant} que representa el inicio del día actual
-     * (00:00:00) en la zona horaria del sistema.
+     * (00:00:00) en la zona horaria de los reportes.
      *
      * @return un {@code Instant} que marca el comienzo del día.
      */
     private Instant getInicioDelDia() {
-        return LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant();
+        return LocalDate.now(zonaHoraria).atStartOfDay(zonaHoraria).toInstant();
     }
-}
\ No newline at end of file
+}
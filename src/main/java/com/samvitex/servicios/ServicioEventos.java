@@ -0,0 +1,130 @@
+package com.samvitex.servicios;
+
+import com.samvitex.eventos.EventoCompraRegistrada;
+import com.samvitex.eventos.EventoInventario;
+import com.samvitex.eventos.EventoProduccionRegistrada;
+import com.samvitex.eventos.EventoVentaRegistrada;
+import com.samvitex.modelos.dto.VariacionResumenStock;
+import com.samvitex.modelos.enums.EstadoProduccion;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publica los eventos de dominio de los servicios de negocio (ver {@code com.samvitex.eventos}).
+ * <p>
+ * Un evento se entrega a los {@code @EventListener} solo después del commit de la transacción
+ * que lo generó; si la transacción se revierte (o se reintenta tras un conflicto), el evento de
+ * ese intento se descarta. Los oyentes se ejecutan en el hilo que confirmó la transacción, por lo
+ * que deben ser rápidos, y un error en uno de ellos no afecta a la operación ya confirmada.
+ * <p>
+ * Los {@link EventoInventario} se envían además a las demás terminales con un {@code pg_notify}
+ * en el canal {@link #CANAL_NOTIFICACIONES}, dentro de la misma transacción: PostgreSQL solo
+ * entrega la notificación si la transacción se confirma. Las terminales que escuchan el canal
+ * (ver {@link ServicioDashboard}) obtienen el evento con {@link #leerNotificacion}, que descarta
+ * los que generó esta misma terminal, ya entregados aquí.
+ */
+@Service
+public class ServicioEventos {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioEventos.class.getName());
+
+    public static final String CANAL_NOTIFICACIONES = "samvitex_eventos_inventario";
+    /** Identifica las notificaciones de esta terminal. */
+    private static final String ORIGEN = UUID.randomUUID().toString();
+    private static final String SEPARADOR = ";";
+
+    private final ApplicationEventPublisher publicador;
+    private final JdbcTemplate jdbcTemplate;
+
+    public ServicioEventos(ApplicationEventPublisher publicador, JdbcTemplate jdbcTemplate) {
+        this.publicador = publicador;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Publica el evento tras el commit de la transacción actual, o de inmediato si no hay una.
+     *
+     * @param evento El evento de dominio.
+     */
+    public void publicarTrasCommit(Object evento) {
+        if (evento instanceof EventoInventario eventoInventario) {
+            notificarTerminales(eventoInventario);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(evento);
+                }
+            });
+        } else {
+            publicar(evento);
+        }
+    }
+
+    /**
+     * Reconstruye el evento de una notificación recibida en {@link #CANAL_NOTIFICACIONES}.
+     *
+     * @param mensaje El contenido de la notificación.
+     * @return El evento, o vacío si lo generó esta terminal o el mensaje no se reconoce.
+     */
+    public static Optional<EventoInventario> leerNotificacion(String mensaje) {
+        String[] campos = mensaje.split(SEPARADOR, -1);
+        if (campos.length < 5 || ORIGEN.equals(campos[1])) {
+            return Optional.empty();
+        }
+        try {
+            VariacionResumenStock variacion = new VariacionResumenStock(new BigDecimal(campos[3]), Long.parseLong(campos[4]));
+            Long id = Long.valueOf(campos[2]);
+            return switch (campos[0]) {
+                case "VENTA" -> Optional.of(new EventoVentaRegistrada(id,
+                        campos[5].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(campos[5])),
+                        campos[6].isEmpty() ? null : new BigDecimal(campos[6]), variacion));
+                case "COMPRA" -> Optional.of(new EventoCompraRegistrada(id, variacion));
+                case "PRODUCCION" -> Optional.of(new EventoProduccionRegistrada(id, EstadoProduccion.valueOf(campos[5]), variacion));
+                default -> Optional.empty();
+            };
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Notificación de evento no reconocida: " + mensaje, e);
+            return Optional.empty();
+        }
+    }
+
+    private void notificarTerminales(EventoInventario evento) {
+        VariacionResumenStock variacion = evento.variacionStock();
+        String comun = String.join(SEPARADOR, ORIGEN, "%s", variacion.valorInventario().toPlainString(),
+                Long.toString(variacion.productosConStockBajo()));
+        String mensaje = switch (evento) {
+            // Una fecha o un total ausentes viajan vacíos y llegan como nulos, igual que en el evento local.
+            case EventoVentaRegistrada v -> String.join(SEPARADOR, "VENTA", comun.formatted(v.ventaId()),
+                    v.fechaVenta() != null ? Long.toString(v.fechaVenta().toEpochMilli()) : "",
+                    v.total() != null ? v.total().toPlainString() : "");
+            case EventoCompraRegistrada c -> String.join(SEPARADOR, "COMPRA", comun.formatted(c.compraId()));
+            case EventoProduccionRegistrada p -> String.join(SEPARADOR, "PRODUCCION", comun.formatted(p.ordenId()), p.estado().name());
+            default -> null;
+        };
+        if (mensaje == null) {
+            return;
+        }
+        // pg_notify devuelve void; se lee como un valor nulo.
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, CANAL_NOTIFICACIONES, mensaje);
+    }
+
+    private void publicar(Object evento) {
+        try {
+            publicador.publishEvent(evento);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Error al procesar el evento " + evento, e);
+        }
+    }
+}
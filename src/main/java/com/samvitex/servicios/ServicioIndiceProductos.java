@@ -0,0 +1,199 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.ProductoIndexableDTO;
+import com.samvitex.modelos.entidades.Producto;
+import com.samvitex.repositorios.ProductoRepositorio;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mantiene en memoria un índice de búsqueda de los productos activos para el buscador del POS.
+ * <p>
+ * El índice se construye en segundo plano al terminar el arranque y se actualiza producto a
+ * producto cuando {@link ServicioInventario} guarda o elimina uno, solo después de que la
+ * transacción confirme. Mientras no está listo, {@link #buscar(String, int)} devuelve vacío y
+ * los llamadores deben recurrir a la consulta en la base de datos.
+ * <p>
+ * Los productos creados o modificados en otras terminales se recogen cada minuto con
+ * {@link #actualizarModificados()}, a partir de {@code productos.fecha_modificacion} (la asigna la
+ * base de datos, V14). Los cambios de nombre de una categoría no modifican sus productos; los
+ * recoge la reconstrucción completa de cada madrugada.
+ */
+@Service
+public class ServicioIndiceProductos {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioIndiceProductos.class.getName());
+
+    /**
+     * Cuánto se retrocede desde la última modificación vista en cada recarga, para no perder los
+     * cambios de transacciones que tardaron en confirmarse. Recargar dos veces un producto no
+     * tiene efecto.
+     */
+    private static final Duration SOLAPAMIENTO_MODIFICACIONES = Duration.ofMinutes(2);
+
+    private final ProductoRepositorio productoRepositorio;
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+
+    private IndiceNGramasProductos indice = new IndiceNGramasProductos();
+    private boolean listo;
+    /** Cambios recibidos mientras se construye el índice; se aplican al terminar. */
+    private List<Consumer<IndiceNGramasProductos>> pendientes;
+    /** Última {@code fecha_modificacion} incorporada; {@code null} hasta la primera construcción. */
+    private volatile Instant ultimaModificacion;
+
+    public ServicioIndiceProductos(ProductoRepositorio productoRepositorio) {
+        this.productoRepositorio = productoRepositorio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirAlIniciar() {
+        Thread hilo = new Thread(this::reconstruir, "indice-productos");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Reconstruye el índice completo desde la base de datos. Las búsquedas siguen usando el
+     * índice anterior (o la base de datos) hasta que el nuevo está completo.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void reconstruir() {
+        candado.writeLock().lock();
+        try {
+            pendientes = new ArrayList<>();
+        } finally {
+            candado.writeLock().unlock();
+        }
+        try {
+            long inicio = System.nanoTime();
+            // Antes de la carga: lo que se modifique durante ella lo recoge la siguiente recarga.
+            Instant modificacion = productoRepositorio.findUltimaModificacion().orElse(Instant.EPOCH);
+            List<ProductoIndexableDTO> productos = productoRepositorio.findIndexablesActivos();
+            IndiceNGramasProductos nuevo = new IndiceNGramasProductos();
+            nuevo.reconstruir(productos);
+
+            candado.writeLock().lock();
+            try {
+                pendientes.forEach(cambio -> cambio.accept(nuevo));
+                indice = nuevo;
+                listo = true;
+                ultimaModificacion = modificacion;
+            } finally {
+                pendientes = null;
+                candado.writeLock().unlock();
+            }
+            LOGGER.info(String.format("Índice de búsqueda de productos construido: %d productos en %d ms.",
+                    productos.size(), (System.nanoTime() - inicio) / 1_000_000));
+        } catch (RuntimeException e) {
+            candado.writeLock().lock();
+            try {
+                pendientes = null;
+            } finally {
+                candado.writeLock().unlock();
+            }
+            LOGGER.log(Level.SEVERE, "No se pudo construir el índice de búsqueda de productos.", e);
+        }
+    }
+
+    /**
+     * Incorpora al índice los productos creados, modificados o desactivados desde la última
+     * recarga, en cualquier terminal.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 60_000)
+    public void actualizarModificados() {
+        Instant desde = ultimaModificacion;
+        if (desde == null) {
+            return; // El índice aún no se construyó.
+        }
+        try {
+            Instant modificacion = productoRepositorio.findUltimaModificacion().orElse(desde);
+            if (!modificacion.isAfter(desde)) {
+                return;
+            }
+            Instant desdeConSolapamiento = desde.minus(SOLAPAMIENTO_MODIFICACIONES);
+            List<ProductoIndexableDTO> activos = productoRepositorio.findIndexablesActivosModificadosDesde(desdeConSolapamiento);
+            List<Integer> inactivos = productoRepositorio.findIdsInactivosModificadosDesde(desdeConSolapamiento);
+            aplicar(i -> {
+                activos.forEach(i::agregar);
+                inactivos.forEach(i::eliminar);
+            });
+            ultimaModificacion = modificacion;
+            LOGGER.fine(String.format("Índice de búsqueda de productos actualizado: %d modificados, %d desactivados.",
+                    activos.size(), inactivos.size()));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "No se pudo actualizar el índice de búsqueda de productos.", e);
+        }
+    }
+
+    /**
+     * Busca productos activos por nombre, SKU o categoría.
+     *
+     * @param texto El texto de búsqueda.
+     * @param limite Número máximo de resultados.
+     * @return Los IDs de producto ordenados por relevancia, o vacío si el índice aún no está disponible.
+     */
+    public Optional<List<Integer>> buscar(String texto, int limite) {
+        candado.readLock().lock();
+        try {
+            return listo ? Optional.of(indice.buscar(texto, limite)) : Optional.empty();
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Refleja en el índice el estado de un producto recién guardado. Debe llamarse dentro de la
+     * transacción que lo guarda: los datos se capturan ahora y se aplican tras el commit, de
+     * modo que un rollback no deja el índice desalineado.
+     *
+     * @param producto El producto guardado (un producto inactivo se quita del índice).
+     */
+    public void actualizarTrasCommit(Producto producto) {
+        Integer id = producto.getId();
+        Consumer<IndiceNGramasProductos> cambio;
+        if (producto.isActivo()) {
+            ProductoIndexableDTO dto = new ProductoIndexableDTO(id, producto.getNombre(), producto.getSku(),
+                    producto.getCategoria() != null ? producto.getCategoria().getNombre() : null);
+            cambio = i -> i.agregar(dto);
+        } else {
+            cambio = i -> i.eliminar(id);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(cambio);
+                }
+            });
+        } else {
+            aplicar(cambio);
+        }
+    }
+
+    private void aplicar(Consumer<IndiceNGramasProductos> cambio) {
+        candado.writeLock().lock();
+        try {
+            if (pendientes != null) {
+                pendientes.add(cambio);
+            }
+            cambio.accept(indice);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.samvitex.servicios;
 
+import com.samvitex.modelos.dto.BloqueProductos;
+import com.samvitex.modelos.dto.CursorProducto;
+import com.samvitex.modelos.dto.IndiceBloquesProductos;
 import com.samvitex.modelos.dto.ProductoInventarioDTO;
 import com.samvitex.modelos.entidades.InventarioPorAlmacen;
 import com.samvitex.modelos.entidades.Producto;
@@ -7,17 +10,29 @@ import com.samvitex.modelos.excepciones.InventarioException;
 import com.samvitex.repositorios.InventarioPorAlmacenRepositorio;
 import com.samvitex.repositorios.ProductoRepositorio;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
-import java.util.ArrayList;
+import jakarta.persistence.criteria.Root;
 
 /**
  * Servicio de negocio para la gestión del inventario de {@link Producto}.
@@ -28,12 +43,36 @@ import java.util.ArrayList;
 @Service
 public class ServicioInventario {
 
+    /** Máximo de resultados que devuelve el buscador del POS cuando usa el índice en memoria. */
+    private static final int LIMITE_RESULTADOS_POS = 200;
+    /**
+     * Máximo de candidatos del índice que el buscador del POS revisa. Un término muy amplio cuyos
+     * mejores candidatos no tienen stock en el almacén no recorre todo el catálogo: se muestran
+     * los que haya entre estos y el usuario puede afinar la búsqueda.
+     */
+    private static final int MAX_CANDIDATOS_POS = 5000;
+    /** Candidatos por consulta al filtrar por stock. */
+    private static final int LOTE_FILTRO_STOCK = 500;
+
+    private final EntityManager entityManager;
     private final ProductoRepositorio productoRepositorio;
     private final InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
-
-    public ServicioInventario(ProductoRepositorio productoRepositorio, InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio) {
+    private final ServicioResumenStock servicioResumenStock;
+    private final ServicioIndiceProductos servicioIndiceProductos;
+    private final ServicioCacheEscaneo servicioCacheEscaneo;
+
+    public ServicioInventario(EntityManager entityManager,
+                              ProductoRepositorio productoRepositorio,
+                              InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio,
+                              ServicioResumenStock servicioResumenStock,
+                              ServicioIndiceProductos servicioIndiceProductos,
+                              ServicioCacheEscaneo servicioCacheEscaneo) {
+        this.entityManager = entityManager;
         this.productoRepositorio = productoRepositorio;
         this.inventarioPorAlmacenRepositorio = inventarioPorAlmacenRepositorio;
+        this.servicioResumenStock = servicioResumenStock;
+        this.servicioIndiceProductos = servicioIndiceProductos;
+        this.servicioCacheEscaneo = servicioCacheEscaneo;
     }
 
     /**
@@ -73,7 +112,8 @@ public class ServicioInventario {
     }
 
     /**
-     * Guarda un producto (lo crea o actualiza). El stock no se gestiona aquí.
+     * Guarda un producto (lo crea o actualiza). El stock no se gestiona aquí, pero se
+     * refresca su fila de resumen porque el costo, el stock mínimo o el estado pueden cambiar.
      */
     @Transactional
     @PreAuthorize("hasRole('ADMINISTRADOR')")
@@ -81,7 +121,11 @@ public class ServicioInventario {
         if (producto.getId() == null && productoRepositorio.existsBySku(producto.getSku())) {
             throw new InventarioException("El SKU '" + producto.getSku() + "' ya existe y debe ser único.");
         }
-        return productoRepositorio.save(producto);
+        Producto guardado = productoRepositorio.save(producto);
+        servicioResumenStock.actualizarProductos(List.of(guardado.getId()));
+        servicioIndiceProductos.actualizarTrasCommit(guardado);
+        servicioCacheEscaneo.invalidarTodoTrasCommit();
+        return guardado;
     }
 
     /**
@@ -94,6 +138,9 @@ public class ServicioInventario {
                 .orElseThrow(() -> new InventarioException("Producto no encontrado con ID: " + id));
         producto.setActivo(false);
         productoRepositorio.save(producto);
+        servicioResumenStock.actualizarProductos(List.of(id));
+        servicioIndiceProductos.actualizarTrasCommit(producto);
+        servicioCacheEscaneo.invalidarTodoTrasCommit();
     }
 
     /**
@@ -131,6 +178,14 @@ public class ServicioInventario {
 
     /**
      * Busca productos vendibles (activos y con stock > 0) en un almacén específico.
+     * <p>
+     * Con texto de búsqueda, los candidatos salen del índice en memoria de
+     * {@link ServicioIndiceProductos}, ya ordenados por relevancia, y solo se consulta a la base
+     * de datos el stock de esos productos en el almacén. El límite de resultados se aplica después
+     * de filtrar por stock: los candidatos se filtran por lotes de {@link #LOTE_FILTRO_STOCK}, en
+     * orden de relevancia, hasta completar el límite o revisar {@link #MAX_CANDIDATOS_POS}.
+     * Solo se cargan como entidades los productos que se devuelven. Si el índice aún no está
+     * construido se usa la búsqueda en la base de datos.
      */
     @Transactional(readOnly = true)
     public List<Producto> buscarProductosActivosConStock(String textoBusqueda, Integer almacenId) {
@@ -138,49 +193,151 @@ public class ServicioInventario {
             throw new IllegalArgumentException("Se debe especificar un almacén para la búsqueda.");
         }
         String busqueda = (textoBusqueda == null || textoBusqueda.isBlank()) ? "" : textoBusqueda;
+        if (!busqueda.isEmpty()) {
+            Optional<List<Integer>> candidatos = servicioIndiceProductos.buscar(busqueda, MAX_CANDIDATOS_POS);
+            if (candidatos.isPresent()) {
+                return productosEnOrden(idsConStockEnOrden(candidatos.get(), almacenId));
+            }
+        }
         return productoRepositorio.findActivosConStockPorAlmacenYNombreOSku(almacenId, busqueda);
     }
 
+    /**
+     * Recorre los candidatos por lotes y devuelve, en el mismo orden de relevancia, los primeros
+     * {@link #LIMITE_RESULTADOS_POS} que tienen stock en el almacén.
+     */
+    private List<Integer> idsConStockEnOrden(List<Integer> candidatos, Integer almacenId) {
+        List<Integer> seleccion = new ArrayList<>();
+        for (int desde = 0; desde < candidatos.size() && seleccion.size() < LIMITE_RESULTADOS_POS; desde += LOTE_FILTRO_STOCK) {
+            List<Integer> lote = candidatos.subList(desde, Math.min(desde + LOTE_FILTRO_STOCK, candidatos.size()));
+            Set<Integer> conStock = new HashSet<>(inventarioPorAlmacenRepositorio.findIdsConStockEnAlmacen(almacenId, lote));
+            for (Integer id : lote) {
+                if (conStock.contains(id)) {
+                    seleccion.add(id);
+                    if (seleccion.size() == LIMITE_RESULTADOS_POS) {
+                        break;
+                    }
+                }
+            }
+        }
+        return seleccion;
+    }
+
+    /**
+     * Carga los productos indicados en una sola consulta, conservando el orden de la lista.
+     */
+    private List<Producto> productosEnOrden(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Producto> porId = productoRepositorio.findAllById(ids).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     /**
      * Busca un producto vendible por su SKU exacto en un almacén específico.
      */
-    @Transactional(readOnly = true)
     public Optional<Producto> buscarProductoActivoConStockPorSku(String sku, Integer almacenId) {
+        return escanearProductoPorSku(sku, almacenId).map(ServicioCacheEscaneo.EntradaEscaneo::producto);
+    }
+
+    /**
+     * Resuelve un SKU escaneado a un producto vendible y su stock disponible en el almacén,
+     * a través de la caché de escaneo. No se declara transaccional para que un acierto de
+     * caché no tome una conexión de la base de datos.
+     */
+    public Optional<ServicioCacheEscaneo.EntradaEscaneo> escanearProductoPorSku(String sku, Integer almacenId) {
         if (almacenId == null) {
             throw new IllegalArgumentException("Se debe especificar un almacén para la búsqueda.");
         }
-        return productoRepositorio.findActivoConStockPorAlmacenYSku(almacenId, sku);
+        return servicioCacheEscaneo.buscar(almacenId, sku);
     }
 
     /**
-     * Búsqueda inteligente y carga de datos para tooltip.
+     * Dimensiona la grilla de inventario, que se muestra como una tabla virtual: devuelve el número
+     * de productos que el planificador estima para el filtro, sin recorrerlos. La tabla corrige el
+     * total a medida que carga bloques y encuentra el final real (ver
+     * {@link com.samvitex.ui.modelos_tabla.ProductoTableModel}).
+     *
+     * @param texto Término de búsqueda (nombre o SKU).
+     * @param tamanoBloque El número de productos por bloque.
+     * @return El total estimado de productos y el tamaño de bloque.
      */
+    @Transactional(readOnly = true)
+    public IndiceBloquesProductos estimarProductos(String texto, int tamanoBloque) {
+        long estimado = productoRepositorio.estimarProductosInventario(texto != null ? texto : "");
+        return new IndiceBloquesProductos((int) Math.min(estimado, Integer.MAX_VALUE), tamanoBloque, false);
+    }
+
     /**
-     * Busca productos de forma paginada y enriquecida con stock total y resumen.
-     * Soporta filtro por texto (búsqueda inteligente) y por ID de almacén.
+     * Carga un bloque de la grilla de inventario, enriquecido con stock total y resumen por almacén.
+     * <p>
+     * El bloque empieza {@code saltar} productos después de {@code desde}. Al desplazarse, la tabla
+     * conoce el último producto del bloque anterior y {@code saltar} es 0, así que la carga es una
+     * sola consulta por keyset. Al saltar lejos, primero se busca el corte recorriendo solo las
+     * claves {@code (nombre, id)} desde el corte conocido más cercano, en el orden del índice
+     * {@code idx_productos_activos_nombre_id} (V6). Si el filtro termina antes del bloque, se
+     * cuentan los productos que quedaban tras {@code desde} (menos que {@code saltar}), con lo que
+     * la tabla conoce el total exacto sin recorrerlo bloque a bloque.
      *
-     * @param texto Término de búsqueda (nombre o SKU).
+     * @param texto Término de búsqueda (nombre o SKU), el mismo con el que se estimó el total.
      * @param almacenId ID del almacén para filtrar el conteo de stock (null para todos).
-     * @param pagina Número de página.
-     * @param tamano Tamaño de página.
-     * @return Página de DTOs listos para la UI.
+     * @param desde El último producto de un bloque anterior ya conocido, o {@code null} para el inicio.
+     * @param saltar Los productos que hay entre {@code desde} y el inicio del bloque.
+     * @param tamano El número de productos del bloque.
+     * @return Los productos del bloque y cuántos se saltaron antes de él.
      */
     @Transactional(readOnly = true)
-    public Page<ProductoInventarioDTO> buscarProductosPaginadoConStockTotal(String texto, Integer almacenId, int pagina, int tamano) {
-        Pageable pageable = PageRequest.of(pagina, tamano, Sort.by("nombre").ascending());
+    public BloqueProductos cargarBloqueProductos(String texto, Integer almacenId, CursorProducto desde, int saltar, int tamano) {
+        Sort orden = Sort.by(Sort.Direction.ASC, "nombre", "id");
+
+        // 1. PRODUCTOS DEL BLOQUE
+        if (saltar > 0) {
+            CursorProducto corte = corteTrasSaltar(texto, desde, saltar);
+            if (corte == null) {
+                long restantes = productoRepositorio.count(especificacionInventario(texto).and(predicadoCursor(desde)));
+                return new BloqueProductos(List.of(), (int) restantes);
+            }
+            desde = corte;
+        }
+        Specification<Producto> spec = especificacionInventario(texto).and(predicadoCursor(desde));
+        List<Producto> productos = productoRepositorio.findBy(spec, q -> q.sortBy(orden).limit(tamano).all());
+
+        // 2. DESGLOSE DE STOCK DE TODO EL BLOQUE EN UNA SOLA CONSULTA
+        List<Integer> productoIds = productos.stream().map(Producto::getId).toList();
+        Map<Integer, List<InventarioPorAlmacen>> inventariosPorProducto = productoIds.isEmpty()
+                ? Map.of()
+                : inventarioPorAlmacenRepositorio.findByProductoIdInWithAlmacen(productoIds).stream()
+                        .collect(Collectors.groupingBy(inv -> inv.getProducto().getId()));
+
+        // 3. ENRIQUECIMIENTO DE DATOS (DTOs)
+        List<ProductoInventarioDTO> filas = productos.stream()
+                .map(producto -> construirProductoInventarioDTO(
+                        producto, inventariosPorProducto.getOrDefault(producto.getId(), List.of()), almacenId))
+                .collect(Collectors.toList());
+        return new BloqueProductos(filas, saltar);
+    }
 
-        // 1. ESPECIFICACIÓN DINÁMICA (FILTROS)
-        org.springframework.data.jpa.domain.Specification<Producto> spec = (root, query, cb) -> {
+    /**
+     * Filtros de la grilla de inventario: productos activos cuyo nombre o SKU contenga cada
+     * palabra del texto (búsqueda inteligente).
+     */
+    private Specification<Producto> especificacionInventario(String texto) {
+        return (root, query, cb) -> {
 
             // --- CORRECCIÓN CLAVE: Cargar relaciones (JOIN FETCH) ---
-            // Verificamos el tipo de resultado para no romper la query de conteo (count)
-            if (query.getResultType() != Long.class && query.getResultType() != long.class) {
+            // Solo al consultar entidades: un JOIN FETCH rompe las consultas de conteo o de columnas sueltas
+            if (query.getResultType() == Producto.class) {
                 root.fetch("categoria", JoinType.LEFT);
                 root.fetch("proveedor", JoinType.LEFT);
             }
             // ---------------------------------------------------------
 
-            List<jakarta.persistence.criteria.Predicate> predicates = new java.util.ArrayList<>();
+            List<Predicate> predicates = new ArrayList<>();
 
             // Siempre filtrar solo productos activos
             predicates.add(cb.isTrue(root.get("activo")));
@@ -189,64 +346,95 @@ public class ServicioInventario {
             if (texto != null && !texto.isBlank()) {
                 String[] palabras = texto.trim().split("\\s+"); // Separar por espacios
                 for (String palabra : palabras) {
-                    // Usar unaccent() si está configurado en DB, sino lower()
-                    String patron = "%" + palabra.toLowerCase() + "%";
+                    // Misma expresión que los índices trigram (V5): f_unaccent(lower(columna))
+                    Expression<String> patron = cb.function("f_unaccent", String.class, cb.literal("%" + palabra.toLowerCase() + "%"));
 
                     // Busca en Nombre O en SKU
-                    jakarta.persistence.criteria.Predicate nombreLike = cb.like(cb.lower(root.get("nombre")), patron);
-                    jakarta.persistence.criteria.Predicate skuLike = cb.like(cb.lower(root.get("sku")), patron);
+                    Predicate nombreLike = cb.like(cb.function("f_unaccent", String.class, cb.lower(root.get("nombre"))), patron);
+                    Predicate skuLike = cb.like(cb.function("f_unaccent", String.class, cb.lower(root.get("sku"))), patron);
 
                     // Agrega condición: (nombre LIKE %palabra% OR sku LIKE %palabra%)
                     predicates.add(cb.or(nombreLike, skuLike));
                 }
             }
 
-            return cb.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
+            return cb.and(predicates.toArray(new Predicate[0]));
         };
+    }
 
-        // Ejecutar consulta principal de productos
-        Page<Producto> paginaProductos = productoRepositorio.findAll(spec, pageable);
-
-        // 2. ENRIQUECIMIENTO DE DATOS (DTOs)
-        List<ProductoInventarioDTO> dtos = paginaProductos.getContent().stream()
-                .map(producto -> {
-                    // Obtenemos el detalle de inventario para este producto
-                    List<InventarioPorAlmacen> inventarios = inventarioPorAlmacenRepositorio.findByProductoIdWithAlmacen(producto.getId());
-
-                    long stockCalculado = 0;
-                    StringBuilder tooltipBuilder = new StringBuilder("<html><b>Detalle de Stock:</b><br/>");
-                    boolean hayStockEnAlgunLado = false;
-
-                    for (InventarioPorAlmacen inv : inventarios) {
-                        // Lógica de filtrado de visualización
-                        boolean coincideAlmacen = (almacenId == null || almacenId <= 0 || inv.getAlmacen().getId().equals(almacenId));
-
-                        if (coincideAlmacen) {
-                            // Sumamos al total visible en la tabla
-                            stockCalculado += inv.getCantidad();
-                        }
-
-                        // Para el tooltip
-                        if (inv.getCantidad() > 0) {
-                            hayStockEnAlgunLado = true;
-                            String estiloAlmacen = coincideAlmacen ? "color:black;" : "color:gray;";
-
-                            tooltipBuilder.append("<span style='").append(estiloAlmacen).append("'>• ")
-                                    .append(inv.getAlmacen().getNombre())
-                                    .append(": <b>").append(inv.getCantidad()).append("</b></span><br/>");
-                        }
-                    }
+    /**
+     * El producto que queda {@code saltar} posiciones después de {@code desde} en el orden
+     * (nombre, id). Lee solo esas dos columnas.
+     *
+     * @return El producto, o {@code null} si el filtro no tiene tantos productos.
+     */
+    private CursorProducto corteTrasSaltar(String texto, CursorProducto desde, int saltar) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CursorProducto> consulta = cb.createQuery(CursorProducto.class);
+        Root<Producto> root = consulta.from(Producto.class);
+        consulta.select(cb.construct(CursorProducto.class, root.get("nombre"), root.get("id")))
+                .where(especificacionInventario(texto).and(predicadoCursor(desde)).toPredicate(root, consulta, cb))
+                .orderBy(cb.asc(root.get("nombre")), cb.asc(root.get("id")));
+        List<CursorProducto> corte = entityManager.createQuery(consulta)
+                .setFirstResult(saltar - 1)
+                .setMaxResults(1)
+                .getResultList();
+        return corte.isEmpty() ? null : corte.get(0);
+    }
 
-                    if (!hayStockEnAlgunLado) {
-                        tooltipBuilder.append("<span style='color:gray;'>Sin stock registrado</span>");
-                    }
-                    tooltipBuilder.append("</html>");
+    /**
+     * Condición de keyset: productos posteriores a la referencia del cursor en el orden
+     * (nombre, id). Se expresa como {@code nombre >= :n AND (nombre > :n OR id > :id)} para
+     * que PostgreSQL pueda posicionarse con el índice {@code idx_productos_activos_nombre_id} (V6).
+     */
+    private Specification<Producto> predicadoCursor(CursorProducto cursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return cb.conjunction();
+            }
+            Path<String> nombre = root.get("nombre");
+            Path<Integer> id = root.get("id");
+            return cb.and(cb.greaterThanOrEqualTo(nombre, cursor.nombre()),
+                    cb.or(cb.greaterThan(nombre, cursor.nombre()), cb.greaterThan(id, cursor.id())));
+        };
+    }
 
-                    return new ProductoInventarioDTO(producto, stockCalculado, tooltipBuilder.toString());
-                })
-                .collect(Collectors.toList());
+    /**
+     * Construye el DTO de la grilla de inventario a partir del desglose de stock ya cargado
+     * de un producto: suma el stock visible según el filtro de almacén y arma el tooltip
+     * con el detalle por ubicación.
+     */
+    private ProductoInventarioDTO construirProductoInventarioDTO(Producto producto, List<InventarioPorAlmacen> inventarios, Integer almacenId) {
+        long stockCalculado = 0;
+        StringBuilder tooltipBuilder = new StringBuilder("<html><b>Detalle de Stock:</b><br/>");
+        boolean hayStockEnAlgunLado = false;
+
+        for (InventarioPorAlmacen inv : inventarios) {
+            // Lógica de filtrado de visualización
+            boolean coincideAlmacen = (almacenId == null || almacenId <= 0 || inv.getAlmacen().getId().equals(almacenId));
+
+            if (coincideAlmacen) {
+                // Sumamos al total visible en la tabla
+                stockCalculado += inv.getCantidad();
+            }
+
+            // Para el tooltip
+            if (inv.getCantidad() > 0) {
+                hayStockEnAlgunLado = true;
+                String estiloAlmacen = coincideAlmacen ? "color:black;" : "color:gray;";
+
+                tooltipBuilder.append("<span style='").append(estiloAlmacen).append("'>• ")
+                        .append(inv.getAlmacen().getNombre())
+                        .append(": <b>").append(inv.getCantidad()).append("</b></span><br/>");
+            }
+        }
+
+        if (!hayStockEnAlgunLado) {
+            tooltipBuilder.append("<span style='color:gray;'>Sin stock registrado</span>");
+        }
+        tooltipBuilder.append("</html>");
 
-        return new PageImpl<>(dtos, pageable, paginaProductos.getTotalElements());
+        return new ProductoInventarioDTO(producto, stockCalculado, tooltipBuilder.toString());
     }
 
     /**
@@ -0,0 +1,79 @@
+package com.samvitex.servicios;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Mantiene las particiones mensuales de {@code movimientos_inventario} (ver la migración V9).
+ * <p>
+ * Al arrancar y cada madrugada se asegura de que existan las particiones del mes actual y de
+ * los {@link #MESES_ADELANTE} siguientes, de modo que un movimiento nunca llegue a un mes sin
+ * partición. También permite desacoplar meses antiguos para archivarlos sin detener la aplicación.
+ */
+@Service
+public class ServicioParticionesMovimientos {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioParticionesMovimientos.class.getName());
+    private static final int MESES_ADELANTE = 3;
+    private static final DateTimeFormatter FORMATO_PARTICION = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ServicioParticionesMovimientos(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void crearAlIniciar() {
+        try {
+            crearParticionesFuturas();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "No se pudieron crear las particiones futuras de movimientos de inventario.", e);
+        }
+    }
+
+    /**
+     * Crea las particiones que falten para el mes actual y los siguientes. Es idempotente y
+     * segura frente a varias terminales ejecutándola a la vez.
+     *
+     * @return El número de particiones creadas.
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public int crearParticionesFuturas() {
+        Integer creadas = jdbcTemplate.queryForObject("SELECT crear_particiones_movimientos(?)", Integer.class, MESES_ADELANTE);
+        if (creadas != null && creadas > 0) {
+            LOGGER.info("Particiones de movimientos de inventario creadas: " + creadas + ".");
+        }
+        return creadas != null ? creadas : 0;
+    }
+
+    /**
+     * Desacopla la partición de un mes cerrado, que queda como una tabla independiente lista para
+     * respaldarse y eliminarse. Usa {@code DETACH PARTITION ... CONCURRENTLY}, que no bloquea las
+     * lecturas ni las escrituras de los demás meses; por eso se ejecuta fuera de una transacción.
+     *
+     * @param mes El mes a desacoplar; debe ser anterior al mes actual.
+     * @return El nombre de la tabla desacoplada.
+     */
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public String desacoplarParticion(YearMonth mes) {
+        if (!mes.isBefore(YearMonth.now(ZoneOffset.UTC))) {
+            throw new IllegalArgumentException("Solo se pueden desacoplar meses ya cerrados.");
+        }
+        // El nombre se arma a partir de un YearMonth, por lo que no admite texto arbitrario.
+        String particion = "movimientos_inventario_" + mes.format(FORMATO_PARTICION);
+        jdbcTemplate.execute("ALTER TABLE movimientos_inventario DETACH PARTITION " + particion + " CONCURRENTLY");
+        LOGGER.info("Partición " + particion + " desacoplada de movimientos_inventario.");
+        return particion;
+    }
+}
@@ -1,11 +1,12 @@
 package com.samvitex.servicios;
 
+import com.samvitex.eventos.EventoProduccionRegistrada;
 import com.samvitex.modelos.dto.OrdenProduccionDTO;
+import com.samvitex.modelos.dto.VariacionResumenStock;
 import com.samvitex.modelos.entidades.*;
 import com.samvitex.modelos.enums.EstadoProduccion;
 import com.samvitex.modelos.enums.TipoDetalleProduccion;
 import com.samvitex.modelos.enums.TipoMovimiento;
-import com.samvitex.modelos.excepciones.InventarioException;
 import com.samvitex.modelos.excepciones.ProduccionException;
 import com.samvitex.repositorios.*;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -13,8 +14,13 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de negocio para gestionar el ciclo de vida de las Órdenes de Producción
@@ -28,20 +34,26 @@ public class ServicioProduccion {
     private final ProductoRepositorio productoRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
     private final AlmacenRepositorio almacenRepositorio;
-    private final InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
+    private final ServicioStock servicioStock;
+    private final ServicioResumenStock servicioResumenStock;
+    private final ServicioEventos servicioEventos;
 
     public ServicioProduccion(OrdenProduccionRepositorio ordenProduccionRepositorio,
                               TallerRepositorio tallerRepositorio,
                               ProductoRepositorio productoRepositorio,
                               UsuarioRepositorio usuarioRepositorio,
                               AlmacenRepositorio almacenRepositorio,
-                              InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio) {
+                              ServicioStock servicioStock,
+                              ServicioResumenStock servicioResumenStock,
+                              ServicioEventos servicioEventos) {
         this.ordenProduccionRepositorio = ordenProduccionRepositorio;
         this.tallerRepositorio = tallerRepositorio;
         this.productoRepositorio = productoRepositorio;
         this.usuarioRepositorio = usuarioRepositorio;
         this.almacenRepositorio = almacenRepositorio;
-        this.inventarioPorAlmacenRepositorio = inventarioPorAlmacenRepositorio;
+        this.servicioStock = servicioStock;
+        this.servicioResumenStock = servicioResumenStock;
+        this.servicioEventos = servicioEventos;
     }
 
     @Transactional(readOnly = true)
@@ -96,14 +108,22 @@ public class ServicioProduccion {
      * Inicia la producción de una orden.
      * Cambia el estado a EN_PRODUCCION, descuenta los INSUMOS del almacén de origen
      * especificado en la orden y genera los movimientos de inventario correspondientes.
+     * El descuento se realiza de forma atómica mediante {@link ServicioStock}; ante un conflicto
+     * de concurrencia la operación completa se reintenta. Cada insumo guarda el costo promedio
+     * al que salió del almacén, que al finalizar se traslada a los productos finales.
+     * La orden se lee con bloqueo de fila, de modo que dos inicios simultáneos de la misma orden
+     * no descuenten los insumos dos veces.
      *
      * @param ordenId El ID de la orden de producción a iniciar.
      * @return La orden de producción actualizada.
      */
-    @Transactional
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
     public OrdenProduccion iniciarProduccion(Long ordenId) {
-        OrdenProduccion orden = ordenProduccionRepositorio.findById(ordenId)
+        return servicioStock.ejecutarConReintento(() -> registrarInicioProduccion(ordenId));
+    }
+
+    private OrdenProduccion registrarInicioProduccion(Long ordenId) {
+        OrdenProduccion orden = ordenProduccionRepositorio.findByIdParaActualizar(ordenId)
                 .orElseThrow(() -> new ProduccionException("La orden de producción no existe."));
 
         if (orden.getEstado() != EstadoProduccion.PLANIFICADA) {
@@ -112,57 +132,52 @@ public class ServicioProduccion {
 
         Usuario usuario = getCurrentUser();
         Almacen almacenInsumos = orden.getAlmacenInsumos();
+        List<OrdenProduccionDetalle> insumos = detallesPorTipo(orden, TipoDetalleProduccion.INSUMO);
+
+        List<ServicioStock.CambioStock> cambios = servicioStock.descontar(almacenInsumos, usuario, lineasDeStock(insumos));
 
-        for (OrdenProduccionDetalle detalle : orden.getDetalles()) {
-            if (detalle.getTipoDetalle() == TipoDetalleProduccion.INSUMO) {
-                Producto insumo = detalle.getProducto();
-                int cantidadRequerida = detalle.getCantidad();
-
-                InventarioPorAlmacen inventario = inventarioPorAlmacenRepositorio
-                        .findByProductoIdAndAlmacenId(insumo.getId(), almacenInsumos.getId())
-                        .orElseThrow(() -> new InventarioException(String.format("No hay registro de stock para el insumo '%s' en el almacén '%s'.",
-                                insumo.getNombre(), almacenInsumos.getNombre())));
-
-                if (inventario.getCantidad() < cantidadRequerida) {
-                    throw new InventarioException(String.format("Stock insuficiente para '%s' en '%s'. Requerido: %d, Disponible: %d",
-                            insumo.getNombre(), almacenInsumos.getNombre(), cantidadRequerida, inventario.getCantidad()));
-                }
-
-                int stockAnterior = inventario.getCantidad();
-                int stockNuevo = stockAnterior - cantidadRequerida;
-                inventario.setCantidad(stockNuevo);
-                inventario.setFechaModificacion(Instant.now());
-                inventario.setUsuarioModificacion(usuario);
-
-                MovimientoInventario movimiento = new MovimientoInventario();
-                movimiento.setProducto(insumo);
-                movimiento.setAlmacen(almacenInsumos);
-                movimiento.setUsuario(usuario);
-                movimiento.setTipo(TipoMovimiento.SALIDA_A_PRODUCCION);
-                movimiento.setCantidadMovida(-cantidadRequerida);
-                movimiento.setStockAnterior(stockAnterior);
-                movimiento.setStockNuevo(stockNuevo);
-                orden.addMovimiento(movimiento);
-            }
+        for (int i = 0; i < insumos.size(); i++) {
+            OrdenProduccionDetalle detalle = insumos.get(i);
+            ServicioStock.CambioStock cambio = cambios.get(i);
+            detalle.setCostoUnitario(cambio.costoUnitario());
+
+            MovimientoInventario movimiento = new MovimientoInventario();
+            movimiento.setProducto(detalle.getProducto());
+            movimiento.setAlmacen(almacenInsumos);
+            movimiento.setUsuario(usuario);
+            movimiento.setTipo(TipoMovimiento.SALIDA_A_PRODUCCION);
+            movimiento.setCantidadMovida(-detalle.getCantidad());
+            movimiento.setStockAnterior(cambio.stockAnterior());
+            movimiento.setStockNuevo(cambio.stockNuevo());
+            orden.addMovimiento(movimiento);
         }
 
         orden.setEstado(EstadoProduccion.EN_PRODUCCION);
         orden.setFechaInicioProduccion(Instant.now());
-        return ordenProduccionRepositorio.save(orden);
+        OrdenProduccion ordenGuardada = ordenProduccionRepositorio.save(orden);
+        VariacionResumenStock variacion = servicioResumenStock.actualizarProductos(idsProductosPorTipo(orden, TipoDetalleProduccion.INSUMO));
+        servicioEventos.publicarTrasCommit(new EventoProduccionRegistrada(ordenGuardada.getId(), EstadoProduccion.EN_PRODUCCION, variacion));
+        return ordenGuardada;
     }
 
     /**
      * Finaliza la producción de una orden.
      * Cambia el estado a COMPLETADA, ingresa los PRODUCTOS FINALES al almacén de destino
      * especificado en la orden y genera los movimientos de inventario correspondientes.
+     * El ingreso se realiza de forma atómica mediante {@link ServicioStock}, con el costo de los
+     * insumos consumidos repartido entre los productos finales (ver {@link #costosPorProductoFinal}).
+     * Como al iniciarla, la orden se lee con bloqueo de fila para no ingresar los productos dos veces.
      *
      * @param ordenId El ID de la orden de producción a finalizar.
      * @return La orden de producción actualizada.
      */
-    @Transactional
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
     public OrdenProduccion finalizarProduccion(Long ordenId) {
-        OrdenProduccion orden = ordenProduccionRepositorio.findById(ordenId)
+        return servicioStock.ejecutarConReintento(() -> registrarFinProduccion(ordenId));
+    }
+
+    private OrdenProduccion registrarFinProduccion(Long ordenId) {
+        OrdenProduccion orden = ordenProduccionRepositorio.findByIdParaActualizar(ordenId)
                 .orElseThrow(() -> new ProduccionException("La orden de producción no existe."));
 
         if (orden.getEstado() != EstadoProduccion.EN_PRODUCCION) {
@@ -171,44 +186,94 @@ public class ServicioProduccion {
 
         Usuario usuario = getCurrentUser();
         Almacen almacenDestino = orden.getAlmacenDestino();
+        List<OrdenProduccionDetalle> productosFinales = detallesPorTipo(orden, TipoDetalleProduccion.PRODUCTO_FINAL);
+        List<BigDecimal> costos = costosPorProductoFinal(orden, productosFinales);
 
-        for (OrdenProduccionDetalle detalle : orden.getDetalles()) {
-            if (detalle.getTipoDetalle() == TipoDetalleProduccion.PRODUCTO_FINAL) {
-                Producto productoFinal = detalle.getProducto();
-                int cantidadProducida = detalle.getCantidad();
-
-                InventarioPorAlmacen inventario = inventarioPorAlmacenRepositorio
-                        .findByProductoIdAndAlmacenId(productoFinal.getId(), almacenDestino.getId())
-                        .orElseGet(() -> {
-                            InventarioPorAlmacen nuevoInventario = new InventarioPorAlmacen();
-                            nuevoInventario.setProducto(productoFinal);
-                            nuevoInventario.setAlmacen(almacenDestino);
-                            nuevoInventario.setCantidad(0);
-                            return nuevoInventario;
-                        });
-
-                int stockAnterior = inventario.getCantidad();
-                int stockNuevo = stockAnterior + cantidadProducida;
-                inventario.setCantidad(stockNuevo);
-                inventario.setFechaModificacion(Instant.now());
-                inventario.setUsuarioModificacion(usuario);
-                inventarioPorAlmacenRepositorio.save(inventario);
-
-                MovimientoInventario movimiento = new MovimientoInventario();
-                movimiento.setProducto(productoFinal);
-                movimiento.setAlmacen(almacenDestino);
-                movimiento.setUsuario(usuario);
-                movimiento.setTipo(TipoMovimiento.ENTRADA_POR_PRODUCCION);
-                movimiento.setCantidadMovida(cantidadProducida);
-                movimiento.setStockAnterior(stockAnterior);
-                movimiento.setStockNuevo(stockNuevo);
-                orden.addMovimiento(movimiento);
-            }
+        List<ServicioStock.LineaStock> lineas = new ArrayList<>();
+        for (int i = 0; i < productosFinales.size(); i++) {
+            OrdenProduccionDetalle detalle = productosFinales.get(i);
+            lineas.add(new ServicioStock.LineaStock(detalle.getProducto().getId(), detalle.getCantidad(), costos.get(i)));
+        }
+        List<ServicioStock.CambioStock> cambios = servicioStock.ingresar(almacenDestino, usuario, lineas);
+
+        for (int i = 0; i < productosFinales.size(); i++) {
+            OrdenProduccionDetalle detalle = productosFinales.get(i);
+            ServicioStock.CambioStock cambio = cambios.get(i);
+            detalle.setCostoUnitario(costos.get(i));
+
+            MovimientoInventario movimiento = new MovimientoInventario();
+            movimiento.setProducto(detalle.getProducto());
+            movimiento.setAlmacen(almacenDestino);
+            movimiento.setUsuario(usuario);
+            movimiento.setTipo(TipoMovimiento.ENTRADA_POR_PRODUCCION);
+            movimiento.setCantidadMovida(detalle.getCantidad());
+            movimiento.setStockAnterior(cambio.stockAnterior());
+            movimiento.setStockNuevo(cambio.stockNuevo());
+            orden.addMovimiento(movimiento);
         }
 
         orden.setEstado(EstadoProduccion.COMPLETADA);
         orden.setFechaFinalizacion(Instant.now());
-        return ordenProduccionRepositorio.save(orden);
+        OrdenProduccion ordenGuardada = ordenProduccionRepositorio.save(orden);
+        VariacionResumenStock variacion = servicioResumenStock.actualizarProductos(idsProductosPorTipo(orden, TipoDetalleProduccion.PRODUCTO_FINAL));
+        servicioEventos.publicarTrasCommit(new EventoProduccionRegistrada(ordenGuardada.getId(), EstadoProduccion.COMPLETADA, variacion));
+        return ordenGuardada;
+    }
+
+    /**
+     * Reparte el costo de los insumos consumidos entre los productos finales, en proporción al
+     * valor de referencia de cada línea (cantidad × precio de costo del producto). Así, en una
+     * orden con varios productos, cada uno absorbe el costo según lo que vale y no por igual por
+     * unidad. Si ninguna línea tiene precio de costo, el reparto es por unidad.
+     * <p>
+     * Si la orden no tiene costo de insumos registrado o no produce unidades, cada producto entra
+     * a su precio de costo de referencia.
+     *
+     * @return El costo unitario de cada producto final, en el mismo orden que {@code productosFinales}.
+     */
+    private List<BigDecimal> costosPorProductoFinal(OrdenProduccion orden, List<OrdenProduccionDetalle> productosFinales) {
+        BigDecimal costoInsumos = detallesPorTipo(orden, TipoDetalleProduccion.INSUMO).stream()
+                .filter(detalle -> detalle.getCostoUnitario() != null)
+                .map(detalle -> detalle.getCostoUnitario().multiply(BigDecimal.valueOf(detalle.getCantidad())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long unidades = productosFinales.stream().mapToLong(OrdenProduccionDetalle::getCantidad).sum();
+        if (costoInsumos.signum() == 0 || unidades == 0) {
+            return productosFinales.stream()
+                    .map(detalle -> ServicioStock.costoDeReferencia(detalle.getProducto()))
+                    .toList();
+        }
+
+        BigDecimal valorReferencia = productosFinales.stream()
+                .map(detalle -> ServicioStock.costoDeReferencia(detalle.getProducto()).multiply(BigDecimal.valueOf(detalle.getCantidad())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (valorReferencia.signum() == 0) {
+            BigDecimal costoPorUnidad = costoInsumos.divide(BigDecimal.valueOf(unidades), 4, RoundingMode.HALF_UP);
+            return productosFinales.stream().map(detalle -> costoPorUnidad).toList();
+        }
+        // costo de una unidad = costo de los insumos × precio de costo / valor de referencia total
+        return productosFinales.stream()
+                .map(detalle -> costoInsumos.multiply(ServicioStock.costoDeReferencia(detalle.getProducto()))
+                        .divide(valorReferencia, 4, RoundingMode.HALF_UP))
+                .toList();
+    }
+
+    private List<OrdenProduccionDetalle> detallesPorTipo(OrdenProduccion orden, TipoDetalleProduccion tipo) {
+        return orden.getDetalles().stream()
+                .filter(detalle -> detalle.getTipoDetalle() == tipo)
+                .toList();
+    }
+
+    private List<ServicioStock.LineaStock> lineasDeStock(List<OrdenProduccionDetalle> detalles) {
+        return detalles.stream()
+                .map(detalle -> new ServicioStock.LineaStock(detalle.getProducto().getId(), detalle.getCantidad()))
+                .toList();
+    }
+
+    private Set<Integer> idsProductosPorTipo(OrdenProduccion orden, TipoDetalleProduccion tipo) {
+        return orden.getDetalles().stream()
+                .filter(detalle -> detalle.getTipoDetalle() == tipo)
+                .map(detalle -> detalle.getProducto().getId())
+                .collect(Collectors.toSet());
     }
 
     private Usuario getCurrentUser() {
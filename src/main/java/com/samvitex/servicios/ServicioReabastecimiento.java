@@ -0,0 +1,335 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.GrupoSugerenciasDTO;
+import com.samvitex.modelos.dto.SugerenciaCompraDTO;
+import com.samvitex.modelos.entidades.Producto;
+import com.samvitex.repositorios.ProductoRepositorio;
+import com.samvitex.repositorios.PronosticoDemandaRepositorio;
+import com.samvitex.repositorios.PronosticoDemandaRepositorio.FilaSugerencia;
+import com.samvitex.repositorios.VentaResumenDiarioRepositorio;
+import com.samvitex.repositorios.VentaResumenDiarioRepositorio.VentaDiaria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de sugerencias de reabastecimiento basadas en el pronóstico de la demanda.
+ * <p>
+ * Cada noche (y al arrancar, si el último cálculo es antiguo) pronostica la demanda diaria de
+ * cada producto en cada almacén a partir de las ventas diarias de {@code ventas_resumen_diario}
+ * (ver {@link PronosticadorDemanda}) y deriva de ella:
+ * <ul>
+ *     <li>El <b>punto de reorden</b>: la demanda esperada durante el plazo de entrega más un stock
+ *         de seguridad de {@code factor de servicio × desviación × √plazo}.</li>
+ *     <li>El <b>stock objetivo</b>: el punto de reorden más la demanda de los días de cobertura.</li>
+ * </ul>
+ * Las series se leen en arreglos primitivos y se pronostican en paralelo con el pool fork/join
+ * común; el resultado reemplaza la tabla {@code pronosticos_demanda} en una sola transacción.
+ * <p>
+ * Las sugerencias no se guardan: se obtienen comparando los pronósticos con el stock actual al
+ * consultarlas, agrupadas por proveedor y almacén para que cada grupo pueda cargarse como una compra.
+ */
+@Service
+public class ServicioReabastecimiento {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioReabastecimiento.class.getName());
+
+    /** Antigüedad a partir de la cual el cálculo se repite al arrancar. */
+    private static final Duration VIGENCIA_CALCULO = Duration.ofHours(20);
+    private static final int TAMANO_LOTE_ESCRITURA = 1000;
+
+    private static final String INSERTAR_PRONOSTICO = """
+            INSERT INTO pronosticos_demanda
+                (producto_id, almacen_id, demanda_diaria, desviacion_diaria, punto_reorden, stock_objetivo, fecha_calculo)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final VentaResumenDiarioRepositorio ventaResumenDiarioRepositorio;
+    private final PronosticoDemandaRepositorio pronosticoDemandaRepositorio;
+    private final ProductoRepositorio productoRepositorio;
+    private final ServicioResumenVentas servicioResumenVentas;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate lecturaTemplate;
+    private final int diasHistorial;
+    private final double alfa;
+    private final int plazoEntregaDias;
+    private final int diasCobertura;
+    private final double factorServicio;
+
+    public ServicioReabastecimiento(VentaResumenDiarioRepositorio ventaResumenDiarioRepositorio,
+                                    PronosticoDemandaRepositorio pronosticoDemandaRepositorio,
+                                    ProductoRepositorio productoRepositorio,
+                                    ServicioResumenVentas servicioResumenVentas,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${samvitex.reabastecimiento.dias-historial}") int diasHistorial,
+                                    @Value("${samvitex.reabastecimiento.alfa}") double alfa,
+                                    @Value("${samvitex.reabastecimiento.plazo-entrega-dias}") int plazoEntregaDias,
+                                    @Value("${samvitex.reabastecimiento.dias-cobertura}") int diasCobertura,
+                                    @Value("${samvitex.reabastecimiento.factor-servicio}") double factorServicio) {
+        this.ventaResumenDiarioRepositorio = ventaResumenDiarioRepositorio;
+        this.pronosticoDemandaRepositorio = pronosticoDemandaRepositorio;
+        this.productoRepositorio = productoRepositorio;
+        this.servicioResumenVentas = servicioResumenVentas;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.diasHistorial = diasHistorial;
+        this.alfa = alfa;
+        this.plazoEntregaDias = plazoEntregaDias;
+        this.diasCobertura = diasCobertura;
+        this.factorServicio = factorServicio;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void calcularAlIniciar() {
+        Thread hilo = new Thread(() -> {
+            Optional<Instant> ultimo = pronosticoDemandaRepositorio.findFechaUltimoCalculo();
+            if (ultimo.isEmpty() || ultimo.get().isBefore(Instant.now().minus(VIGENCIA_CALCULO))) {
+                recalcularPronosticosSinAutorizacion();
+            }
+        }, "pronosticos-demanda");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    /**
+     * Recalcula los pronósticos de demanda de todos los productos activos.
+     *
+     * @return El número de pronósticos escritos.
+     */
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public int recalcularPronosticos() {
+        return recalcularPronosticosSinAutorizacion();
+    }
+
+    /**
+     * Variante de {@link #recalcularPronosticos()} para tareas de sistema que se ejecutan
+     * sin un usuario autenticado. Si otra terminal está calculando, no hace nada.
+     */
+    @Scheduled(cron = "0 15 4 * * *")
+    public int recalcularPronosticosSinAutorizacion() {
+        try {
+            long inicio = System.nanoTime();
+            // El día en curso está incompleto: el historial termina ayer.
+            LocalDate hasta = LocalDate.now(servicioResumenVentas.getZonaHoraria());
+            LocalDate desde = hasta.minusDays(diasHistorial);
+            SeriesVentas series = lecturaTemplate.execute(status -> leerSeries(desde, hasta));
+            long lectura = System.nanoTime();
+
+            Calculo calculo = calcular(series);
+            long calculado = System.nanoTime();
+
+            Instant fechaCalculo = Instant.now();
+            Integer escritos = transactionTemplate.execute(status -> {
+                if (!pronosticoDemandaRepositorio.intentarBloquearCalculo()) {
+                    return null;
+                }
+                pronosticoDemandaRepositorio.eliminarTodo();
+                return escribir(series, calculo, fechaCalculo);
+            });
+            if (escritos == null) {
+                LOGGER.info("Otra terminal está calculando los pronósticos de demanda.");
+                return 0;
+            }
+            LOGGER.info(String.format("Pronósticos de demanda: %d series leídas en %d ms, calculadas en %d ms; %d escritos en %d ms.",
+                    series.n, (lectura - inicio) / 1_000_000, (calculado - lectura) / 1_000_000,
+                    escritos, (System.nanoTime() - calculado) / 1_000_000));
+            return escritos;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "No se pudieron calcular los pronósticos de demanda.", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Obtiene las sugerencias de compra vigentes: los productos cuyo stock actual en un almacén
+     * está en su punto de reorden o por debajo, con la cantidad que lo lleva al stock objetivo.
+     *
+     * @return Las sugerencias agrupadas por proveedor y almacén. Los productos sin proveedor
+     *         activo forman los últimos grupos.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('ALMACENISTA', 'ADMINISTRADOR')")
+    public List<GrupoSugerenciasDTO> obtenerSugerencias() {
+        record ClaveGrupo(Integer proveedorId, Integer almacenId) {}
+        Map<ClaveGrupo, List<FilaSugerencia>> grupos = new LinkedHashMap<>();
+        for (FilaSugerencia fila : pronosticoDemandaRepositorio.findSugerencias()) {
+            grupos.computeIfAbsent(new ClaveGrupo(fila.getProveedorId(), fila.getAlmacenId()), k -> new ArrayList<>()).add(fila);
+        }
+
+        List<GrupoSugerenciasDTO> resultado = new ArrayList<>(grupos.size());
+        for (List<FilaSugerencia> filas : grupos.values()) {
+            List<SugerenciaCompraDTO> lineas = new ArrayList<>(filas.size());
+            BigDecimal total = BigDecimal.ZERO;
+            for (FilaSugerencia fila : filas) {
+                int cantidad = fila.getStockObjetivo() - fila.getStockActual();
+                if (cantidad <= 0) {
+                    continue;
+                }
+                lineas.add(new SugerenciaCompraDTO(fila.getProductoId(), fila.getSku(), fila.getNombreProducto(),
+                        fila.getStockActual(), fila.getPuntoReorden(), fila.getStockObjetivo(),
+                        fila.getDemandaDiaria(), cantidad, fila.getCostoUnitario()));
+                total = total.add(fila.getCostoUnitario().multiply(BigDecimal.valueOf(cantidad)));
+            }
+            if (!lineas.isEmpty()) {
+                FilaSugerencia primera = filas.get(0);
+                resultado.add(new GrupoSugerenciasDTO(primera.getProveedorId(), primera.getNombreProveedor(),
+                        primera.getAlmacenId(), primera.getNombreAlmacen(), lineas, total));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Carga en una sola consulta los productos de un grupo de sugerencias, para precargarlos
+     * en una compra.
+     *
+     * @param productoIds Los IDs de los productos.
+     * @return Los productos encontrados, en cualquier orden.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('ALMACENISTA', 'ADMINISTRADOR')")
+    public List<Producto> obtenerProductos(Collection<Integer> productoIds) {
+        return productoRepositorio.findAllById(productoIds);
+    }
+
+    private SeriesVentas leerSeries(LocalDate desde, LocalDate hasta) {
+        SeriesVentas series = new SeriesVentas();
+        try (Stream<VentaDiaria> stream = ventaResumenDiarioRepositorio.streamVentasDiarias(desde, hasta)) {
+            Iterator<VentaDiaria> it = stream.iterator();
+            while (it.hasNext()) {
+                series.agregar(it.next());
+            }
+        }
+        series.cerrar();
+        return series;
+    }
+
+    /**
+     * Pronostica todas las series en paralelo. Cada serie escribe solo su propia posición de los
+     * arreglos de resultado, por lo que no se necesita sincronización.
+     */
+    private Calculo calcular(SeriesVentas series) {
+        Calculo calculo = new Calculo(series.n);
+        double raizPlazo = Math.sqrt(plazoEntregaDias);
+        IntStream.range(0, series.n).parallel().forEach(s -> {
+            PronosticadorDemanda.Pronostico pronostico = PronosticadorDemanda.pronosticar(
+                    series.dias, series.unidades, series.inicios[s], series.inicios[s + 1], diasHistorial, alfa);
+            double seguridad = factorServicio * pronostico.desviacion() * raizPlazo;
+            int puntoReorden = (int) Math.ceil(pronostico.demanda() * plazoEntregaDias + seguridad);
+            calculo.demanda[s] = pronostico.demanda();
+            calculo.desviacion[s] = pronostico.desviacion();
+            calculo.puntoReorden[s] = puntoReorden;
+            calculo.stockObjetivo[s] = puntoReorden + (int) Math.ceil(pronostico.demanda() * diasCobertura);
+        });
+        return calculo;
+    }
+
+    /**
+     * Escribe en lotes los pronósticos con stock objetivo positivo; los productos que ya no se
+     * venden no generan sugerencias.
+     */
+    private int escribir(SeriesVentas series, Calculo calculo, Instant fechaCalculo) {
+        List<Integer> conDemanda = IntStream.range(0, series.n)
+                .filter(s -> calculo.stockObjetivo[s] > 0)
+                .boxed()
+                .toList();
+        Timestamp fecha = Timestamp.from(fechaCalculo);
+        jdbcTemplate.batchUpdate(INSERTAR_PRONOSTICO, conDemanda, TAMANO_LOTE_ESCRITURA, (ps, s) -> {
+            ps.setInt(1, series.productoIds[s]);
+            ps.setInt(2, series.almacenIds[s]);
+            ps.setBigDecimal(3, BigDecimal.valueOf(calculo.demanda[s]).setScale(4, RoundingMode.HALF_UP));
+            ps.setBigDecimal(4, BigDecimal.valueOf(calculo.desviacion[s]).setScale(4, RoundingMode.HALF_UP));
+            ps.setInt(5, calculo.puntoReorden[s]);
+            ps.setInt(6, calculo.stockObjetivo[s]);
+            ps.setTimestamp(7, fecha);
+        });
+        return conDemanda.size();
+    }
+
+    /**
+     * Series de ventas diarias producto × almacén en arreglos primitivos. Los puntos de todas las
+     * series van seguidos en {@code dias} y {@code unidades}; la serie {@code s} ocupa las
+     * posiciones {@code inicios[s]} a {@code inicios[s + 1] - 1}.
+     */
+    private static final class SeriesVentas {
+        int n;
+        int[] productoIds = new int[1024];
+        int[] almacenIds = new int[1024];
+        int[] inicios = new int[1025];
+        int puntos;
+        int[] dias = new int[4096];
+        long[] unidades = new long[4096];
+
+        void agregar(VentaDiaria fila) {
+            if (n == 0 || productoIds[n - 1] != fila.getProductoId() || almacenIds[n - 1] != fila.getAlmacenId()) {
+                if (n == productoIds.length) {
+                    productoIds = Arrays.copyOf(productoIds, n * 2);
+                    almacenIds = Arrays.copyOf(almacenIds, n * 2);
+                    inicios = Arrays.copyOf(inicios, n * 2 + 1);
+                }
+                productoIds[n] = fila.getProductoId();
+                almacenIds[n] = fila.getAlmacenId();
+                inicios[n] = puntos;
+                n++;
+            }
+            if (puntos == dias.length) {
+                dias = Arrays.copyOf(dias, puntos * 2);
+                unidades = Arrays.copyOf(unidades, puntos * 2);
+            }
+            dias[puntos] = fila.getIndiceDia();
+            unidades[puntos] = fila.getUnidades();
+            puntos++;
+        }
+
+        void cerrar() {
+            inicios[n] = puntos;
+        }
+    }
+
+    /**
+     * Resultado del pronóstico de cada serie, por posición.
+     */
+    private static final class Calculo {
+        final double[] demanda;
+        final double[] desviacion;
+        final int[] puntoReorden;
+        final int[] stockObjetivo;
+
+        Calculo(int series) {
+            demanda = new double[series];
+            desviacion = new double[series];
+            puntoReorden = new int[series];
+            stockObjetivo = new int[series];
+        }
+    }
+}
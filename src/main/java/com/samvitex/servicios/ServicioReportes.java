@@ -1,15 +1,46 @@
 package com.samvitex.servicios;
 
+import com.samvitex.modelos.dto.CursorKardex;
+import com.samvitex.modelos.dto.FilaAbcDTO;
+import com.samvitex.modelos.dto.FilaKardexDTO;
+import com.samvitex.modelos.dto.IndicePaginasKardex;
+import com.samvitex.modelos.dto.ReporteAbcDTO;
 import com.samvitex.modelos.dto.ReporteVentasDTO;
-import com.samvitex.modelos.entidades.MovimientoInventario;
 import com.samvitex.repositorios.MovimientoInventarioRepositorio;
+import com.samvitex.repositorios.ProductoRepositorio;
+import com.samvitex.repositorios.ProductoRepositorio.TotalesAbcProducto;
 import com.samvitex.repositorios.VentaRepositorio;
+import com.samvitex.repositorios.VentaResumenDiarioRepositorio;
+import com.samvitex.utilidades.exportacion.EscritorFilas;
+import com.samvitex.utilidades.exportacion.FormatoExportacion;
+import com.samvitex.utilidades.exportacion.ProgresoExportacion;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 /**
  * Servicio de negocio para la generación de reportes históricos y de auditoría.
@@ -23,18 +54,36 @@ import java.util.List;
 @Service
 public class ServicioReportes {
 
+    private static final Logger LOGGER = Logger.getLogger(ServicioReportes.class.getName());
+    private static final int INFORMAR_AVANCE_ABC = 10_000;
+
     private final VentaRepositorio ventaRepositorio;
+    private final VentaResumenDiarioRepositorio ventaResumenDiarioRepositorio;
     private final MovimientoInventarioRepositorio movimientoInventarioRepositorio;
+    private final ProductoRepositorio productoRepositorio;
+    private final ServicioResumenVentas servicioResumenVentas;
+    private final ServicioCierreStock servicioCierreStock;
 
-    public ServicioReportes(VentaRepositorio ventaRepositorio, MovimientoInventarioRepositorio movimientoInventarioRepositorio) {
+    public ServicioReportes(VentaRepositorio ventaRepositorio,
+                            VentaResumenDiarioRepositorio ventaResumenDiarioRepositorio,
+                            MovimientoInventarioRepositorio movimientoInventarioRepositorio,
+                            ProductoRepositorio productoRepositorio,
+                            ServicioResumenVentas servicioResumenVentas,
+                            ServicioCierreStock servicioCierreStock) {
         this.ventaRepositorio = ventaRepositorio;
+        this.ventaResumenDiarioRepositorio = ventaResumenDiarioRepositorio;
         this.movimientoInventarioRepositorio = movimientoInventarioRepositorio;
+        this.productoRepositorio = productoRepositorio;
+        this.servicioResumenVentas = servicioResumenVentas;
+        this.servicioCierreStock = servicioCierreStock;
     }
 
     /**
      * Genera un reporte agregado de ventas por producto en un período de tiempo.
-     * Reutiliza la consulta de proyección definida en {@link VentaRepositorio} para
-     * obtener los datos de manera eficiente.
+     * <p>Los días que el período cubre por completo se leen de {@code ventas_resumen_diario};
+     * solo las ventas de los días parciales en los bordes del rango se leen línea por línea.
+     * Si el período no contiene ningún día completo, se usa directamente la consulta de
+     * proyección de {@link VentaRepositorio}.</p>
      *
      * @param fechaInicio La fecha de inicio del período del reporte.
      * @param fechaFin La fecha de fin del período del reporte.
@@ -43,23 +92,331 @@ public class ServicioReportes {
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('ADMINISTRADOR')")
     public List<ReporteVentasDTO> generarReporteVentas(Instant fechaInicio, Instant fechaFin) {
-        return ventaRepositorio.findReporteVentasPorPeriodo(fechaInicio, fechaFin);
+        DiasCompletos dias = diasCompletos(fechaInicio, fechaFin);
+        if (dias == null) {
+            return ventaRepositorio.findReporteVentasPorPeriodo(fechaInicio, fechaFin);
+        }
+        return ventaResumenDiarioRepositorio.findReporteVentasPorDiasYBordes(
+                        dias.desde(), dias.hasta(), fechaInicio, dias.inicio(), dias.fin(), fechaFin)
+                .stream()
+                .map(f -> new ReporteVentasDTO(f.getNombreProducto(), f.getUnidades(), f.getIngresos(), f.getGanancia()))
+                .toList();
+    }
+
+    /**
+     * Días que un período cubre por completo, en la zona horaria de los reportes.
+     *
+     * @param desde El primer día completo.
+     * @param hasta El último día completo.
+     * @param inicio El instante en que empieza {@code desde}.
+     * @param fin El instante en que termina {@code hasta} (exclusivo).
+     */
+    private record DiasCompletos(LocalDate desde, LocalDate hasta, Instant inicio, Instant fin) {}
+
+    /**
+     * @return Los días completos del período, o {@code null} si no contiene ninguno.
+     */
+    private DiasCompletos diasCompletos(Instant fechaInicio, Instant fechaFin) {
+        ZoneId zona = servicioResumenVentas.getZonaHoraria();
+        LocalDate diaDesde = fechaInicio.atZone(zona).toLocalDate();
+        if (diaDesde.atStartOfDay(zona).toInstant().isBefore(fechaInicio)) {
+            diaDesde = diaDesde.plusDays(1);
+        }
+        // El último día completo es el anterior al día de fechaFin. El propio día de fechaFin nunca sale
+        // del resumen: como mucho está cubierto hasta fechaFin, y sus ventas se leen en el borde final.
+        LocalDate diaHasta = fechaFin.atZone(zona).toLocalDate().minusDays(1);
+        if (diaDesde.isAfter(diaHasta)) {
+            return null;
+        }
+        return new DiasCompletos(diaDesde, diaHasta,
+                diaDesde.atStartOfDay(zona).toInstant(), diaHasta.plusDays(1).atStartOfDay(zona).toInstant());
     }
 
     /**
-     * Genera el reporte de trazabilidad de inventario (Kardex) para un producto específico
-     * dentro de un rango de fechas.
+     * Prepara el reporte de trazabilidad de inventario (Kardex) de un producto en un rango de fechas.
+     * <p>Recorre con un cursor solo las claves (fecha, id) de los movimientos y guarda la del
+     * primer movimiento de cada página. Las filas se cargan después, página a página, con
+     * {@link #cargarPaginaKardex}, de modo que la memoria no depende de la longitud del período.</p>
+     * <p>El saldo inicial se obtiene del cierre de stock más cercano anterior al período y de los
+     * movimientos posteriores a ese cierre (ver {@link ServicioCierreStock}).</p>
      *
      * @param productoId El ID del producto a consultar.
      * @param fechaInicio La fecha de inicio del período.
      * @param fechaFin La fecha de fin del período.
-     * @return Una lista de todos los {@link MovimientoInventario} para ese producto en el período,
-     *         ordenados cronológicamente.
+     * @param tamanoPagina El número de filas por página.
+     * @param avance Recibe el número de movimientos recorridos al completar cada página.
+     * @return El saldo inicial, el total de movimientos y el cursor inicial de cada página.
+     * @throws CancellationException si el hilo es interrumpido durante el recorrido.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
+    public IndicePaginasKardex indexarReporteKardex(Integer productoId, Instant fechaInicio, Instant fechaFin, int tamanoPagina,
+                                                    LongConsumer avance) {
+        List<CursorKardex> iniciosPagina = new ArrayList<>();
+        int total = 0;
+        try (Stream<CursorKardex> cursores = movimientoInventarioRepositorio.streamCursoresKardex(productoId, fechaInicio, fechaFin)) {
+            Iterator<CursorKardex> it = cursores.iterator();
+            while (it.hasNext()) {
+                CursorKardex cursor = it.next();
+                if (total % tamanoPagina == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Generación del Kardex cancelada.");
+                    }
+                    if (total > 0) {
+                        avance.accept(total);
+                    }
+                    iniciosPagina.add(cursor);
+                }
+                total++;
+            }
+        }
+        int saldoInicial = servicioCierreStock.obtenerStockTotalDeProductoAFecha(productoId, fechaInicio);
+        return new IndicePaginasKardex(saldoInicial, total, tamanoPagina, iniciosPagina);
+    }
+
+    /**
+     * Carga una página del Kardex a partir del cursor obtenido en {@link #indexarReporteKardex}.
+     *
+     * @param productoId El ID del producto.
+     * @param fechaInicio La fecha de inicio del período.
+     * @param fechaFin La fecha de fin del período.
+     * @param desde El cursor del primer movimiento de la página.
+     * @param tamanoPagina El número de filas por página.
+     * @return Las filas de la página, en orden cronológico.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
+    public List<FilaKardexDTO> cargarPaginaKardex(Integer productoId, Instant fechaInicio, Instant fechaFin,
+                                                  CursorKardex desde, int tamanoPagina) {
+        return movimientoInventarioRepositorio.findPaginaKardex(productoId, fechaInicio, fechaFin,
+                desde.fechaMovimiento(), desde.id(), Limit.of(tamanoPagina));
+    }
+
+    /**
+     * Recorre el Kardex completo de un producto en un período, entregando cada fila al consumidor
+     * a medida que llega de la base de datos. Ninguna fila se retiene después de procesarla.
+     *
+     * @param productoId El ID del producto.
+     * @param fechaInicio La fecha de inicio del período.
+     * @param fechaFin La fecha de fin del período.
+     * @param consumidor Recibe cada fila en orden cronológico.
+     * @return El número de filas recorridas.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
+    public long recorrerReporteKardex(Integer productoId, Instant fechaInicio, Instant fechaFin, Consumer<FilaKardexDTO> consumidor) {
+        long filas = 0;
+        try (Stream<FilaKardexDTO> stream = movimientoInventarioRepositorio.streamKardexPorProductoYPeriodo(productoId, fechaInicio, fechaFin)) {
+            Iterator<FilaKardexDTO> it = stream.iterator();
+            while (it.hasNext()) {
+                consumidor.accept(it.next());
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    // --- Clasificación ABC ---
+
+    /**
+     * Genera la clasificación ABC de los productos activos en un período, por ingresos y por
+     * número de movimientos de inventario.
+     * <p>PostgreSQL entrega una fila por producto con ambos totales (ver
+     * {@link ProductoRepositorio#streamTotalesAbcPorProducto}); las filas se vuelcan a columnas
+     * primitivas y los dos criterios se clasifican en paralelo con {@link ClasificadorAbc}.</p>
+     *
+     * @param fechaInicio La fecha de inicio del período.
+     * @param fechaFin La fecha de fin del período.
+     * @param avance Recibe el número de productos leídos cada {@link #INFORMAR_AVANCE_ABC}.
+     * @return Los productos ordenados por ingresos con sus clases y las curvas de Pareto.
+     * @throws CancellationException si el hilo es interrumpido durante la lectura.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public ReporteAbcDTO generarReporteAbc(Instant fechaInicio, Instant fechaFin, LongConsumer avance) {
+        DiasCompletos dias = diasCompletos(fechaInicio, fechaFin);
+        if (dias == null) {
+            // Sin días completos: rango de días vacío y todo el período como borde inicial.
+            dias = new DiasCompletos(LocalDate.EPOCH.plusDays(1), LocalDate.EPOCH, fechaFin, fechaFin);
+        }
+
+        ColumnasAbc columnas = new ColumnasAbc();
+        try (Stream<TotalesAbcProducto> stream = productoRepositorio.streamTotalesAbcPorProducto(
+                dias.desde(), dias.hasta(), fechaInicio, dias.inicio(), dias.fin(), fechaFin)) {
+            Iterator<TotalesAbcProducto> it = stream.iterator();
+            while (it.hasNext()) {
+                columnas.agregar(it.next());
+                if (columnas.n % INFORMAR_AVANCE_ABC == 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Clasificación ABC cancelada.");
+                    }
+                    avance.accept(columnas.n);
+                }
+            }
+        }
+
+        int n = columnas.n;
+        ForkJoinTask<ClasificadorAbc.Clasificacion> tareaMovimientos =
+                ForkJoinPool.commonPool().submit(() -> ClasificadorAbc.clasificar(columnas.movimientos, n));
+        ClasificadorAbc.Clasificacion porIngresos = ClasificadorAbc.clasificar(columnas.ingresosCentimos, n);
+        ClasificadorAbc.Clasificacion porMovimientos = tareaMovimientos.join();
+
+        List<FilaAbcDTO> filas = new ArrayList<>(n);
+        for (int posicion : porIngresos.orden()) {
+            filas.add(new FilaAbcDTO(
+                    columnas.ids[posicion],
+                    columnas.skus[posicion],
+                    columnas.nombres[posicion],
+                    BigDecimal.valueOf(columnas.ingresosCentimos[posicion], 2),
+                    porIngresos.clases()[posicion],
+                    porIngresos.acumulado()[posicion],
+                    columnas.movimientos[posicion],
+                    porMovimientos.clases()[posicion],
+                    porMovimientos.acumulado()[posicion]));
+        }
+        return new ReporteAbcDTO(filas, porIngresos.curva(), porMovimientos.curva());
+    }
+
+    /**
+     * Totales por producto en columnas primitivas, que crecen a medida que llegan las filas.
+     * Los ingresos se guardan en céntimos.
+     */
+    private static final class ColumnasAbc {
+        int n;
+        int[] ids = new int[1024];
+        String[] skus = new String[1024];
+        String[] nombres = new String[1024];
+        long[] ingresosCentimos = new long[1024];
+        long[] movimientos = new long[1024];
+
+        void agregar(TotalesAbcProducto fila) {
+            if (n == ids.length) {
+                int capacidad = n * 2;
+                ids = Arrays.copyOf(ids, capacidad);
+                skus = Arrays.copyOf(skus, capacidad);
+                nombres = Arrays.copyOf(nombres, capacidad);
+                ingresosCentimos = Arrays.copyOf(ingresosCentimos, capacidad);
+                movimientos = Arrays.copyOf(movimientos, capacidad);
+            }
+            ids[n] = fila.getProductoId();
+            skus[n] = fila.getSku();
+            nombres[n] = fila.getNombre();
+            ingresosCentimos[n] = Math.max(0, fila.getIngresos().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+            movimientos[n] = fila.getMovimientos();
+            n++;
+        }
+    }
+
+    // --- Exportación ---
+
+    /**
+     * Exporta el reporte de ventas por producto a un archivo CSV o XLSX.
+     * <p>Las filas se leen con un cursor del servidor y se escriben en el archivo a medida que
+     * llegan, sin reunirlas en memoria. El archivo se escribe primero en un temporal junto al
+     * destino y solo reemplaza al destino si la exportación termina; si se cancela o falla,
+     * el temporal se elimina.</p>
+     *
+     * @param fechaInicio La fecha de inicio del período.
+     * @param fechaFin La fecha de fin del período.
+     * @param formato El formato del archivo.
+     * @param destino La ruta del archivo a generar.
+     * @param progreso Recibe el avance y permite cancelar.
+     * @return El número de filas exportadas.
+     * @throws CancellationException si se canceló la exportación.
+     * @throws IOException si no se pudo escribir el archivo.
+     */
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public long exportarReporteVentas(Instant fechaInicio, Instant fechaFin, FormatoExportacion formato,
+                                      Path destino, ProgresoExportacion progreso) throws IOException {
+        return exportar(formato, destino, progreso,
+                List.of("Producto", "Unidades Vendidas", "Ingresos", "Ganancia Bruta Estimada"),
+                escritor -> {
+                    DiasCompletos dias = diasCompletos(fechaInicio, fechaFin);
+                    if (dias == null) {
+                        for (ReporteVentasDTO r : ventaRepositorio.findReporteVentasPorPeriodo(fechaInicio, fechaFin)) {
+                            escritor.escribir(r.nombreProducto(), r.totalUnidadesVendidas(), r.totalIngresos(), r.gananciaBrutaEstimada());
+                        }
+                        return;
+                    }
+                    try (Stream<VentaResumenDiarioRepositorio.FilaReporteVentas> filas = ventaResumenDiarioRepositorio
+                            .streamReporteVentasPorDiasYBordes(dias.desde(), dias.hasta(), fechaInicio, dias.inicio(), dias.fin(), fechaFin)) {
+                        Iterator<VentaResumenDiarioRepositorio.FilaReporteVentas> it = filas.iterator();
+                        while (it.hasNext()) {
+                            VentaResumenDiarioRepositorio.FilaReporteVentas f = it.next();
+                            escritor.escribir(f.getNombreProducto(), f.getUnidades(), f.getIngresos(), f.getGanancia());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Exporta el Kardex de un producto a un archivo CSV o XLSX, con el mismo recorrido en
+     * streaming que {@link #recorrerReporteKardex}. Ver {@link #exportarReporteVentas} para el
+     * manejo del archivo y la cancelación.
+     *
+     * @return El número de movimientos exportados.
      */
     @Transactional(readOnly = true)
     @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
-    public List<MovimientoInventario> generarReporteKardex(Integer productoId, Instant fechaInicio, Instant fechaFin) {
-        return movimientoInventarioRepositorio.findKardexPorProductoYPeriodo(
-                productoId, fechaInicio, fechaFin);
+    public long exportarReporteKardex(Integer productoId, Instant fechaInicio, Instant fechaFin, FormatoExportacion formato,
+                                      Path destino, ProgresoExportacion progreso) throws IOException {
+        DateTimeFormatter formatoFecha = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss").withZone(servicioResumenVentas.getZonaHoraria());
+        return exportar(formato, destino, progreso,
+                List.of("Fecha", "Tipo", "Usuario", "Cantidad Movida", "Stock Anterior", "Stock Nuevo"),
+                escritor -> {
+                    try (Stream<FilaKardexDTO> filas = movimientoInventarioRepositorio.streamKardexPorProductoYPeriodo(productoId, fechaInicio, fechaFin)) {
+                        Iterator<FilaKardexDTO> it = filas.iterator();
+                        while (it.hasNext()) {
+                            FilaKardexDTO m = it.next();
+                            escritor.escribir(formatoFecha.format(m.fechaMovimiento()), m.tipo().name(), m.usuario(),
+                                    m.cantidadMovida(), m.stockAnterior(), m.stockNuevo());
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Recibe las filas de un reporte en exportación.
+     */
+    @FunctionalInterface
+    private interface DestinoFilas {
+        void escribir(Object... valores) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ProductorFilas {
+        void producir(DestinoFilas destino) throws IOException;
+    }
+
+    private long exportar(FormatoExportacion formato, Path destino, ProgresoExportacion progreso,
+                          List<String> encabezado, ProductorFilas productor) throws IOException {
+        Path directorio = destino.toAbsolutePath().getParent();
+        Path temporal = Files.createTempFile(directorio, ".exportando-", "." + formato.getExtension());
+        long[] filas = {0};
+        boolean completado = false;
+        try {
+            try (EscritorFilas escritor = formato.crearEscritor(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+                escritor.escribirEncabezado(encabezado);
+                productor.producir(valores -> {
+                    if (progreso.cancelado()) {
+                        throw new CancellationException("Exportación cancelada.");
+                    }
+                    escritor.escribirFila(valores);
+                    if (++filas[0] % ProgresoExportacion.INFORMAR_CADA == 0) {
+                        progreso.filasEscritas(filas[0]);
+                    }
+                });
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+            completado = true;
+            progreso.filasEscritas(filas[0]);
+            LOGGER.info(String.format("Reporte exportado a %s: %d filas.", destino, filas[0]));
+            return filas[0];
+        } finally {
+            if (!completado) {
+                Files.deleteIfExists(temporal);
+            }
+        }
     }
-}
\ No newline at end of file
+}
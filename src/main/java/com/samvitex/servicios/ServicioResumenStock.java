@@ -0,0 +1,72 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.VariacionResumenStock;
+import com.samvitex.repositorios.ProductoStockResumenRepositorio;
+import com.samvitex.repositorios.ProductoStockResumenRepositorio.TotalesResumen;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+/**
+ * Servicio que mantiene la proyección {@code producto_stock_resumen}.
+ * <p>
+ * Los servicios que modifican {@code inventario_por_almacen} (ventas, compras, producción)
+ * invocan {@link #actualizarProductos(Collection)} al final de su transacción, de modo que
+ * el resumen se confirma o revierte junto con el movimiento de stock. Ofrece además una
+ * reconstrucción completa para reparar la tabla si alguna vez se desincroniza.
+ */
+@Service
+public class ServicioResumenStock {
+
+    private final ProductoStockResumenRepositorio resumenRepositorio;
+
+    public ServicioResumenStock(ProductoStockResumenRepositorio resumenRepositorio) {
+        this.resumenRepositorio = resumenRepositorio;
+    }
+
+    /**
+     * Recalcula las filas de resumen de los productos afectados por una operación.
+     * Debe llamarse dentro de la transacción que modificó el stock.
+     * <p>Los totales de esas filas se leen antes y después del recálculo, de modo que la operación
+     * puede publicar cuánto cambiaron los KPIs de stock del Dashboard.</p>
+     *
+     * @param productoIds Los IDs de los productos cuyo stock, costo o estado cambió.
+     * @return El cambio en el valor del inventario y en el número de productos con stock bajo.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public VariacionResumenStock actualizarProductos(Collection<Integer> productoIds) {
+        if (productoIds == null || productoIds.isEmpty()) {
+            return VariacionResumenStock.NINGUNA;
+        }
+        TotalesResumen antes = resumenRepositorio.findTotalesPorProductos(productoIds);
+        resumenRepositorio.recalcularPorProductos(productoIds);
+        TotalesResumen despues = resumenRepositorio.findTotalesPorProductos(productoIds);
+        return new VariacionResumenStock(
+                despues.getValorInventario().subtract(antes.getValorInventario()),
+                despues.getProductosConStockBajo() - antes.getProductosConStockBajo());
+    }
+
+    /**
+     * Vuelve a derivar toda la tabla de resumen desde {@code inventario_por_almacen}.
+     *
+     * @return El número de productos resumidos.
+     */
+    @Transactional
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public int reconstruir() {
+        return reconstruirSinAutorizacion();
+    }
+
+    /**
+     * Variante de {@link #reconstruir()} para tareas de sistema que se ejecutan
+     * sin un usuario autenticado (p. ej. al iniciar la aplicación).
+     */
+    @Transactional
+    public int reconstruirSinAutorizacion() {
+        resumenRepositorio.eliminarTodo();
+        return resumenRepositorio.insertarDesdeInventario();
+    }
+}
@@ -0,0 +1,116 @@
+package com.samvitex.servicios;
+
+import com.samvitex.repositorios.VentaRepositorio;
+import com.samvitex.repositorios.VentaResumenDiarioRepositorio;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Servicio que mantiene la tabla {@code ventas_resumen_diario}.
+ * <p>
+ * {@link ServicioVentas} invoca {@link #acumularVenta(Long)} dentro de la transacción que
+ * registra cada venta, de modo que el resumen se confirma o revierte junto con ella. Ofrece
+ * además una reconstrucción del historial completo, mes a mes, para repararlo o para
+ * recalcularlo después de cambiar la zona horaria de los reportes.
+ */
+@Service
+public class ServicioResumenVentas {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioResumenVentas.class.getName());
+
+    private final VentaResumenDiarioRepositorio resumenRepositorio;
+    private final VentaRepositorio ventaRepositorio;
+    private final TransactionTemplate transactionTemplate;
+    private final ZoneId zonaHoraria;
+
+    public ServicioResumenVentas(VentaResumenDiarioRepositorio resumenRepositorio,
+                                 VentaRepositorio ventaRepositorio,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${samvitex.reportes.zona-horaria}") String zonaHoraria) {
+        this.resumenRepositorio = resumenRepositorio;
+        this.ventaRepositorio = ventaRepositorio;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zonaHoraria = ZoneId.of(zonaHoraria);
+    }
+
+    /**
+     * La zona horaria en la que se cuentan los días del resumen.
+     */
+    public ZoneId getZonaHoraria() {
+        return zonaHoraria;
+    }
+
+    /**
+     * Suma al resumen las líneas de una venta. Debe llamarse dentro de la transacción que la registra.
+     *
+     * @param ventaId El ID de la venta ya persistida.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void acumularVenta(Long ventaId) {
+        resumenRepositorio.acumularVenta(ventaId, zonaHoraria.getId());
+    }
+
+    /**
+     * Vuelve a derivar el resumen de todo el historial desde {@code ventas_detalle}.
+     *
+     * @return El número de filas de resumen generadas.
+     */
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public int reconstruir() {
+        return reconstruirSinAutorizacion();
+    }
+
+    /**
+     * Variante de {@link #reconstruir()} para tareas de sistema que se ejecutan
+     * sin un usuario autenticado (p. ej. al iniciar la aplicación).
+     * <p>
+     * Procesa un mes por transacción: cada mes bloquea el resumen solo mientras se reemplazan sus
+     * filas, de modo que las ventas en curso esperan poco y los reportes siguen viendo los demás
+     * meses completos durante todo el proceso.
+     */
+    public int reconstruirSinAutorizacion() {
+        Optional<Instant> primeraVenta = ventaRepositorio.findFechaPrimeraVenta();
+        if (primeraVenta.isEmpty()) {
+            return 0;
+        }
+        LocalDate mes = primeraVenta.get().atZone(zonaHoraria).toLocalDate().withDayOfMonth(1);
+        LocalDate ultimoMes = LocalDate.now(zonaHoraria).withDayOfMonth(1);
+        final LocalDate primerMes = mes;
+
+        // Filas anteriores a la primera venta (p. ej. de ventas ya eliminadas).
+        transactionTemplate.executeWithoutResult(status -> {
+            resumenRepositorio.bloquearParaReconstruccion();
+            resumenRepositorio.eliminarDiasAnterioresA(primerMes);
+        });
+
+        int total = 0;
+        while (!mes.isAfter(ultimoMes)) {
+            final LocalDate desde = mes;
+            final LocalDate hasta = mes.plusMonths(1);
+            Integer filas = transactionTemplate.execute(status -> {
+                resumenRepositorio.bloquearParaReconstruccion();
+                resumenRepositorio.eliminarDias(desde, hasta);
+                return resumenRepositorio.insertarDesdeVentas(inicioDe(desde), inicioDe(hasta), zonaHoraria.getId());
+            });
+            total += filas != null ? filas : 0;
+            LOGGER.fine("Resumen de ventas reconstruido para " + desde.getMonth() + " " + desde.getYear() + ": " + filas + " filas.");
+            mes = hasta;
+        }
+        return total;
+    }
+
+    private Instant inicioDe(LocalDate dia) {
+        return dia.atStartOfDay(zonaHoraria).toInstant();
+    }
+}
@@ -0,0 +1,294 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.entidades.Almacen;
+import com.samvitex.modelos.entidades.InventarioPorAlmacen;
+import com.samvitex.modelos.entidades.Producto;
+import com.samvitex.modelos.entidades.Usuario;
+import com.samvitex.modelos.excepciones.InventarioException;
+import com.samvitex.repositorios.InventarioPorAlmacenRepositorio;
+import com.samvitex.repositorios.InventarioPorAlmacenRepositorio.ResultadoCambioStock;
+import com.samvitex.repositorios.ProductoRepositorio;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Libro de stock compartido por ventas, compras y producción.
+ * <p>
+ * Es el único punto del sistema que modifica {@code inventario_por_almacen}. Cada cambio se
+ * aplica con una sentencia atómica en la base de datos (ver
+ * {@link InventarioPorAlmacenRepositorio#descontarStock} y
+ * {@link InventarioPorAlmacenRepositorio#ingresarStock}) que devuelve el stock anterior y nuevo
+ * para el Kardex, en lugar de leer la cantidad, validarla en Java y volver a escribirla.
+ * <p>
+ * Para que dos operaciones con varias líneas nunca se bloqueen mutuamente, las filas se
+ * modifican siempre en orden ascendente de ID de producto. Si aun así la base de datos aborta
+ * la transacción por un conflicto de concurrencia (deadlock o fallo de serialización),
+ * {@link #ejecutarConReintento(Supplier)} la vuelve a ejecutar completa.
+ * <p>
+ * Antes de modificar el stock, los registros de inventario y productos de todas las líneas se
+ * cargan en una sola consulta. Esto permite rechazar una operación sin stock suficiente antes de
+ * tocar ninguna fila y entrega a los servicios de negocio los {@link Producto} de cada línea
+ * sin una consulta adicional por línea.
+ * <p>
+ * Como todo movimiento de stock pasa por aquí, también se encarga de invalidar tras el commit el
+ * Kardex en caché de los productos afectados (ver {@link ServicioCacheReportes}).
+ * <p>
+ * Cada registro de inventario lleva además el costo promedio ponderado de sus unidades. Los
+ * ingresos lo actualizan en la misma sentencia que suman el stock y las salidas devuelven el
+ * costo al que salieron, de modo que la valoración del inventario y el costo de lo vendido se
+ * leen de valores mantenidos en lugar de recalcularse.
+ */
+@Service
+public class ServicioStock {
+
+    private static final int MAX_INTENTOS = 3;
+    private static final long ESPERA_BASE_MS = 20;
+
+    private final InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
+    private final ProductoRepositorio productoRepositorio;
+    private final ServicioCacheEscaneo servicioCacheEscaneo;
+    private final ServicioCacheReportes servicioCacheReportes;
+    private final TransactionTemplate transactionTemplate;
+
+    public ServicioStock(InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio,
+                         ProductoRepositorio productoRepositorio,
+                         ServicioCacheEscaneo servicioCacheEscaneo,
+                         ServicioCacheReportes servicioCacheReportes,
+                         PlatformTransactionManager transactionManager) {
+        this.inventarioPorAlmacenRepositorio = inventarioPorAlmacenRepositorio;
+        this.productoRepositorio = productoRepositorio;
+        this.servicioCacheEscaneo = servicioCacheEscaneo;
+        this.servicioCacheReportes = servicioCacheReportes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Una línea de stock a mover: producto, cantidad (siempre positiva) y, en los ingresos, el
+     * costo de cada unidad. Las salidas ignoran el costo.
+     */
+    public record LineaStock(Integer productoId, int cantidad, BigDecimal costoUnitario) {
+
+        public LineaStock(Integer productoId, int cantidad) {
+            this(productoId, cantidad, null);
+        }
+    }
+
+    /**
+     * Producto de una línea, su stock antes y después de aplicarla y el costo unitario: en una
+     * salida, el costo promedio al que salieron las unidades; en un ingreso, el nuevo costo promedio.
+     */
+    public record CambioStock(Producto producto, int stockAnterior, int stockNuevo, BigDecimal costoUnitario) {}
+
+    /**
+     * Ejecuta una operación de negocio en su propia transacción y la reintenta si la base de
+     * datos la aborta por un conflicto de concurrencia. Si ya existe una transacción activa,
+     * la operación se une a ella y no se reintenta (el reintento debe abarcar la transacción completa).
+     *
+     * @param operacion La operación que registra la transacción de negocio.
+     * @return El resultado de la operación.
+     */
+    public <T> T ejecutarConReintento(Supplier<T> operacion) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return operacion.get();
+        }
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(status -> operacion.get());
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= MAX_INTENTOS) {
+                    throw new InventarioException("El stock está siendo modificado por otra terminal. Intente nuevamente.");
+                }
+                esperarAntesDeReintentar(intento);
+            }
+        }
+    }
+
+    /**
+     * Descuenta las líneas indicadas del almacén de forma atómica.
+     *
+     * @param almacen El almacén del que sale el stock.
+     * @param usuario El usuario que registra la operación.
+     * @param lineas Las líneas a descontar.
+     * @return El stock anterior y nuevo de cada línea, en el mismo orden que {@code lineas}.
+     * @throws InventarioException si algún producto no tiene registro o stock suficiente en el almacén.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<CambioStock> descontar(Almacen almacen, Usuario usuario, List<LineaStock> lineas) {
+        Map<Integer, InventarioPorAlmacen> inventarios = cargarInventarios(almacen, lineas);
+        validarDisponibilidad(almacen, lineas, inventarios);
+
+        CambioStock[] cambios = new CambioStock[lineas.size()];
+        for (int i : ordenPorProducto(lineas)) {
+            LineaStock linea = lineas.get(i);
+            ResultadoCambioStock resultado = inventarioPorAlmacenRepositorio
+                    .descontarStock(linea.productoId(), almacen.getId(), linea.cantidad(), usuario.getId())
+                    .orElseThrow(() -> errorDeDescuento(linea, almacen, inventarios));
+            Producto producto = inventarios.get(linea.productoId()).getProducto();
+            cambios[i] = new CambioStock(producto, resultado.getStockAnterior(), resultado.getStockNuevo(), resultado.getCostoPromedio());
+        }
+        List<CambioStock> aplicados = List.of(cambios);
+        servicioCacheEscaneo.actualizarStockTrasCommit(almacen.getId(), aplicados);
+        servicioCacheReportes.invalidarMovimientosTrasCommit(idsProductos(lineas));
+        return aplicados;
+    }
+
+    /**
+     * Ingresa las líneas indicadas al almacén de forma atómica, creando los registros
+     * de inventario que falten y actualizando su costo promedio ponderado.
+     *
+     * @param almacen El almacén al que entra el stock.
+     * @param usuario El usuario que registra la operación.
+     * @param lineas Las líneas a ingresar, con el costo de cada unidad (o {@code null} para
+     *               usar el precio de costo de referencia del producto).
+     * @return El stock anterior y nuevo de cada línea, en el mismo orden que {@code lineas}.
+     * @throws InventarioException si algún producto no existe.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<CambioStock> ingresar(Almacen almacen, Usuario usuario, List<LineaStock> lineas) {
+        Map<Integer, Producto> productos = cargarProductos(almacen, lineas);
+
+        CambioStock[] cambios = new CambioStock[lineas.size()];
+        for (int i : ordenPorProducto(lineas)) {
+            LineaStock linea = lineas.get(i);
+            BigDecimal costoUnitario = linea.costoUnitario() != null
+                    ? linea.costoUnitario()
+                    : costoDeReferencia(productos.get(linea.productoId()));
+            ResultadoCambioStock resultado = inventarioPorAlmacenRepositorio
+                    .ingresarStock(linea.productoId(), almacen.getId(), linea.cantidad(), costoUnitario, usuario.getId());
+            cambios[i] = new CambioStock(productos.get(linea.productoId()), resultado.getStockAnterior(),
+                    resultado.getStockNuevo(), resultado.getCostoPromedio());
+        }
+        List<CambioStock> aplicados = List.of(cambios);
+        servicioCacheEscaneo.actualizarStockTrasCommit(almacen.getId(), aplicados);
+        servicioCacheReportes.invalidarMovimientosTrasCommit(idsProductos(lineas));
+        return aplicados;
+    }
+
+    /**
+     * Carga en una sola consulta los registros de inventario de todas las líneas, indexados por ID de producto.
+     */
+    private Map<Integer, InventarioPorAlmacen> cargarInventarios(Almacen almacen, List<LineaStock> lineas) {
+        return inventarioPorAlmacenRepositorio.findByAlmacenIdAndProductoIdIn(almacen.getId(), idsProductos(lineas)).stream()
+                .collect(Collectors.toMap(inv -> inv.getProducto().getId(), Function.identity()));
+    }
+
+    /**
+     * El precio de costo de referencia del producto, o cero si no tiene uno. Se resuelve aquí y
+     * no en SQL: un parámetro nulo sin tipo se enviaría como {@code bytea}.
+     */
+    static BigDecimal costoDeReferencia(Producto producto) {
+        return producto.getPrecioCosto() != null ? producto.getPrecioCosto() : BigDecimal.ZERO;
+    }
+
+    /**
+     * Obtiene los productos de un ingreso. Los que ya tienen registro en el almacén llegan con la
+     * misma consulta del inventario; solo los que no lo tienen requieren una segunda consulta.
+     */
+    private Map<Integer, Producto> cargarProductos(Almacen almacen, List<LineaStock> lineas) {
+        Set<Integer> ids = idsProductos(lineas);
+        Map<Integer, Producto> productos = new HashMap<>();
+        cargarInventarios(almacen, lineas).forEach((id, inv) -> productos.put(id, inv.getProducto()));
+        if (productos.size() < ids.size()) {
+            List<Integer> faltantes = ids.stream().filter(id -> !productos.containsKey(id)).toList();
+            productoRepositorio.findAllById(faltantes).forEach(p -> productos.put(p.getId(), p));
+            faltantes.stream()
+                    .filter(id -> !productos.containsKey(id))
+                    .findFirst()
+                    .ifPresent(id -> {
+                        throw new InventarioException("El producto con ID " + id + " no fue encontrado.");
+                    });
+        }
+        return productos;
+    }
+
+    /**
+     * Comprueba con los registros precargados que todas las líneas tengan stock suficiente,
+     * sumando las líneas repetidas de un mismo producto. Así una operación inviable se rechaza
+     * antes de modificar ninguna fila; el descuento atómico sigue siendo la garantía final frente
+     * a otras terminales.
+     */
+    private void validarDisponibilidad(Almacen almacen, List<LineaStock> lineas, Map<Integer, InventarioPorAlmacen> inventarios) {
+        Map<Integer, Integer> solicitado = lineas.stream()
+                .collect(Collectors.toMap(LineaStock::productoId, LineaStock::cantidad, Integer::sum));
+        for (Map.Entry<Integer, Integer> entrada : solicitado.entrySet()) {
+            InventarioPorAlmacen inv = inventarios.get(entrada.getKey());
+            if (inv == null) {
+                throw sinRegistro(entrada.getKey(), almacen);
+            }
+            if (inv.getCantidad() < entrada.getValue()) {
+                throw stockInsuficiente(inv.getProducto(), almacen, inv.getCantidad(), entrada.getValue());
+            }
+        }
+    }
+
+    private Set<Integer> idsProductos(List<LineaStock> lineas) {
+        return lineas.stream().map(LineaStock::productoId).collect(Collectors.toSet());
+    }
+
+    /**
+     * Índices de las líneas ordenados por ID de producto. Bloquear las filas siempre en este
+     * orden global evita deadlocks entre transacciones concurrentes con varias líneas.
+     */
+    private int[] ordenPorProducto(List<LineaStock> lineas) {
+        return IntStream.range(0, lineas.size())
+                .boxed()
+                .sorted(Comparator.comparing(i -> lineas.get(i).productoId()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Construye el mensaje de error cuando un descuento no se pudo aplicar. Solo se consulta
+     * el stock en el camino de error, para distinguir "sin registro" de "stock insuficiente".
+     * La cantidad disponible se vuelve a leer de la fila: la entidad precargada conserva el valor
+     * anterior a los descuentos atómicos, que no pasan por el contexto de persistencia.
+     */
+    private InventarioException errorDeDescuento(LineaStock linea, Almacen almacen, Map<Integer, InventarioPorAlmacen> inventarios) {
+        InventarioPorAlmacen inv = inventarios.get(linea.productoId());
+        Optional<Integer> disponible = inventarioPorAlmacenRepositorio.findCantidadActual(linea.productoId(), almacen.getId());
+        if (inv == null || disponible.isEmpty()) {
+            return sinRegistro(linea.productoId(), almacen);
+        }
+        return stockInsuficiente(inv.getProducto(), almacen, disponible.get(), linea.cantidad());
+    }
+
+    private InventarioException stockInsuficiente(Producto producto, Almacen almacen, int disponible, int solicitado) {
+        return new InventarioException(String.format(
+                "Stock insuficiente para '%s' en el almacén '%s'. Disponible: %d, Solicitado: %d",
+                producto.getNombre(), almacen.getNombre(), disponible, solicitado));
+    }
+
+    private InventarioException sinRegistro(Integer productoId, Almacen almacen) {
+        return new InventarioException(String.format(
+                "El producto ID %d no existe o no tiene stock registrado en el almacén '%s'.",
+                productoId, almacen.getNombre()));
+    }
+
+    private void esperarAntesDeReintentar(int intento) {
+        long espera = ESPERA_BASE_MS * (1L << (intento - 1)) + ThreadLocalRandom.current().nextLong(ESPERA_BASE_MS);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InventarioException("La operación fue interrumpida mientras se reintentaba.");
+        }
+    }
+}
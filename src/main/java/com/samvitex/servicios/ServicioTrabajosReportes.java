@@ -0,0 +1,285 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.IndicePaginasKardex;
+import com.samvitex.modelos.dto.ReporteAbcDTO;
+import com.samvitex.modelos.dto.ReporteVentasDTO;
+import com.samvitex.modelos.enums.TipoReporte;
+import com.samvitex.modelos.excepciones.ReporteException;
+import com.samvitex.servicios.ServicioCacheReportes.ClaveReporte;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ejecuta la generación de reportes como trabajos en segundo plano.
+ * <p>
+ * <ul>
+ *     <li>Los trabajos corren en un grupo fijo de {@link #HILOS} hilos con una cola de
+ *         {@link #MAX_EN_COLA} posiciones; cada reporte en curso ocupa una conexión del pool,
+ *         por lo que varios reportes pesados no pueden dejar sin conexiones a las ventas.</li>
+ *     <li>Dos solicitudes idénticas (mismo tipo y parámetros) mientras la primera sigue en curso
+ *         comparten el mismo trabajo.</li>
+ *     <li>Los resultados se guardan en {@link ServicioCacheReportes}, que los invalida cuando se
+ *         registran ventas o movimientos dentro de su período.</li>
+ *     <li>Cada solicitud puede cancelarse. El trabajo solo se detiene cuando todas las
+ *         solicitudes que lo comparten lo han cancelado.</li>
+ * </ul>
+ * Los permisos se comprueban al solicitar el reporte y otra vez en {@link ServicioReportes},
+ * que se ejecuta con la autenticación de quien lo solicitó.
+ */
+@Service
+public class ServicioTrabajosReportes {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioTrabajosReportes.class.getName());
+
+    private static final int HILOS = 2;
+    private static final int MAX_EN_COLA = 8;
+    public static final int TAMANO_PAGINA_KARDEX = 500;
+
+    /**
+     * Genera el resultado de un reporte en un hilo del grupo.
+     */
+    @FunctionalInterface
+    private interface TareaReporte<T> {
+        T generar(LongConsumer avance);
+    }
+
+    /**
+     * Un reporte en curso, compartido por todas las solicitudes idénticas.
+     */
+    private static final class Trabajo<T> {
+        final ClaveReporte clave;
+        /** Generación de la caché al crear el trabajo; ver {@link ServicioCacheReportes#guardar}. */
+        final long generacion;
+        final CompletableFuture<T> resultado = new CompletableFuture<>();
+        final List<LongConsumer> observadores = new CopyOnWriteArrayList<>();
+        /** Solicitudes que esperan el resultado; al llegar a cero el trabajo se cancela. */
+        private int interesados = 1;
+        volatile Future<?> ejecucion;
+
+        Trabajo(ClaveReporte clave, long generacion) {
+            this.clave = clave;
+            this.generacion = generacion;
+        }
+
+        synchronized boolean unirse() {
+            if (interesados == 0) {
+                return false;
+            }
+            interesados++;
+            return true;
+        }
+
+        synchronized boolean abandonar() {
+            return --interesados == 0;
+        }
+
+        void informarAvance(long avance) {
+            for (LongConsumer observador : observadores) {
+                observador.accept(avance);
+            }
+        }
+    }
+
+    /**
+     * Una solicitud de reporte. Entrega el resultado cuando el trabajo termina, o de inmediato
+     * si estaba en caché.
+     */
+    public static final class SolicitudReporte<T> {
+        private final ClaveReporte clave;
+        private final Trabajo<T> trabajo;
+        private final CompletableFuture<T> resultado;
+        private final Runnable alAbandonar;
+        private final List<LongConsumer> observadores = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean cancelada = new AtomicBoolean();
+
+        private SolicitudReporte(ClaveReporte clave, Trabajo<T> trabajo, CompletableFuture<T> resultado, Runnable alAbandonar) {
+            this.clave = clave;
+            this.trabajo = trabajo;
+            this.resultado = resultado;
+            this.alAbandonar = alAbandonar;
+        }
+
+        public ClaveReporte getClave() {
+            return clave;
+        }
+
+        /**
+         * @return El resultado del reporte. Se completa en un hilo del grupo de trabajos, o ya
+         *         está completo si el reporte estaba en caché.
+         */
+        public CompletableFuture<T> getResultado() {
+            return resultado;
+        }
+
+        public boolean isDesdeCache() {
+            return trabajo == null;
+        }
+
+        /**
+         * Registra un observador del avance. Se invoca desde el hilo del trabajo con el número de
+         * filas procesadas, solo para los reportes que lo informan.
+         */
+        public void alAvanzar(LongConsumer observador) {
+            if (trabajo != null && !cancelada.get()) {
+                observadores.add(observador);
+                trabajo.observadores.add(observador);
+            }
+        }
+
+        /**
+         * Cancela esta solicitud. El trabajo se interrumpe si ninguna otra solicitud lo comparte.
+         */
+        public void cancelar() {
+            if (trabajo == null || !cancelada.compareAndSet(false, true)) {
+                return;
+            }
+            trabajo.observadores.removeAll(observadores);
+            resultado.cancel(false);
+            alAbandonar.run();
+        }
+    }
+
+    private final ServicioReportes servicioReportes;
+    private final ServicioCacheReportes servicioCacheReportes;
+    private final Map<ClaveReporte, Trabajo<?>> enCurso = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor ejecutor;
+
+    public ServicioTrabajosReportes(ServicioReportes servicioReportes, ServicioCacheReportes servicioCacheReportes) {
+        this.servicioReportes = servicioReportes;
+        this.servicioCacheReportes = servicioCacheReportes;
+        AtomicInteger numeroHilo = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(HILOS, HILOS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_EN_COLA),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "reportes-" + numeroHilo.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    /**
+     * Solicita el reporte de ventas por producto de un período.
+     * Ver {@link ServicioReportes#generarReporteVentas(Instant, Instant)}.
+     */
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public SolicitudReporte<List<ReporteVentasDTO>> solicitarReporteVentas(Instant fechaInicio, Instant fechaFin) {
+        return solicitar(new ClaveReporte(TipoReporte.VENTAS_POR_PRODUCTO, null, fechaInicio, fechaFin),
+                avance -> servicioReportes.generarReporteVentas(fechaInicio, fechaFin));
+    }
+
+    /**
+     * Solicita el índice del Kardex de un producto en un período, con páginas de
+     * {@link #TAMANO_PAGINA_KARDEX} filas. El avance informa los movimientos recorridos.
+     * Ver {@link ServicioReportes#indexarReporteKardex}.
+     */
+    @PreAuthorize("hasAnyRole('ADMINISTRADOR', 'ALMACENISTA')")
+    public SolicitudReporte<IndicePaginasKardex> solicitarReporteKardex(Integer productoId, Instant fechaInicio, Instant fechaFin) {
+        return solicitar(new ClaveReporte(TipoReporte.KARDEX, productoId, fechaInicio, fechaFin),
+                avance -> servicioReportes.indexarReporteKardex(productoId, fechaInicio, fechaFin, TAMANO_PAGINA_KARDEX, avance));
+    }
+
+    /**
+     * Solicita la clasificación ABC de los productos en un período. El avance informa los
+     * productos leídos. Ver {@link ServicioReportes#generarReporteAbc}.
+     */
+    @PreAuthorize("hasRole('ADMINISTRADOR')")
+    public SolicitudReporte<ReporteAbcDTO> solicitarReporteAbc(Instant fechaInicio, Instant fechaFin) {
+        return solicitar(new ClaveReporte(TipoReporte.ABC, null, fechaInicio, fechaFin),
+                avance -> servicioReportes.generarReporteAbc(fechaInicio, fechaFin, avance));
+    }
+
+    /**
+     * Entrega el resultado en caché, se une al trabajo idéntico en curso o encola uno nuevo.
+     * Un trabajo en curso no se comparte si los datos cambiaron desde que empezó.
+     *
+     * @throws ReporteException si la cola de trabajos está llena.
+     */
+    private <T> SolicitudReporte<T> solicitar(ClaveReporte clave, TareaReporte<T> tarea) {
+        long generacion = servicioCacheReportes.generacion();
+        T guardado = servicioCacheReportes.obtener(clave);
+        if (guardado != null) {
+            return new SolicitudReporte<>(clave, null, CompletableFuture.completedFuture(guardado), () -> {});
+        }
+
+        Trabajo<T> nuevo = new Trabajo<>(clave, generacion);
+        @SuppressWarnings("unchecked")
+        Trabajo<T> trabajo = (Trabajo<T>) enCurso.compute(clave, (k, actual) ->
+                actual != null && !servicioCacheReportes.invalidadaDesde(k, actual.generacion) && actual.unirse() ? actual : nuevo);
+
+        if (trabajo == nuevo) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            try {
+                nuevo.ejecucion = ejecutor.submit(() -> ejecutar(nuevo, tarea, authentication));
+            } catch (RejectedExecutionException e) {
+                enCurso.remove(clave, nuevo);
+                throw new ReporteException("Hay demasiados reportes en cola. Espere a que termine alguno.");
+            }
+        }
+        return new SolicitudReporte<>(clave, trabajo, trabajo.resultado.copy(), () -> abandonar(trabajo));
+    }
+
+    private <T> void ejecutar(Trabajo<T> trabajo, TareaReporte<T> tarea, Authentication authentication) {
+        if (trabajo.resultado.isDone()) {
+            return; // Cancelado mientras esperaba en la cola.
+        }
+        // Contexto propio: el hilo pudo heredar el del hilo que lo creó.
+        SecurityContext contexto = SecurityContextHolder.createEmptyContext();
+        contexto.setAuthentication(authentication);
+        SecurityContextHolder.setContext(contexto);
+        long inicio = System.nanoTime();
+        try {
+            T resultado = tarea.generar(trabajo::informarAvance);
+            servicioCacheReportes.guardar(trabajo.clave, resultado, trabajo.generacion);
+            trabajo.resultado.complete(resultado);
+            LOGGER.info(String.format("Reporte %s generado en %d ms.", trabajo.clave,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)));
+        } catch (Throwable e) {
+            if (!trabajo.resultado.isCancelled()) {
+                LOGGER.log(Level.WARNING, "Error al generar el reporte " + trabajo.clave, e);
+            }
+            trabajo.resultado.completeExceptionally(e);
+        } finally {
+            enCurso.remove(trabajo.clave, trabajo);
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void abandonar(Trabajo<?> trabajo) {
+        if (!trabajo.abandonar()) {
+            return;
+        }
+        enCurso.remove(trabajo.clave, trabajo);
+        trabajo.resultado.cancel(false);
+        Future<?> ejecucion = trabajo.ejecucion;
+        if (ejecucion != null) {
+            ejecucion.cancel(true);
+            ejecutor.purge(); // Libera su lugar en la cola si aún no había empezado.
+        }
+    }
+}
@@ -1,21 +1,21 @@
 package com.samvitex.servicios;
 
+import com.samvitex.eventos.EventoVentaRegistrada;
+import com.samvitex.modelos.dto.VariacionResumenStock;
 import com.samvitex.modelos.dto.VentaItemDTO;
 import com.samvitex.modelos.entidades.*;
 import com.samvitex.modelos.enums.EstadoTransaccion;
 import com.samvitex.modelos.enums.TipoMovimiento;
 import com.samvitex.modelos.excepciones.InventarioException;
-import com.samvitex.repositorios.InventarioPorAlmacenRepositorio;
 import com.samvitex.repositorios.UsuarioRepositorio;
 import com.samvitex.repositorios.VentaRepositorio;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.Instant;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Servicio de negocio para gestionar las operaciones de Venta.
@@ -31,37 +31,49 @@ public class ServicioVentas {
     private final VentaRepositorio ventaRepositorio;
     private final UsuarioRepositorio usuarioRepositorio;
     /**
-     * CAMBIO: Se inyecta el repositorio de inventario por almacén.
-     * Este repositorio es ahora la única fuente de verdad para consultar y modificar el stock.
+     * Libro de stock compartido: única vía para descontar stock de {@code inventario_por_almacen}.
      */
-    private final InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
+    private final ServicioStock servicioStock;
+    private final ServicioResumenStock servicioResumenStock;
+    private final ServicioResumenVentas servicioResumenVentas;
+    private final ServicioCacheReportes servicioCacheReportes;
+    private final ServicioEventos servicioEventos;
 
     public ServicioVentas(VentaRepositorio ventaRepositorio,
                           UsuarioRepositorio usuarioRepositorio,
-                          InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio) {
+                          ServicioStock servicioStock,
+                          ServicioResumenStock servicioResumenStock,
+                          ServicioResumenVentas servicioResumenVentas,
+                          ServicioCacheReportes servicioCacheReportes,
+                          ServicioEventos servicioEventos) {
         this.ventaRepositorio = ventaRepositorio;
         this.usuarioRepositorio = usuarioRepositorio;
-        this.inventarioPorAlmacenRepositorio = inventarioPorAlmacenRepositorio;
+        this.servicioStock = servicioStock;
+        this.servicioResumenStock = servicioResumenStock;
+        this.servicioResumenVentas = servicioResumenVentas;
+        this.servicioCacheReportes = servicioCacheReportes;
+        this.servicioEventos = servicioEventos;
     }
 
     /**
      * Procesa y guarda una nueva venta de forma transaccional desde un almacén específico.
      * <p>
-     * La lógica ha sido refactorizada para operar sobre la tabla `inventario_por_almacen`.
      * El flujo es el siguiente:
      * <ol>
      *     <li>Obtiene el usuario y crea la entidad {@link Venta} maestra, asignando el almacén de origen.</li>
-     *     <li>Para cada ítem del pedido:
-     *         <ul>
-     *             <li>Busca el registro de stock para el producto Y el almacén especificados.</li>
-     *             <li>Valida que haya stock suficiente en ESE almacén.</li>
-     *             <li>Reduce la cantidad en el registro de `inventario_por_almacen`.</li>
-     *             <li>Crea el detalle de la venta.</li>
-     *             <li>Crea el movimiento de inventario (Kardex), registrando el almacén correcto.</li>
-     *         </ul>
-     *     </li>
+     *     <li>Descuenta el stock de todas las líneas mediante {@link ServicioStock}, que precarga el
+     *         inventario y los productos de todas las líneas en una sola consulta, valida la
+     *         disponibilidad y escribe en una sola sentencia atómica por línea, bloqueando las filas
+     *         en orden de producto.</li>
+     *     <li>Para cada ítem crea el detalle de la venta y el movimiento de inventario (Kardex) con
+     *         el stock anterior y nuevo devueltos por la base de datos.</li>
      *     <li>Calcula totales y persiste la venta y todas sus entidades asociadas en cascada.</li>
+     *     <li>Actualiza el resumen de stock de los productos vendidos y el resumen diario de ventas
+     *         en la misma transacción, e invalida tras el commit los reportes de ventas en caché
+     *         que la incluyen.</li>
+     *     <li>Tras el commit publica un {@link EventoVentaRegistrada}.</li>
      * </ol>
+     * Si la transacción es abortada por un conflicto de concurrencia, se reintenta completa.
      *
      * @param cliente El cliente al que se le realiza la venta.
      * @param almacenOrigen El almacén desde el cual se están vendiendo los productos.
@@ -71,9 +83,12 @@ public class ServicioVentas {
      * @throws InventarioException si no hay stock suficiente para algún producto en el almacén especificado.
      * @throws RuntimeException si el usuario no se encuentra.
      */
-    @Transactional
     @PreAuthorize("hasAnyRole('VENDEDOR', 'ADMINISTRADOR')")
     public Venta crearVenta(Cliente cliente, Almacen almacenOrigen, String nombreUsuarioVendedor, List<VentaItemDTO> items) {
+        return servicioStock.ejecutarConReintento(() -> registrarVenta(cliente, almacenOrigen, nombreUsuarioVendedor, items));
+    }
+
+    private Venta registrarVenta(Cliente cliente, Almacen almacenOrigen, String nombreUsuarioVendedor, List<VentaItemDTO> items) {
         Usuario usuario = usuarioRepositorio.findByNombreUsuario(nombreUsuarioVendedor)
                 .orElseThrow(() -> new RuntimeException("Usuario '" + nombreUsuarioVendedor + "' no encontrado. Sesión inválida."));
 
@@ -83,35 +98,22 @@ public class ServicioVentas {
         venta.setAlmacenOrigen(almacenOrigen);
         venta.setEstado(EstadoTransaccion.COMPLETADA);
 
-        BigDecimal subtotalGeneral = BigDecimal.ZERO;
-
-        for (VentaItemDTO item : items) {
-
-            InventarioPorAlmacen inventario = inventarioPorAlmacenRepositorio
-                    .findByProductoIdAndAlmacenId(item.productoId(), almacenOrigen.getId())
-                    .orElseThrow(() -> new InventarioException(
-                            String.format("El producto ID %d no existe o no tiene stock registrado en el almacén '%s'.",
-                                    item.productoId(), almacenOrigen.getNombre())));
-
-            if (inventario.getCantidad() < item.cantidad()) {
-                throw new InventarioException(String.format("Stock insuficiente para '%s' en el almacén '%s'. Disponible: %d, Solicitado: %d",
-                        inventario.getProducto().getNombre(), almacenOrigen.getNombre(), inventario.getCantidad(), item.cantidad()));
-            }
-
-            int stockAnterior = inventario.getCantidad();
-            int stockNuevo = stockAnterior - item.cantidad();
-
-            inventario.setCantidad(stockNuevo);
-            inventario.setFechaModificacion(Instant.now());
-            inventario.setUsuarioModificacion(usuario);
+        List<ServicioStock.CambioStock> cambios = servicioStock.descontar(almacenOrigen, usuario, items.stream()
+                .map(item -> new ServicioStock.LineaStock(item.productoId(), item.cantidad()))
+                .toList());
 
+        BigDecimal subtotalGeneral = BigDecimal.ZERO;
 
-            Producto producto = inventario.getProducto();
+        for (int i = 0; i < items.size(); i++) {
+            VentaItemDTO item = items.get(i);
+            ServicioStock.CambioStock cambio = cambios.get(i);
+            Producto producto = cambio.producto();
 
             VentaDetalle detalle = new VentaDetalle();
             detalle.setProducto(producto);
             detalle.setCantidad(item.cantidad());
             detalle.setPrecioUnitario(producto.getPrecioVenta());
+            detalle.setCostoUnitario(cambio.costoUnitario());
             BigDecimal subtotalLinea = producto.getPrecioVenta().multiply(new BigDecimal(item.cantidad()));
             detalle.setSubtotalLinea(subtotalLinea);
             venta.addDetalle(detalle);
@@ -124,8 +126,8 @@ public class ServicioVentas {
             movimiento.setUsuario(usuario);
             movimiento.setTipo(TipoMovimiento.SALIDA_VENTA);
             movimiento.setCantidadMovida(-item.cantidad());
-            movimiento.setStockAnterior(stockAnterior);
-            movimiento.setStockNuevo(stockNuevo);
+            movimiento.setStockAnterior(cambio.stockAnterior());
+            movimiento.setStockNuevo(cambio.stockNuevo());
             venta.addMovimiento(movimiento);
         }
 
@@ -135,6 +137,13 @@ public class ServicioVentas {
         venta.setImpuestos(impuestos);
         venta.setTotal(subtotalGeneral.add(impuestos));
 
-        return ventaRepositorio.save(venta);
+        Venta ventaGuardada = ventaRepositorio.save(venta);
+        VariacionResumenStock variacion = servicioResumenStock.actualizarProductos(
+                items.stream().map(VentaItemDTO::productoId).collect(Collectors.toSet()));
+        servicioResumenVentas.acumularVenta(ventaGuardada.getId());
+        servicioCacheReportes.invalidarVentasTrasCommit();
+        servicioEventos.publicarTrasCommit(new EventoVentaRegistrada(
+                ventaGuardada.getId(), ventaGuardada.getFechaVenta(), ventaGuardada.getTotal(), variacion));
+        return ventaGuardada;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+package com.samvitex.ui.componentes;
+
+import com.samvitex.modelos.dto.CurvaParetoDTO;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Path2D;
+
+/**
+ * Gráfico de curvas de Pareto: en el eje horizontal el porcentaje de productos (ordenados de
+ * mayor a menor aporte) y en el vertical la participación acumulada en el total. Dibuja la curva
+ * por ingresos y la curva por movimientos, junto con los umbrales de las clases A (80%) y B (95%).
+ */
+public class GraficoPareto extends JComponent {
+
+    private static final Color COLOR_INGRESOS = new Color(0x3B82F6);
+    private static final Color COLOR_MOVIMIENTOS = new Color(0xF59E0B);
+    private static final double[] UMBRALES = {0.80, 0.95};
+    private static final int MARGEN_IZQUIERDO = 40, MARGEN_DERECHO = 12, MARGEN_SUPERIOR = 22, MARGEN_INFERIOR = 24;
+
+    private CurvaParetoDTO curvaIngresos;
+    private CurvaParetoDTO curvaMovimientos;
+
+    public GraficoPareto() {
+        setPreferredSize(new Dimension(320, 200));
+    }
+
+    /**
+     * Establece las curvas a dibujar.
+     * @param curvaIngresos La curva por ingresos, o {@code null} para no dibujarla.
+     * @param curvaMovimientos La curva por movimientos, o {@code null} para no dibujarla.
+     */
+    public void setCurvas(CurvaParetoDTO curvaIngresos, CurvaParetoDTO curvaMovimientos) {
+        this.curvaIngresos = curvaIngresos;
+        this.curvaMovimientos = curvaMovimientos;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int x0 = MARGEN_IZQUIERDO;
+            int y0 = getHeight() - MARGEN_INFERIOR;
+            int ancho = getWidth() - MARGEN_IZQUIERDO - MARGEN_DERECHO;
+            int alto = getHeight() - MARGEN_SUPERIOR - MARGEN_INFERIOR;
+            if (ancho <= 0 || alto <= 0) {
+                return;
+            }
+
+            Color colorTexto = UIManager.getColor("Label.foreground");
+            Color colorEjes = UIManager.getColor("Separator.foreground");
+            g2.setFont(getFont() != null ? getFont().deriveFont(11f) : g2.getFont().deriveFont(11f));
+            FontMetrics fm = g2.getFontMetrics();
+
+            // Ejes y marcas cada 20%.
+            g2.setColor(colorEjes != null ? colorEjes : Color.GRAY);
+            g2.drawLine(x0, y0, x0 + ancho, y0);
+            g2.drawLine(x0, y0, x0, y0 - alto);
+            g2.setColor(colorTexto != null ? colorTexto : Color.BLACK);
+            for (int p = 0; p <= 100; p += 20) {
+                String etiqueta = p + "%";
+                int x = x0 + ancho * p / 100;
+                int y = y0 - alto * p / 100;
+                g2.drawString(etiqueta, x - fm.stringWidth(etiqueta) / 2, y0 + fm.getAscent() + 4);
+                g2.drawString(etiqueta, x0 - fm.stringWidth(etiqueta) - 4, y + fm.getAscent() / 2);
+            }
+
+            // Umbrales de clase.
+            Stroke trazoNormal = g2.getStroke();
+            g2.setStroke(new BasicStroke(1f, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10f, new float[]{4f, 4f}, 0f));
+            g2.setColor(colorEjes != null ? colorEjes : Color.GRAY);
+            for (double umbral : UMBRALES) {
+                int y = y0 - (int) Math.round(alto * umbral);
+                g2.drawLine(x0, y, x0 + ancho, y);
+            }
+            g2.setStroke(trazoNormal);
+
+            g2.setStroke(new BasicStroke(2f));
+            dibujarCurva(g2, curvaIngresos, COLOR_INGRESOS, x0, y0, ancho, alto);
+            dibujarCurva(g2, curvaMovimientos, COLOR_MOVIMIENTOS, x0, y0, ancho, alto);
+
+            // Leyenda.
+            int x = x0 + 6;
+            int y = MARGEN_SUPERIOR - 8;
+            x = dibujarLeyenda(g2, "Ingresos", COLOR_INGRESOS, x, y, colorTexto);
+            dibujarLeyenda(g2, "Movimientos", COLOR_MOVIMIENTOS, x + 12, y, colorTexto);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private static void dibujarCurva(Graphics2D g2, CurvaParetoDTO curva, Color color, int x0, int y0, int ancho, int alto) {
+        if (curva == null) {
+            return;
+        }
+        double[] puntos = curva.participacionAcumulada();
+        Path2D.Double trazo = new Path2D.Double();
+        for (int i = 0; i < puntos.length; i++) {
+            double x = x0 + (double) ancho * i / (puntos.length - 1);
+            double y = y0 - alto * puntos[i];
+            if (i == 0) {
+                trazo.moveTo(x, y);
+            } else {
+                trazo.lineTo(x, y);
+            }
+        }
+        g2.setColor(color);
+        g2.draw(trazo);
+    }
+
+    private static int dibujarLeyenda(Graphics2D g2, String texto, Color color, int x, int y, Color colorTexto) {
+        g2.setColor(color);
+        g2.fillRect(x, y - 8, 10, 10);
+        g2.setColor(colorTexto != null ? colorTexto : Color.BLACK);
+        g2.drawString(texto, x + 14, y + 1);
+        return x + 14 + g2.getFontMetrics().stringWidth(texto);
+    }
+}
@@ -0,0 +1,156 @@
+package com.samvitex.ui.dialogos;
+
+import com.samvitex.modelos.dto.GrupoSugerenciasDTO;
+import com.samvitex.modelos.dto.SugerenciaCompraDTO;
+import com.samvitex.ui.theme.SamvitexButton;
+import net.miginfocom.swing.MigLayout;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Diálogo modal que muestra las sugerencias de reabastecimiento agrupadas por proveedor y
+ * almacén. El usuario revisa cada grupo y puede cargarlo en el formulario de compra.
+ */
+public class DialogoSugerenciasCompra extends JDialog {
+
+    private final Consumer<GrupoSugerenciasDTO> onCargar;
+    private final NumberFormat formatoMoneda = NumberFormat.getCurrencyInstance(new Locale("es", "PE"));
+
+    private JList<GrupoSugerenciasDTO> listaGrupos;
+    private LineasTableModel lineasTableModel;
+    private JButton btnCargar;
+
+    /**
+     * Construye el diálogo.
+     *
+     * @param owner El Frame padre sobre el cual el diálogo será modal.
+     * @param grupos Las sugerencias, agrupadas por proveedor y almacén.
+     * @param onCargar Un callback que recibe el grupo elegido para cargarlo en la compra.
+     */
+    public DialogoSugerenciasCompra(Frame owner, List<GrupoSugerenciasDTO> grupos, Consumer<GrupoSugerenciasDTO> onCargar) {
+        super(owner, "Sugerencias de Reabastecimiento", true);
+        this.onCargar = onCargar;
+
+        setSize(950, 520);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout());
+
+        inicializarUI(grupos);
+    }
+
+    private void inicializarUI(List<GrupoSugerenciasDTO> grupos) {
+        JPanel panelContenido = new JPanel(new MigLayout("fill, insets 10", "[300px!][grow]", "[][grow]"));
+
+        listaGrupos = new JList<>(grupos.toArray(new GrupoSugerenciasDTO[0]));
+        listaGrupos.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        listaGrupos.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                GrupoSugerenciasDTO grupo = (GrupoSugerenciasDTO) value;
+                String proveedor = grupo.nombreProveedor() != null ? grupo.nombreProveedor() : "(Sin proveedor)";
+                String texto = String.format("<html><b>%s</b><br>%s · %d productos · %s</html>",
+                        escaparHtml(proveedor), escaparHtml(grupo.nombreAlmacen()),
+                        grupo.lineas().size(), formatoMoneda.format(grupo.totalEstimado()));
+                return super.getListCellRendererComponent(list, texto, index, isSelected, cellHasFocus);
+            }
+        });
+
+        lineasTableModel = new LineasTableModel();
+        JTable tablaLineas = new JTable(lineasTableModel);
+        tablaLineas.setAutoCreateRowSorter(true);
+
+        panelContenido.add(new JLabel("Proveedor y almacén:"));
+        panelContenido.add(new JLabel("Productos en su punto de reorden:"), "wrap");
+        panelContenido.add(new JScrollPane(listaGrupos), "grow");
+        panelContenido.add(new JScrollPane(tablaLineas), "grow");
+        add(panelContenido, BorderLayout.CENTER);
+
+        JPanel panelBotones = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        btnCargar = new SamvitexButton("Cargar en la Compra");
+        JButton btnCerrar = new SamvitexButton("Cerrar", SamvitexButton.ButtonType.SECONDARY);
+        btnCargar.setEnabled(false);
+        panelBotones.add(btnCargar);
+        panelBotones.add(btnCerrar);
+        add(panelBotones, BorderLayout.SOUTH);
+
+        listaGrupos.addListSelectionListener(e -> {
+            GrupoSugerenciasDTO grupo = listaGrupos.getSelectedValue();
+            lineasTableModel.setDatos(grupo != null ? grupo.lineas() : List.of());
+            // Una compra necesita un proveedor: los productos sin proveedor solo se consultan.
+            btnCargar.setEnabled(grupo != null && grupo.proveedorId() != null);
+        });
+        btnCargar.addActionListener(e -> {
+            onCargar.accept(listaGrupos.getSelectedValue());
+            dispose();
+        });
+        btnCerrar.addActionListener(e -> dispose());
+
+        if (!grupos.isEmpty()) {
+            listaGrupos.setSelectedIndex(0);
+        }
+    }
+
+    private static String escaparHtml(String texto) {
+        return texto.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * Las líneas del grupo seleccionado.
+     */
+    private static class LineasTableModel extends AbstractTableModel {
+
+        private final String[] columnNames = {"SKU", "Producto", "Stock", "Punto Reorden", "Demanda/Día", "Cantidad", "Costo Unit."};
+        private List<SugerenciaCompraDTO> datos = List.of();
+
+        @Override
+        public int getRowCount() {
+            return datos.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columnNames.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columnNames[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return switch (columnIndex) {
+                case 2, 3, 5 -> Integer.class;
+                case 4, 6 -> BigDecimal.class;
+                default -> String.class;
+            };
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            SugerenciaCompraDTO dto = datos.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> dto.sku();
+                case 1 -> dto.nombreProducto();
+                case 2 -> dto.stockActual();
+                case 3 -> dto.puntoReorden();
+                case 4 -> dto.demandaDiaria();
+                case 5 -> dto.cantidadSugerida();
+                case 6 -> dto.costoUnitario();
+                default -> null;
+            };
+        }
+
+        void setDatos(List<SugerenciaCompraDTO> nuevosDatos) {
+            this.datos = nuevosDatos;
+            fireTableDataChanged();
+        }
+    }
+}
@@ -111,6 +111,16 @@ public class CompraTableModel extends AbstractTableModel {
         fireTableDataChanged();
     }
 
+    /**
+     * Reemplaza todos los ítems de la compra, por ejemplo con una sugerencia de reabastecimiento.
+     * @param nuevosItems Los ítems con sus cantidades y costos.
+     */
+    public void setItems(List<ItemCompra> nuevosItems) {
+        items.clear();
+        items.addAll(nuevosItems);
+        fireTableDataChanged();
+    }
+
     public void eliminarItem(int rowIndex) {
         if (rowIndex >= 0 && rowIndex < items.size()) {
             items.remove(rowIndex);
@@ -1,33 +1,69 @@
 package com.samvitex.ui.modelos_tabla;
 
-import com.samvitex.modelos.entidades.MovimientoInventario;
+import com.samvitex.modelos.dto.CursorKardex;
+import com.samvitex.modelos.dto.FilaKardexDTO;
+import com.samvitex.modelos.dto.IndicePaginasKardex;
 import com.samvitex.modelos.enums.TipoMovimiento;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.TareaUI;
 
 import javax.swing.table.AbstractTableModel;
-import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Un TableModel especializado para mostrar los datos de un reporte de Kardex (trazabilidad de inventario).
- * Utiliza la entidad {@link MovimientoInventario} como fuente de datos para cada fila.
+ * Un TableModel virtual para mostrar un reporte de Kardex (trazabilidad de inventario) de
+ * cualquier longitud.
+ * <p>
+ * El modelo conoce el total de filas y el cursor de cada página ({@link IndicePaginasKardex}),
+ * pero solo mantiene en memoria las últimas {@link #PAGINAS_EN_MEMORIA} páginas visitadas.
+ * Cuando la tabla pide una fila de una página no cargada, se muestra como "Cargando…" y la
+ * página se solicita en segundo plano; al llegar, se repintan sus filas.
  */
 public class KardexTableModel extends AbstractTableModel {
 
+    private static final Logger LOGGER = Logger.getLogger(KardexTableModel.class.getName());
+    private static final int PAGINAS_EN_MEMORIA = 20;
+
+    /**
+     * Carga una página del reporte. Se invoca fuera del hilo de eventos de Swing.
+     */
+    @FunctionalInterface
+    public interface CargadorPaginas {
+        List<FilaKardexDTO> cargar(CursorKardex desde, int tamanoPagina) throws Exception;
+    }
+
     private final String[] columnNames = {"Fecha", "Tipo", "Usuario", "Cantidad Movida", "Stock Anterior", "Stock Nuevo"};
-    private final List<MovimientoInventario> datos;
     private final DateTimeFormatter formatter;
 
+    private IndicePaginasKardex indice;
+    private CargadorPaginas cargador;
+    /** Páginas cargadas en orden de acceso; la menos usada se descarta al superar el límite. */
+    private final Map<Integer, List<FilaKardexDTO>> paginas = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<FilaKardexDTO>> eldest) {
+            return size() > PAGINAS_EN_MEMORIA;
+        }
+    };
+    private final Map<Integer, TareaUI<?>> paginasEnCarga = new HashMap<>();
+    /** Se incrementa con cada reporte nuevo para descartar cargas de un reporte anterior. */
+    private int generacion;
+
     public KardexTableModel() {
-        this.datos = new ArrayList<>();
+        this.indice = IndicePaginasKardex.vacio(1);
         this.formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss").withZone(ZoneId.systemDefault());
     }
 
     @Override
     public int getRowCount() {
-        return datos.size();
+        return indice.totalFilas();
     }
 
     @Override
@@ -52,25 +88,78 @@ public class KardexTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        MovimientoInventario m = datos.get(rowIndex);
+        int numeroPagina = rowIndex / indice.tamanoPagina();
+        List<FilaKardexDTO> pagina = paginas.get(numeroPagina);
+        if (pagina == null) {
+            solicitarPagina(numeroPagina);
+            return columnIndex == 0 ? "Cargando…" : null;
+        }
+        int posicion = rowIndex % indice.tamanoPagina();
+        if (posicion >= pagina.size()) {
+            return null; // Filas eliminadas entre la indexación y la carga de la página.
+        }
+        FilaKardexDTO m = pagina.get(posicion);
         return switch (columnIndex) {
-            case 0 -> formatter.format(m.getFechaMovimiento());
-            case 1 -> m.getTipo();
-            case 2 -> m.getUsuario().getNombreUsuario();
-            case 3 -> m.getCantidadMovida();
-            case 4 -> m.getStockAnterior();
-            case 5 -> m.getStockNuevo();
+            case 0 -> formatter.format(m.fechaMovimiento());
+            case 1 -> m.tipo();
+            case 2 -> m.usuario();
+            case 3 -> m.cantidadMovida();
+            case 4 -> m.stockAnterior();
+            case 5 -> m.stockNuevo();
             default -> null;
         };
     }
 
     /**
-     * Establece los datos del reporte y notifica a la tabla para que se actualice.
-     * @param nuevosDatos La nueva lista de movimientos de inventario.
+     * Muestra un reporte nuevo. Las páginas se cargarán a medida que la tabla las pida.
+     * @param indice El total de filas y los cursores de cada página.
+     * @param cargador La función que carga una página en segundo plano.
      */
-    public void setDatos(List<MovimientoInventario> nuevosDatos) {
-        this.datos.clear();
-        this.datos.addAll(nuevosDatos);
+    public void setReporte(IndicePaginasKardex indice, CargadorPaginas cargador) {
+        this.indice = indice;
+        this.cargador = cargador;
+        this.generacion++;
+        this.paginas.clear();
+        this.paginasEnCarga.values().forEach(tarea -> tarea.cancel(true));
+        this.paginasEnCarga.clear();
         fireTableDataChanged();
     }
-}
\ No newline at end of file
+
+    /**
+     * Vacía la tabla.
+     */
+    public void limpiar() {
+        setReporte(IndicePaginasKardex.vacio(1), null);
+    }
+
+    private void solicitarPagina(int numeroPagina) {
+        if (cargador == null || numeroPagina >= indice.totalPaginas() || paginasEnCarga.containsKey(numeroPagina)) {
+            return;
+        }
+        final int generacionSolicitud = generacion;
+        final CargadorPaginas cargadorSolicitud = cargador;
+        final CursorKardex desde = indice.iniciosPagina().get(numeroPagina);
+        final int tamano = indice.tamanoPagina();
+
+        TareaUI<List<FilaKardexDTO>> tarea = EjecutorTareasUI.ejecutar("reportes.paginaKardex", Prioridad.INTERACTIVA,
+                () -> cargadorSolicitud.cargar(desde, tamano),
+                filas -> {
+                    if (generacionSolicitud != generacion) {
+                        return;
+                    }
+                    paginasEnCarga.remove(numeroPagina);
+                    paginas.put(numeroPagina, filas);
+                    int primeraFila = numeroPagina * tamano;
+                    int ultimaFila = Math.min(primeraFila + tamano, indice.totalFilas()) - 1;
+                    fireTableRowsUpdated(primeraFila, ultimaFila);
+                },
+                e -> {
+                    if (generacionSolicitud != generacion) {
+                        return;
+                    }
+                    paginasEnCarga.remove(numeroPagina);
+                    LOGGER.log(Level.WARNING, "No se pudo cargar la página " + numeroPagina + " del Kardex.", e);
+                });
+        paginasEnCarga.put(numeroPagina, tarea);
+    }
+}
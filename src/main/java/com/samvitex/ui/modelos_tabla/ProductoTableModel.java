@@ -1,45 +1,85 @@
 package com.samvitex.ui.modelos_tabla;
 
 import com.samvitex.modelos.entidades.Producto;
+import com.samvitex.modelos.dto.BloqueProductos;
+import com.samvitex.modelos.dto.CursorProducto;
+import com.samvitex.modelos.dto.IndiceBloquesProductos;
 import com.samvitex.modelos.dto.ProductoInventarioDTO;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.TareaUI;
 
 import javax.swing.table.AbstractTableModel;
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Un {@link AbstractTableModel} especializado para mostrar una lista de entidades {@link Producto}.
+ * Un TableModel virtual para mostrar el catálogo de productos completo en una sola lista con
+ * desplazamiento continuo, sin importar cuántos productos haya.
  * <p>
- * Este modelo de tabla define las columnas a mostrar, cómo obtener los datos de cada celda
- * y los tipos de datos de cada columna. Esto es crucial para que la {@link javax.swing.JTable}
- * utilice los comparadores (para ordenamiento) y renderizadores correctos de forma automática.
- * Encapsula la lógica de mapeo entre el objeto de negocio {@code Producto} y su representación tabular.
+ * El modelo parte de un total de filas estimado ({@link IndiceBloquesProductos}) y solo mantiene en
+ * memoria los últimos {@link #BLOQUES_EN_MEMORIA} bloques usados. Cada bloque completo que carga deja
+ * anotado su último producto, que es donde empieza el siguiente: al desplazarse, cada bloque se
+ * carga con una consulta por keyset, y al saltar lejos se avanza desde el corte conocido más cercano.
+ * El total se corrige al llegar al final real del filtro: un bloque incompleto, o un salto que
+ * termina antes del bloque, fija el total exacto, y un último bloque completo agrega uno más para
+ * seguir cargando. Las filas
+ * de un bloque no cargado se muestran como "Cargando…" mientras el bloque se pide en segundo plano.
+ * La vista informa las filas visibles con {@link #setFilasVisibles}; el modelo carga primero esas
+ * y luego {@link #BLOQUES_PREBUSQUEDA} bloques más en la dirección del desplazamiento, y descarta
+ * las cargas pendientes que quedaron fuera de la ventana.
  *
- * @see Producto
  * @see com.samvitex.ui.paneles.PanelInventario
  */
 public class ProductoTableModel extends AbstractTableModel {
 
-    /**
-     * Define los nombres de las columnas que se mostrarán en la cabecera de la tabla.
-     */
-    private final String[] columnNames = {"Código", "Nombre", "Categoría", "Stock Total", "Precio Venta", "Estado"};
+    private static final Logger LOGGER = Logger.getLogger(ProductoTableModel.class.getName());
+    /** Con bloques de 100 filas, unos 3.000 productos en memoria como máximo. */
+    private static final int BLOQUES_EN_MEMORIA = 30;
+    private static final int BLOQUES_PREBUSQUEDA = 2;
 
     /**
-     * Almacena la lista de productos que se están mostrando actualmente en la tabla.
+     * Carga un bloque de productos. Se invoca fuera del hilo de eventos de Swing.
+     * El bloque empieza {@code saltar} productos después de {@code desde} ({@code null} para el inicio).
      */
-    private final List<ProductoInventarioDTO> productosDTO;
+    @FunctionalInterface
+    public interface CargadorBloques {
+        BloqueProductos cargar(CursorProducto desde, int saltar, int tamanoBloque) throws Exception;
+    }
 
     /**
-     * Constructor que inicializa el modelo con una lista vacía de productos.
+     * Define los nombres de las columnas que se mostrarán en la cabecera de la tabla.
      */
-    public ProductoTableModel() {
-        this.productosDTO = new ArrayList<>();
-    }
+    private final String[] columnNames = {"Código", "Nombre", "Categoría", "Stock Total", "Precio Venta", "Estado"};
+
+    private IndiceBloquesProductos indice = IndiceBloquesProductos.vacio(1);
+    private CargadorBloques cargador;
+    /** Bloques cargados en orden de acceso; el menos usado se descarta al superar el límite. */
+    private final Map<Integer, List<ProductoInventarioDTO>> bloques = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<ProductoInventarioDTO>> eldest) {
+            return size() > BLOQUES_EN_MEMORIA;
+        }
+    };
+    private final Map<Integer, TareaUI<?>> bloquesEnCarga = new HashMap<>();
+    /** Último producto de cada bloque completo cargado, desde donde empieza el bloque siguiente. */
+    private final TreeMap<Integer, CursorProducto> cortes = new TreeMap<>();
+    /** Se incrementa con cada índice nuevo para descartar cargas de un filtro anterior. */
+    private int generacion;
+    private int ultimaPrimeraFilaVisible;
+    private boolean haciaAdelante = true;
 
     @Override
-    public int getRowCount() { return productosDTO.size(); }
+    public int getRowCount() {
+        return indice.totalFilas();
+    }
 
     @Override
     public int getColumnCount() {
@@ -52,8 +92,8 @@ public class ProductoTableModel extends AbstractTableModel {
     }
 
     /**
-     * Especifica el tipo de dato para cada columna, permitiendo a la JTable aplicar
-     * ordenamiento numérico para la cantidad y el precio.
+     * Especifica el tipo de dato para cada columna, para que la JTable use los
+     * renderizadores correctos para la cantidad y el precio.
      *
      * @param columnIndex el índice de la columna.
      * @return la clase del objeto de la columna.
@@ -69,9 +109,15 @@ public class ProductoTableModel extends AbstractTableModel {
 
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
-        if (rowIndex < 0 || rowIndex >= productosDTO.size()) return null;
-
-        ProductoInventarioDTO dto = productosDTO.get(rowIndex);
+        int numeroBloque = rowIndex / indice.tamanoBloque();
+        if (!bloques.containsKey(numeroBloque)) {
+            solicitarBloque(numeroBloque, Prioridad.INTERACTIVA);
+            return columnIndex == 1 ? "Cargando…" : null;
+        }
+        ProductoInventarioDTO dto = obtenerFila(rowIndex);
+        if (dto == null) {
+            return null; // Filas estimadas que el bloque cargado no llegó a cubrir.
+        }
         Producto producto = dto.producto();
         return switch (columnIndex) {
             case 0 -> producto.getSku();
@@ -85,35 +131,209 @@ public class ProductoTableModel extends AbstractTableModel {
     }
 
     /**
-     * Reemplaza la lista actual de productos con una nueva y notifica a la
-     * JTable que los datos han cambiado para que se repinte por completo.
+     * @return {@code true} si el número de filas es exacto y no una estimación.
      */
-    public void setProductos(List<ProductoInventarioDTO> nuevosProductosDTO) {
-        this.productosDTO.clear();
-        if (nuevosProductosDTO != null) {
-            this.productosDTO.addAll(nuevosProductosDTO);
-        }
+    public boolean isTotalExacto() {
+        return indice.totalExacto();
+    }
 
+    /**
+     * Muestra un catálogo nuevo. Los bloques siguientes se cargarán a medida que se necesiten.
+     *
+     * @param indice El total de filas, posiblemente estimado, y el tamaño de bloque.
+     * @param primerBloque El primer bloque, ya cargado junto con el índice, o {@code null}.
+     * @param cargador La función que carga un bloque en segundo plano.
+     */
+    public void setIndice(IndiceBloquesProductos indice, List<ProductoInventarioDTO> primerBloque, CargadorBloques cargador) {
+        cancelarCargas();
+        this.indice = indice;
+        this.cargador = cargador;
+        this.generacion++;
+        this.bloques.clear();
+        this.cortes.clear();
+        this.ultimaPrimeraFilaVisible = 0;
+        this.haciaAdelante = true;
+        if (primerBloque != null) {
+            registrarBloque(0, primerBloque, false);
+        }
         fireTableDataChanged();
     }
 
+    /**
+     * Vacía la tabla.
+     */
+    public void limpiar() {
+        setIndice(IndiceBloquesProductos.vacio(1), null, null);
+    }
+
+    /**
+     * Informa el rango de filas que la tabla muestra. Carga los bloques visibles que falten, adelanta
+     * los siguientes en la dirección del desplazamiento y cancela las cargas que ya no hacen falta.
+     *
+     * @param primeraFila La primera fila visible (índice del modelo).
+     * @param ultimaFila La última fila visible (índice del modelo).
+     */
+    public void setFilasVisibles(int primeraFila, int ultimaFila) {
+        if (indice.totalFilas() == 0 || primeraFila < 0) {
+            return;
+        }
+        if (primeraFila != ultimaPrimeraFilaVisible) {
+            haciaAdelante = primeraFila > ultimaPrimeraFilaVisible;
+            ultimaPrimeraFilaVisible = primeraFila;
+        }
+        int primerBloque = primeraFila / indice.tamanoBloque();
+        int ultimoBloque = Math.min(ultimaFila, indice.totalFilas() - 1) / indice.tamanoBloque();
+        int desde = Math.max(0, haciaAdelante ? primerBloque : primerBloque - BLOQUES_PREBUSQUEDA);
+        int hasta = Math.min(indice.totalBloques() - 1, haciaAdelante ? ultimoBloque + BLOQUES_PREBUSQUEDA : ultimoBloque);
+
+        for (Iterator<Map.Entry<Integer, TareaUI<?>>> it = bloquesEnCarga.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, TareaUI<?>> carga = it.next();
+            if (carga.getKey() < desde || carga.getKey() > hasta) {
+                carga.getValue().cancel(true);
+                it.remove();
+            }
+        }
+        for (int bloque = primerBloque; bloque <= ultimoBloque; bloque++) {
+            solicitarBloque(bloque, Prioridad.INTERACTIVA);
+        }
+        for (int bloque = desde; bloque <= hasta; bloque++) {
+            solicitarBloque(bloque, Prioridad.NORMAL);
+        }
+    }
+
     /**
      * Obtiene la entidad {@link Producto} completa correspondiente a una fila específica de la tabla.
      *
-     * @param rowIndex el índice de la fila en la vista (puede ser diferente al del modelo si hay ordenamiento).
-     * @return el objeto {@link Producto} en esa fila.
+     * @param rowIndex el índice de la fila en el modelo.
+     * @return el objeto {@link Producto} en esa fila, o {@code null} si su bloque aún se está cargando.
      */
     public Producto getProductoAt(int rowIndex) {
-        return productosDTO.get(rowIndex).producto();
+        ProductoInventarioDTO dto = obtenerFila(rowIndex);
+        return dto != null ? dto.producto() : null;
     }
 
     /**
      * Obtiene el texto del tooltip para una fila específica.
      */
     public String getTooltipAt(int rowIndex) {
-        if (rowIndex >= 0 && rowIndex < productosDTO.size()) {
-            return productosDTO.get(rowIndex).resumenUbicacion();
+        ProductoInventarioDTO dto = obtenerFila(rowIndex);
+        return dto != null ? dto.resumenUbicacion() : null;
+    }
+
+    /**
+     * Busca un producto entre los bloques cargados.
+     *
+     * @return El índice de su fila en el modelo, o -1 si no está en memoria.
+     */
+    public int indiceDeProducto(Integer productoId) {
+        for (Map.Entry<Integer, List<ProductoInventarioDTO>> bloque : bloques.entrySet()) {
+            List<ProductoInventarioDTO> filas = bloque.getValue();
+            for (int i = 0; i < filas.size(); i++) {
+                if (filas.get(i).producto().getId().equals(productoId)) {
+                    return bloque.getKey() * indice.tamanoBloque() + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private ProductoInventarioDTO obtenerFila(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= indice.totalFilas()) {
+            return null;
+        }
+        List<ProductoInventarioDTO> bloque = bloques.get(rowIndex / indice.tamanoBloque());
+        int posicion = rowIndex % indice.tamanoBloque();
+        return bloque != null && posicion < bloque.size() ? bloque.get(posicion) : null;
+    }
+
+    private void solicitarBloque(int numeroBloque, Prioridad prioridad) {
+        if (cargador == null || numeroBloque >= indice.totalBloques()
+                || bloques.containsKey(numeroBloque) || bloquesEnCarga.containsKey(numeroBloque)) {
+            return;
         }
-        return null;
+        final int generacionSolicitud = generacion;
+        final CargadorBloques cargadorSolicitud = cargador;
+        final int tamano = indice.tamanoBloque();
+        // Se parte del corte conocido más cercano anterior al bloque y se saltan los bloques intermedios.
+        Map.Entry<Integer, CursorProducto> conocido = numeroBloque > 0 ? cortes.floorEntry(numeroBloque - 1) : null;
+        final CursorProducto desde = conocido != null ? conocido.getValue() : null;
+        final int saltar = (conocido != null ? numeroBloque - 1 - conocido.getKey() : numeroBloque) * tamano;
+
+        TareaUI<BloqueProductos> tarea = EjecutorTareasUI.ejecutar("inventario.bloqueProductos", prioridad,
+                () -> cargadorSolicitud.cargar(desde, saltar, tamano),
+                bloque -> {
+                    if (generacionSolicitud != generacion) {
+                        return;
+                    }
+                    bloquesEnCarga.remove(numeroBloque);
+                    if (bloque.saltados() < saltar) {
+                        // El filtro termina antes del bloque: el total es el punto de partida más lo saltado.
+                        cambiarTotal(numeroBloque * tamano - saltar + bloque.saltados(), true, true);
+                        return;
+                    }
+                    List<ProductoInventarioDTO> filas = bloque.productos();
+                    registrarBloque(numeroBloque, filas, true);
+                    int primeraFila = numeroBloque * tamano;
+                    int filasVisibles = Math.min(indice.filasBloque(numeroBloque), filas.size());
+                    if (filasVisibles > 0) {
+                        fireTableRowsUpdated(primeraFila, primeraFila + filasVisibles - 1);
+                    }
+                },
+                e -> {
+                    if (generacionSolicitud != generacion) {
+                        return;
+                    }
+                    bloquesEnCarga.remove(numeroBloque);
+                    LOGGER.log(Level.WARNING, "No se pudo cargar el bloque " + numeroBloque + " de productos.", e);
+                });
+        bloquesEnCarga.put(numeroBloque, tarea);
+    }
+
+    /**
+     * Guarda un bloque recién cargado, anota dónde empieza el siguiente y corrige el total de filas
+     * si el bloque revela dónde termina el filtro.
+     *
+     * @param notificar {@code true} para avisar a la tabla de las filas agregadas o quitadas.
+     */
+    private void registrarBloque(int numeroBloque, List<ProductoInventarioDTO> filas, boolean notificar) {
+        int tamano = indice.tamanoBloque();
+        int inicio = numeroBloque * tamano;
+        if (filas.isEmpty() && numeroBloque > 0) {
+            // El filtro termina justo donde empieza este bloque.
+            cambiarTotal(inicio, true, notificar);
+            return;
+        }
+        bloques.put(numeroBloque, List.copyOf(filas));
+        if (filas.size() < tamano) {
+            cambiarTotal(inicio + filas.size(), true, notificar);
+            return;
+        }
+        Producto ultimo = filas.get(filas.size() - 1).producto();
+        cortes.put(numeroBloque, new CursorProducto(ultimo.getNombre(), ultimo.getId()));
+        if (!indice.totalExacto() && inicio + tamano >= indice.totalFilas()) {
+            // Último bloque según la estimación, pero completo: puede haber más productos.
+            cambiarTotal(inicio + 2 * tamano, false, notificar);
+        }
+    }
+
+    private void cambiarTotal(int totalFilas, boolean exacto, boolean notificar) {
+        int anterior = indice.totalFilas();
+        indice = indice.conTotal(totalFilas, exacto);
+        if (!notificar) {
+            return;
+        }
+        if (totalFilas > anterior) {
+            fireTableRowsInserted(anterior, totalFilas - 1);
+        } else if (totalFilas < anterior) {
+            fireTableRowsDeleted(totalFilas, anterior - 1);
+        } else if (totalFilas > 0) {
+            // Solo cambió la exactitud del total; se avisa para que la vista actualice el contador.
+            fireTableRowsUpdated(totalFilas - 1, totalFilas - 1);
+        }
+    }
+
+    private void cancelarCargas() {
+        bloquesEnCarga.values().forEach(tarea -> tarea.cancel(true));
+        bloquesEnCarga.clear();
     }
-}
\ No newline at end of file
+}
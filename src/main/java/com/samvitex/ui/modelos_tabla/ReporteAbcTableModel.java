@@ -0,0 +1,77 @@
+package com.samvitex.ui.modelos_tabla;
+
+import com.samvitex.modelos.dto.FilaAbcDTO;
+import com.samvitex.modelos.enums.ClaseAbc;
+
+import javax.swing.table.AbstractTableModel;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Un TableModel especializado para mostrar la clasificación ABC de los productos.
+ * Utiliza el DTO {@link FilaAbcDTO} como fuente de datos para cada fila. Las participaciones
+ * acumuladas se muestran como porcentaje.
+ */
+public class ReporteAbcTableModel extends AbstractTableModel {
+
+    private final String[] columnNames = {"SKU", "Producto", "Ingresos", "Clase (Ingresos)", "% Acum. Ingresos",
+            "Movimientos", "Clase (Movimientos)", "% Acum. Movimientos"};
+    private final List<FilaAbcDTO> datos;
+
+    public ReporteAbcTableModel() {
+        this.datos = new ArrayList<>();
+    }
+
+    @Override
+    public int getRowCount() {
+        return datos.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return switch (columnIndex) {
+            case 2 -> BigDecimal.class;
+            case 3, 6 -> ClaseAbc.class;
+            case 4, 7 -> Double.class;
+            case 5 -> Long.class;
+            default -> String.class;
+        };
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        FilaAbcDTO dto = datos.get(rowIndex);
+        return switch (columnIndex) {
+            case 0 -> dto.sku();
+            case 1 -> dto.nombre();
+            case 2 -> dto.ingresos();
+            case 3 -> dto.claseIngresos();
+            case 4 -> dto.acumuladoIngresos() * 100;
+            case 5 -> dto.movimientos();
+            case 6 -> dto.claseMovimientos();
+            case 7 -> dto.acumuladoMovimientos() * 100;
+            default -> null;
+        };
+    }
+
+    /**
+     * Establece los datos del reporte y notifica a la tabla para que se actualice.
+     * @param nuevosDatos Las filas de la clasificación, en el orden en que deben mostrarse.
+     */
+    public void setDatos(List<FilaAbcDTO> nuevosDatos) {
+        this.datos.clear();
+        this.datos.addAll(nuevosDatos);
+        fireTableDataChanged();
+    }
+}
@@ -1,6 +1,7 @@
 package com.samvitex.ui.paneles;
 
 import com.samvitex.modelos.dto.CompraItemDTO;
+import com.samvitex.modelos.dto.GrupoSugerenciasDTO;
 import com.samvitex.modelos.entidades.Producto;
 import com.samvitex.modelos.entidades.Proveedor;
 import com.samvitex.modelos.entidades.Almacen;
@@ -8,12 +9,15 @@ import com.samvitex.servicios.ServicioAlmacen;
 import com.samvitex.servicios.ServicioCompras;
 import com.samvitex.servicios.ServicioInventario;
 import com.samvitex.servicios.ServicioProveedor;
+import com.samvitex.servicios.ServicioReabastecimiento;
+import com.samvitex.ui.dialogos.DialogoSugerenciasCompra;
 import com.samvitex.ui.modelos_tabla.CompraTableModel;
 import com.samvitex.ui.presentadores.ComprasPresenter;
 import com.samvitex.ui.theme.SamvitexButton;
 import com.samvitex.ui.vistas.interfaces.ComprasView;
 import net.miginfocom.swing.MigLayout;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import javax.swing.*;
@@ -37,6 +41,7 @@ import java.util.stream.Collectors;
  * capturar la entrada del usuario y mostrar los datos y resultados que el Presenter le indica.</p>
  */
 @Component
+@Lazy
 public class PanelCompras extends JPanel implements ComprasView {
 
     private final ComprasPresenter presenter;
@@ -54,8 +59,9 @@ public class PanelCompras extends JPanel implements ComprasView {
     private Timer searchTimer;
 
     @Autowired
-    public PanelCompras(ServicioCompras sc, ServicioInventario si, ServicioProveedor sp, ServicioAlmacen sa) { // CAMBIO: Inyectar ServicioAlmacen
-        this.presenter = new ComprasPresenter(this, sc, si, sp, sa);
+    public PanelCompras(ServicioCompras sc, ServicioInventario si, ServicioProveedor sp, ServicioAlmacen sa,
+                        ServicioReabastecimiento sr) {
+        this.presenter = new ComprasPresenter(this, sc, si, sp, sa, sr);
         inicializarUI();
     }
 
@@ -69,7 +75,7 @@ public class PanelCompras extends JPanel implements ComprasView {
         setLayout(new MigLayout("fill, insets 10", "[40%, grow][60%, grow]", "[grow]"));
 
         // --- Panel Izquierdo: Datos de la Compra y Búsqueda ---
-        JPanel panelIzquierdo = new JPanel(new MigLayout("wrap, fill", "[grow]", "[][][][][grow]"));
+        JPanel panelIzquierdo = new JPanel(new MigLayout("wrap, fill", "[grow]", "[][][][][][grow]"));
         panelIzquierdo.setBorder(BorderFactory.createTitledBorder("Datos de la Compra"));
         cmbProveedores = new JComboBox<>(new DefaultComboBoxModel<>());
         cmbAlmacenes = new JComboBox<>(new DefaultComboBoxModel<>());
@@ -79,6 +85,8 @@ public class PanelCompras extends JPanel implements ComprasView {
         listaResultadosBusqueda = new JList<>(listModel);
         listaResultadosBusqueda.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
+        JButton btnSugerencias = new SamvitexButton("Sugerencias de Reabastecimiento...", SamvitexButton.ButtonType.SECONDARY);
+        panelIzquierdo.add(btnSugerencias, "growx, gapbottom 10");
         panelIzquierdo.add(new JLabel("Proveedor:"));
         panelIzquierdo.add(cmbProveedores, "growx");
         panelIzquierdo.add(new JLabel("Ingresar a Almacén:"), "gaptop 10");
@@ -143,6 +151,7 @@ public class PanelCompras extends JPanel implements ComprasView {
         });
 
         btnRegistrarCompra.addActionListener(e -> presenter.registrarCompra());
+        btnSugerencias.addActionListener(e -> presenter.cargarSugerencias());
     }
 
     @Override
@@ -204,6 +213,29 @@ public class PanelCompras extends JPanel implements ComprasView {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public void mostrarSugerencias(List<GrupoSugerenciasDTO> grupos) {
+        Frame owner = (Frame) SwingUtilities.getWindowAncestor(this);
+        new DialogoSugerenciasCompra(owner, grupos, presenter::usarSugerencia).setVisible(true);
+    }
+
+    @Override
+    public void precargarCompra(Integer proveedorId, Integer almacenId, List<CompraTableModel.ItemCompra> items) {
+        for (int i = 0; i < cmbProveedores.getItemCount(); i++) {
+            if (cmbProveedores.getItemAt(i).getId().equals(proveedorId)) {
+                cmbProveedores.setSelectedIndex(i);
+                break;
+            }
+        }
+        for (int i = 0; i < cmbAlmacenes.getItemCount(); i++) {
+            if (cmbAlmacenes.getItemAt(i).getId().equals(almacenId)) {
+                cmbAlmacenes.setSelectedIndex(i);
+                break;
+            }
+        }
+        compraTableModel.setItems(items);
+    }
+
     @Override
     public void mostrarError(String mensaje) {
         JOptionPane.showMessageDialog(this, mensaje, "Error en Compra", JOptionPane.ERROR_MESSAGE);
@@ -15,9 +15,13 @@ import com.samvitex.ui.vistas.interfaces.GestionClientesView;
 import net.miginfocom.swing.MigLayout;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 
 /**
@@ -26,11 +30,17 @@ import java.awt.*;
  * de catálogos, como usuarios, categorías, proveedores, clientes y almacenes.
  * Este panel obtiene las dependencias (servicios) desde el contexto de Spring
  * para inyectarlas en los sub-paneles correspondientes.
+ * <p>
+ * Cada sub-panel se construye, y carga sus datos, la primera vez que se selecciona su pestaña.
  */
 @org.springframework.stereotype.Component
+@Lazy
 public class PanelConfiguracion extends JPanel {
 
-    private JTabbedPane tabbedPane;
+    private final JTabbedPane tabbedPane;
+
+    /** Fábricas de los sub-paneles de las pestañas que todavía no se han seleccionado, por índice. */
+    private final Map<Integer, Supplier<JComponent>> pestanasPendientes = new HashMap<>();
 
     /**
      * Construye el panel de configuración.
@@ -44,7 +54,7 @@ public class PanelConfiguracion extends JPanel {
         // Layout principal que permite al JTabbedPane expandirse completamente.
         setLayout(new MigLayout("fill, insets 10", "[grow]", "[grow]"));
 
-        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane = new JTabbedPane();
 
         // --- Obtención de dependencias desde el contexto de Spring ---
         // Este enfoque centraliza la obtención de beans en un solo lugar.
@@ -55,29 +65,49 @@ public class PanelConfiguracion extends JPanel {
         ServicioCliente servicioCliente = context.getBean(ServicioCliente.class);
         ServicioAlmacen servicioAlmacen = context.getBean(ServicioAlmacen.class);
 
-        // --- Creación e inserción de las pestañas de gestión ---
+        // --- Registro de las pestañas de gestión ---
 
         // Pestaña 1: Gestión de Usuarios
-        tabbedPane.addTab("Usuarios", new PanelGestionUsuarios(servicioUsuario, rolRepositorio));
+        agregarPestana("Usuarios", () -> new PanelGestionUsuarios(servicioUsuario, rolRepositorio));
 
         // Pestaña 2: Gestión de Categorías
-        tabbedPane.addTab("Categorías", new PanelGestionCategorias(servicioCategoria));
+        agregarPestana("Categorías", () -> new PanelGestionCategorias(servicioCategoria));
 
         // Pestaña 3: Gestión de Proveedores
-        tabbedPane.addTab("Proveedores", new PanelGestionProveedores(servicioProveedor));
-
-        PanelGestionClientes panelClientes = context.getBean(PanelGestionClientes.class);
-        panelClientes.setName("ClientesPanel");
+        agregarPestana("Proveedores", () -> new PanelGestionProveedores(servicioProveedor));
 
         // Pestaña 4: Gestión de Clientes
-        tabbedPane.addTab("Clientes", panelClientes);
+        agregarPestana("Clientes", () -> {
+            PanelGestionClientes panelClientes = context.getBean(PanelGestionClientes.class);
+            panelClientes.setName("ClientesPanel");
+            return panelClientes;
+        });
 
         // Pestaña 5: Gestión de Almacenes
-        tabbedPane.addTab("Almacenes", new PanelGestionAlmacenes(servicioAlmacen));
+        agregarPestana("Almacenes", () -> new PanelGestionAlmacenes(servicioAlmacen));
+
+        // Se registra después de agregar las pestañas: la primera se carga aquí mismo.
+        tabbedPane.addChangeListener(e -> cargarPestanaSeleccionada());
+        cargarPestanaSeleccionada();
 
         // Añadir el panel de pestañas al layout principal.
         add(tabbedPane, "grow");
-        this.tabbedPane = tabbedPane;
+    }
+
+    /**
+     * Agrega una pestaña con un panel vacío que se reemplaza por el de {@code fabrica} al seleccionarla.
+     */
+    private void agregarPestana(String titulo, Supplier<JComponent> fabrica) {
+        pestanasPendientes.put(tabbedPane.getTabCount(), fabrica);
+        tabbedPane.addTab(titulo, new JPanel());
+    }
+
+    private void cargarPestanaSeleccionada() {
+        int indice = tabbedPane.getSelectedIndex();
+        Supplier<JComponent> fabrica = pestanasPendientes.remove(indice);
+        if (fabrica != null) {
+            tabbedPane.setComponentAt(indice, fabrica.get());
+        }
     }
 
     /**
@@ -23,6 +23,7 @@ import java.util.Locale;
  * lógica de carga de datos al {@link DashboardPresenter}.</p>
  */
 @Component
+@Lazy
 public class PanelDashboard extends JPanel implements DashboardView {
 
     private final DashboardPresenter presenter;
@@ -43,8 +44,15 @@ public class PanelDashboard extends JPanel implements DashboardView {
     @Override
     public void addNotify() {
         super.addNotify();
-        // Cuando el panel se hace visible, solicita la carga de estadísticas.
-        presenter.cargarEstadisticas();
+        // Las estadísticas llegan en vivo mientras el panel existe; la carga completa solo concilia.
+        presenter.suscribir();
+        presenter.alMostrar();
+    }
+
+    @Override
+    public void removeNotify() {
+        presenter.desuscribir();
+        super.removeNotify();
     }
 
     private void inicializarUI() {
@@ -75,6 +83,19 @@ public class PanelDashboard extends JPanel implements DashboardView {
 
         // Listener para el botón de refresco
         btnRefrescar.addActionListener(e -> refrescarVista());
+
+        // El CardLayout oculta el panel en lugar de retirarlo; solo se concilia mientras está visible.
+        addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentShown(java.awt.event.ComponentEvent e) {
+                presenter.alMostrar();
+            }
+
+            @Override
+            public void componentHidden(java.awt.event.ComponentEvent e) {
+                presenter.alOcultar();
+            }
+        });
     }
 
     @Override
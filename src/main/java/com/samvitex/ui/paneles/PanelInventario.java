@@ -1,5 +1,6 @@
 package com.samvitex.ui.paneles;
 
+import com.samvitex.modelos.dto.IndiceBloquesProductos;
 import com.samvitex.modelos.dto.ProductoInventarioDTO;
 import com.samvitex.modelos.entidades.Almacen;
 import com.samvitex.modelos.entidades.InventarioPorAlmacen;
@@ -16,11 +17,11 @@ import com.samvitex.ui.vistas.interfaces.InventarioView;
 import net.miginfocom.swing.MigLayout;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.Page;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
+import javax.swing.event.TableModelEvent;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
@@ -29,6 +30,7 @@ import java.util.List;
 import java.util.Objects;
 
 @org.springframework.stereotype.Component
+@Lazy
 public class PanelInventario extends JPanel implements InventarioView {
 
     private final InventarioPresenter presenter;
@@ -44,8 +46,7 @@ public class PanelInventario extends JPanel implements InventarioView {
     private JComboBox<Almacen> cmbFiltroAlmacen;
     private JTable tablaStockPorAlmacen;
     private DefaultTableModel stockTableModel;
-    private JButton btnAnterior, btnSiguiente;
-    private JLabel lblPaginacion;
+    private JLabel lblTotalProductos;
     private JPopupMenu popupMenuTabla;
     private JMenuItem itemEditar;
     private JMenuItem itemDesactivar;
@@ -106,20 +107,22 @@ public class PanelInventario extends JPanel implements InventarioView {
                 int colIndex = columnAtPoint(p);
                 // Si el mouse está sobre la columna de Stock (índice 3)
                 if (rowIndex >= 0 && colIndex == 3) {
-                    int realRowIndex = convertRowIndexToModel(rowIndex);
-                    return ((ProductoTableModel)getModel()).getTooltipAt(realRowIndex);
+                    return ((ProductoTableModel)getModel()).getTooltipAt(rowIndex);
                 }
                 return super.getToolTipText(e);
             }
         };
 
         tablaProductos.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        tablaProductos.setAutoCreateRowSorter(true);
+        // Sin ordenamiento por columna: el modelo es virtual y carga los bloques bajo demanda en
+        // orden de nombre; ordenarlo desde la tabla obligaría a cargar todas las filas.
         tablaProductos.setRowHeight(30);
         // Asignar el renderer de colores a la columna de Stock (índice 3)
         tablaProductos.getColumnModel().getColumn(3).setCellRenderer(new StockCellRenderer());
 
         JScrollPane scrollProductos = new JScrollPane(tablaProductos);
+        // Informa al modelo las filas visibles para que cargue y adelante los bloques necesarios.
+        scrollProductos.getViewport().addChangeListener(e -> informarFilasVisibles());
 
         // 3. PANEL DE DETALLES DE STOCK (Derecha)
         JPanel panelDetalleStock = new JPanel(new MigLayout("fill, insets 0", "[grow]", "[grow]"));
@@ -179,12 +182,19 @@ public class PanelInventario extends JPanel implements InventarioView {
         // Listener de selección para actualizar tabla lateral
         tablaProductos.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
-                int selectedRow = tablaProductos.getSelectedRow();
                 stockTableModel.setRowCount(0);
-                if (selectedRow != -1) {
-                    Producto producto = tableModel.getProductoAt(tablaProductos.convertRowIndexToModel(selectedRow));
-                    presenter.onProductoSeleccionado(producto.getId());
-                }
+                mostrarDetalleSeleccion();
+            }
+        });
+
+        // Si se seleccionó una fila que aún se estaba cargando, se muestra su detalle al llegar el bloque.
+        // El total también se actualiza: la tabla lo corrige al llegar al final del filtro.
+        tableModel.addTableModelListener(e -> {
+            actualizarTotalProductos();
+            int selectedRow = tablaProductos.getSelectedRow();
+            if (e.getType() == TableModelEvent.UPDATE && e.getLastRow() != Integer.MAX_VALUE
+                    && selectedRow >= e.getFirstRow() && selectedRow <= e.getLastRow()) {
+                mostrarDetalleSeleccion();
             }
         });
 
@@ -204,38 +214,63 @@ public class PanelInventario extends JPanel implements InventarioView {
 
         cmbFiltroAlmacen.addActionListener(e -> presenter.buscarProductos(txtBuscar.getText()));
 
-        // 7. PANEL DE PAGINACIÓN (Inferior)
-        JPanel panelPaginacion = new JPanel(new MigLayout("fillx", "[]push[]push[]"));
-        btnAnterior = new JButton("< Anterior");
-        btnSiguiente = new JButton("Siguiente >");
-        lblPaginacion = new JLabel("Página 0 de 0");
-        panelPaginacion.add(btnAnterior);
-        panelPaginacion.add(lblPaginacion);
-        panelPaginacion.add(btnSiguiente);
-        add(panelPaginacion, "growx");
-
-        btnAnterior.addActionListener(e -> presenter.cambiarPagina(presenter.getPaginaActual() - 1));
-        btnSiguiente.addActionListener(e -> presenter.cambiarPagina(presenter.getPaginaActual() + 1));
+        // 7. TOTAL DE PRODUCTOS (Inferior)
+        lblTotalProductos = new JLabel(" ");
+        add(lblTotalProductos, "growx");
     }
 
     // --- Métodos Auxiliares ---
 
     private void editarFilaSeleccionada() {
         int row = tablaProductos.getSelectedRow();
-        if (row >= 0) {
-            presenter.onEditarProductoClicked(tableModel.getProductoAt(tablaProductos.convertRowIndexToModel(row)));
-        } else {
+        if (row < 0) {
             mostrarError("Por favor, seleccione un producto para editar.");
+            return;
+        }
+        Producto producto = tableModel.getProductoAt(row);
+        if (producto != null) {
+            presenter.onEditarProductoClicked(producto);
         }
     }
 
     private void desactivarFilaSeleccionada() {
         int row = tablaProductos.getSelectedRow();
-        if (row >= 0) {
-            presenter.onDesactivarProductoClicked(tableModel.getProductoAt(tablaProductos.convertRowIndexToModel(row)));
-        } else {
+        if (row < 0) {
             mostrarError("Por favor, seleccione un producto para desactivar.");
+            return;
+        }
+        Producto producto = tableModel.getProductoAt(row);
+        if (producto != null) {
+            presenter.onDesactivarProductoClicked(producto);
+        }
+    }
+
+    /**
+     * Carga el desglose de stock de la fila seleccionada, si su bloque ya está cargado.
+     */
+    private void mostrarDetalleSeleccion() {
+        int selectedRow = tablaProductos.getSelectedRow();
+        Producto producto = selectedRow != -1 ? tableModel.getProductoAt(selectedRow) : null;
+        if (producto != null) {
+            presenter.onProductoSeleccionado(producto.getId());
+        }
+    }
+
+    private void actualizarTotalProductos() {
+        if (lblTotalProductos != null) {
+            lblTotalProductos.setText(String.format(tableModel.isTotalExacto() ? "%,d productos" : "≈ %,d productos",
+                    tableModel.getRowCount()));
+        }
+    }
+
+    private void informarFilasVisibles() {
+        Rectangle visible = tablaProductos.getVisibleRect();
+        int primera = tablaProductos.rowAtPoint(visible.getLocation());
+        if (primera == -1) {
+            return;
         }
+        int ultima = tablaProductos.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        tableModel.setFilasVisibles(primera, ultima != -1 ? ultima : tableModel.getRowCount() - 1);
     }
 
     // --- Getters & Setters del Contrato ---
@@ -274,20 +309,14 @@ public class PanelInventario extends JPanel implements InventarioView {
     }
 
     @Override
-    public void mostrarProductos(Page<ProductoInventarioDTO> pagina) {
+    public void mostrarProductos(IndiceBloquesProductos indice, List<ProductoInventarioDTO> primerBloque,
+                                 ProductoTableModel.CargadorBloques cargador) {
         // Aquí actualizamos el modelo, y como la tabla usa este modelo, se actualizará visualmente
-        tableModel.setProductos(pagina.getContent());
+        tableModel.setIndice(indice, primerBloque, cargador);
         stockTableModel.setRowCount(0);
-        actualizarControlesPaginacion(pagina);
-    }
-
-    private void actualizarControlesPaginacion(Page<?> pagina) {
-        int paginaMostrada = pagina.getNumber() + 1;
-        int totalPaginas = pagina.getTotalPages();
-        lblPaginacion.setText(String.format("Página %d de %d (Total: %d registros)",
-                totalPaginas == 0 ? 0 : paginaMostrada, totalPaginas, pagina.getTotalElements()));
-        btnAnterior.setEnabled(pagina.hasPrevious());
-        btnSiguiente.setEnabled(pagina.hasNext());
+        tablaProductos.scrollRectToVisible(new Rectangle(0, 0, 1, 1));
+        // Tras el relayout de la tabla, para adelantar los bloques siguientes aunque no haya desplazamiento
+        SwingUtilities.invokeLater(this::informarFilasVisibles);
     }
 
     @Override
@@ -303,15 +332,12 @@ public class PanelInventario extends JPanel implements InventarioView {
     @Override
     public void seleccionarYMostrarProducto(Integer productoId) {
         SwingUtilities.invokeLater(() -> {
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
-                if (tableModel.getProductoAt(i).getId().equals(productoId)) {
-                    int filaEnVista = tablaProductos.convertRowIndexToView(i);
-                    if (filaEnVista != -1) {
-                        tablaProductos.setRowSelectionInterval(filaEnVista, filaEnVista);
-                        tablaProductos.scrollRectToVisible(tablaProductos.getCellRect(filaEnVista, 0, true));
-                    }
-                    break;
-                }
+            // Solo busca entre los bloques en memoria: el presentador filtra antes por el nombre del
+            // producto, por lo que queda en el primer bloque.
+            int fila = tableModel.indiceDeProducto(productoId);
+            if (fila != -1) {
+                tablaProductos.setRowSelectionInterval(fila, fila);
+                tablaProductos.scrollRectToVisible(tablaProductos.getCellRect(fila, 0, true));
             }
         });
     }
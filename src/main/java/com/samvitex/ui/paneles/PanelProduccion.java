@@ -14,6 +14,7 @@ import com.samvitex.ui.vistas.interfaces.ProduccionView;
 import net.miginfocom.swing.MigLayout;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Lazy;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
@@ -26,6 +27,7 @@ import java.util.List;
  * La UI se ha mejorado para mostrar más detalles y usar colores para los estados.
  */
 @org.springframework.stereotype.Component
+@Lazy
 public class PanelProduccion extends JPanel implements ProduccionView {
 
     private final ProduccionPresenter presenter;
@@ -1,17 +1,24 @@
 package com.samvitex.ui.paneles;
 
+import com.samvitex.modelos.dto.CurvaParetoDTO;
+import com.samvitex.modelos.dto.IndicePaginasKardex;
+import com.samvitex.modelos.dto.ReporteAbcDTO;
 import com.samvitex.modelos.dto.ReporteVentasDTO;
-import com.samvitex.modelos.entidades.MovimientoInventario;
 import com.samvitex.modelos.entidades.Producto;
 import com.samvitex.servicios.ServicioInventario;
 import com.samvitex.servicios.ServicioReportes;
+import com.samvitex.servicios.ServicioTrabajosReportes;
+import com.samvitex.ui.componentes.GraficoPareto;
 import com.samvitex.ui.modelos_tabla.KardexTableModel;
+import com.samvitex.ui.modelos_tabla.ReporteAbcTableModel;
 import com.samvitex.ui.modelos_tabla.ReporteVentasTableModel;
 import com.samvitex.ui.presentadores.ReportesPresenter;
 import com.samvitex.ui.theme.SamvitexButton;
 import com.samvitex.ui.vistas.interfaces.ReportesView;
+import com.samvitex.ui.vistas.interfaces.ReportesView.EstadoTrabajo;
 import net.miginfocom.swing.MigLayout;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 import javax.swing.*;
@@ -27,6 +34,7 @@ import java.util.Vector;
  * Proporciona la UI para configurar y visualizar reportes de negocio.
  */
 @Component
+@Lazy
 public class PanelReportes extends JPanel implements ReportesView {
 
     private final ReportesPresenter presenter;
@@ -38,10 +46,22 @@ public class PanelReportes extends JPanel implements ReportesView {
     private JTable tablaResultados;
     private ReporteVentasTableModel ventasTableModel;
     private KardexTableModel kardexTableModel;
+    private ReporteAbcTableModel abcTableModel;
+    private JLabel lblResumenKardex;
+    private JPanel panelAbc;
+    private GraficoPareto graficoPareto;
+    private JLabel lblResumenAbc;
+    private JButton btnExportar;
+    private JPanel panelExportacion;
+    private JLabel lblProgresoExportacion;
+    private DefaultListModel<EstadoTrabajo> trabajosModel;
+    private JList<EstadoTrabajo> listaTrabajos;
+    private JButton btnVerTrabajo, btnCancelarTrabajo;
 
     @Autowired
-    public PanelReportes(ServicioReportes servicioReportes, ServicioInventario servicioInventario) {
-        this.presenter = new ReportesPresenter(this, servicioReportes, servicioInventario);
+    public PanelReportes(ServicioReportes servicioReportes, ServicioTrabajosReportes servicioTrabajosReportes,
+                         ServicioInventario servicioInventario) {
+        this.presenter = new ReportesPresenter(this, servicioReportes, servicioTrabajosReportes, servicioInventario);
         inicializarUI();
     }
 
@@ -58,7 +78,7 @@ public class PanelReportes extends JPanel implements ReportesView {
         JPanel panelFiltros = new JPanel(new MigLayout("wrap, fillx", "[grow]"));
         panelFiltros.setBorder(BorderFactory.createTitledBorder("Configuración del Reporte"));
 
-        cmbTipoReporte = new JComboBox<>(new String[]{"Ventas por Producto", "Kardex de Producto"});
+        cmbTipoReporte = new JComboBox<>(new String[]{"Ventas por Producto", "Kardex de Producto", "Clasificación ABC"});
 
         Date hoy = new Date();
         Date haceUnMes = Date.from(Instant.now().minus(30, ChronoUnit.DAYS));
@@ -84,17 +104,69 @@ public class PanelReportes extends JPanel implements ReportesView {
         panelFiltros.add(panelFiltroProducto, "growx, gaptop 10");
         panelFiltros.add(btnGenerar, "gaptop 20, growx, h 35!");
 
+        btnExportar = new JButton("Exportar a CSV / Excel...");
+        panelFiltros.add(btnExportar, "growx");
+
+        panelExportacion = new JPanel(new MigLayout("wrap, fillx, insets 0", "[grow]"));
+        JProgressBar barraExportacion = new JProgressBar();
+        barraExportacion.setIndeterminate(true);
+        lblProgresoExportacion = new JLabel("Exportando...");
+        JButton btnCancelarExportacion = new JButton("Cancelar");
+        panelExportacion.add(lblProgresoExportacion);
+        panelExportacion.add(barraExportacion, "growx");
+        panelExportacion.add(btnCancelarExportacion, "right");
+        panelExportacion.setVisible(false);
+        panelFiltros.add(panelExportacion, "growx, gaptop 10");
+        btnCancelarExportacion.addActionListener(e -> presenter.cancelarExportacion());
+
+        // Reportes solicitados: se generan en segundo plano y pueden consultarse al terminar.
+        trabajosModel = new DefaultListModel<>();
+        listaTrabajos = new JList<>(trabajosModel);
+        listaTrabajos.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        listaTrabajos.setVisibleRowCount(5);
+        listaTrabajos.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public java.awt.Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                EstadoTrabajo trabajo = (EstadoTrabajo) value;
+                String texto = "<html>" + escaparHtml(trabajo.descripcion()) + "<br><small>" + escaparHtml(trabajo.estado()) + "</small></html>";
+                return super.getListCellRendererComponent(list, texto, index, isSelected, cellHasFocus);
+            }
+        });
+        btnVerTrabajo = new JButton("Ver");
+        btnCancelarTrabajo = new JButton("Cancelar");
+        btnVerTrabajo.setEnabled(false);
+        btnCancelarTrabajo.setEnabled(false);
+        panelFiltros.add(new JLabel("Reportes solicitados:"), "gaptop 15");
+        panelFiltros.add(new JScrollPane(listaTrabajos), "growx, h 120!");
+        panelFiltros.add(btnVerTrabajo, "split 2, growx");
+        panelFiltros.add(btnCancelarTrabajo, "growx");
+
         // Panel de Resultados
         JPanel panelResultados = new JPanel(new BorderLayout());
         panelResultados.setBorder(BorderFactory.createTitledBorder("Resultados"));
 
         ventasTableModel = new ReporteVentasTableModel();
         kardexTableModel = new KardexTableModel();
+        abcTableModel = new ReporteAbcTableModel();
         tablaResultados = new JTable(ventasTableModel); // Empezamos con el modelo de ventas por defecto
         tablaResultados.setAutoCreateRowSorter(true);
 
+        lblResumenKardex = new JLabel(" ");
+        lblResumenKardex.setBorder(BorderFactory.createEmptyBorder(0, 4, 6, 4));
+        lblResumenKardex.setVisible(false);
+        panelResultados.add(lblResumenKardex, BorderLayout.NORTH);
         panelResultados.add(new JScrollPane(tablaResultados), BorderLayout.CENTER);
 
+        // Curvas de Pareto y tamaño de cada clase, solo para la clasificación ABC.
+        panelAbc = new JPanel(new MigLayout("fillx, insets 6 0 0 0", "[grow][260px!]", "[200px!]"));
+        graficoPareto = new GraficoPareto();
+        lblResumenAbc = new JLabel(" ");
+        lblResumenAbc.setVerticalAlignment(SwingConstants.TOP);
+        panelAbc.add(graficoPareto, "grow");
+        panelAbc.add(lblResumenAbc, "grow");
+        panelAbc.setVisible(false);
+        panelResultados.add(panelAbc, BorderLayout.SOUTH);
+
         add(panelFiltros, "growy, top");
         add(panelResultados, "grow");
 
@@ -106,18 +178,110 @@ public class PanelReportes extends JPanel implements ReportesView {
                 ((Date) dateFin.getValue()).toInstant(),
                 (Producto) cmbProductoKardex.getSelectedItem()
         ));
+        btnExportar.addActionListener(e -> exportar());
+        listaTrabajos.addListSelectionListener(e -> actualizarBotonesTrabajo());
+        listaTrabajos.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent e) {
+                if (e.getClickCount() == 2 && listaTrabajos.getSelectedValue() != null) {
+                    presenter.verTrabajo(listaTrabajos.getSelectedValue().id());
+                }
+            }
+        });
+        btnVerTrabajo.addActionListener(e -> presenter.verTrabajo(listaTrabajos.getSelectedValue().id()));
+        btnCancelarTrabajo.addActionListener(e -> presenter.cancelarOQuitarTrabajo(listaTrabajos.getSelectedValue().id()));
+    }
+
+    private void actualizarBotonesTrabajo() {
+        EstadoTrabajo seleccionado = listaTrabajos.getSelectedValue();
+        btnVerTrabajo.setEnabled(seleccionado != null && seleccionado.disponible());
+        btnCancelarTrabajo.setEnabled(seleccionado != null);
+        btnCancelarTrabajo.setText(seleccionado != null && seleccionado.terminado() ? "Quitar" : "Cancelar");
+    }
+
+    private static String escaparHtml(String texto) {
+        return texto.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private void exportar() {
+        JFileChooser selector = new JFileChooser();
+        selector.setDialogTitle("Exportar reporte");
+        selector.setAcceptAllFileFilterUsed(false);
+        javax.swing.filechooser.FileNameExtensionFilter filtroXlsx =
+                new javax.swing.filechooser.FileNameExtensionFilter("Libro de Excel (*.xlsx)", "xlsx");
+        selector.addChoosableFileFilter(filtroXlsx);
+        selector.addChoosableFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV (*.csv)", "csv"));
+        selector.setFileFilter(filtroXlsx);
+        String nombre = ((String) cmbTipoReporte.getSelectedItem()).replace(' ', '_');
+        selector.setSelectedFile(new java.io.File(nombre + ".xlsx"));
+        if (selector.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        java.io.File archivo = selector.getSelectedFile();
+        String extension = ((javax.swing.filechooser.FileNameExtensionFilter) selector.getFileFilter()).getExtensions()[0];
+        if (!archivo.getName().toLowerCase().endsWith("." + extension)) {
+            archivo = new java.io.File(archivo.getParentFile(), archivo.getName() + "." + extension);
+        }
+        if (archivo.exists() && JOptionPane.showConfirmDialog(this, "El archivo ya existe. ¿Desea reemplazarlo?",
+                "Confirmar", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+        presenter.exportarReporte(
+                (String) cmbTipoReporte.getSelectedItem(),
+                ((Date) dateInicio.getValue()).toInstant(),
+                ((Date) dateFin.getValue()).toInstant(),
+                (Producto) cmbProductoKardex.getSelectedItem(),
+                archivo);
     }
 
     @Override
     public void mostrarReporteVentas(List<ReporteVentasDTO> datos) {
-        tablaResultados.setModel(ventasTableModel);
+        usarModelo(ventasTableModel);
         ventasTableModel.setDatos(datos);
     }
 
     @Override
-    public void mostrarReporteKardex(List<MovimientoInventario> datos) {
-        tablaResultados.setModel(kardexTableModel);
-        kardexTableModel.setDatos(datos);
+    public void mostrarReporteKardex(IndicePaginasKardex indice, KardexTableModel.CargadorPaginas cargador) {
+        usarModelo(kardexTableModel);
+        kardexTableModel.setReporte(indice, cargador);
+        lblResumenKardex.setText(String.format("Saldo inicial: %,d unidades  ·  %,d movimientos en el período",
+                indice.saldoInicial(), indice.totalFilas()));
+    }
+
+    @Override
+    public void mostrarReporteAbc(ReporteAbcDTO reporte) {
+        usarModelo(abcTableModel);
+        abcTableModel.setDatos(reporte.filas());
+        graficoPareto.setCurvas(reporte.curvaIngresos(), reporte.curvaMovimientos());
+        lblResumenAbc.setText("<html><b>Por ingresos</b><br>" + resumenClases(reporte.curvaIngresos())
+                + "<br><b>Por movimientos</b><br>" + resumenClases(reporte.curvaMovimientos()) + "</html>");
+    }
+
+    private static String resumenClases(CurvaParetoDTO curva) {
+        StringBuilder texto = new StringBuilder();
+        String[] clases = {"A", "B", "C"};
+        for (int c = 0; c < clases.length; c++) {
+            texto.append(String.format("%s: %,d productos (%.1f%%)<br>",
+                    clases[c], curva.productosPorClase()[c], curva.participacionPorClase()[c] * 100));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Cambia el modelo de la tabla de resultados. El Kardex es un modelo virtual que carga sus
+     * páginas bajo demanda; ordenarlo desde la tabla obligaría a cargar todas las filas, por lo
+     * que solo el reporte de ventas admite ordenamiento por columna.
+     */
+    private void usarModelo(javax.swing.table.TableModel modelo) {
+        boolean ordenable = modelo != kardexTableModel;
+        lblResumenKardex.setVisible(!ordenable);
+        panelAbc.setVisible(modelo == abcTableModel);
+        tablaResultados.setAutoCreateRowSorter(ordenable);
+        tablaResultados.setModel(modelo);
+        if (!ordenable) {
+            tablaResultados.setRowSorter(null);
+        }
     }
 
     @Override
@@ -130,14 +294,57 @@ public class PanelReportes extends JPanel implements ReportesView {
         panelFiltroProducto.setVisible("Kardex de Producto".equals(tipoReporte));
         // Limpiamos la tabla al cambiar de tipo de reporte
         if ("Kardex de Producto".equals(tipoReporte)) {
-            tablaResultados.setModel(kardexTableModel);
-            kardexTableModel.setDatos(List.of());
+            usarModelo(kardexTableModel);
+            kardexTableModel.limpiar();
+            lblResumenKardex.setText(" ");
+        } else if ("Clasificación ABC".equals(tipoReporte)) {
+            usarModelo(abcTableModel);
+            abcTableModel.setDatos(List.of());
+            graficoPareto.setCurvas(null, null);
+            lblResumenAbc.setText(" ");
         } else {
-            tablaResultados.setModel(ventasTableModel);
+            usarModelo(ventasTableModel);
             ventasTableModel.setDatos(List.of());
         }
     }
 
+    @Override
+    public void mostrarTrabajos(List<EstadoTrabajo> trabajos) {
+        EstadoTrabajo seleccionado = listaTrabajos.getSelectedValue();
+        trabajosModel.clear();
+        trabajosModel.addAll(trabajos);
+        if (seleccionado != null) {
+            for (int i = 0; i < trabajos.size(); i++) {
+                if (trabajos.get(i).id() == seleccionado.id()) {
+                    listaTrabajos.setSelectedIndex(i);
+                    break;
+                }
+            }
+        }
+        actualizarBotonesTrabajo();
+    }
+
+    @Override
+    public void iniciarExportacion() {
+        btnExportar.setEnabled(false);
+        lblProgresoExportacion.setText("Exportando...");
+        panelExportacion.setVisible(true);
+    }
+
+    @Override
+    public void mostrarProgresoExportacion(long filas) {
+        lblProgresoExportacion.setText(String.format("Exportando... %,d filas", filas));
+    }
+
+    @Override
+    public void finalizarExportacion(String mensaje) {
+        panelExportacion.setVisible(false);
+        btnExportar.setEnabled(true);
+        if (mensaje != null) {
+            JOptionPane.showMessageDialog(this, mensaje, "Exportación", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
     @Override
     public void mostrarError(String mensaje) {
         JOptionPane.showMessageDialog(this, mensaje, "Error en Reportes", JOptionPane.ERROR_MESSAGE);
@@ -6,6 +6,7 @@ import com.samvitex.modelos.entidades.Cliente;
 import com.samvitex.modelos.entidades.Producto;
 import com.samvitex.modelos.excepciones.CarritoException;
 import com.samvitex.servicios.ServicioAlmacen;
+import com.samvitex.servicios.ServicioCacheEscaneo;
 import com.samvitex.servicios.ServicioCliente;
 import com.samvitex.servicios.ServicioInventario;
 import com.samvitex.servicios.ServicioVentas;
@@ -16,6 +17,7 @@ import com.samvitex.ui.theme.SamvitexButton;
 import com.samvitex.ui.vistas.interfaces.VentasView;
 import net.miginfocom.swing.MigLayout;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 
 import javax.swing.*;
 import javax.swing.event.AncestorEvent;
@@ -38,6 +40,7 @@ import java.util.stream.Collectors;
  * para entrada rápida de productos.
  */
 @org.springframework.stereotype.Component
+@Lazy
 public class PanelVentas extends JPanel implements VentasView {
 
     private final VentasPresenter presenter;
@@ -56,9 +59,10 @@ public class PanelVentas extends JPanel implements VentasView {
 
     @Autowired
     public PanelVentas(ServicioVentas sv, ServicioInventario si, ServicioCliente sc,
-                       ServicioAlmacen sa, ServicioImpresion servicioImpresion) {
+                       ServicioAlmacen sa, ServicioImpresion servicioImpresion,
+                       ServicioCacheEscaneo servicioCacheEscaneo) {
         this.servicioInventario = si; // Guardamos la referencia para usarla localmente
-        this.presenter = new VentasPresenter(this, sv, si, sc, sa, servicioImpresion);
+        this.presenter = new VentasPresenter(this, sv, si, sc, sa, servicioImpresion, servicioCacheEscaneo);
         inicializarUI();
     }
 
@@ -212,7 +216,11 @@ public class PanelVentas extends JPanel implements VentasView {
             return;
         }
         int stockMaximo = servicioInventario.obtenerStockDeProductoEnAlmacen(producto.getId(), almacen.getId());
+        agregarProductoAlCarrito(producto, stockMaximo);
+    }
 
+    @Override
+    public void agregarProductoAlCarrito(Producto producto, int stockMaximo) {
         try {
             carritoTableModel.agregarProducto(producto, stockMaximo);
 
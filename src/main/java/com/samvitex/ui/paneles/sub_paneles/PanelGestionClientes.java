@@ -23,6 +23,7 @@ import java.util.List;
  * Muestra y permite la gestión de la lista de clientes.
  */
 @org.springframework.stereotype.Component
+@Lazy
 public class PanelGestionClientes extends JPanel implements GestionClientesView {
 
     private final GestionClientesPresenter presenter;
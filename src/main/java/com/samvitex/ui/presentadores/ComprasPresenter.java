@@ -1,6 +1,8 @@
 package com.samvitex.ui.presentadores;
 
 import com.samvitex.modelos.dto.CompraItemDTO;
+import com.samvitex.modelos.dto.GrupoSugerenciasDTO;
+import com.samvitex.modelos.dto.SugerenciaCompraDTO;
 import com.samvitex.modelos.entidades.Almacen;
 import com.samvitex.modelos.entidades.Producto;
 import com.samvitex.modelos.entidades.Proveedor;
@@ -8,14 +10,21 @@ import com.samvitex.servicios.ServicioAlmacen;
 import com.samvitex.servicios.ServicioCompras;
 import com.samvitex.servicios.ServicioInventario;
 import com.samvitex.servicios.ServicioProveedor;
+import com.samvitex.servicios.ServicioReabastecimiento;
+import com.samvitex.ui.modelos_tabla.CompraTableModel;
 import com.samvitex.ui.vistas.interfaces.ComprasView;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
-import javax.swing.SwingWorker;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Presenter para la vista de Registro de Compras (Patrón MVP).
@@ -32,81 +41,76 @@ public class ComprasPresenter {
     private final ServicioInventario servicioInventario;
     private final ServicioProveedor servicioProveedor;
     private final ServicioAlmacen servicioAlmacen;
+    private final ServicioReabastecimiento servicioReabastecimiento;
 
     public ComprasPresenter(ComprasView view, ServicioCompras sc, ServicioInventario si,
-                            ServicioProveedor sp, ServicioAlmacen sa) {
+                            ServicioProveedor sp, ServicioAlmacen sa, ServicioReabastecimiento sr) {
         this.view = view;
         this.servicioCompras = sc;
         this.servicioInventario = si;
         this.servicioProveedor = sp;
         this.servicioAlmacen = sa;
+        this.servicioReabastecimiento = sr;
     }
 
     public void cargarDatosIniciales() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        EjecutorTareasUI.ejecutar("compras.proveedores", Prioridad.NORMAL,
+                servicioProveedor::obtenerTodosActivos,
+                view::mostrarProveedores,
+                e -> handleError(e, "Error al cargar proveedores"));
+        EjecutorTareasUI.ejecutar("compras.almacenes", Prioridad.NORMAL,
+                servicioAlmacen::obtenerTodosActivos,
+                view::mostrarAlmacenes,
+                e -> handleError(e, "Error al cargar almacenes"));
+    }
 
-        new SwingWorker<List<Proveedor>, Void>() {
-            @Override
-            protected List<Proveedor> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioProveedor.obtenerTodosActivos();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarProveedores(get());
-                } catch (Exception e) {
-                    handleError(e, "Error al cargar proveedores");
-                }
-            }
-        }.execute();
+    public void buscarProductos(String texto) {
+        EjecutorTareasUI.ejecutarUltima("compras.buscarProductos", Prioridad.INTERACTIVA,
+                () -> servicioInventario.buscarProductos(texto),
+                view::mostrarResultadosBusqueda,
+                e -> handleError(e, "Error al buscar productos"));
+    }
 
-        new SwingWorker<List<Almacen>, Void>() {
-            @Override
-            protected List<Almacen> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioAlmacen.obtenerTodosActivos();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarAlmacenes(get());
-                } catch (Exception e) {
-                    handleError(e, "Error al cargar almacenes");
-                }
-            }
-        }.execute();
+    /**
+     * Carga en segundo plano las sugerencias de reabastecimiento vigentes y las muestra.
+     */
+    public void cargarSugerencias() {
+        EjecutorTareasUI.ejecutar("compras.sugerencias", Prioridad.INTERACTIVA,
+                servicioReabastecimiento::obtenerSugerencias,
+                grupos -> {
+                    if (grupos.isEmpty()) {
+                        view.mostrarMensajeExito("No hay productos en su punto de reorden.");
+                    } else {
+                        view.mostrarSugerencias(grupos);
+                    }
+                },
+                e -> handleError(e, "Error al cargar las sugerencias de reabastecimiento"));
     }
 
-    public void buscarProductos(String texto) {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Producto>, Void>() {
-            @Override
-            protected List<Producto> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioInventario.buscarProductos(texto);
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarResultadosBusqueda(get());
-                } catch (Exception e) {
-                    handleError(e, "Error al buscar productos");
-                }
-            }
-        }.execute();
+    /**
+     * Reemplaza la compra en curso con un grupo de sugerencias: su proveedor, su almacén y sus
+     * productos con la cantidad sugerida y el costo de referencia.
+     *
+     * @param grupo El grupo elegido; debe tener proveedor.
+     */
+    public void usarSugerencia(GrupoSugerenciasDTO grupo) {
+        EjecutorTareasUI.ejecutar("compras.usarSugerencia", Prioridad.INTERACTIVA,
+                () -> {
+                    Map<Integer, Producto> productos = servicioReabastecimiento.obtenerProductos(
+                                    grupo.lineas().stream().map(SugerenciaCompraDTO::productoId).toList())
+                            .stream()
+                            .collect(Collectors.toMap(Producto::getId, Function.identity()));
+                    List<CompraTableModel.ItemCompra> items = new ArrayList<>();
+                    for (SugerenciaCompraDTO linea : grupo.lineas()) {
+                        Producto producto = productos.get(linea.productoId());
+                        if (producto != null) {
+                            items.add(new CompraTableModel.ItemCompra(producto, linea.cantidadSugerida(), linea.costoUnitario()));
+                        }
+                    }
+                    return items;
+                },
+                items -> view.precargarCompra(grupo.proveedorId(), grupo.almacenId(), items),
+                e -> handleError(e, "Error al cargar la sugerencia en la compra"));
     }
 
     public void onTablaCompraChanged(BigDecimal total) {
@@ -149,28 +153,16 @@ public class ComprasPresenter {
         }
         final String nombreUsuario = authentication.getName();
 
-        new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
+        EjecutorTareasUI.ejecutar("compras.registrar", Prioridad.INTERACTIVA,
+                () -> {
                     servicioCompras.crearCompra(proveedorSeleccionado, almacenDestino, nombreUsuario, items, referenciaFactura);
                     return null;
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    get();
+                },
+                sinResultado -> {
                     view.mostrarMensajeExito("Compra registrada exitosamente. El stock ha sido actualizado.");
                     view.limpiarVistaPostCompra();
-                } catch (Exception e) {
-                    handleError(e, "Error al registrar la compra");
-                }
-            }
-        }.execute();
+                },
+                e -> handleError(e, "Error al registrar la compra"));
     }
 
     private void handleError(Exception e, String context) {
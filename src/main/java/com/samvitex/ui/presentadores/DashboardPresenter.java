@@ -3,25 +3,36 @@ package com.samvitex.ui.presentadores;
 import com.samvitex.modelos.dto.DashboardStatsDTO;
 import com.samvitex.servicios.ServicioDashboard;
 import com.samvitex.ui.vistas.interfaces.DashboardView;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 import org.springframework.stereotype.Component;
 
-import javax.swing.SwingWorker;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * Presenter para la vista del Dashboard.
  *
- * <p>Esta clase orquesta la carga de datos para el dashboard. Utiliza un {@link SwingWorker}
+ * <p>Esta clase orquesta la carga de datos para el dashboard. Utiliza {@link EjecutorTareasUI}
  * para invocar al {@link ServicioDashboard} de forma asíncrona, asegurando que la
  * interfaz de usuario permanezca responsiva durante la carga de datos. Una vez que los
  * datos son obtenidos, se los pasa a la {@link DashboardView} para su renderización.</p>
+ *
+ * <p>Mientras el panel existe, el presentador está suscrito a {@link ServicioDashboard}, que le
+ * entrega las estadísticas ajustadas con cada venta, compra u orden de producción confirmada en
+ * esta o en otra terminal. La consulta completa solo se repite para conciliar, cada
+ * {@link #CONCILIAR_CADA_MS} mientras el panel está visible.</p>
  */
 @Component
 public class DashboardPresenter {
 
+    private static final int CONCILIAR_CADA_MS = 60_000;
+
     private DashboardView view;
     private final ServicioDashboard servicioDashboard;
+    private final Timer temporizadorConciliacion = new Timer(CONCILIAR_CADA_MS, e -> cargarEstadisticas());
+    private Runnable cancelarSuscripcion;
+    private long ultimaConciliacion;
 
     public DashboardPresenter(ServicioDashboard servicioDashboard) {
         this.servicioDashboard = servicioDashboard;
@@ -37,30 +48,52 @@ public class DashboardPresenter {
     }
 
     /**
-     * Inicia la carga asíncrona de las estadísticas del dashboard.
+     * Se suscribe a las estadísticas en vivo. Se invoca cuando el panel se agrega a la ventana.
      */
-    public void cargarEstadisticas() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<DashboardStatsDTO, Void>() {
-            @Override
-            protected DashboardStatsDTO doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioDashboard.getDashboardStats();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
+    public void suscribir() {
+        if (cancelarSuscripcion == null) {
+            cancelarSuscripcion = servicioDashboard.suscribir(
+                    stats -> SwingUtilities.invokeLater(() -> view.mostrarEstadisticas(stats)));
+        }
+    }
+
+    /**
+     * Cancela la suscripción y la conciliación periódica. Se invoca cuando el panel se retira.
+     */
+    public void desuscribir() {
+        temporizadorConciliacion.stop();
+        if (cancelarSuscripcion != null) {
+            cancelarSuscripcion.run();
+            cancelarSuscripcion = null;
+        }
+    }
 
-            @Override
-            protected void done() {
-                try {
-                    DashboardStatsDTO stats = get();
-                    view.mostrarEstadisticas(stats);
-                } catch (Exception e) {
-                    view.mostrarError("No se pudieron cargar las estadísticas: " + e.getMessage());
-                }
-            }
-        }.execute();
+    /**
+     * El panel se hizo visible: reanuda la conciliación periódica y concilia de inmediato solo si
+     * la última consulta completa es más antigua que el intervalo.
+     */
+    public void alMostrar() {
+        if (System.currentTimeMillis() - ultimaConciliacion >= CONCILIAR_CADA_MS) {
+            cargarEstadisticas();
+        }
+        temporizadorConciliacion.restart();
+    }
+
+    /**
+     * El panel se ocultó: las estadísticas se siguen ajustando por eventos, pero sin conciliar.
+     */
+    public void alOcultar() {
+        temporizadorConciliacion.stop();
+    }
+
+    /**
+     * Inicia la carga asíncrona de las estadísticas del dashboard (consulta completa).
+     */
+    public void cargarEstadisticas() {
+        ultimaConciliacion = System.currentTimeMillis();
+        EjecutorTareasUI.ejecutarUltima("dashboard.estadisticas", Prioridad.NORMAL,
+                servicioDashboard::getDashboardStats,
+                view::mostrarEstadisticas,
+                e -> view.mostrarError("No se pudieron cargar las estadísticas: " + e.getMessage()));
     }
 }
\ No newline at end of file
@@ -3,10 +3,9 @@ package com.samvitex.ui.presentadores;
 import com.samvitex.modelos.entidades.Almacen;
 import com.samvitex.servicios.ServicioAlmacen;
 import com.samvitex.ui.vistas.interfaces.GestionAlmacenesView;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 
-import javax.swing.SwingWorker;
 import java.util.List;
 
 /**
@@ -26,26 +25,10 @@ public class GestionAlmacenesPresenter {
      * Carga todos los almacenes desde la capa de servicio y actualiza la vista.
      */
     public void cargarAlmacenes() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Almacen>, Void>() {
-            @Override
-            protected List<Almacen> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioAlmacen.obtenerTodos();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarAlmacenes(get());
-                } catch (Exception e) {
-                    view.mostrarError("Error al cargar los almacenes: " + e.getMessage());
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutarUltima("almacenes.listar", Prioridad.NORMAL,
+                servicioAlmacen::obtenerTodos,
+                view::mostrarAlmacenes,
+                e -> view.mostrarError("Error al cargar los almacenes: " + e.getMessage()));
     }
 
     /**
@@ -79,29 +62,16 @@ public class GestionAlmacenesPresenter {
         }
         String mensaje = String.format("¿Está seguro de que desea desactivar el almacén '%s'?", almacen.getNombre());
         if (view.confirmarAccion(mensaje, "Confirmar Desactivación")) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
+            EjecutorTareasUI.ejecutar("almacenes.desactivar", Prioridad.INTERACTIVA,
+                    () -> {
                         servicioAlmacen.desactivar(almacen.getId());
                         return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("Almacén desactivado correctamente.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        view.mostrarError("Error al desactivar almacén: " + e.getMessage());
-                    }
-                }
-            }.execute();
+                    },
+                    e -> view.mostrarError("Error al desactivar almacén: " + e.getMessage()));
         }
     }
 }
\ No newline at end of file
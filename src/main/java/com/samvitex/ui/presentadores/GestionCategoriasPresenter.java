@@ -3,10 +3,9 @@ package com.samvitex.ui.presentadores;
 import com.samvitex.modelos.entidades.Categoria;
 import com.samvitex.servicios.ServicioCategoria;
 import com.samvitex.ui.vistas.interfaces.GestionCategoriasView;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 
-import javax.swing.SwingWorker;
 import java.util.List;
 
 /**
@@ -33,26 +32,10 @@ public class GestionCategoriasPresenter {
      * Carga la lista de todas las categorías de forma asíncrona y le indica a la vista que las muestre.
      */
     public void cargarCategorias() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Categoria>, Void>() {
-            @Override
-            protected List<Categoria> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioCategoria.obtenerTodas();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarCategorias(get());
-                } catch (Exception e) {
-                    view.mostrarError("Error al cargar categorías: " + e.getMessage());
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutarUltima("categorias.listar", Prioridad.NORMAL,
+                servicioCategoria::obtenerTodas,
+                view::mostrarCategorias,
+                e -> view.mostrarError("Error al cargar categorías: " + e.getMessage()));
     }
 
     /**
@@ -87,29 +70,16 @@ public class GestionCategoriasPresenter {
         }
         String mensaje = String.format("¿Está seguro de que desea eliminar la categoría '%s'?", categoria.getNombre());
         if (view.confirmarAccion(mensaje, "Confirmar Eliminación")) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
+            EjecutorTareasUI.ejecutar("categorias.eliminar", Prioridad.INTERACTIVA,
+                    () -> {
                         servicioCategoria.eliminar(categoria.getId());
                         return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("Categoría eliminada correctamente.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        view.mostrarError("Error al eliminar la categoría: " + e.getMessage());
-                    }
-                }
-            }.execute();
+                    },
+                    e -> view.mostrarError("Error al eliminar la categoría: " + e.getMessage()));
         }
     }
 }
\ No newline at end of file
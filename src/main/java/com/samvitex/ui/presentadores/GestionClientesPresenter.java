@@ -3,12 +3,11 @@ package com.samvitex.ui.presentadores;
 import com.samvitex.modelos.entidades.Cliente;
 import com.samvitex.servicios.ServicioCliente;
 import com.samvitex.ui.vistas.interfaces.GestionClientesView;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import javax.swing.SwingWorker;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -42,34 +41,22 @@ public class GestionClientesPresenter {
      * Carga la lista completa de clientes de forma asíncrona.
      */
     public void cargarClientes() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Cliente>, Void>() {
-            @Override
-            protected List<Cliente> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
+        EjecutorTareasUI.ejecutarUltima("clientes.listar", Prioridad.INTERACTIVA,
+                () -> {
                     if (terminoBusqueda != null && !terminoBusqueda.isBlank()) {
                         return servicioCliente.buscarClientes(terminoBusqueda);
                     } else {
                         return servicioCliente.obtenerTodos();
                     }
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarClientes(get());
+                },
+                resultado -> {
+                    view.mostrarClientes(resultado);
                     if (idClienteASeleccionar != null) {
                         view.seleccionarYMostrarCliente(idClienteASeleccionar);
                         idClienteASeleccionar = null;
                     }
-                } catch (Exception e) {
-                    view.mostrarError("Error al cargar los clientes: " + e.getMessage());
-                }
-            }
-        }.execute();
+                },
+                e -> view.mostrarError("Error al cargar los clientes: " + e.getMessage()));
     }
 
     /**
@@ -114,29 +101,16 @@ public class GestionClientesPresenter {
         }
         String mensaje = String.format("¿Confirmas que deseas desactivar al cliente '%s'?", cliente.getNombreCompleto());
         if (view.confirmarAccion(mensaje, "Confirmar Desactivación")) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
+            EjecutorTareasUI.ejecutar("clientes.desactivar", Prioridad.INTERACTIVA,
+                    () -> {
                         servicioCliente.desactivar(cliente.getId());
                         return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("El cliente ha sido desactivado.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        view.mostrarError("No se pudo desactivar el cliente: " + e.getMessage());
-                    }
-                }
-            }.execute();
+                    },
+                    e -> view.mostrarError("No se pudo desactivar el cliente: " + e.getMessage()));
         }
     }
 
@@ -3,10 +3,9 @@ package com.samvitex.ui.presentadores;
 import com.samvitex.modelos.entidades.Proveedor;
 import com.samvitex.servicios.ServicioProveedor;
 import com.samvitex.ui.vistas.interfaces.GestionProveedoresView;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 
-import javax.swing.SwingWorker;
 import java.util.List;
 
 /**
@@ -27,26 +26,10 @@ public class GestionProveedoresPresenter {
      * Carga la lista de todos los proveedores y actualiza la vista.
      */
     public void cargarProveedores() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Proveedor>, Void>() {
-            @Override
-            protected List<Proveedor> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioProveedor.obtenerTodos();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarProveedores(get());
-                } catch (Exception e) {
-                    view.mostrarError("Error al cargar proveedores: " + e.getMessage());
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutarUltima("proveedores.listar", Prioridad.NORMAL,
+                servicioProveedor::obtenerTodos,
+                view::mostrarProveedores,
+                e -> view.mostrarError("Error al cargar proveedores: " + e.getMessage()));
     }
 
     /**
@@ -81,29 +64,16 @@ public class GestionProveedoresPresenter {
         }
         String mensaje = String.format("¿Está seguro de que desea desactivar al proveedor '%s'?", proveedor.getNombre());
         if (view.confirmarAccion(mensaje, "Confirmar Desactivación")) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
+            EjecutorTareasUI.ejecutar("proveedores.desactivar", Prioridad.INTERACTIVA,
+                    () -> {
                         servicioProveedor.desactivar(proveedor.getId());
                         return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("Proveedor desactivado correctamente.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        view.mostrarError("Error al desactivar proveedor: " + e.getMessage());
-                    }
-                }
-            }.execute();
+                    },
+                    e -> view.mostrarError("Error al desactivar proveedor: " + e.getMessage()));
         }
     }
 }
\ No newline at end of file
@@ -5,8 +5,8 @@ import com.samvitex.modelos.entidades.Usuario;
 import com.samvitex.repositorios.RolRepositorio;
 import com.samvitex.servicios.ServicioUsuario;
 import com.samvitex.ui.vistas.interfaces.GestionUsuariosView;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 
 import javax.swing.*;
 import java.util.List;
@@ -23,7 +23,7 @@ import java.util.concurrent.ExecutionException;
  *     <li>Procesa y prepara los datos para su visualización.</li>
  *     <li>Instruye a la Vista para que muestre los datos o cambie su estado.</li>
  * </ul>
- * Todas las operaciones de larga duración se ejecutan en hilos de fondo mediante {@link SwingWorker}.
+ * Todas las operaciones de larga duración se ejecutan en hilos de fondo mediante {@link EjecutorTareasUI}.
  */
 public class GestionUsuariosPresenter {
 
@@ -49,26 +49,10 @@ public class GestionUsuariosPresenter {
      * Al finalizar, instruye a la vista para que los muestre.
      */
     public void cargarUsuarios() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Usuario>, Void>() {
-            @Override
-            protected List<Usuario> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioUsuario.obtenerTodosLosUsuarios();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarUsuarios(get());
-                } catch (Exception e) {
-                    view.mostrarError("Error al cargar usuarios: " + e.getMessage());
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutarUltima("usuarios.listar", Prioridad.NORMAL,
+                servicioUsuario::obtenerTodosLosUsuarios,
+                view::mostrarUsuarios,
+                e -> view.mostrarError("Error al cargar usuarios: " + e.getMessage()));
     }
 
     /**
@@ -76,26 +60,10 @@ public class GestionUsuariosPresenter {
      * y luego le pide a la vista que muestre el diálogo en modo de creación.
      */
     public void onNuevoUsuarioClicked() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Rol>, Void>() {
-            @Override
-            protected List<Rol> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return rolRepositorio.findAll();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarDialogoUsuario(null, get());
-                } catch (Exception e) {
-                    view.mostrarError("Error al preparar formulario: " + e.getMessage());
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutar("usuarios.rolesNuevo", Prioridad.INTERACTIVA,
+                rolRepositorio::findAll,
+                resultado -> view.mostrarDialogoUsuario(null, resultado),
+                e -> view.mostrarError("Error al preparar formulario: " + e.getMessage()));
     }
 
     /**
@@ -110,27 +78,11 @@ public class GestionUsuariosPresenter {
             view.mostrarError("No se ha seleccionado un usuario válido.");
             return;
         }
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<Usuario, Void>() {
-            @Override
-            protected Usuario doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioUsuario.findByIdForEditing(usuarioId)
-                            .orElseThrow(() -> new RuntimeException("El usuario ya no existe."));
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    cargarRolesYMostrarDialogo(get());
-                } catch (Exception e) {
-                    view.mostrarError("Error al obtener datos del usuario: " + e.getMessage());
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutar("usuarios.editar", Prioridad.INTERACTIVA,
+                () -> servicioUsuario.findByIdForEditing(usuarioId)
+                        .orElseThrow(() -> new RuntimeException("El usuario ya no existe.")),
+                resultado -> cargarRolesYMostrarDialogo(resultado),
+                e -> view.mostrarError("Error al obtener datos del usuario: " + e.getMessage()));
     }
 
 
@@ -139,26 +91,10 @@ public class GestionUsuariosPresenter {
      * @param usuario El usuario a editar, o null si es para creación.
      */
     private void cargarRolesYMostrarDialogo(Usuario usuario) {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Rol>, Void>() {
-            @Override
-            protected List<Rol> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return rolRepositorio.findAll();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarDialogoUsuario(usuario, get());
-                } catch (Exception e) {
-                    view.mostrarError("Error al cargar roles: " + e.getMessage());
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutar("usuarios.roles", Prioridad.INTERACTIVA,
+                rolRepositorio::findAll,
+                resultado -> view.mostrarDialogoUsuario(usuario, resultado),
+                e -> view.mostrarError("Error al cargar roles: " + e.getMessage()));
     }
 
 
@@ -180,37 +116,24 @@ public class GestionUsuariosPresenter {
         String titulo = "Confirmar " + (estadoActual ? "Desactivación" : "Activación");
 
         if (view.confirmarAccion(mensaje, titulo)) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
+            EjecutorTareasUI.ejecutar("usuarios.cambiarEstado", Prioridad.INTERACTIVA,
+                    () -> {
                         servicioUsuario.toggleEstadoUsuario(usuarioId);
                         return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("El estado del usuario ha sido actualizado.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        handleError(e, "Error al actualizar estado");
-                    }
-                }
-            }.execute();
+                    },
+                    e -> handleError(e, "Error al actualizar estado"));
         }
     }
 
     /**
-     * Centraliza el manejo de excepciones ocurridas en los SwingWorkers.
+     * Centraliza el manejo de excepciones ocurridas en las tareas de fondo.
      * Extrae el mensaje de la causa raíz para ofrecer una retroalimentación más clara al usuario.
      *
-     * @param e La excepción capturada del método {@code done()}.
+     * @param e La excepción recibida de la tarea.
      * @param context El prefijo para el mensaje de error, indicando qué operación falló.
      */
     private void handleError(Exception e, String context) {
@@ -1,5 +1,6 @@
 package com.samvitex.ui.presentadores;
 
+import com.samvitex.modelos.dto.IndiceBloquesProductos;
 import com.samvitex.modelos.dto.ProductoInventarioDTO;
 import com.samvitex.modelos.entidades.Almacen;
 import com.samvitex.modelos.entidades.InventarioPorAlmacen;
@@ -8,13 +9,11 @@ import com.samvitex.repositorios.InventarioPorAlmacenRepositorio;
 import com.samvitex.servicios.ServicioAlmacen;
 import com.samvitex.servicios.ServicioInventario;
 import com.samvitex.ui.vistas.interfaces.InventarioView;
-import com.samvitex.utilidades.swing.SecureSwingWorker; // Asegúrate de importar la nueva clase
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import javax.swing.*;
@@ -34,8 +33,8 @@ public class InventarioPresenter {
     private final InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
 
     private String ultimaBusqueda = "";
-    private int paginaActual = 0;
-    private static final int TAMANO_PAGINA = 50;
+    /** Productos por bloque de la tabla virtual; cada bloque es una consulta por keyset. */
+    private static final int TAMANO_BLOQUE = 100;
     private Integer idProductoASeleccionar = null;
 
     @Autowired
@@ -60,76 +59,45 @@ public class InventarioPresenter {
     }
 
     public void cargarAlmacenes() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Almacen>, Void>() {
-            @Override
-            protected List<Almacen> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioAlmacen.obtenerTodosActivos();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarAlmacenes(get());
+        EjecutorTareasUI.ejecutar("inventario.almacenes", Prioridad.NORMAL,
+                servicioAlmacen::obtenerTodosActivos,
+                resultado -> {
+                    view.mostrarAlmacenes(resultado);
                     cargarProductos();
-                } catch (Exception e) {
-                    handleError(e, "Error al cargar almacenes");
-                }
-            }
-        }.execute();
+                },
+                e -> handleError(e, "Error al cargar almacenes"));
     }
 
+    /**
+     * Estima el número de productos del filtro actual y carga el primer bloque en la misma tarea,
+     * para que la tabla se muestre dimensionada y con las primeras filas ya completas. El resto de
+     * los bloques lo pide la tabla a medida que se desplaza, y con ellos corrige el total.
+     */
     public void cargarProductos() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
         Almacen almacenSeleccionado = view.obtenerAlmacenFiltro();
         Integer almacenId = (almacenSeleccionado != null && almacenSeleccionado.getId() > 0) ? almacenSeleccionado.getId() : null;
 
-        new SwingWorker<Page<ProductoInventarioDTO>, Void>() {
-            @Override
-            protected Page<ProductoInventarioDTO> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioInventario.buscarProductosPaginadoConStockTotal(ultimaBusqueda, almacenId, paginaActual, TAMANO_PAGINA);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    throw e;
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    Page<ProductoInventarioDTO> pagina = get(); // Si hubo error, aquí salta la excepción
-                    view.mostrarProductos(pagina);
-
+        final String texto = ultimaBusqueda;
+        EjecutorTareasUI.ejecutarUltima("inventario.productos", Prioridad.INTERACTIVA,
+                () -> {
+                    IndiceBloquesProductos indice = servicioInventario.estimarProductos(texto, TAMANO_BLOQUE);
+                    List<ProductoInventarioDTO> primerBloque =
+                            servicioInventario.cargarBloqueProductos(texto, almacenId, null, 0, TAMANO_BLOQUE).productos();
+                    return new CargaInicial(indice, primerBloque);
+                },
+                carga -> {
+                    view.mostrarProductos(carga.indice(), carga.primerBloque(),
+                            (desde, saltar, tamano) -> servicioInventario.cargarBloqueProductos(texto, almacenId, desde, saltar, tamano));
                     if (idProductoASeleccionar != null) {
                         view.seleccionarYMostrarProducto(idProductoASeleccionar);
                         idProductoASeleccionar = null;
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    handleError(e, "Error al cargar productos");
-                }
-            }
-        }.execute();
+                },
+                e -> handleError(e, "Error al cargar productos"));
     }
 
-
-
     public void buscarProductos(String textoBusqueda) {
         this.ultimaBusqueda = (textoBusqueda != null) ? textoBusqueda.trim() : "";
-        this.paginaActual = 0;
-        cargarProductos();
-    }
-
-    public void cambiarPagina(int nuevaPagina) {
-        this.paginaActual = nuevaPagina;
         cargarProductos();
     }
 
@@ -140,55 +108,26 @@ public class InventarioPresenter {
      */
     public void onProductoSeleccionado(Integer productoId) {
         if (productoId == null) return;
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<InventarioPorAlmacen>, Void>() {
-            @Override
-            protected List<InventarioPorAlmacen> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioInventario.obtenerDesgloseStockPorProducto(productoId);
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarStockPorAlmacen(get());
-                } catch (Exception e) {
-                    handleError(e, "Error al cargar detalle de stock");
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutarUltima("inventario.desgloseStock", Prioridad.INTERACTIVA,
+                () -> servicioInventario.obtenerDesgloseStockPorProducto(productoId),
+                view::mostrarStockPorAlmacen,
+                e -> handleError(e, "Error al cargar detalle de stock"));
     }
 
     public void buscarYSeleccionarProducto(Integer productoId) {
         if (productoId == null) return;
         idProductoASeleccionar = productoId;
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<Producto, Void>() {
-            @Override
-            protected Producto doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioInventario.findById(productoId)
-                            .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + productoId));
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    Producto producto = get();
+        EjecutorTareasUI.ejecutar("inventario.buscarProducto", Prioridad.INTERACTIVA,
+                () -> servicioInventario.findById(productoId)
+                        .orElseThrow(() -> new RuntimeException("Producto no encontrado con ID: " + productoId)),
+                producto -> {
                     view.setTextoBusqueda(producto.getNombre());
                     buscarProductos(producto.getNombre());
-                } catch (Exception e) {
+                },
+                e -> {
                     handleError(e, "No se pudo encontrar el producto para la selección");
                     idProductoASeleccionar = null;
-                }
-            }
-        }.execute();
+                });
     }
 
     public void onNuevoProductoClicked() {
@@ -206,38 +145,24 @@ public class InventarioPresenter {
         }
         String mensaje = String.format("¿Está seguro de que desea desactivar el producto '%s' (Código: %s)?", producto.getNombre(), producto.getSku());
         if (view.confirmarAccion(mensaje, "Confirmar Desactivación")) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
+            EjecutorTareasUI.ejecutar("inventario.desactivarProducto", Prioridad.INTERACTIVA,
+                    () -> {
                         servicioInventario.eliminarProducto(producto.getId());
                         return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("Producto desactivado correctamente.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        handleError(e, "Error al desactivar el producto");
-                    }
-                }
-            }.execute();
+                    },
+                    e -> handleError(e, "Error al desactivar el producto"));
         }
     }
 
-    public int getPaginaActual() {
-        return this.paginaActual;
-    }
-
     private void handleError(Exception e, String context) {
         String message = (e instanceof ExecutionException && e.getCause() != null) ? e.getCause().getMessage() : e.getMessage();
         view.mostrarError(String.format("%s: %s", context, message));
     }
+
+    private record CargaInicial(IndiceBloquesProductos indice, List<ProductoInventarioDTO> primerBloque) {
+    }
 }
\ No newline at end of file
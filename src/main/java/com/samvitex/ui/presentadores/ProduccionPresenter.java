@@ -3,10 +3,9 @@ package com.samvitex.ui.presentadores;
 import com.samvitex.modelos.entidades.OrdenProduccion;
 import com.samvitex.servicios.ServicioProduccion;
 import com.samvitex.ui.vistas.interfaces.ProduccionView;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 
-import javax.swing.SwingWorker;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
@@ -25,24 +24,10 @@ public class ProduccionPresenter {
     }
 
     public void cargarOrdenes() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<OrdenProduccion>, Void>() {
-            @Override
-            protected List<OrdenProduccion> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioProduccion.obtenerTodas();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarOrdenes(get());
-                } catch (Exception e) { handleError(e, "Error al cargar órdenes de producción"); }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutarUltima("produccion.ordenes", Prioridad.NORMAL,
+                servicioProduccion::obtenerTodas,
+                view::mostrarOrdenes,
+                e -> handleError(e, "Error al cargar órdenes de producción"));
     }
 
     public void onNuevaOrdenClicked() {
@@ -51,56 +36,31 @@ public class ProduccionPresenter {
 
     public void onIniciarProduccionClicked(OrdenProduccion orden) {
         if (view.confirmarAccion("¿Desea iniciar la producción para la orden '" + orden.getCodigo() + "'?\nEsto descontará los insumos del inventario.", "Confirmar Inicio")) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
+            EjecutorTareasUI.ejecutar("produccion.iniciar", Prioridad.INTERACTIVA,
+                    () -> {
                         servicioProduccion.iniciarProduccion(orden.getId());
                         return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("Producción iniciada. Stock de insumos actualizado.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        handleError(e, "Error al iniciar producción");
-                    }
-                }
-            }.execute();
+                    },
+                    e -> handleError(e, "Error al iniciar producción"));
         }
     }
 
     public void onFinalizarProduccionClicked(OrdenProduccion orden) {
         if (view.confirmarAccion("¿Desea finalizar la producción para la orden '" + orden.getCodigo() + "'?\nEsto ingresará los productos terminados al inventario.", "Confirmar Finalización")) {
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            new SwingWorker<Void, Void>() {
-                @Override
-                protected Void doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
-                        servicioProduccion.finalizarProduccion(orden.getId());                        return null;
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
-                @Override
-                protected void done() {
-                    try {
-                        get();
+            EjecutorTareasUI.ejecutar("produccion.finalizar", Prioridad.INTERACTIVA,
+                    () -> {
+                        servicioProduccion.finalizarProduccion(orden.getId());
+                        return null;
+                    },
+                    sinResultado -> {
                         view.mostrarMensajeExito("Producción finalizada. Stock de productos actualizado.");
                         view.refrescarVista();
-                    } catch (Exception e) {
-                        handleError(e, "Error al finalizar producción");
-                    }
-                }
-            }.execute();
+                    },
+                    e -> handleError(e, "Error al finalizar producción"));
         }
     }
 
@@ -1,31 +1,82 @@
 package com.samvitex.ui.presentadores;
 
-import com.samvitex.modelos.dto.ReporteVentasDTO;
-import com.samvitex.modelos.entidades.MovimientoInventario;
+import com.samvitex.modelos.dto.IndicePaginasKardex;
 import com.samvitex.modelos.entidades.Producto;
 import com.samvitex.servicios.ServicioInventario;
 import com.samvitex.servicios.ServicioReportes;
+import com.samvitex.servicios.ServicioTrabajosReportes;
+import com.samvitex.servicios.ServicioTrabajosReportes.SolicitudReporte;
+import com.samvitex.ui.modelos_tabla.KardexTableModel;
 import com.samvitex.ui.vistas.interfaces.ReportesView;
+import com.samvitex.utilidades.exportacion.FormatoExportacion;
+import com.samvitex.utilidades.exportacion.ProgresoExportacion;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.TareaUI;
 
-import javax.swing.SwingWorker;
+import javax.swing.SwingUtilities;
+import java.io.File;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Presenter para la vista de Reportes (Patrón MVP).
  * Orquesta la lógica para generar reportes, invocando al servicio de forma asíncrona
  * y pasando los resultados a la vista para su renderización.
+ * <p>
+ * Cada reporte solicitado se encola en {@link ServicioTrabajosReportes} y aparece en la lista de
+ * trabajos de la vista, por lo que se pueden pedir varios y seguir trabajando. El último
+ * solicitado se muestra al terminar; los demás quedan listos para verlos desde la lista.
  */
 public class ReportesPresenter {
 
+    /** Trabajos terminados que se conservan en la lista. */
+    private static final int MAX_TRABAJOS_TERMINADOS = 10;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy").withZone(ZoneId.systemDefault());
+
     private final ReportesView view;
     private final ServicioReportes servicioReportes;
+    private final ServicioTrabajosReportes servicioTrabajosReportes;
     private final ServicioInventario servicioInventario;
+    private TareaUI<Long> exportacionEnCurso;
 
-    public ReportesPresenter(ReportesView view, ServicioReportes servicioReportes, ServicioInventario servicioInventario) {
+    /**
+     * Un reporte solicitado. Solo se accede desde el hilo de eventos de Swing.
+     */
+    private static final class TrabajoEnLista {
+        final int id;
+        final String descripcion;
+        final SolicitudReporte<?> solicitud;
+        String estado = "En cola";
+        boolean terminado;
+        /** Muestra el resultado en la vista; {@code null} mientras no hay resultado. */
+        Runnable mostrar;
+
+        TrabajoEnLista(int id, String descripcion, SolicitudReporte<?> solicitud) {
+            this.id = id;
+            this.descripcion = descripcion;
+            this.solicitud = solicitud;
+        }
+    }
+
+    private final List<TrabajoEnLista> trabajos = new ArrayList<>();
+    private int siguienteIdTrabajo = 1;
+    private int ultimoTrabajoSolicitado;
+
+    public ReportesPresenter(ReportesView view, ServicioReportes servicioReportes,
+                             ServicioTrabajosReportes servicioTrabajosReportes, ServicioInventario servicioInventario) {
         this.view = view;
         this.servicioReportes = servicioReportes;
+        this.servicioTrabajosReportes = servicioTrabajosReportes;
         this.servicioInventario = servicioInventario;
     }
 
@@ -33,20 +84,10 @@ public class ReportesPresenter {
      * Carga los datos iniciales para los filtros (lista de productos para Kardex).
      */
     public void cargarDatosIniciales() {
-        new SwingWorker<List<Producto>, Void>() {
-            @Override
-            protected List<Producto> doInBackground() throws Exception {
-                return servicioInventario.obtenerTodosLosProductos();
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarListaProductosParaSeleccion(get());
-                } catch (Exception e) {
-                    handleError(e, "Error al cargar lista de productos");
-                }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutar("reportes.productos", Prioridad.SEGUNDO_PLANO,
+                servicioInventario::obtenerTodosLosProductos,
+                view::mostrarListaProductosParaSeleccion,
+                e -> handleError(e, "Error al cargar lista de productos"));
     }
 
     /**
@@ -58,78 +99,207 @@ public class ReportesPresenter {
     }
 
     /**
-     * Inicia la generación de un reporte validando los parámetros de la vista.
+     * Encola la generación de un reporte validando los parámetros de la vista.
      */
     public void generarReporte(String tipoReporte, Instant fechaInicio, Instant fechaFin, Producto productoSeleccionado) {
-        if (fechaInicio.isAfter(fechaFin)) {
-            view.mostrarError("La fecha de inicio no puede ser posterior a la fecha de fin.");
+        if (!validarParametros(tipoReporte, fechaInicio, fechaFin, productoSeleccionado)) {
             return;
         }
 
+        String periodo = FORMATO_FECHA.format(fechaInicio) + " – " + FORMATO_FECHA.format(fechaFin);
         switch (tipoReporte) {
             case "Ventas por Producto":
-                generarReporteVentasAsync(fechaInicio, fechaFin);
+                encolar("Ventas " + periodo,
+                        () -> servicioTrabajosReportes.solicitarReporteVentas(fechaInicio, fechaFin),
+                        view::mostrarReporteVentas);
                 break;
             case "Kardex de Producto":
-                if (productoSeleccionado == null) {
-                    view.mostrarError("Debe seleccionar un producto para generar el reporte de Kardex.");
-                    return;
-                }
-                generarReporteKardexAsync(productoSeleccionado.getId(), fechaInicio, fechaFin);
+                Integer productoId = productoSeleccionado.getId();
+                encolar("Kardex " + productoSeleccionado.getNombre() + " " + periodo,
+                        () -> servicioTrabajosReportes.solicitarReporteKardex(productoId, fechaInicio, fechaFin),
+                        indice -> mostrarReporteKardex(productoId, fechaInicio, fechaFin, indice));
+                break;
+            case "Clasificación ABC":
+                encolar("ABC " + periodo,
+                        () -> servicioTrabajosReportes.solicitarReporteAbc(fechaInicio, fechaFin),
+                        view::mostrarReporteAbc);
                 break;
-            default:
-                view.mostrarError("Tipo de reporte no reconocido.");
         }
     }
 
-    private void generarReporteVentasAsync(Instant inicio, Instant fin) {
-        final org.springframework.security.core.Authentication authentication =
-                org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+    /**
+     * Muestra el resultado de un trabajo terminado.
+     */
+    public void verTrabajo(int id) {
+        buscarTrabajo(id).filter(t -> t.mostrar != null).ifPresent(t -> t.mostrar.run());
+    }
 
-        new SwingWorker<List<ReporteVentasDTO>, Void>() {
-            @Override
-            protected List<ReporteVentasDTO> doInBackground() throws Exception {
-                org.springframework.security.core.context.SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioReportes.generarReporteVentas(inicio, fin);
-                } finally {
-                    org.springframework.security.core.context.SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarReporteVentas(get());
-                } catch (Exception e) {
-                    handleError(e, "Error al generar reporte de ventas");
-                }
+    /**
+     * Cancela un trabajo en curso, o lo quita de la lista si ya terminó.
+     */
+    public void cancelarOQuitarTrabajo(int id) {
+        buscarTrabajo(id).ifPresent(t -> {
+            if (t.terminado) {
+                trabajos.remove(t);
+                publicarTrabajos();
+            } else {
+                t.solicitud.cancelar();
             }
-        }.execute();
+        });
     }
 
-    private void generarReporteKardexAsync(Integer productoId, Instant inicio, Instant fin) {
-        final org.springframework.security.core.Authentication authentication =
-                org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+    private Optional<TrabajoEnLista> buscarTrabajo(int id) {
+        return trabajos.stream().filter(t -> t.id == id).findFirst();
+    }
 
-        new SwingWorker<List<MovimientoInventario>, Void>() {
-            @Override
-            protected List<MovimientoInventario> doInBackground() throws Exception {
-                org.springframework.security.core.context.SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioReportes.generarReporteKardex(productoId, inicio, fin);
-                } finally {
-                    org.springframework.security.core.context.SecurityContextHolder.clearContext();
-                }
+    private <T> void encolar(String descripcion, Supplier<SolicitudReporte<T>> solicitar, Consumer<T> mostrar) {
+        SolicitudReporte<T> solicitud;
+        try {
+            solicitud = solicitar.get();
+        } catch (RuntimeException e) {
+            handleError(e, "No se pudo solicitar el reporte");
+            return;
+        }
+        TrabajoEnLista trabajo = new TrabajoEnLista(siguienteIdTrabajo++, descripcion, solicitud);
+        trabajos.add(trabajo);
+        ultimoTrabajoSolicitado = trabajo.id;
+
+        solicitud.alAvanzar(avance -> SwingUtilities.invokeLater(() -> {
+            if (!trabajo.terminado) {
+                trabajo.estado = String.format("En curso · %,d filas", avance);
+                publicarTrabajos();
             }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarReporteKardex(get());
-                } catch (Exception e) {
-                    handleError(e, "Error al generar reporte de Kardex");
+        }));
+        solicitud.getResultado().whenComplete((resultado, error) -> SwingUtilities.invokeLater(() -> {
+            trabajo.terminado = true;
+            Throwable causa = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (causa instanceof CancellationException) {
+                trabajo.estado = "Cancelado";
+            } else if (causa != null) {
+                trabajo.estado = "Error";
+                view.mostrarError(String.format("Error al generar \"%s\": %s", descripcion, causa.getMessage()));
+            } else {
+                trabajo.estado = solicitud.isDesdeCache() ? "Listo (en caché)" : "Listo";
+                trabajo.mostrar = () -> mostrar.accept(resultado);
+                if (trabajo.id == ultimoTrabajoSolicitado) {
+                    trabajo.mostrar.run();
                 }
             }
-        }.execute();
+            descartarTerminadosAntiguos();
+            publicarTrabajos();
+        }));
+        publicarTrabajos();
+    }
+
+    private void descartarTerminadosAntiguos() {
+        long terminados = trabajos.stream().filter(t -> t.terminado).count();
+        for (int i = 0; i < trabajos.size() && terminados > MAX_TRABAJOS_TERMINADOS; ) {
+            if (trabajos.get(i).terminado) {
+                trabajos.remove(i);
+                terminados--;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private void publicarTrabajos() {
+        view.mostrarTrabajos(trabajos.stream()
+                .map(t -> new ReportesView.EstadoTrabajo(t.id, t.descripcion, t.estado, t.terminado, t.mostrar != null))
+                .toList());
+    }
+
+    /**
+     * Exporta el reporte seleccionado a un archivo CSV o XLSX en segundo plano. Las filas van de
+     * la base de datos al archivo sin pasar por la tabla, por lo que el período puede ser tan
+     * largo como se quiera. La vista recibe el avance y puede cancelar con {@link #cancelarExportacion()}.
+     *
+     * @param archivo El archivo destino; su extensión determina el formato.
+     */
+    public void exportarReporte(String tipoReporte, Instant fechaInicio, Instant fechaFin, Producto productoSeleccionado, File archivo) {
+        if (!validarParametros(tipoReporte, fechaInicio, fechaFin, productoSeleccionado)) {
+            return;
+        }
+        if ("Clasificación ABC".equals(tipoReporte)) {
+            view.mostrarError("La clasificación ABC no se exporta; genere el reporte para consultarla.");
+            return;
+        }
+        FormatoExportacion formato = FormatoExportacion.desdeNombreArchivo(archivo.getName());
+        if (formato == null) {
+            view.mostrarError("El archivo debe tener extensión .csv o .xlsx.");
+            return;
+        }
+        if (exportacionEnCurso != null && !exportacionEnCurso.isDone()) {
+            view.mostrarError("Ya hay una exportación en curso.");
+            return;
+        }
+
+        final Integer productoId = productoSeleccionado != null ? productoSeleccionado.getId() : null;
+
+        view.iniciarExportacion();
+        exportacionEnCurso = EjecutorTareasUI.ejecutar("reportes.exportar", Prioridad.SEGUNDO_PLANO,
+                () -> {
+                    ProgresoExportacion progreso = new ProgresoExportacion() {
+                        @Override
+                        public void filasEscritas(long filas) {
+                            SwingUtilities.invokeLater(() -> {
+                                if (exportacionEnCurso != null && !exportacionEnCurso.isDone()) {
+                                    view.mostrarProgresoExportacion(filas);
+                                }
+                            });
+                        }
+                        @Override
+                        public boolean cancelado() {
+                            return EjecutorTareasUI.canceladaActual();
+                        }
+                    };
+                    if ("Kardex de Producto".equals(tipoReporte)) {
+                        return servicioReportes.exportarReporteKardex(productoId, fechaInicio, fechaFin, formato, archivo.toPath(), progreso);
+                    }
+                    return servicioReportes.exportarReporteVentas(fechaInicio, fechaFin, formato, archivo.toPath(), progreso);
+                },
+                filas -> view.finalizarExportacion(String.format("Se exportaron %,d filas a %s.", filas, archivo.getName())),
+                e -> {
+                    view.finalizarExportacion(null);
+                    handleError(e, "Error al exportar el reporte");
+                });
+    }
+
+    /**
+     * Cancela la exportación en curso. El archivo parcial se descarta.
+     */
+    public void cancelarExportacion() {
+        if (exportacionEnCurso != null && exportacionEnCurso.cancel(false)) {
+            view.finalizarExportacion("Exportación cancelada.");
+        }
+    }
+
+    private boolean validarParametros(String tipoReporte, Instant fechaInicio, Instant fechaFin, Producto productoSeleccionado) {
+        if (fechaInicio.isAfter(fechaFin)) {
+            view.mostrarError("La fecha de inicio no puede ser posterior a la fecha de fin.");
+            return false;
+        }
+        switch (tipoReporte) {
+            case "Ventas por Producto", "Clasificación ABC":
+                return true;
+            case "Kardex de Producto":
+                if (productoSeleccionado == null) {
+                    view.mostrarError("Debe seleccionar un producto para generar el reporte de Kardex.");
+                    return false;
+                }
+                return true;
+            default:
+                view.mostrarError("Tipo de reporte no reconocido.");
+                return false;
+        }
+    }
+
+    private void mostrarReporteKardex(Integer productoId, Instant inicio, Instant fin, IndicePaginasKardex indice) {
+        // Cada página se carga en segundo plano cuando la tabla la necesita; EjecutorTareasUI
+        // propaga la autenticación de este hilo a la tarea.
+        KardexTableModel.CargadorPaginas cargador = (desde, tamano) ->
+                servicioReportes.cargarPaginaKardex(productoId, inicio, fin, desde, tamano);
+        view.mostrarReporteKardex(indice, cargador);
     }
 
     private void handleError(Exception e, String context) {
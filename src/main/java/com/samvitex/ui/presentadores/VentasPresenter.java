@@ -5,6 +5,7 @@ import com.samvitex.modelos.entidades.Almacen;
 import com.samvitex.modelos.entidades.Cliente;
 import com.samvitex.modelos.entidades.Producto;
 import com.samvitex.servicios.ServicioAlmacen;
+import com.samvitex.servicios.ServicioCacheEscaneo;
 import com.samvitex.servicios.ServicioCliente;
 import com.samvitex.servicios.ServicioInventario;
 import com.samvitex.servicios.ServicioVentas;
@@ -13,7 +14,8 @@ import com.samvitex.ui.dialogos.DialogoVistaPrevia;
 import com.samvitex.modelos.entidades.Venta;
 import com.samvitex.ui.dialogos.DialogoCheckout;
 import com.samvitex.ui.vistas.interfaces.VentasView;
-import org.springframework.security.core.Authentication;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import javax.swing.*;
@@ -34,16 +36,19 @@ public class VentasPresenter {
     private final ServicioCliente servicioCliente;
     private final ServicioAlmacen servicioAlmacen;
     private final ServicioImpresion servicioImpresion;
+    private final ServicioCacheEscaneo servicioCacheEscaneo;
 
     public VentasPresenter(VentasView view, ServicioVentas sv, ServicioInventario si,
                            ServicioCliente sc, ServicioAlmacen sa,
-                           ServicioImpresion servicioImpresion) {
+                           ServicioImpresion servicioImpresion,
+                           ServicioCacheEscaneo servicioCacheEscaneo) {
         this.view = view;
         this.servicioVentas = sv;
         this.servicioInventario = si;
         this.servicioCliente = sc;
         this.servicioAlmacen = sa;
         this.servicioImpresion = servicioImpresion;
+        this.servicioCacheEscaneo = servicioCacheEscaneo;
     }
 
     /**
@@ -51,42 +56,15 @@ public class VentasPresenter {
      * Ambas operaciones se ejecutan de forma asíncrona en hilos de fondo.
      */
     public void cargarDatosIniciales() {
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Cliente>, Void>() {
-            @Override
-            protected List<Cliente> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioCliente.obtenerTodosActivos();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarClientes(get());
-                } catch (Exception e) { handleError(e, "Error al cargar clientes"); }
-            }
-        }.execute();
-
-        new SwingWorker<List<Almacen>, Void>() {
-            @Override
-            protected List<Almacen> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioAlmacen.obtenerTodosActivos();
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarAlmacenes(get());
-                } catch (Exception e) { handleError(e, "Error al cargar almacenes"); }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutar("ventas.clientes", Prioridad.NORMAL,
+                servicioCliente::obtenerTodosActivos,
+                view::mostrarClientes,
+                e -> handleError(e, "Error al cargar clientes"));
+
+        EjecutorTareasUI.ejecutar("ventas.almacenes", Prioridad.NORMAL,
+                servicioAlmacen::obtenerTodosActivos,
+                view::mostrarAlmacenes,
+                e -> handleError(e, "Error al cargar almacenes"));
     }
 
     /**
@@ -97,61 +75,37 @@ public class VentasPresenter {
     public void buscarProductos(String texto) {
         Almacen almacenSeleccionado = view.obtenerAlmacenSeleccionado();
         if (almacenSeleccionado == null) return;
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<List<Producto>, Void>() {
-            @Override
-            protected List<Producto> doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioInventario.buscarProductosActivosConStock(texto, almacenSeleccionado.getId());
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    view.mostrarResultadosBusqueda(get());
-                } catch (Exception e) { handleError(e, "Error al buscar productos"); }
-            }
-        }.execute();
+        EjecutorTareasUI.ejecutarUltima("ventas.buscarProductos", Prioridad.INTERACTIVA,
+                () -> servicioInventario.buscarProductosActivosConStock(texto, almacenSeleccionado.getId()),
+                view::mostrarResultadosBusqueda,
+                e -> handleError(e, "Error al buscar productos"));
     }
 
     /**
      * Busca un producto por su SKU y lo añade al carrito si lo encuentra.
+     * El producto y su stock salen de la caché de escaneo; se registra la latencia desde
+     * el escaneo hasta que el producto aparece en el carrito.
      * @param sku El SKU del producto a añadir (generalmente desde un lector de código de barras).
      */
     public void agregarProductoPorSku(String sku) {
+        final long inicioEscaneo = System.nanoTime();
         Almacen almacenSeleccionado = view.obtenerAlmacenSeleccionado();
         if (almacenSeleccionado == null) {
             view.mostrarError("Por favor, seleccione un almacén primero.");
             return;
         }
-        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        new SwingWorker<Producto, Void>() {
-            @Override
-            protected Producto doInBackground() throws Exception {
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                try {
-                    return servicioInventario.buscarProductoActivoConStockPorSku(sku, almacenSeleccionado.getId())
-                            .orElse(null);
-                } finally {
-                    SecurityContextHolder.clearContext();
-                }
-            }
-            @Override
-            protected void done() {
-                try {
-                    Producto producto = get();
-                    if (producto != null) {
-                        view.agregarProductoAlCarrito(producto);
+        EjecutorTareasUI.ejecutar("ventas.escanearSku", Prioridad.INTERACTIVA,
+                () -> servicioInventario.escanearProductoPorSku(sku, almacenSeleccionado.getId()).orElse(null),
+                entrada -> {
+                    if (entrada != null) {
+                        view.agregarProductoAlCarrito(entrada.producto(), entrada.stockDisponible());
+                        servicioCacheEscaneo.registrarLatenciaEscaneo(System.nanoTime() - inicioEscaneo);
                     } else {
                         view.mostrarError("Producto con SKU '" + sku + "' no encontrado o sin stock en este almacén.");
                         java.awt.Toolkit.getDefaultToolkit().beep();
                     }
-                } catch (Exception e) { handleError(e, "Error al buscar por SKU"); }
-            }
-        }.execute();
+                },
+                e -> handleError(e, "Error al buscar por SKU"));
     }
 
     /**
@@ -185,23 +139,10 @@ public class VentasPresenter {
         // 2. Proceder solo si el pago fue confirmado
         if (dialogo.isConfirmado()) {
             String nombreUsuario = SecurityContextHolder.getContext().getAuthentication().getName();
-            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-
-            new SwingWorker<Venta, Void>() {
-                @Override
-                protected Venta doInBackground() throws Exception {
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                    try {
-                        return servicioVentas.crearVenta(clienteSeleccionado, almacenSeleccionado, nombreUsuario, items);
-                    } finally {
-                        SecurityContextHolder.clearContext();
-                    }
-                }
 
-                @Override
-                protected void done() {
-                    try {
-                        Venta ventaGuardada = get();
+            EjecutorTareasUI.ejecutar("ventas.registrar", Prioridad.INTERACTIVA,
+                    () -> servicioVentas.crearVenta(clienteSeleccionado, almacenSeleccionado, nombreUsuario, items),
+                    ventaGuardada -> {
                         view.mostrarMensajeExito("Venta registrada exitosamente.");
 
                         // --- CAMBIO: ABRIR EN NAVEGADOR/VISOR DEL SISTEMA ---
@@ -231,11 +172,8 @@ public class VentasPresenter {
                         // ----------------------------------------------------
 
                         view.limpiarVistaPostVenta();
-                    } catch (Exception e) {
-                        handleError(e, "Error al registrar la venta");
-                    }
-                }
-            }.execute();
+                    },
+                    e -> handleError(e, "Error al registrar la venta"));
         }
     }
 
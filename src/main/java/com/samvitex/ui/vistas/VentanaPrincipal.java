@@ -13,6 +13,8 @@ import com.samvitex.ui.menu_lateral.MenuLateral;
 import com.samvitex.ui.paneles.*;
 import com.samvitex.ui.presentadores.InventarioPresenter;
 import com.samvitex.ui.vistas.interfaces.InventarioView;
+import com.samvitex.utilidades.swing.EjecutorTareasUI;
+import com.samvitex.utilidades.swing.EjecutorTareasUI.Prioridad;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 
@@ -23,11 +25,15 @@ import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.Component;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Stream;
 
 
@@ -42,6 +48,9 @@ import java.util.stream.Stream;
  *   <li><b>Navegación y Carga Perezosa:</b> Gestiona la transición entre los diferentes módulos (paneles)
  *       usando un {@link CardLayout}. Los paneles se crean "bajo demanda" (lazy loading) la primera vez
  *       que se acceden y se guardan en caché para un acceso posterior instantáneo.</li>
+ *   <li><b>Precalentamiento:</b> Tras el inicio de sesión, aprovecha los momentos en que el usuario no
+ *       interactúa para construir de antemano los paneles que su rol permite; al agregarlos, cada uno
+ *       carga sus datos iniciales, de modo que el primer clic en el menú ya no espera consultas en frío.</li>
  *   <li><b>Búsqueda Universal:</b> Integra una barra de búsqueda que permite encontrar entidades (como Productos o Clientes)
  *       desde cualquier parte de la aplicación, mostrando resultados en un popup y navegando al módulo
  *       correspondiente al seleccionar un resultado.</li>
@@ -52,6 +61,14 @@ import java.util.stream.Stream;
 @org.springframework.stereotype.Component
 public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLayeredPane
 
+    private static final Logger LOGGER = Logger.getLogger(VentanaPrincipal.class.getName());
+
+    /** Espera tras mostrar la ventana antes de precalentar, para no competir con la carga del Dashboard. */
+    private static final int ESPERA_INICIAL_PRECALENTAMIENTO_MS = 2000;
+    private static final int INTERVALO_PRECALENTAMIENTO_MS = 250;
+    /** Tiempo sin teclado ni ratón a partir del cual se considera que el usuario está inactivo. */
+    private static final long INACTIVIDAD_MINIMA_MS = 750;
+
     private final ApplicationContext springContext;
     private MenuLateral menuLateral;
     private JPanel panelContenido;
@@ -68,6 +85,28 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
 
     private final Map<String, JPanel> panelCache = new HashMap<>();
 
+    private final Deque<String> panelesPorPrecalentar = new ArrayDeque<>();
+    private Timer timerPrecalentamiento;
+    private AWTEventListener monitorActividad;
+    private long ultimaActividadUsuario;
+
+    private static final String[][] MENU_BASE = {
+            {"~PRINCIPAL~"}, {"Dashboard"},
+            {"~OPERACIONES~"}, {"Inventario"}, {"Ventas"}, {"Compras"}, {"Producción"},
+            {"~ADMINISTRACIÓN~"}, {"Reportes"}, {"Configuración"},
+            {"~SESIÓN~"}, {"Cerrar Sesión"}
+    };
+
+    private static final Map<String, String> PANELES_POR_OPCION = Map.of(
+            "Dashboard", "DASHBOARD",
+            "Inventario", "INVENTARIO",
+            "Ventas", "VENTAS",
+            "Compras", "COMPRAS",
+            "Producción", "PRODUCCION",
+            "Reportes", "REPORTES",
+            "Configuración", "CONFIGURACION"
+    );
+
     // Mapa de permisos para el menú
     private static final Map<String, Set<String>> MENU_PERMISSIONS = Map.of(
             "Dashboard", Set.of("ADMINISTRADOR", "VENDEDOR", "ALMACENISTA"),
@@ -109,6 +148,7 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
         menuLateral.setIndiceSeleccionado(0, 0);
 
         uiInicializada = true;
+        iniciarPrecalentamiento();
     }
 
     /**
@@ -164,35 +204,18 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
         menuLateral.setIndiceSeleccionado(0, 0);
     }
 
+    private boolean opcionPermitida(String itemName) {
+        Set<String> permissions = MENU_PERMISSIONS.get(itemName);
+        return permissions != null && permissions.contains(sesionUsuario.rol());
+    }
+
     private void configurarMenu() {
-        String[][] menuItemsBase = {
-                {"~PRINCIPAL~"}, {"Dashboard"},
-                {"~OPERACIONES~"}, {"Inventario"}, {"Ventas"}, {"Compras"}, {"Producción"},
-                {"~ADMINISTRACIÓN~"}, {"Reportes"}, {"Configuración"},
-                {"~SESIÓN~"}, {"Cerrar Sesión"}
-        };
-
-        String[][] menuItemsFiltrados = Stream.of(menuItemsBase)
-                .filter(item -> {
-                    String itemName = item[0];
-                    if (itemName.startsWith("~")) return true;
-                    Set<String> permissions = MENU_PERMISSIONS.get(itemName);
-                    return permissions != null && permissions.contains(sesionUsuario.rol());
-                })
+        String[][] menuItemsFiltrados = Stream.of(MENU_BASE)
+                .filter(item -> item[0].startsWith("~") || opcionPermitida(item[0]))
                 .toArray(String[][]::new);
 
         menuLateral.setMenuModel(menuItemsFiltrados);
 
-        Map<String, String> panelNameMap = Map.of(
-                "Dashboard", "DASHBOARD",
-                "Inventario", "INVENTARIO",
-                "Ventas", "VENTAS",
-                "Compras", "COMPRAS",
-                "Producción", "PRODUCCION",
-                "Reportes", "REPORTES",
-                "Configuración", "CONFIGURACION"
-        );
-
         menuLateral.addEventoMenu((indice, subIndice, accion) -> {
             // Encontrar el nombre real del ítem de menú es clave
             String menuName = "";
@@ -207,8 +230,8 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
                 }
             }
 
-            if (panelNameMap.containsKey(menuName)) {
-                mostrarPanel(panelNameMap.get(menuName));
+            if (PANELES_POR_OPCION.containsKey(menuName)) {
+                mostrarPanel(PANELES_POR_OPCION.get(menuName));
             } else if (menuName.equals("Cerrar Sesión")) {
                 accion.cancelar();
                 if (JOptionPane.showConfirmDialog(this, "¿Está seguro de que desea cerrar la sesión?", "Confirmar", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
@@ -282,16 +305,9 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
         }
 
         ServicioBusquedaUniversal servicio = springContext.getBean(ServicioBusquedaUniversal.class);
-        new SwingWorker<List<SearchResultDTO>, Void>() {
-            @Override
-            protected List<SearchResultDTO> doInBackground() throws Exception {
-                return servicio.buscar(termino, 10);
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    List<SearchResultDTO> resultados = get();
+        EjecutorTareasUI.ejecutarUltima("busqueda.universal", Prioridad.INTERACTIVA,
+                () -> servicio.buscar(termino, 10),
+                resultados -> {
                     listModelBusqueda.clear();
                     if (!resultados.isEmpty()) {
                         listModelBusqueda.addAll(resultados);
@@ -301,12 +317,11 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
                     } else {
                         popupBusqueda.setVisible(false);
                     }
-                } catch (Exception e) {
+                },
+                e -> {
                     popupBusqueda.setVisible(false);
                     handleWorkerError(e, "Error en búsqueda universal");
-                }
-            }
-        }.execute();
+                });
     }
 
     private void navegarAResultadoSeleccionado() {
@@ -356,7 +371,7 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
     }
 
     /**
-     * Centraliza el manejo de excepciones de los SwingWorkers, mostrando un
+     * Centraliza el manejo de excepciones de las tareas en segundo plano, mostrando un
      * diálogo de error con un mensaje claro para el usuario.
      * @param e La excepción capturada.
      * @param context Un texto descriptivo de la operación que falló.
@@ -367,15 +382,86 @@ public class VentanaPrincipal extends JLayeredPane { // Cambiado de JFrame a JLa
     }
 
     private void mostrarPanel(String nombrePanel) {
-        // Implementación de carga perezosa y cacheo
-        if (!panelCache.containsKey(nombrePanel)) {
-            JPanel nuevoPanel = crearPanelPorNombre(nombrePanel);
-            panelCache.put(nombrePanel, nuevoPanel);
-            panelCardLayout.add(nuevoPanel, nombrePanel);
-        }
+        obtenerPanel(nombrePanel);
         ((CardLayout) panelCardLayout.getLayout()).show(panelCardLayout, nombrePanel);
-        JPanel panelAMostrar = panelCache.get(nombrePanel);
-        SwingUtilities.updateComponentTreeUI(panelAMostrar);
+    }
+
+    /**
+     * Devuelve el panel del caché o lo crea y lo agrega al {@link CardLayout} sin mostrarlo. Al
+     * agregarlo, el panel carga sus datos iniciales en segundo plano.
+     * <p>
+     * Los paneles son beans perezosos que se crean aquí, en el EDT y con el tema ya configurado,
+     * por lo que no hace falta actualizar su UI; los cambios de tema posteriores los alcanzan
+     * mediante {@code FlatLaf.updateUI()} porque todas las tarjetas forman parte del árbol.
+     */
+    private JPanel obtenerPanel(String nombrePanel) {
+        JPanel panel = panelCache.get(nombrePanel);
+        if (panel == null) {
+            panel = crearPanelPorNombre(nombrePanel);
+            panelCache.put(nombrePanel, panel);
+            panelCardLayout.add(panel, nombrePanel);
+        }
+        return panel;
+    }
+
+    /**
+     * Encola los paneles que el rol del usuario permite y los construye de a uno mientras el
+     * usuario está inactivo. Cada construcción ocupa el EDT solo un momento, y si el usuario abre
+     * un panel antes de que le llegue el turno, simplemente se omite.
+     */
+    private void iniciarPrecalentamiento() {
+        for (String[] item : MENU_BASE) {
+            String panel = PANELES_POR_OPCION.get(item[0]);
+            if (panel != null && opcionPermitida(item[0]) && !panelCache.containsKey(panel)) {
+                panelesPorPrecalentar.add(panel);
+            }
+        }
+        if (panelesPorPrecalentar.isEmpty()) {
+            return;
+        }
+
+        ultimaActividadUsuario = System.currentTimeMillis();
+        monitorActividad = evento -> ultimaActividadUsuario = System.currentTimeMillis();
+        Toolkit.getDefaultToolkit().addAWTEventListener(monitorActividad,
+                AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_WHEEL_EVENT_MASK);
+
+        timerPrecalentamiento = new Timer(INTERVALO_PRECALENTAMIENTO_MS, e -> precalentarSiguientePanel());
+        timerPrecalentamiento.setInitialDelay(ESPERA_INICIAL_PRECALENTAMIENTO_MS);
+        timerPrecalentamiento.start();
+    }
+
+    private void precalentarSiguientePanel() {
+        if (System.currentTimeMillis() - ultimaActividadUsuario < INACTIVIDAD_MINIMA_MS) {
+            return;
+        }
+        String nombrePanel;
+        do {
+            nombrePanel = panelesPorPrecalentar.poll();
+        } while (nombrePanel != null && panelCache.containsKey(nombrePanel));
+
+        if (nombrePanel == null) {
+            finalizarPrecalentamiento();
+            return;
+        }
+        long inicio = System.nanoTime();
+        obtenerPanel(nombrePanel);
+        LOGGER.fine(String.format("Panel %s precalentado en %d ms.", nombrePanel, (System.nanoTime() - inicio) / 1_000_000));
+    }
+
+    /**
+     * Detiene el precalentamiento de paneles y ejecuta una búsqueda universal de prueba, la única
+     * consulta frecuente que ningún panel hace al cargarse, para que la primera tecla del usuario
+     * no pague la preparación de la consulta.
+     */
+    private void finalizarPrecalentamiento() {
+        timerPrecalentamiento.stop();
+        Toolkit.getDefaultToolkit().removeAWTEventListener(monitorActividad);
+
+        ServicioBusquedaUniversal servicio = springContext.getBean(ServicioBusquedaUniversal.class);
+        EjecutorTareasUI.ejecutar("busqueda.universal.precalentar", Prioridad.SEGUNDO_PLANO,
+                () -> servicio.buscar("samvitex", 1),
+                resultados -> LOGGER.fine("Búsqueda universal precalentada."),
+                e -> LOGGER.log(Level.FINE, "No se pudo precalentar la búsqueda universal", e));
     }
 
     private boolean panelYaCargado(String nombrePanel) {
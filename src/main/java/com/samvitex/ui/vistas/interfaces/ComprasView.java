@@ -1,9 +1,11 @@
 package com.samvitex.ui.vistas.interfaces;
 
 import com.samvitex.modelos.dto.CompraItemDTO;
+import com.samvitex.modelos.dto.GrupoSugerenciasDTO;
 import com.samvitex.modelos.entidades.Almacen;
 import com.samvitex.modelos.entidades.Producto;
 import com.samvitex.modelos.entidades.Proveedor;
+import com.samvitex.ui.modelos_tabla.CompraTableModel;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -98,4 +100,22 @@ public interface ComprasView {
      * @return El Almacen seleccionado.
      */
     Almacen obtenerAlmacenDestinoSeleccionado();
+
+    /**
+     * Muestra las sugerencias de reabastecimiento para que el usuario elija una y la cargue
+     * en la compra (ver {@code ComprasPresenter#usarSugerencia}).
+     *
+     * @param grupos Las sugerencias, agrupadas por proveedor y almacén.
+     */
+    void mostrarSugerencias(List<GrupoSugerenciasDTO> grupos);
+
+    /**
+     * Reemplaza el contenido de la compra en curso: selecciona el proveedor y el almacén
+     * indicados y carga los ítems.
+     *
+     * @param proveedorId El ID del proveedor a seleccionar.
+     * @param almacenId El ID del almacén de destino a seleccionar.
+     * @param items Los ítems de la compra, con sus cantidades y costos.
+     */
+    void precargarCompra(Integer proveedorId, Integer almacenId, List<CompraTableModel.ItemCompra> items);
 }
\ No newline at end of file
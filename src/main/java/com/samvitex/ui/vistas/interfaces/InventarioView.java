@@ -1,10 +1,11 @@
 package com.samvitex.ui.vistas.interfaces;
 
+import com.samvitex.modelos.dto.IndiceBloquesProductos;
 import com.samvitex.modelos.dto.ProductoInventarioDTO;
 import com.samvitex.modelos.entidades.Almacen;
 import com.samvitex.modelos.entidades.InventarioPorAlmacen;
 import com.samvitex.modelos.entidades.Producto;
-import org.springframework.data.domain.Page;
+import com.samvitex.ui.modelos_tabla.ProductoTableModel;
 
 import javax.swing.*;
 import java.util.List;
@@ -19,10 +20,17 @@ import java.util.List;
 public interface InventarioView {
 
     /**
-     * Instruye a la vista para que renderice una página de productos.
-     * La implementación es responsable de actualizar la tabla y los controles de paginación.
+     * Instruye a la vista para que muestre todos los productos del filtro en una tabla con
+     * desplazamiento continuo. La tabla tiene desde el principio tantas filas como productos;
+     * los bloques que falten los pide la propia tabla con el {@code cargador}.
+     *
+     * @param indice El total de productos, posiblemente estimado, y el tamaño de bloque.
+     * @param primerBloque Los productos del primer bloque, ya cargados.
+     * @param cargador La función que carga un bloque en segundo plano.
      */
-    void mostrarProductos(Page<ProductoInventarioDTO> pagina);
+    void mostrarProductos(IndiceBloquesProductos indice, List<ProductoInventarioDTO> primerBloque,
+                          ProductoTableModel.CargadorBloques cargador);
+
     /**
      * Instruye a la vista para que abra el formulario de creación/edición de un producto.
      *
@@ -1,8 +1,10 @@
 package com.samvitex.ui.vistas.interfaces;
 
+import com.samvitex.modelos.dto.IndicePaginasKardex;
+import com.samvitex.modelos.dto.ReporteAbcDTO;
 import com.samvitex.modelos.dto.ReporteVentasDTO;
-import com.samvitex.modelos.entidades.MovimientoInventario;
 import com.samvitex.modelos.entidades.Producto;
+import com.samvitex.ui.modelos_tabla.KardexTableModel;
 
 import java.util.List;
 
@@ -11,6 +13,17 @@ import java.util.List;
  */
 public interface ReportesView {
 
+    /**
+     * Un reporte solicitado, tal como se muestra en la lista de trabajos.
+     *
+     * @param id El identificador del trabajo dentro de la vista.
+     * @param descripcion El tipo de reporte y sus parámetros.
+     * @param estado En cola, en curso con su avance, listo, cancelado o con error.
+     * @param terminado {@code true} si ya no está en curso.
+     * @param disponible {@code true} si su resultado puede mostrarse.
+     */
+    record EstadoTrabajo(int id, String descripcion, String estado, boolean terminado, boolean disponible) {}
+
     /**
      * Muestra los datos del reporte de ventas en el componente de tabla correspondiente.
      *
@@ -19,11 +32,21 @@ public interface ReportesView {
     void mostrarReporteVentas(List<ReporteVentasDTO> datos);
 
     /**
-     * Muestra los datos del reporte de Kardex en el componente de tabla correspondiente.
+     * Muestra el reporte de Kardex en el componente de tabla correspondiente. Las filas no se
+     * entregan de una vez: la tabla carga cada página con el cargador cuando la necesita.
+     *
+     * @param indice El saldo inicial, el total de movimientos y el cursor inicial de cada página.
+     * @param cargador La función que carga una página en segundo plano.
+     */
+    void mostrarReporteKardex(IndicePaginasKardex indice, KardexTableModel.CargadorPaginas cargador);
+
+    /**
+     * Muestra la clasificación ABC: la tabla de productos, las curvas de Pareto y el tamaño de
+     * cada clase.
      *
-     * @param datos La lista de movimientos de inventario.
+     * @param reporte El resultado de la clasificación.
      */
-    void mostrarReporteKardex(List<MovimientoInventario> datos);
+    void mostrarReporteAbc(ReporteAbcDTO reporte);
 
     /**
      * Muestra una lista de productos en un componente de selección para que el
@@ -41,6 +64,32 @@ public interface ReportesView {
      */
     void cambiarFiltrosVisibles(String tipoReporte);
 
+    /**
+     * Muestra la lista de reportes solicitados y su estado. Se invoca cada vez que uno cambia.
+     *
+     * @param trabajos Los trabajos, del más antiguo al más reciente.
+     */
+    void mostrarTrabajos(List<EstadoTrabajo> trabajos);
+
+    /**
+     * Indica que comenzó una exportación: muestra el avance y la opción de cancelar.
+     */
+    void iniciarExportacion();
+
+    /**
+     * Actualiza el avance de la exportación en curso.
+     *
+     * @param filas El número de filas escritas hasta el momento.
+     */
+    void mostrarProgresoExportacion(long filas);
+
+    /**
+     * Indica que la exportación terminó, se canceló o falló.
+     *
+     * @param mensaje El mensaje a mostrar al usuario, o {@code null} si no hay nada que informar.
+     */
+    void finalizarExportacion(String mensaje);
+
     /**
      * Muestra un mensaje de error al usuario.
      *
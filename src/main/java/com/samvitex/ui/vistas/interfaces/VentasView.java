@@ -50,6 +50,12 @@ public interface VentasView {
      */
     void agregarProductoAlCarrito(Producto producto);
 
+    /**
+     * Añade un producto al carrito cuando su stock disponible ya es conocido (por ejemplo,
+     * desde la caché de escaneo), sin volver a consultarlo.
+     */
+    void agregarProductoAlCarrito(Producto producto, int stockDisponible);
+
     /**
      * Devuelve el monto total actual del carrito de compras.
      * Este método es llamado por el Presenter antes de mostrar el diálogo de checkout.
@@ -0,0 +1,116 @@
+package com.samvitex.utilidades;
+
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * Registra las fases del arranque de la aplicación y las informa en el log como una línea de
+ * tiempo, medida desde el inicio de la JVM, para que una regresión en el tiempo de arranque se vea
+ * en qué fase ocurre.
+ * <p>
+ * Las fases de Spring (refresco del contexto, arranque de JPA, Flyway) se toman del
+ * {@link BufferingApplicationStartup} que devuelve {@link #crearRegistroContexto()}; las de la
+ * interfaz las registra {@code AplicacionPrincipal} con {@link #registrar} y {@link #marcar}.
+ */
+public final class LineaTiempoArranque {
+
+    private static final Logger LOGGER = Logger.getLogger(LineaTiempoArranque.class.getName());
+
+    private static final String PASO_REFRESCO = "spring.context.refresh";
+    private static final String PASO_BEAN = "spring.beans.instantiate";
+
+    /** Beans cuya creación se informa como una fase propia, con el nombre de la fase. */
+    private static final Map<String, String> BEANS_MEDIDOS = Map.of(
+            "entityManagerFactory", "Arranque de JPA (Hibernate)",
+            "flywayInitializer", "Migraciones Flyway");
+
+    private static final Instant INICIO_JVM = ProcessHandle.current().info().startInstant().orElseGet(Instant::now);
+
+    private record Fase(String nombre, Instant inicio, Instant fin) {
+    }
+
+    private static final List<Fase> FASES = new ArrayList<>();
+    private static boolean informada;
+
+    private LineaTiempoArranque() {
+    }
+
+    /**
+     * @return El registro que se pasa a {@code SpringApplicationBuilder.applicationStartup}. Solo
+     *         guarda el refresco del contexto y la creación de beans.
+     */
+    public static BufferingApplicationStartup crearRegistroContexto() {
+        BufferingApplicationStartup registro = new BufferingApplicationStartup(4096);
+        registro.addFilter(paso -> Set.of(PASO_REFRESCO, PASO_BEAN).contains(paso.getName()));
+        return registro;
+    }
+
+    /**
+     * Extrae del registro de Spring las fases de interés y lo vacía.
+     */
+    public static void registrarContexto(BufferingApplicationStartup registro) {
+        for (StartupTimeline.TimelineEvent evento : registro.drainBufferedTimeline().getEvents()) {
+            StartupStep paso = evento.getStartupStep();
+            if (PASO_REFRESCO.equals(paso.getName())) {
+                registrar("Refresco del contexto Spring", evento.getStartTime(), evento.getEndTime());
+            } else {
+                for (StartupStep.Tag etiqueta : paso.getTags()) {
+                    if ("beanName".equals(etiqueta.getKey()) && BEANS_MEDIDOS.containsKey(etiqueta.getValue())) {
+                        registrar(BEANS_MEDIDOS.get(etiqueta.getValue()), evento.getStartTime(), evento.getEndTime());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Registra una fase que empezó en {@code inicio} y termina ahora.
+     */
+    public static void registrar(String nombre, Instant inicio) {
+        registrar(nombre, inicio, Instant.now());
+    }
+
+    public static synchronized void registrar(String nombre, Instant inicio, Instant fin) {
+        FASES.add(new Fase(nombre, inicio, fin));
+    }
+
+    /**
+     * Registra un hito instantáneo, como la aparición de una ventana.
+     */
+    public static void marcar(String nombre) {
+        Instant ahora = Instant.now();
+        registrar(nombre, ahora, ahora);
+    }
+
+    /**
+     * Escribe la línea de tiempo en el log. Solo la primera llamada tiene efecto.
+     */
+    public static synchronized void informar() {
+        if (informada) {
+            return;
+        }
+        informada = true;
+        StringBuilder texto = new StringBuilder("Línea de tiempo del arranque (ms desde el inicio de la JVM):");
+        FASES.stream()
+                .sorted(Comparator.comparing(Fase::inicio))
+                .forEach(fase -> {
+                    long desde = Duration.between(INICIO_JVM, fase.inicio()).toMillis();
+                    long duracion = Duration.between(fase.inicio(), fase.fin()).toMillis();
+                    texto.append(fase.inicio().equals(fase.fin())
+                            ? String.format("%n  %6d ms            %s", desde, fase.nombre())
+                            : String.format("%n  %6d ms  %6d ms  %s", desde, duracion, fase.nombre()));
+                });
+        LOGGER.info(texto.toString());
+        FASES.clear();
+    }
+}
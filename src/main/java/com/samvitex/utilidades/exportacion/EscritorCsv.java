@@ -0,0 +1,71 @@
+package com.samvitex.utilidades.exportacion;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Escribe un reporte como CSV (RFC 4180) en UTF-8. Empieza con una marca BOM para que Excel
+ * reconozca la codificación y muestre bien las tildes.
+ */
+class EscritorCsv implements EscritorFilas {
+
+    private static final char SEPARADOR = ',';
+
+    private final Writer salida;
+
+    EscritorCsv(OutputStream salida) throws IOException {
+        this.salida = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), 64 * 1024);
+        this.salida.write('\uFEFF');
+    }
+
+    @Override
+    public void escribirEncabezado(List<String> columnas) throws IOException {
+        escribirFila(columnas.toArray());
+    }
+
+    @Override
+    public void escribirFila(Object... valores) throws IOException {
+        for (int i = 0; i < valores.length; i++) {
+            if (i > 0) {
+                salida.write(SEPARADOR);
+            }
+            Object valor = valores[i];
+            if (valor instanceof BigDecimal decimal) {
+                salida.write(decimal.toPlainString());
+            } else if (valor instanceof Number) {
+                salida.write(valor.toString());
+            } else if (valor != null) {
+                escribirTexto(valor.toString());
+            }
+        }
+        salida.write("\r\n");
+    }
+
+    private void escribirTexto(String texto) throws IOException {
+        // Un texto que empieza como fórmula se antepone con un apóstrofo para que la hoja de
+        // cálculo no lo evalúe (p. ej. un nombre de producto "=HYPERLINK(...)").
+        if (!texto.isEmpty() && "=+-@".indexOf(texto.charAt(0)) >= 0) {
+            texto = "'" + texto;
+        }
+        boolean entreComillas = texto.indexOf(SEPARADOR) >= 0 || texto.indexOf('"') >= 0
+                || texto.indexOf('\n') >= 0 || texto.indexOf('\r') >= 0;
+        if (!entreComillas) {
+            salida.write(texto);
+            return;
+        }
+        salida.write('"');
+        salida.write(texto.replace("\"", "\"\""));
+        salida.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+}
@@ -0,0 +1,23 @@
+package com.samvitex.utilidades.exportacion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Escritor secuencial de un reporte tabular. Cada fila se escribe en cuanto se recibe y no se
+ * retiene, de modo que la memoria usada no depende del número de filas.
+ */
+public interface EscritorFilas extends Closeable {
+
+    /**
+     * Escribe la fila de títulos de columna. Debe llamarse una vez, antes de la primera fila.
+     */
+    void escribirEncabezado(List<String> columnas) throws IOException;
+
+    /**
+     * Escribe una fila de datos. Los valores {@link Number} se escriben como números y el resto
+     * como texto; {@code null} deja la celda vacía.
+     */
+    void escribirFila(Object... valores) throws IOException;
+}
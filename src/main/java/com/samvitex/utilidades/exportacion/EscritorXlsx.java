@@ -0,0 +1,189 @@
+package com.samvitex.utilidades.exportacion;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Escribe un reporte como libro de Excel (Office Open XML) en modo streaming.
+ * <p>
+ * Un archivo XLSX es un ZIP de documentos XML. Cada fila se escribe directamente en el XML de la
+ * hoja, con los textos en línea ({@code inlineStr}) en lugar de una tabla de textos compartidos,
+ * por lo que nada se acumula en memoria. Si se supera el límite de filas de una hoja de Excel se
+ * continúa en una hoja nueva, repitiendo el encabezado. Las partes que enumeran las hojas se
+ * escriben al cerrar, cuando ya se conoce cuántas hubo.
+ */
+class EscritorXlsx implements EscritorFilas {
+
+    /** Límite de filas de una hoja de Excel. */
+    private static final int MAX_FILAS_HOJA = 1_048_576;
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String NS_PKG_REL = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String XML_DECL = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private final ZipOutputStream zip;
+    private final Writer xml;
+    private List<String> encabezado;
+    private int hojas;
+    private int filasEnHoja;
+
+    EscritorXlsx(OutputStream salida) throws IOException {
+        this.zip = new ZipOutputStream(salida, StandardCharsets.UTF_8);
+        // El Writer no debe cerrar el ZIP al terminar cada parte.
+        this.xml = new BufferedWriter(new OutputStreamWriter(new FilterOutputStream(zip) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+            }
+        }, StandardCharsets.UTF_8), 64 * 1024);
+        abrirHoja();
+    }
+
+    @Override
+    public void escribirEncabezado(List<String> columnas) throws IOException {
+        this.encabezado = List.copyOf(columnas);
+        escribirFilaEncabezado();
+    }
+
+    @Override
+    public void escribirFila(Object... valores) throws IOException {
+        if (filasEnHoja == MAX_FILAS_HOJA) {
+            cerrarHoja();
+            abrirHoja();
+            if (encabezado != null) {
+                escribirFilaEncabezado();
+            }
+        }
+        xml.write("<row>");
+        for (Object valor : valores) {
+            if (valor instanceof BigDecimal decimal) {
+                xml.write("<c><v>");
+                xml.write(decimal.toPlainString());
+                xml.write("</v></c>");
+            } else if (valor instanceof Number) {
+                xml.write("<c><v>");
+                xml.write(valor.toString());
+                xml.write("</v></c>");
+            } else if (valor != null) {
+                escribirCeldaTexto(valor.toString(), false);
+            } else {
+                xml.write("<c/>");
+            }
+        }
+        xml.write("</row>\n");
+        filasEnHoja++;
+    }
+
+    private void escribirFilaEncabezado() throws IOException {
+        xml.write("<row>");
+        for (String columna : encabezado) {
+            escribirCeldaTexto(columna, true);
+        }
+        xml.write("</row>\n");
+        filasEnHoja++;
+    }
+
+    private void escribirCeldaTexto(String texto, boolean negrita) throws IOException {
+        xml.write(negrita ? "<c t=\"inlineStr\" s=\"1\"><is><t xml:space=\"preserve\">" : "<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+        escaparXml(texto);
+        xml.write("</t></is></c>");
+    }
+
+    private void escaparXml(String texto) throws IOException {
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '&' -> xml.write("&amp;");
+                case '<' -> xml.write("&lt;");
+                case '>' -> xml.write("&gt;");
+                case '"' -> xml.write("&quot;");
+                default -> {
+                    // XML 1.0 no admite caracteres de control salvo tabulador y saltos de línea.
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        xml.write(c);
+                    }
+                }
+            }
+        }
+    }
+
+    private void abrirHoja() throws IOException {
+        hojas++;
+        filasEnHoja = 0;
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + hojas + ".xml"));
+        xml.write(XML_DECL);
+        xml.write("<worksheet xmlns=\"" + NS_MAIN + "\"><sheetData>\n");
+    }
+
+    private void cerrarHoja() throws IOException {
+        xml.write("</sheetData></worksheet>");
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    private void escribirParte(String nombre, String contenido) throws IOException {
+        zip.putNextEntry(new ZipEntry(nombre));
+        xml.write(XML_DECL);
+        xml.write(contenido);
+        xml.flush();
+        zip.closeEntry();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            cerrarHoja();
+
+            StringBuilder tipos = new StringBuilder("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                    .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                    .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                    .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                    .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>");
+            StringBuilder libro = new StringBuilder("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_REL + "\"><sheets>");
+            StringBuilder relacionesLibro = new StringBuilder("<Relationships xmlns=\"" + NS_PKG_REL + "\">")
+                    .append("<Relationship Id=\"rIdEstilos\" Type=\"" + NS_REL + "/styles\" Target=\"styles.xml\"/>");
+            for (int i = 1; i <= hojas; i++) {
+                tipos.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                        .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+                libro.append("<sheet name=\"Reporte").append(i == 1 ? "" : " " + i).append("\" sheetId=\"").append(i)
+                        .append("\" r:id=\"rId").append(i).append("\"/>");
+                relacionesLibro.append("<Relationship Id=\"rId").append(i).append("\" Type=\"" + NS_REL + "/worksheet\" Target=\"worksheets/sheet")
+                        .append(i).append(".xml\"/>");
+            }
+            tipos.append("</Types>");
+            libro.append("</sheets></workbook>");
+            relacionesLibro.append("</Relationships>");
+
+            escribirParte("[Content_Types].xml", tipos.toString());
+            escribirParte("_rels/.rels", "<Relationships xmlns=\"" + NS_PKG_REL + "\">"
+                    + "<Relationship Id=\"rId1\" Type=\"" + NS_REL + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            escribirParte("xl/workbook.xml", libro.toString());
+            escribirParte("xl/_rels/workbook.xml.rels", relacionesLibro.toString());
+            escribirParte("xl/styles.xml", "<styleSheet xmlns=\"" + NS_MAIN + "\">"
+                    + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font><font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                    + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill><fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                    + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                    + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                    + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                    + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/></cellXfs>"
+                    + "</styleSheet>");
+        } finally {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.samvitex.utilidades.exportacion;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Formatos de archivo a los que se pueden exportar los reportes.
+ */
+public enum FormatoExportacion {
+    CSV("csv"),
+    XLSX("xlsx");
+
+    private final String extension;
+
+    FormatoExportacion(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Crea un escritor de este formato sobre el flujo dado. Cerrar el escritor cierra el flujo.
+     */
+    public EscritorFilas crearEscritor(OutputStream salida) throws IOException {
+        return switch (this) {
+            case CSV -> new EscritorCsv(salida);
+            case XLSX -> new EscritorXlsx(salida);
+        };
+    }
+
+    /**
+     * Deduce el formato a partir de la extensión de un nombre de archivo.
+     * @return El formato, o {@code null} si la extensión no corresponde a ninguno.
+     */
+    public static FormatoExportacion desdeNombreArchivo(String nombre) {
+        String minusculas = nombre.toLowerCase();
+        for (FormatoExportacion formato : values()) {
+            if (minusculas.endsWith("." + formato.extension)) {
+                return formato;
+            }
+        }
+        return null;
+    }
+}
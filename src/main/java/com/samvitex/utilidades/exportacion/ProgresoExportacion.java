@@ -0,0 +1,21 @@
+package com.samvitex.utilidades.exportacion;
+
+/**
+ * Canal entre una exportación en curso y quien la inició: recibe el avance y permite cancelarla.
+ * Sus métodos se invocan desde el hilo que exporta.
+ */
+public interface ProgresoExportacion {
+
+    /** Frecuencia, en filas, con la que se informa el avance. */
+    int INFORMAR_CADA = 5_000;
+
+    /**
+     * Informa el número de filas escritas hasta el momento.
+     */
+    void filasEscritas(long filas);
+
+    /**
+     * @return {@code true} si se pidió cancelar; la exportación se detiene y descarta el archivo.
+     */
+    boolean cancelado();
+}
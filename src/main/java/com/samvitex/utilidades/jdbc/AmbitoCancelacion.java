@@ -0,0 +1,179 @@
+package com.samvitex.utilidades.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ámbito en el que las consultas JDBC del hilo actual se pueden cancelar desde otro hilo.
+ * <p>
+ * Mientras el ámbito está activo en un hilo ({@link #activar()}), {@link DataSourceCancelable}
+ * entrega conexiones que registran aquí cada sentencia en ejecución. Así {@link #cancelar()} puede
+ * llamar a {@link Statement#cancel()} sobre las consultas en curso, que el servidor aborta de
+ * inmediato, en lugar de esperar a que termine y descartar el resultado. Una sentencia que se
+ * intente ejecutar después de cancelar el ámbito falla sin llegar a la base de datos.
+ * <p>
+ * Si se indica un tiempo límite, cada sentencia se cancela al superarlo y falla con
+ * {@link SQLTimeoutException}.
+ * <p>
+ * Un mismo ámbito puede activarse en varios hilos a la vez, para las consultas que una tarea
+ * reparte en paralelo; cancelarlo las cancela todas.
+ */
+public final class AmbitoCancelacion {
+
+    private static final Logger LOGGER = Logger.getLogger(AmbitoCancelacion.class.getName());
+
+    /** Código SQLSTATE de PostgreSQL para una consulta cancelada (query_canceled). */
+    private static final String SQLSTATE_CANCELADA = "57014";
+
+    private static final ThreadLocal<AmbitoCancelacion> ACTUAL = new ThreadLocal<>();
+
+    /**
+     * Ejecuta los {@link Statement#cancel()} y los vencimientos de tiempo límite. Cancelar abre una
+     * conexión nueva al servidor, por lo que nunca se hace en el hilo que lo pide (suele ser el EDT).
+     */
+    private static final ScheduledThreadPoolExecutor PLANIFICADOR = crearPlanificador();
+
+    private final long tiempoLimiteMs;
+    private final Set<Statement> enCurso = new HashSet<>();
+    private boolean cancelado;
+    private volatile boolean tiempoAgotado;
+
+    /**
+     * @param tiempoLimiteMs Tiempo máximo de cada sentencia en milisegundos; {@code 0} para no limitarlo.
+     */
+    public AmbitoCancelacion(long tiempoLimiteMs) {
+        this.tiempoLimiteMs = tiempoLimiteMs;
+    }
+
+    private static ScheduledThreadPoolExecutor crearPlanificador() {
+        ScheduledThreadPoolExecutor planificador = new ScheduledThreadPoolExecutor(1, tarea -> {
+            Thread hilo = new Thread(tarea, "cancelacion-consultas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        planificador.setRemoveOnCancelPolicy(true);
+        return planificador;
+    }
+
+    /**
+     * @return El ámbito activo en el hilo actual, o {@code null} si no hay ninguno.
+     */
+    public static AmbitoCancelacion actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Activa el ámbito en el hilo actual; puede estar activo en otros a la vez. Las conexiones
+     * obtenidas a partir de ahora en este hilo quedan asociadas a él.
+     */
+    public void activar() {
+        ACTUAL.set(this);
+    }
+
+    /**
+     * Desactiva el ámbito del hilo actual.
+     */
+    public void desactivar() {
+        ACTUAL.remove();
+    }
+
+    /**
+     * Cancela las sentencias en curso, si las hay, y hace fallar las siguientes. Se puede llamar
+     * desde cualquier hilo y no bloquea.
+     */
+    public void cancelar() {
+        List<Statement> sentencias;
+        synchronized (this) {
+            if (cancelado) {
+                return;
+            }
+            cancelado = true;
+            sentencias = new ArrayList<>(enCurso);
+        }
+        for (Statement sentencia : sentencias) {
+            PLANIFICADOR.execute(() -> cancelarSentencia(sentencia));
+        }
+    }
+
+    public synchronized boolean isCancelado() {
+        return cancelado;
+    }
+
+    /**
+     * @return {@code true} si alguna sentencia del ámbito se canceló por superar el tiempo límite.
+     */
+    public boolean isTiempoAgotado() {
+        return tiempoAgotado;
+    }
+
+    public long getTiempoLimiteMs() {
+        return tiempoLimiteMs;
+    }
+
+    /**
+     * Registra una sentencia que está por ejecutarse y programa su tiempo límite.
+     *
+     * @return El vencimiento programado, que se entrega a {@link #terminar}; {@code null} si no hay límite.
+     * @throws SQLException Si el ámbito ya fue cancelado.
+     */
+    ScheduledFuture<?> iniciar(Statement sentencia) throws SQLException {
+        synchronized (this) {
+            if (cancelado) {
+                throw new SQLException("La consulta fue cancelada.", SQLSTATE_CANCELADA);
+            }
+            enCurso.add(sentencia);
+        }
+        if (tiempoLimiteMs <= 0) {
+            return null;
+        }
+        return PLANIFICADOR.schedule(() -> {
+            synchronized (this) {
+                if (!enCurso.contains(sentencia)) {
+                    return;
+                }
+            }
+            tiempoAgotado = true;
+            cancelarSentencia(sentencia);
+        }, tiempoLimiteMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Quita el registro de una sentencia que terminó y anula su tiempo límite.
+     *
+     * @param error La excepción con la que terminó la sentencia, o {@code null} si terminó bien.
+     * @return La excepción a relanzar: una {@link SQLTimeoutException} si la sentencia se canceló
+     *         por tiempo, o {@code error} sin cambios.
+     */
+    SQLException terminar(Statement sentencia, ScheduledFuture<?> vencimiento, SQLException error) {
+        if (vencimiento != null) {
+            vencimiento.cancel(false);
+        }
+        synchronized (this) {
+            enCurso.remove(sentencia);
+        }
+        if (error != null && tiempoAgotado && SQLSTATE_CANCELADA.equals(error.getSQLState())) {
+            return new SQLTimeoutException(String.format("La consulta superó el tiempo límite de %d ms.", tiempoLimiteMs),
+                    SQLSTATE_CANCELADA, error);
+        }
+        return error;
+    }
+
+    private static void cancelarSentencia(Statement sentencia) {
+        try {
+            sentencia.cancel();
+        } catch (SQLException e) {
+            // La sentencia pudo terminar o cerrarse entre tanto; no hay nada que cancelar.
+            LOGGER.log(Level.FINE, "No se pudo cancelar la consulta en curso", e);
+        }
+    }
+}
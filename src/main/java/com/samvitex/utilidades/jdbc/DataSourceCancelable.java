@@ -0,0 +1,97 @@
+package com.samvitex.utilidades.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * {@link DataSource} que asocia las conexiones a un {@link AmbitoCancelacion}.
+ * <p>
+ * Fuera de un ámbito entrega las conexiones del pool sin cambios, de modo que el resto de la
+ * aplicación no paga nada. Dentro de uno, la conexión y sus sentencias se envuelven para que cada
+ * {@code execute*} se registre en el ámbito mientras dura: es lo que permite cancelarla desde otro
+ * hilo o por tiempo límite.
+ */
+public class DataSourceCancelable extends DelegatingDataSource {
+
+    public DataSourceCancelable(DataSource destino) {
+        super(destino);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return envolver(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return envolver(super.getConnection(username, password));
+    }
+
+    private static Connection envolver(Connection conexion) {
+        AmbitoCancelacion ambito = AmbitoCancelacion.actual();
+        if (ambito == null) {
+            return conexion;
+        }
+        return (Connection) Proxy.newProxyInstance(DataSourceCancelable.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConexionCancelable(conexion, ambito));
+    }
+
+    private static Object invocar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConexionCancelable(Connection conexion, AmbitoCancelacion ambito) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            Object resultado = invocar(conexion, metodo, args);
+            Class<?> tipo = switch (metodo.getName()) {
+                case "createStatement" -> Statement.class;
+                case "prepareStatement" -> PreparedStatement.class;
+                case "prepareCall" -> CallableStatement.class;
+                default -> null;
+            };
+            if (tipo == null) {
+                return resultado;
+            }
+            return Proxy.newProxyInstance(DataSourceCancelable.class.getClassLoader(),
+                    new Class<?>[]{tipo}, new SentenciaCancelable((Statement) resultado, ambito));
+        }
+    }
+
+    private record SentenciaCancelable(Statement sentencia, AmbitoCancelacion ambito) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            if (!metodo.getName().startsWith("execute")) {
+                return invocar(sentencia, metodo, args);
+            }
+            ScheduledFuture<?> vencimiento = ambito.iniciar(sentencia);
+            try {
+                Object resultado = invocar(sentencia, metodo, args);
+                ambito.terminar(sentencia, vencimiento, null);
+                return resultado;
+            } catch (SQLException e) {
+                throw ambito.terminar(sentencia, vencimiento, e);
+            } catch (Throwable e) {
+                ambito.terminar(sentencia, vencimiento, null);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.samvitex.utilidades.swing;
+
+import com.samvitex.utilidades.jdbc.AmbitoCancelacion;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.swing.SwingUtilities;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ejecutor compartido para el trabajo en segundo plano de la interfaz (presentadores y vistas).
+ * Reemplaza a los {@code SwingWorker} escritos a mano en cada presentador:
+ * <ul>
+ *   <li>Propaga la {@link Authentication} del hilo que solicita la tarea (el EDT) al hilo que la
+ *       ejecuta, y la limpia al terminar, para que los servicios con {@code @PreAuthorize}
+ *       funcionen.</li>
+ *   <li>Ordena la cola por {@link Prioridad}: una búsqueda o la carga de una página no espera
+ *       detrás de los listados completos o las exportaciones.</li>
+ *   <li>Con {@link #ejecutarUltima} solo vale la última tarea de cada tipo: la anterior se cancela
+ *       de punta a punta (se interrumpe el hilo y se aborta en el servidor la consulta en curso)
+ *       y su resultado se descarta, de modo que una respuesta vieja nunca pisa a una nueva. Estas
+ *       tareas tienen además un tiempo límite por consulta ({@link #configurarTiemposLimite}).</li>
+ *   <li>Mide la espera en cola y la ejecución de cada tarea, acumuladas por tipo
+ *       ({@link #obtenerEstadisticas()}).</li>
+ * </ul>
+ * Los callbacks de resultado y de error se invocan en el EDT, y nunca para una tarea cancelada.
+ * <p>
+ * El número de hilos es fijo y menor que el pool de conexiones: casi todas las tareas consultan la
+ * base de datos, y más hilos solo harían esperar por una conexión en lugar de en la cola, donde
+ * la prioridad sí se respeta.
+ */
+public final class EjecutorTareasUI {
+
+    private static final Logger LOGGER = Logger.getLogger(EjecutorTareasUI.class.getName());
+
+    private static final int HILOS = 6;
+    /** Las tareas que tardan más que esto (espera más ejecución) se registran en el log. */
+    private static final long UMBRAL_TAREA_LENTA_MS = 1_000;
+
+    /**
+     * Prioridad de una tarea en la cola. Las tareas de igual prioridad se atienden en orden de llegada.
+     */
+    public enum Prioridad {
+        /** El usuario espera el resultado: búsquedas, selección, paginación, guardar. */
+        INTERACTIVA,
+        /** Cargas de datos al abrir un panel o refrescarlo. */
+        NORMAL,
+        /** Trabajo largo que el usuario no espera en el momento: exportaciones, listados completos. */
+        SEGUNDO_PLANO
+    }
+
+    /**
+     * Tiempos acumulados de un tipo de tarea.
+     *
+     * @param ejecuciones Tareas terminadas (con éxito o error; las canceladas antes de empezar no cuentan).
+     * @param esperaPromedioMs Tiempo promedio en cola.
+     * @param ejecucionPromedioMs Tiempo promedio de ejecución.
+     * @param ejecucionMaximaMs Ejecución más larga.
+     */
+    public record EstadisticaTarea(long ejecuciones, long esperaPromedioMs, long ejecucionPromedioMs, long ejecucionMaximaMs) {
+    }
+
+    private static final AtomicLong SECUENCIA = new AtomicLong();
+    private static final AtomicInteger NUMERO_HILO = new AtomicInteger();
+    private static final ThreadPoolExecutor EJECUTOR = new ThreadPoolExecutor(HILOS, HILOS, 0, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(),
+            tarea -> {
+                Thread hilo = new Thread(tarea, "ui-tarea-" + NUMERO_HILO.incrementAndGet());
+                hilo.setDaemon(true);
+                return hilo;
+            });
+
+    /** La última tarea de cada tipo lanzada con {@link #ejecutarUltima}. */
+    private static final Map<String, TareaUI<?>> ULTIMAS = new ConcurrentHashMap<>();
+    private static final Map<String, Acumulado> ESTADISTICAS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<TareaUI<?>> TAREA_ACTUAL = new ThreadLocal<>();
+    private static volatile ToLongFunction<String> tiemposLimite = tipo -> 0;
+
+    private EjecutorTareasUI() {
+    }
+
+    /**
+     * Ejecuta una tarea en segundo plano.
+     *
+     * @param tipo Nombre del tipo de tarea, para las estadísticas (p. ej. {@code "inventario.productos"}).
+     * @param prioridad La prioridad en la cola.
+     * @param trabajo El trabajo; se ejecuta con la autenticación del hilo que llama.
+     * @param alTerminar Recibe el resultado en el EDT.
+     * @param alFallar Recibe la excepción en el EDT. Si el trabajo lanzó un {@link Error}, llega
+     *                 envuelto en una {@link ExecutionException}.
+     * @return La tarea, para cancelarla.
+     */
+    public static <T> TareaUI<T> ejecutar(String tipo, Prioridad prioridad, Callable<T> trabajo,
+                                          Consumer<? super T> alTerminar, Consumer<Exception> alFallar) {
+        TareaUI<T> tarea = new TareaUI<>(tipo, prioridad, null, null, trabajo, alTerminar, alFallar);
+        EJECUTOR.execute(tarea);
+        return tarea;
+    }
+
+    /**
+     * Igual que {@link #ejecutar}, pero cancela la tarea anterior del mismo tipo que siga en cola o
+     * en curso. Si ya había empezado, se interrumpe su hilo y se cancela en el servidor la consulta
+     * que esté ejecutando; su transacción se revierte. Por eso solo debe usarse para lecturas.
+     * <p>
+     * Cada consulta de la tarea se cancela también si supera el tiempo límite configurado para su
+     * tipo; la tarea falla entonces con una {@link TimeoutException}.
+     */
+    public static <T> TareaUI<T> ejecutarUltima(String tipo, Prioridad prioridad, Callable<T> trabajo,
+                                                Consumer<? super T> alTerminar, Consumer<Exception> alFallar) {
+        AmbitoCancelacion ambito = new AmbitoCancelacion(tiemposLimite.applyAsLong(tipo));
+        TareaUI<T> tarea = new TareaUI<>(tipo, prioridad, tipo, ambito, trabajo, alTerminar, alFallar);
+        TareaUI<?> anterior = ULTIMAS.put(tipo, tarea);
+        if (anterior != null) {
+            anterior.cancel(true);
+        }
+        EJECUTOR.execute(tarea);
+        return tarea;
+    }
+
+    /**
+     * Establece el tiempo límite por consulta de las tareas de {@link #ejecutarUltima}.
+     *
+     * @param porTipo Recibe el tipo de tarea y devuelve el límite en milisegundos, o {@code 0} para no limitarla.
+     */
+    public static void configurarTiemposLimite(ToLongFunction<String> porTipo) {
+        tiemposLimite = porTipo;
+    }
+
+    /**
+     * Indica si la tarea que se está ejecutando en el hilo actual fue cancelada, para que un trabajo
+     * largo pueda detenerse antes. Fuera de una tarea devuelve {@code false}.
+     */
+    public static boolean canceladaActual() {
+        TareaUI<?> tarea = TAREA_ACTUAL.get();
+        return tarea != null && tarea.isCancelled();
+    }
+
+    /**
+     * @return Los tiempos acumulados por tipo de tarea desde que arrancó la aplicación.
+     */
+    public static Map<String, EstadisticaTarea> obtenerEstadisticas() {
+        Map<String, EstadisticaTarea> resultado = new TreeMap<>();
+        ESTADISTICAS.forEach((tipo, acumulado) -> resultado.put(tipo, acumulado.resumen()));
+        return resultado;
+    }
+
+    /**
+     * Una tarea encolada. Solo se cancela desde fuera; el resto lo maneja el ejecutor.
+     */
+    public static final class TareaUI<T> extends FutureTask<T> implements Comparable<TareaUI<?>> {
+
+        private final String tipo;
+        private final Prioridad prioridad;
+        private final String claveUltima;
+        private final AmbitoCancelacion ambito;
+        private final long secuencia = SECUENCIA.incrementAndGet();
+        private final long encolada = System.nanoTime();
+        private final Consumer<? super T> alTerminar;
+        private final Consumer<Exception> alFallar;
+        private volatile long iniciada;
+
+        private TareaUI(String tipo, Prioridad prioridad, String claveUltima, AmbitoCancelacion ambito, Callable<T> trabajo,
+                        Consumer<? super T> alTerminar, Consumer<Exception> alFallar) {
+            super(envolver(trabajo, SecurityContextHolder.getContext().getAuthentication(), ambito));
+            this.tipo = tipo;
+            this.prioridad = prioridad;
+            this.claveUltima = claveUltima;
+            this.ambito = ambito;
+            this.alTerminar = alTerminar;
+            this.alFallar = alFallar;
+        }
+
+        private static <T> Callable<T> envolver(Callable<T> trabajo, Authentication authentication, AmbitoCancelacion ambito) {
+            return () -> {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (ambito != null) {
+                    ambito.activar();
+                }
+                try {
+                    return trabajo.call();
+                } catch (Exception e) {
+                    if (ambito != null && ambito.isTiempoAgotado()) {
+                        TimeoutException tiempoAgotado = new TimeoutException(
+                                String.format("La consulta superó el tiempo límite de %d ms.", ambito.getTiempoLimiteMs()));
+                        tiempoAgotado.initCause(e);
+                        throw tiempoAgotado;
+                    }
+                    throw e;
+                } finally {
+                    if (ambito != null) {
+                        ambito.desactivar();
+                    }
+                    SecurityContextHolder.clearContext();
+                }
+            };
+        }
+
+        /**
+         * Además de cancelar la tarea, cancela en el servidor la consulta que esté ejecutando.
+         */
+        @Override
+        public boolean cancel(boolean interrumpir) {
+            // Primero la consulta: al interrumpir, el hilo podría soltarla antes de que se cancele.
+            if (ambito != null && !isDone()) {
+                ambito.cancelar();
+            }
+            return super.cancel(interrumpir);
+        }
+
+        @Override
+        public void run() {
+            if (isDone()) {
+                return;
+            }
+            iniciada = System.nanoTime();
+            TAREA_ACTUAL.set(this);
+            try {
+                super.run();
+            } finally {
+                TAREA_ACTUAL.remove();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (claveUltima != null) {
+                ULTIMAS.remove(claveUltima, this);
+            }
+            if (iniciada != 0) {
+                registrarTiempos();
+            }
+            if (isCancelled()) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                // Se vuelve a comprobar: pudo llegar una tarea más nueva mientras esta esperaba al EDT.
+                if (claveUltima != null && ULTIMAS.containsKey(claveUltima)) {
+                    return;
+                }
+                T resultado;
+                try {
+                    resultado = get();
+                } catch (ExecutionException e) {
+                    alFallar.accept(e.getCause() instanceof Exception causa ? causa : e);
+                    return;
+                } catch (Exception e) {
+                    alFallar.accept(e);
+                    return;
+                }
+                alTerminar.accept(resultado);
+            });
+        }
+
+        private void registrarTiempos() {
+            long ahora = System.nanoTime();
+            long esperaMs = TimeUnit.NANOSECONDS.toMillis(iniciada - encolada);
+            long ejecucionMs = TimeUnit.NANOSECONDS.toMillis(ahora - iniciada);
+            ESTADISTICAS.computeIfAbsent(tipo, t -> new Acumulado()).registrar(esperaMs, ejecucionMs);
+            if (esperaMs + ejecucionMs >= UMBRAL_TAREA_LENTA_MS) {
+                LOGGER.info(String.format("Tarea %s lenta: %d ms en cola, %d ms de ejecución.", tipo, esperaMs, ejecucionMs));
+            } else if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(String.format("Tarea %s: %d ms en cola, %d ms de ejecución.", tipo, esperaMs, ejecucionMs));
+            }
+        }
+
+        @Override
+        public int compareTo(TareaUI<?> otra) {
+            int porPrioridad = prioridad.compareTo(otra.prioridad);
+            return porPrioridad != 0 ? porPrioridad : Long.compare(secuencia, otra.secuencia);
+        }
+    }
+
+    private static final class Acumulado {
+        final LongAdder ejecuciones = new LongAdder();
+        final LongAdder esperaTotalMs = new LongAdder();
+        final LongAdder ejecucionTotalMs = new LongAdder();
+        final LongAccumulator ejecucionMaximaMs = new LongAccumulator(Math::max, 0);
+
+        void registrar(long esperaMs, long ejecucionMs) {
+            ejecuciones.increment();
+            esperaTotalMs.add(esperaMs);
+            ejecucionTotalMs.add(ejecucionMs);
+            ejecucionMaximaMs.accumulate(ejecucionMs);
+        }
+
+        EstadisticaTarea resumen() {
+            long n = Math.max(1, ejecuciones.sum());
+            return new EstadisticaTarea(ejecuciones.sum(), esperaTotalMs.sum() / n,
+                    ejecucionTotalMs.sum() / n, ejecucionMaximaMs.get());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * V10: Instantáneas de Stock al Cierre de Cada Período
+ * ----------------------------------------------------
+ * 'cierres_stock' registra cada cierre (una fila por fecha de cierre) y
+ * 'stock_cierre' guarda, para ese instante, la cantidad y el valor a precio de
+ * costo de cada producto × almacén con stock distinto de cero. Un par que no
+ * aparece en un cierre registrado tenía stock cero.
+ *
+ * Los cierres son mensuales, al inicio de cada mes en la zona horaria de los
+ * reportes, y los genera ServicioCierreStock a partir del cierre anterior y de
+ * los movimientos del mes. El stock a cualquier fecha se obtiene partiendo del
+ * cierre más cercano anterior y leyendo solo los movimientos posteriores.
+ */
+
+CREATE TABLE cierres_stock (
+    fecha_cierre TIMESTAMP WITH TIME ZONE PRIMARY KEY,
+    fecha_generacion TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    filas INT NOT NULL
+);
+
+CREATE TABLE stock_cierre (
+    fecha_cierre TIMESTAMP WITH TIME ZONE NOT NULL REFERENCES cierres_stock(fecha_cierre) ON DELETE CASCADE,
+    producto_id INT NOT NULL REFERENCES productos(id) ON DELETE CASCADE,
+    almacen_id INT NOT NULL REFERENCES almacenes(id) ON DELETE CASCADE,
+    cantidad INT NOT NULL,
+    valor NUMERIC(14, 2) NOT NULL,
+    PRIMARY KEY (fecha_cierre, producto_id, almacen_id)
+);
+
+-- Saldo de un producto (en todos sus almacenes) a partir de un cierre.
+CREATE INDEX idx_stock_cierre_producto ON stock_cierre(producto_id, fecha_cierre);
+-- Saldo de todo un almacén a partir de un cierre.
+CREATE INDEX idx_stock_cierre_almacen ON stock_cierre(almacen_id, fecha_cierre);
@@ -0,0 +1,53 @@
+/**
+ * V11: Costo Promedio Ponderado por Producto × Almacén
+ * ---------------------------------------------------
+ * Hasta ahora el inventario y el costo de lo vendido se valoraban con
+ * 'productos.precio_costo', que cada compra sobrescribe con su último costo.
+ * Este cambio mantiene un costo promedio ponderado perpetuo en cada fila de
+ * 'inventario_por_almacen':
+ *   - Cada ingreso lo actualiza en la misma sentencia atómica que suma el stock:
+ *       nuevo = (cantidad * costo_promedio + ingreso * costo_ingreso) / (cantidad + ingreso)
+ *   - Las salidas no lo modifican; salen al costo promedio vigente, que queda
+ *     registrado en 'ventas_detalle.costo_unitario' (costo de lo vendido) y en
+ *     'ordenes_produccion_detalle.costo_unitario' (costo de los insumos).
+ * El valor del inventario pasa a ser SUM(cantidad * costo_promedio).
+ *
+ * Los datos existentes parten del precio de costo actual de cada producto, que
+ * es el mismo valor con el que ya se habían calculado los resúmenes.
+ */
+
+ALTER TABLE inventario_por_almacen ADD COLUMN costo_promedio NUMERIC(14, 4) NOT NULL DEFAULT 0;
+
+UPDATE inventario_por_almacen ipa
+SET costo_promedio = p.precio_costo
+FROM productos p
+WHERE p.id = ipa.producto_id;
+
+ALTER TABLE ventas_detalle ADD COLUMN costo_unitario NUMERIC(14, 4);
+
+UPDATE ventas_detalle vd
+SET costo_unitario = p.precio_costo
+FROM productos p
+WHERE p.id = vd.producto_id;
+
+ALTER TABLE ventas_detalle ALTER COLUMN costo_unitario SET NOT NULL;
+
+-- Se asigna al iniciar la producción (insumos) y al finalizarla (productos finales).
+ALTER TABLE ordenes_produccion_detalle ADD COLUMN costo_unitario NUMERIC(14, 4);
+
+UPDATE ordenes_produccion_detalle d
+SET costo_unitario = p.precio_costo
+FROM productos p, ordenes_produccion o
+WHERE p.id = d.producto_id
+  AND o.id = d.orden_produccion_id
+  AND o.estado IN ('EN_PRODUCCION', 'CONTROL_CALIDAD', 'COMPLETADA');
+
+-- El resumen de stock pasa a valorarse con el costo promedio de cada almacén.
+UPDATE producto_stock_resumen r
+SET valor_stock = x.valor
+FROM (
+    SELECT producto_id, SUM(cantidad * costo_promedio) AS valor
+    FROM inventario_por_almacen
+    GROUP BY producto_id
+) x
+WHERE x.producto_id = r.producto_id;
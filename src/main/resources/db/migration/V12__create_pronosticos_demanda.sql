@@ -0,0 +1,24 @@
+/**
+ * V12: Pronósticos de Demanda para Sugerencias de Reabastecimiento
+ * ---------------------------------------------------------------
+ * Tabla 'pronosticos_demanda' con una fila por producto × almacén con ventas
+ * recientes: la demanda diaria pronosticada (suavizamiento exponencial sobre
+ * las ventas diarias de 'ventas_resumen_diario'), la desviación de ese
+ * pronóstico y, derivados de ambos, el punto de reorden y el stock objetivo.
+ *
+ * La recalcula por completo ServicioReabastecimiento en un proceso nocturno.
+ * Las sugerencias de compra se obtienen al consultarla junto con el stock
+ * actual de 'inventario_por_almacen', por lo que una compra registrada después
+ * del cálculo deja de sugerirse de inmediato.
+ */
+
+CREATE TABLE pronosticos_demanda (
+    producto_id INT NOT NULL REFERENCES productos(id) ON DELETE CASCADE,
+    almacen_id INT NOT NULL REFERENCES almacenes(id) ON DELETE CASCADE,
+    demanda_diaria NUMERIC(12, 4) NOT NULL,
+    desviacion_diaria NUMERIC(12, 4) NOT NULL,
+    punto_reorden INT NOT NULL,
+    stock_objetivo INT NOT NULL,
+    fecha_calculo TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (producto_id, almacen_id)
+);
@@ -0,0 +1,35 @@
+/**
+ * V13: Valor Confiable en los Cierres y Fecha de Movimiento Asignada por la BD
+ * --------------------------------------------------------------------------
+ * 1. Cada fila de 'stock_cierre' guarda el costo unitario con el que se valoró.
+ *    Ese costo es el costo promedio vigente al generar el cierre, por lo que solo
+ *    vale si el cierre se generó poco después de su fecha. 'cierres_stock.valorado'
+ *    indica qué cierres cumplen esa condición. Los demás (por ejemplo, todos los
+ *    que se generaron de una vez al arrancar por primera vez) guardan solo
+ *    cantidades, con 'valor' y 'costo_unitario' en NULL.
+ *
+ * 2. 'movimientos_inventario.fecha_movimiento' la asigna la base de datos con
+ *    clock_timestamp() al insertar la fila, en lugar del reloj de cada terminal.
+ *    El movimiento se inserta mientras la transacción tiene bloqueada la fila de
+ *    'inventario_por_almacen', así que, para un mismo producto × almacén, el
+ *    orden por fecha es el orden en que se aplicaron los cambios de stock, en
+ *    todas las terminales. Las consultas de "último movimiento" (cierres, stock
+ *    a una fecha) dependen de ese orden. Las fechas ya registradas no cambian.
+ */
+
+ALTER TABLE cierres_stock ADD COLUMN valorado BOOLEAN NOT NULL DEFAULT FALSE;
+
+ALTER TABLE stock_cierre ADD COLUMN costo_unitario NUMERIC(14, 4);
+ALTER TABLE stock_cierre ALTER COLUMN valor DROP NOT NULL;
+
+-- Los cierres existentes se valoraron con el costo del momento de generarlos.
+-- Solo se conserva el valor de los generados en los dos días siguientes al cierre.
+UPDATE cierres_stock SET valorado = (fecha_generacion < fecha_cierre + INTERVAL '2 days');
+
+UPDATE stock_cierre s
+SET costo_unitario = CASE WHEN c.valorado THEN s.valor / s.cantidad END,
+    valor = CASE WHEN c.valorado THEN s.valor END
+FROM cierres_stock c
+WHERE c.fecha_cierre = s.fecha_cierre;
+
+ALTER TABLE movimientos_inventario ALTER COLUMN fecha_movimiento SET DEFAULT clock_timestamp();
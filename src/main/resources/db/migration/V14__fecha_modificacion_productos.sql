@@ -0,0 +1,24 @@
+/**
+ * V14: Fecha de Modificación de Productos Mantenida por la BD
+ * ----------------------------------------------------------
+ * ServicioIndiceProductos recarga cada minuto, en el índice de búsqueda en
+ * memoria de cada terminal, los productos creados o modificados desde la última
+ * recarga, incluidos los de otras terminales. Para eso necesita una fecha de
+ * modificación confiable en 'productos'. La aplicación no la asignaba, así que
+ * la asigna un trigger en cada INSERT y UPDATE con el reloj del servidor, igual
+ * para todas las terminales.
+ */
+
+CREATE OR REPLACE FUNCTION marcar_modificacion_producto() RETURNS TRIGGER
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.fecha_modificacion := clock_timestamp();
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_productos_fecha_modificacion
+    BEFORE INSERT OR UPDATE ON productos
+    FOR EACH ROW EXECUTE FUNCTION marcar_modificacion_producto();
+
+CREATE INDEX idx_productos_fecha_modificacion ON productos(fecha_modificacion);
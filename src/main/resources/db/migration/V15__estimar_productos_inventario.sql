@@ -0,0 +1,36 @@
+/**
+ * V15: Conteo Estimado de la Grilla de Inventario
+ * -----------------------------------------------
+ * La grilla de inventario muestra el catálogo filtrado como una tabla virtual
+ * y necesita un número de filas para dimensionarla. Contarlas de forma exacta
+ * obliga a recorrer todos los productos que coinciden con el filtro en cada
+ * cambio de búsqueda.
+ *
+ * Esta función devuelve, en su lugar, las filas que el planificador estima
+ * para la misma consulta de la grilla (productos activos cuyo nombre o SKU
+ * contiene cada palabra del texto), leyendo el plan de EXPLAIN sin ejecutarla.
+ * Las palabras se incorporan con format('%L'), de modo que el texto del
+ * usuario nunca se interpreta como SQL. Los predicados deben coincidir con
+ * los de ServicioInventario.especificacionInventario.
+ */
+
+CREATE OR REPLACE FUNCTION estimar_productos_inventario(texto TEXT)
+    RETURNS BIGINT
+    LANGUAGE plpgsql STABLE
+AS $$
+DECLARE
+    consulta TEXT := 'SELECT 1 FROM productos p WHERE p.activo';
+    palabra TEXT;
+    plan JSON;
+BEGIN
+    FOR palabra IN
+        SELECT p FROM regexp_split_to_table(btrim(COALESCE(texto, '')), '\s+') AS p WHERE p <> ''
+    LOOP
+        consulta := consulta || format(
+            ' AND (f_unaccent(lower(p.nombre)) LIKE f_unaccent(%1$L) OR f_unaccent(lower(p.sku)) LIKE f_unaccent(%1$L))',
+            '%' || lower(palabra) || '%');
+    END LOOP;
+    EXECUTE 'EXPLAIN (FORMAT JSON) ' || consulta INTO plan;
+    RETURN CAST(plan -> 0 -> 'Plan' ->> 'Plan Rows' AS NUMERIC);
+END;
+$$;
@@ -0,0 +1,33 @@
+/**
+ * V3: Proyección de Stock por Producto para KPIs del Dashboard
+ * ------------------------------------------------------------
+ * Tabla 'producto_stock_resumen' con una fila por producto que precalcula el
+ * stock total (suma de todos los almacenes), el valor de ese stock a precio de
+ * costo y la bandera de stock bajo. Es mantenida en la misma transacción por
+ * los servicios que mueven stock (ventas, compras, producción) y puede
+ * reconstruirse por completo desde 'inventario_por_almacen'.
+ */
+
+CREATE TABLE producto_stock_resumen (
+    producto_id INT PRIMARY KEY REFERENCES productos(id) ON DELETE CASCADE,
+    stock_total BIGINT NOT NULL DEFAULT 0,
+    valor_stock NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    stock_bajo BOOLEAN NOT NULL DEFAULT FALSE,
+    activo BOOLEAN NOT NULL DEFAULT TRUE,
+    fecha_actualizacion TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Índice parcial: el conteo de productos con stock bajo solo recorre las filas marcadas.
+CREATE INDEX idx_stock_resumen_bajo ON producto_stock_resumen(producto_id) WHERE stock_bajo AND activo;
+
+-- Carga inicial a partir del inventario existente.
+INSERT INTO producto_stock_resumen (producto_id, stock_total, valor_stock, stock_bajo, activo, fecha_actualizacion)
+SELECT p.id,
+       COALESCE(SUM(ipa.cantidad), 0),
+       p.precio_costo * COALESCE(SUM(ipa.cantidad), 0),
+       COUNT(ipa.id) > 0 AND SUM(ipa.cantidad) <= p.stock_minimo,
+       p.activo,
+       CURRENT_TIMESTAMP
+FROM productos p
+LEFT JOIN inventario_por_almacen ipa ON ipa.producto_id = p.id
+GROUP BY p.id;
@@ -0,0 +1,33 @@
+/**
+ * V4: Secuencias con Asignación en Bloques para Transacciones
+ * ----------------------------------------------------------
+ * Las entidades de ventas, compras, producción y sus movimientos de inventario
+ * pasan de GenerationType.IDENTITY a secuencias con el optimizador 'pooled' de
+ * Hibernate (allocationSize = 50). Con IDENTITY, Hibernate debe ejecutar cada
+ * INSERT de inmediato para conocer el ID y no puede agruparlos en lotes JDBC.
+ *
+ * Se reutilizan las secuencias creadas por BIGSERIAL: solo cambia su incremento.
+ * Con 'pooled', cada nextval reserva el rango (valor - 49, valor], por lo que se
+ * adelanta la secuencia para que ese rango nunca alcance IDs ya existentes.
+ * El DEFAULT de las columnas se mantiene, de modo que los INSERT manuales siguen funcionando.
+ */
+
+DO $$
+DECLARE
+    tabla TEXT;
+    secuencia TEXT;
+    maximo BIGINT;
+BEGIN
+    FOREACH tabla IN ARRAY ARRAY[
+        'ventas', 'ventas_detalle',
+        'compras', 'compras_detalle',
+        'ordenes_produccion', 'ordenes_produccion_detalle',
+        'movimientos_inventario'
+    ] LOOP
+        secuencia := pg_get_serial_sequence(tabla, 'id');
+        EXECUTE format('SELECT GREATEST(COALESCE(MAX(id), 0), (SELECT last_value FROM %s), 1) FROM %I', secuencia, tabla)
+            INTO maximo;
+        EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', secuencia);
+        PERFORM setval(secuencia, maximo, true);
+    END LOOP;
+END $$;
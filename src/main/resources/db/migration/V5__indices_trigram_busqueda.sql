@@ -0,0 +1,31 @@
+/**
+ * V5: Índices Trigram para Búsquedas por Subcadena sin Acentos
+ * ------------------------------------------------------------
+ * Las búsquedas de productos y clientes filtran con
+ * f_unaccent(lower(columna)) LIKE '%termino%'. Un índice B-tree no puede
+ * atender un LIKE con comodín inicial, por lo que cada búsqueda recorría la
+ * tabla completa. Los índices GIN con operadores de trigramas (pg_trgm) sí
+ * pueden resolver esos LIKE.
+ *
+ * unaccent() está declarada STABLE (depende del search_path para ubicar su
+ * diccionario) y no puede usarse en un índice de expresión. f_unaccent fija
+ * el diccionario de forma explícita y por eso puede declararse IMMUTABLE.
+ * Las consultas deben usar exactamente la misma expresión que el índice.
+ */
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE OR REPLACE FUNCTION f_unaccent(TEXT)
+    RETURNS TEXT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$;
+
+CREATE INDEX idx_productos_nombre_trgm ON productos USING gin (f_unaccent(lower(nombre)) gin_trgm_ops);
+CREATE INDEX idx_productos_sku_trgm ON productos USING gin (f_unaccent(lower(sku)) gin_trgm_ops);
+
+-- La búsqueda de clientes combina todos estos campos con OR: basta un campo sin
+-- índice para que el planificador vuelva al recorrido secuencial.
+CREATE INDEX idx_clientes_nombre_trgm ON clientes USING gin (f_unaccent(lower(nombre_completo)) gin_trgm_ops);
+CREATE INDEX idx_clientes_dni_ruc_trgm ON clientes USING gin (f_unaccent(lower(dni_ruc)) gin_trgm_ops);
+CREATE INDEX idx_clientes_email_trgm ON clientes USING gin (f_unaccent(lower(email)) gin_trgm_ops);
+CREATE INDEX idx_clientes_telefono_trgm ON clientes USING gin (f_unaccent(lower(telefono)) gin_trgm_ops);
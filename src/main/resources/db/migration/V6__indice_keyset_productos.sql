@@ -0,0 +1,10 @@
+/**
+ * V6: Índice para Paginación por Keyset de la Grilla de Inventario
+ * ----------------------------------------------------------------
+ * La grilla de inventario pagina productos activos ordenados por (nombre, id)
+ * buscando a partir del último producto visto, en lugar de usar OFFSET.
+ * Este índice parcial permite a PostgreSQL posicionarse directamente en el
+ * punto de continuación y leer solo las filas de la página.
+ */
+
+CREATE INDEX idx_productos_activos_nombre_id ON productos(nombre, id) WHERE activo;
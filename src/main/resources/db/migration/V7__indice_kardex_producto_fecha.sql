@@ -0,0 +1,11 @@
+/**
+ * V7: Índice para el Reporte de Kardex por Producto
+ * -------------------------------------------------
+ * El Kardex de un producto recorre sus movimientos de todos los almacenes en orden
+ * (fecha_movimiento, id). El índice existente empieza por (producto_id, almacen_id),
+ * por lo que obliga a ordenar todo el período en memoria antes de devolver la primera fila.
+ * Con este índice el reporte se lee en orden directamente, tanto al recorrerlo con un
+ * cursor como al cargar una página a partir de su (fecha, id) inicial.
+ */
+
+CREATE INDEX idx_movimientos_producto_fecha_id ON movimientos_inventario(producto_id, fecha_movimiento, id);
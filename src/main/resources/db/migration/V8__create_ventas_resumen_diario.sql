@@ -0,0 +1,35 @@
+/**
+ * V8: Resumen Diario de Ventas para el Reporte "Ventas por Producto"
+ * -----------------------------------------------------------------
+ * Tabla 'ventas_resumen_diario' con una fila por día × producto × almacén:
+ * unidades vendidas, ingresos (subtotal de línea) y costo al precio de costo
+ * vigente al momento de la venta. Los días se cuentan en la zona horaria
+ * configurada en 'samvitex.reportes.zona-horaria'.
+ *
+ * La mantiene ServicioResumenVentas en la misma transacción que registra cada
+ * venta. El reporte lee los días completos de aquí y solo recorre las líneas de
+ * 'ventas_detalle' de los días parciales en los bordes del rango.
+ */
+
+CREATE TABLE ventas_resumen_diario (
+    dia DATE NOT NULL,
+    producto_id INT NOT NULL REFERENCES productos(id) ON DELETE CASCADE,
+    almacen_id INT NOT NULL REFERENCES almacenes(id) ON DELETE CASCADE,
+    unidades BIGINT NOT NULL DEFAULT 0,
+    ingresos NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    costo NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (dia, producto_id, almacen_id)
+);
+
+-- Carga inicial a partir del historial existente.
+INSERT INTO ventas_resumen_diario (dia, producto_id, almacen_id, unidades, ingresos, costo)
+SELECT CAST(v.fecha_venta AT TIME ZONE '${zona_horaria}' AS DATE),
+       vd.producto_id,
+       v.almacen_origen_id,
+       SUM(vd.cantidad),
+       SUM(vd.subtotal_linea),
+       SUM(p.precio_costo * vd.cantidad)
+FROM ventas_detalle vd
+JOIN ventas v ON v.id = vd.venta_id
+JOIN productos p ON p.id = vd.producto_id
+GROUP BY 1, 2, 3;
@@ -0,0 +1,131 @@
+/**
+ * V9: Particionamiento Mensual de 'movimientos_inventario'
+ * -------------------------------------------------------
+ * El Kardex es de solo inserción y crece con cada línea de venta, compra y
+ * producción. Se convierte en una tabla particionada por rango mensual sobre
+ * 'fecha_movimiento' (meses calendario en UTC), de modo que:
+ *   - Las consultas acotadas por fecha (Kardex, saldo anterior) solo recorren
+ *     las particiones del período (poda de particiones).
+ *   - VACUUM y el mantenimiento de índices trabajan sobre particiones pequeñas;
+ *     las de meses cerrados dejan de recibir escrituras.
+ *   - Los meses antiguos se pueden archivar sin bloquear la aplicación con:
+ *       ALTER TABLE movimientos_inventario
+ *           DETACH PARTITION movimientos_inventario_2023_01 CONCURRENTLY;
+ *     (ver ServicioParticionesMovimientos#desacoplarParticion). No se crea una
+ *     partición DEFAULT porque impediría el DETACH ... CONCURRENTLY.
+ *
+ * La función crear_particiones_movimientos(n) crea las particiones del mes
+ * actual y los n siguientes; la aplicación la invoca al arrancar y cada día.
+ *
+ * La clave primaria pasa a ser (id, fecha_movimiento), porque en una tabla
+ * particionada debe incluir la columna de partición. El ID sigue saliendo de
+ * la misma secuencia, por lo que sigue siendo único.
+ *
+ * La conversión copia las filas existentes una sola vez dentro de esta migración.
+ */
+
+-- 1. Apartar la tabla actual, liberando los nombres de su secuencia e índices.
+ALTER TABLE movimientos_inventario RENAME TO movimientos_inventario_anterior;
+ALTER TABLE movimientos_inventario_anterior ALTER COLUMN id DROP DEFAULT;
+ALTER SEQUENCE movimientos_inventario_id_seq OWNED BY NONE;
+ALTER INDEX movimientos_inventario_pkey RENAME TO movimientos_inventario_anterior_pkey;
+DROP INDEX idx_movimientos_producto_almacen_fecha;
+DROP INDEX idx_movimientos_producto_fecha_id;
+
+-- 2. Tabla particionada con la misma estructura.
+CREATE TABLE movimientos_inventario (
+    id BIGINT NOT NULL DEFAULT nextval('movimientos_inventario_id_seq'),
+    producto_id INT NOT NULL REFERENCES productos(id) ON DELETE RESTRICT,
+    almacen_id INT NOT NULL REFERENCES almacenes(id) ON DELETE RESTRICT,
+    usuario_id INT NOT NULL REFERENCES usuarios(id) ON DELETE RESTRICT,
+    tipo TIPO_MOVIMIENTO NOT NULL,
+    cantidad_movida INT NOT NULL,
+    stock_anterior INT NOT NULL CHECK (stock_anterior >= 0),
+    stock_nuevo INT NOT NULL CHECK (stock_nuevo >= 0),
+    fecha_movimiento TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    notas TEXT,
+    venta_id BIGINT REFERENCES ventas(id) ON DELETE SET NULL,
+    compra_id BIGINT REFERENCES compras(id) ON DELETE SET NULL,
+    orden_produccion_id BIGINT REFERENCES ordenes_produccion(id) ON DELETE SET NULL,
+    CONSTRAINT chk_movimiento_origen
+        CHECK (
+            (CASE WHEN venta_id IS NOT NULL THEN 1 ELSE 0 END) +
+            (CASE WHEN compra_id IS NOT NULL THEN 1 ELSE 0 END) +
+            (CASE WHEN orden_produccion_id IS NOT NULL THEN 1 ELSE 0 END)
+            <= 1
+        ),
+    PRIMARY KEY (id, fecha_movimiento)
+) PARTITION BY RANGE (fecha_movimiento);
+
+ALTER SEQUENCE movimientos_inventario_id_seq OWNED BY movimientos_inventario.id;
+
+-- Índices particionados: cada partición recibe el suyo automáticamente.
+CREATE INDEX idx_movimientos_producto_almacen_fecha ON movimientos_inventario(producto_id, almacen_id, fecha_movimiento);
+CREATE INDEX idx_movimientos_producto_fecha_id ON movimientos_inventario(producto_id, fecha_movimiento, id);
+
+-- 3. Creación de particiones.
+CREATE OR REPLACE FUNCTION crear_particion_movimientos(mes DATE) RETURNS BOOLEAN
+LANGUAGE plpgsql AS $$
+DECLARE
+    desde TIMESTAMP WITH TIME ZONE := date_trunc('month', mes)::timestamp AT TIME ZONE 'UTC';
+    hasta TIMESTAMP WITH TIME ZONE := (date_trunc('month', mes) + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+    nombre TEXT := 'movimientos_inventario_' || to_char(mes, 'YYYY_MM');
+BEGIN
+    IF to_regclass(nombre) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF movimientos_inventario FOR VALUES FROM (%L) TO (%L)',
+                   nombre, desde, hasta);
+    RETURN TRUE;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION crear_particiones_movimientos(meses_adelante INT) RETURNS INT
+LANGUAGE plpgsql AS $$
+DECLARE
+    mes_actual DATE := date_trunc('month', CURRENT_TIMESTAMP AT TIME ZONE 'UTC')::date;
+    creadas INT := 0;
+BEGIN
+    -- Varias terminales pueden invocarla a la vez al arrancar.
+    PERFORM pg_advisory_xact_lock(hashtext('crear_particiones_movimientos'));
+    FOR i IN 0..meses_adelante LOOP
+        IF crear_particion_movimientos((mes_actual + make_interval(months => i))::date) THEN
+            creadas := creadas + 1;
+        END IF;
+    END LOOP;
+    RETURN creadas;
+END;
+$$;
+
+-- 4. Particiones para el historial existente y los próximos meses.
+DO $$
+DECLARE
+    primer_mes DATE;
+    mes DATE;
+BEGIN
+    SELECT date_trunc('month', MIN(fecha_movimiento) AT TIME ZONE 'UTC')::date
+    INTO primer_mes
+    FROM movimientos_inventario_anterior;
+
+    IF primer_mes IS NOT NULL THEN
+        mes := primer_mes;
+        WHILE mes < date_trunc('month', CURRENT_TIMESTAMP AT TIME ZONE 'UTC')::date LOOP
+            PERFORM crear_particion_movimientos(mes);
+            mes := (mes + INTERVAL '1 month')::date;
+        END LOOP;
+    END IF;
+END;
+$$;
+
+SELECT crear_particiones_movimientos(3);
+
+-- 5. Copiar el historial y eliminar la tabla anterior.
+INSERT INTO movimientos_inventario (id, producto_id, almacen_id, usuario_id, tipo, cantidad_movida, stock_anterior,
+                                    stock_nuevo, fecha_movimiento, notas, venta_id, compra_id, orden_produccion_id)
+SELECT id, producto_id, almacen_id, usuario_id, tipo, cantidad_movida, stock_anterior,
+       stock_nuevo, fecha_movimiento, notas, venta_id, compra_id, orden_produccion_id
+FROM movimientos_inventario_anterior;
+
+DROP TABLE movimientos_inventario_anterior;
+
+ANALYZE movimientos_inventario;
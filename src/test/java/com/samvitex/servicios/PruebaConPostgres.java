@@ -0,0 +1,63 @@
+package com.samvitex.servicios;
+
+import com.samvitex.app.AplicacionPrincipal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ContextConfiguration;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base de las pruebas que cuentan las sentencias JDBC de los servicios contra un PostgreSQL real.
+ * <p>
+ * Las consultas usan {@code f_unaccent}, los índices trigram y las funciones de las migraciones
+ * de Flyway, que no existen en una base embebida; por eso cada contexto se conecta a un
+ * PostgreSQL en Docker, migrado con las mismas migraciones y datos de siembra (V2) que la
+ * aplicación. Sin Docker las pruebas se omiten.
+ * <p>
+ * El contenedor se comparte entre todas las clases de prueba y lo detiene Testcontainers al
+ * terminar la JVM. Cada prueba corre en una transacción que se revierte al final.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = AplicacionPrincipal.class)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class PruebaConPostgres {
+
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @Autowired
+    protected EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Ejecuta una operación y cuenta las sentencias JDBC que prepara, es decir, los viajes a la
+     * base de datos. Un lote de inserciones cuenta como una sola sentencia.
+     * <p>
+     * Antes de medir se escriben los cambios pendientes y se vacía el contexto de persistencia,
+     * para que la operación no encuentre entidades ya cargadas; al terminar se escriben sus
+     * cambios, para contar también las inserciones que Hibernate difiere hasta el flush.
+     */
+    protected long contarSentencias(Runnable operacion) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        operacion.run();
+        entityManager.flush();
+        return estadisticas.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,70 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.BloqueProductos;
+import com.samvitex.modelos.dto.CursorProducto;
+import com.samvitex.modelos.dto.ProductoInventarioDTO;
+import com.samvitex.modelos.entidades.Producto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sentencias que emite la grilla de inventario al cargar un bloque. Un bloque debe costar un
+ * número fijo de consultas, sin importar cuántos productos tenga: los productos con su categoría
+ * y proveedor, y el desglose de stock de todo el bloque. Si vuelve la consulta por producto
+ * (problema N+1), el conteo crece con el tamaño del bloque.
+ * <p>
+ * Usa los 100 productos con stock de la siembra de V2.
+ */
+@Import({ServicioInventario.class, ServicioResumenStock.class, ServicioIndiceProductos.class, ServicioCacheEscaneo.class})
+class ServicioInventarioTest extends PruebaConPostgres {
+
+    @Autowired
+    private ServicioInventario servicioInventario;
+
+    @Test
+    void cargarUnBloqueCuestaDosConsultasSinImportarSuTamano() {
+        assertThat(sentenciasAlCargar(null, 0, 10)).isEqualTo(2);
+        assertThat(sentenciasAlCargar(null, 0, 50)).isEqualTo(2);
+    }
+
+    @Test
+    void elBloqueSiguienteDesdeUnCorteCuestaLasMismasDosConsultas() {
+        List<ProductoInventarioDTO> primero = servicioInventario.cargarBloqueProductos(null, null, null, 0, 50).productos();
+        Producto ultimo = primero.get(primero.size() - 1).producto();
+
+        assertThat(sentenciasAlCargar(new CursorProducto(ultimo.getNombre(), ultimo.getId()), 0, 50)).isEqualTo(2);
+    }
+
+    @Test
+    void saltarAUnBloqueLejanoSoloAgregaLaConsultaDelCorte() {
+        assertThat(sentenciasAlCargar(null, 50, 50)).isEqualTo(3);
+    }
+
+    /**
+     * Carga un bloque sobre todo el catálogo y lee de cada fila lo que muestra la tabla, para que
+     * una relación sin inicializar también cuente como consulta.
+     */
+    private long sentenciasAlCargar(CursorProducto desde, int saltar, int tamano) {
+        AtomicReference<BloqueProductos> bloque = new AtomicReference<>();
+        long sentencias = contarSentencias(() -> {
+            bloque.set(servicioInventario.cargarBloqueProductos(null, null, desde, saltar, tamano));
+            for (ProductoInventarioDTO fila : bloque.get().productos()) {
+                Producto producto = fila.producto();
+                if (producto.getCategoria() != null) {
+                    producto.getCategoria().getNombre();
+                }
+                if (producto.getProveedor() != null) {
+                    producto.getProveedor().getNombre();
+                }
+            }
+        });
+        assertThat(bloque.get().productos()).hasSize(tamano);
+        return sentencias;
+    }
+}
@@ -0,0 +1,96 @@
+package com.samvitex.servicios;
+
+import com.samvitex.modelos.dto.VentaItemDTO;
+import com.samvitex.modelos.entidades.Almacen;
+import com.samvitex.modelos.entidades.Cliente;
+import com.samvitex.repositorios.AlmacenRepositorio;
+import com.samvitex.repositorios.ClienteRepositorio;
+import com.samvitex.repositorios.InventarioPorAlmacenRepositorio;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Viajes a la base de datos al registrar una venta, con y sin lotes de inserción.
+ * <p>
+ * Con IDs de secuencia y {@code hibernate.jdbc.batch_size}, el detalle y los movimientos de todas
+ * las líneas se insertan en un lote por tabla, así que cada línea adicional solo agrega su
+ * descuento atómico de stock. Sin lotes, cada línea agrega además sus dos inserciones (la venta
+ * de N líneas hacía 1 + 2N inserciones). La prueba mide ambos casos en la misma sesión, desactivando
+ * los lotes con {@link Session#setJdbcBatchSize(Integer)}, y deja las cifras en el log.
+ */
+@Import({ServicioVentas.class, ServicioStock.class, ServicioResumenStock.class, ServicioResumenVentas.class,
+        ServicioCacheReportes.class, ServicioCacheEscaneo.class, ServicioEventos.class})
+class ServicioVentasTest extends PruebaConPostgres {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioVentasTest.class.getName());
+
+    /**
+     * Líneas de la venta grande. Todas las ventas de la prueba deben caber en un bloque de las
+     * secuencias (allocationSize 50), para que ninguna medición incluya un {@code nextval}.
+     */
+    private static final int LINEAS = 20;
+
+    @Autowired
+    private ServicioVentas servicioVentas;
+
+    @Autowired
+    private AlmacenRepositorio almacenRepositorio;
+
+    @Autowired
+    private ClienteRepositorio clienteRepositorio;
+
+    @Autowired
+    private InventarioPorAlmacenRepositorio inventarioPorAlmacenRepositorio;
+
+    private Almacen almacen;
+    private Cliente cliente;
+    private List<Integer> productoIds;
+
+    @BeforeEach
+    void cargarDatosDeSiembra() {
+        almacen = almacenRepositorio.findByActivoTrueOrderByIdAsc().get(0);
+        cliente = clienteRepositorio.findByActivoTrueOrderByIdAsc().get(0);
+        productoIds = inventarioPorAlmacenRepositorio.findVendiblesPorAlmacen(almacen.getId()).stream()
+                .filter(inventario -> inventario.getCantidad() >= 5)
+                .map(inventario -> inventario.getProducto().getId())
+                .limit(LINEAS)
+                .toList();
+        assertThat(productoIds).hasSize(LINEAS);
+    }
+
+    @Test
+    void cadaLineaAdicionalSoloAgregaSuDescuentoDeStock() {
+        // Reserva el bloque de IDs de cada secuencia antes de medir.
+        registrarVenta(1);
+
+        long conLotesUnaLinea = contarSentencias(() -> registrarVenta(1));
+        long conLotesVariasLineas = contarSentencias(() -> registrarVenta(LINEAS));
+
+        Session sesion = entityManager.unwrap(Session.class);
+        sesion.setJdbcBatchSize(1);
+        long sinLotesUnaLinea = contarSentencias(() -> registrarVenta(1));
+        long sinLotesVariasLineas = contarSentencias(() -> registrarVenta(LINEAS));
+        sesion.setJdbcBatchSize(null);
+
+        LOGGER.info(String.format("Sentencias por venta de 1 y %d líneas: %d y %d sin lotes, %d y %d con lotes.",
+                LINEAS, sinLotesUnaLinea, sinLotesVariasLineas, conLotesUnaLinea, conLotesVariasLineas));
+
+        assertThat(conLotesVariasLineas - conLotesUnaLinea).isEqualTo(LINEAS - 1);
+        assertThat(sinLotesVariasLineas - sinLotesUnaLinea).isEqualTo(3L * (LINEAS - 1));
+    }
+
+    private void registrarVenta(int lineas) {
+        List<VentaItemDTO> items = productoIds.subList(0, lineas).stream()
+                .map(productoId -> new VentaItemDTO(productoId, 1))
+                .toList();
+        servicioVentas.crearVenta(cliente, almacen, "admin", items);
+    }
+}